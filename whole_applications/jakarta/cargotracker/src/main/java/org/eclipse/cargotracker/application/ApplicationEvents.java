@@ -1,5 +1,6 @@
 package org.eclipse.cargotracker.application;
 
+import java.util.List;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
 import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
@@ -19,4 +20,13 @@ public interface ApplicationEvents {
   void cargoHasArrived(Cargo cargo);
 
   void receivedHandlingEventRegistrationAttempt(HandlingEventRegistrationAttempt attempt);
+
+  /** Passes on several registration attempts, to be registered together. */
+  void receivedHandlingEventRegistrationAttempts(List<HandlingEventRegistrationAttempt> attempts);
+
+  /**
+   * @return True if registration attempts are being received faster than they are registered, and
+   *     senders should back off.
+   */
+  boolean isHandlingEventRegistrationBacklogged();
 }
@@ -1,6 +1,7 @@
 package org.eclipse.cargotracker.application;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
@@ -8,6 +9,7 @@ import org.eclipse.cargotracker.domain.model.handling.CannotCreateHandlingEventE
 import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
 import org.eclipse.cargotracker.domain.model.location.UnLocode;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
+import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
 
 public interface HandlingEventService {
 
@@ -22,4 +24,14 @@ public interface HandlingEventService {
       @NotNull(message = "Location is required.") @Valid UnLocode unLocode,
       @NotNull(message = "Type is required.") HandlingEvent.Type type)
       throws CannotCreateHandlingEventException;
+
+  /**
+   * Registers several handling events in a single transaction. Attempts that can't be registered
+   * are skipped without affecting the others, and interested parties are notified once per cargo.
+   *
+   * @return The number of handling events registered.
+   */
+  int registerHandlingEvents(
+      @NotNull(message = "Registration attempts are required.")
+          List<HandlingEventRegistrationAttempt> attempts);
 }
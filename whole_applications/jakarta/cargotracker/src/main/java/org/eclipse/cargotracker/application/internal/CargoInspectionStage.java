@@ -0,0 +1,84 @@
+package org.eclipse.cargotracker.application.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.eclipse.cargotracker.application.CargoInspectionService;
+import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
+
+/**
+ * Runs cargo inspections partitioned by cargo over a fixed number of lanes, each a single thread.
+ * Inspections of one cargo always run on the same lane, one after the other, so handling events of
+ * a cargo are applied in order and never race to update its delivery.
+ *
+ * <p>Inspections of a cargo requested while one is already waiting in its lane share that one,
+ * since it will apply the latest handling event anyway. The delivery stored with the cargo is the
+ * checkpoint, recording the last event applied, so nothing has to be replayed after a restart.
+ */
+@ApplicationScoped
+public class CargoInspectionStage {
+
+  @Inject Logger logger;
+
+  @Inject CargoInspectionService cargoInspectionService;
+
+  @Resource(lookup = "java:app/configuration/CargoInspectionLanes")
+  Integer laneCount;
+
+  @Resource ManagedThreadFactory threadFactory;
+
+  private ExecutorService[] lanes;
+  private final ConcurrentHashMap<TrackingId, CompletableFuture<Void>> waiting =
+      new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    lanes = new ExecutorService[laneCount];
+
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+  }
+
+  /** @return Completes once the cargo has been inspected, or with the failure of the inspection. */
+  public CompletableFuture<Void> inspect(TrackingId trackingId) {
+    CompletableFuture<Void> inspection = new CompletableFuture<>();
+    CompletableFuture<Void> alreadyWaiting = waiting.putIfAbsent(trackingId, inspection);
+
+    if (alreadyWaiting != null) {
+      logger.log(Level.FINEST, "Inspection of cargo {0} already waiting", trackingId);
+      return alreadyWaiting;
+    }
+
+    lanes[Math.floorMod(trackingId.hashCode(), lanes.length)].execute(
+        () -> {
+          // Once started, this inspection may miss newer events, which need one of their own.
+          waiting.remove(trackingId, inspection);
+
+          try {
+            cargoInspectionService.inspectCargo(trackingId);
+            inspection.complete(null);
+          } catch (RuntimeException e) {
+            inspection.completeExceptionally(e);
+          }
+        });
+
+    return inspection;
+  }
+}
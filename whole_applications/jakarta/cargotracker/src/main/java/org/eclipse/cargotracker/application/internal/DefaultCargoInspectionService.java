@@ -9,6 +9,7 @@ import org.eclipse.cargotracker.application.CargoInspectionService;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.cargo.CargoRepository;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
+import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEventRepository;
 import org.eclipse.cargotracker.domain.model.handling.HandlingHistory;
 
@@ -29,10 +30,19 @@ public class DefaultCargoInspectionService implements CargoInspectionService {
       return;
     }
 
-    HandlingHistory handlingHistory =
-        handlingEventRepository.lookupHandlingHistoryOfCargo(trackingId);
-
-    cargo.deriveDeliveryProgress(handlingHistory);
+    // The delivery only depends on the most recently completed event, so there is no need to
+    // load the whole handling history unless the stored delivery is ahead of it.
+    HandlingEvent lastEvent =
+        handlingEventRepository.lookupMostRecentHandlingEventOfCargo(trackingId);
+
+    if (lastEvent == null) {
+      cargo.deriveDeliveryProgress(HandlingHistory.EMPTY);
+    } else if (!cargo.deriveDeliveryProgress(lastEvent)) {
+      logger.log(
+          Level.FINE, "Replaying handling history of cargo {0}, events out of order", trackingId);
+      cargo.deriveDeliveryProgress(
+          handlingEventRepository.lookupHandlingHistoryOfCargo(trackingId));
+    }
 
     if (cargo.getDelivery().isMisdirected()) {
       applicationEvents.cargoWasMisdirected(cargo);
@@ -1,6 +1,10 @@
 package org.eclipse.cargotracker.application.internal;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
@@ -13,6 +17,7 @@ import org.eclipse.cargotracker.domain.model.handling.HandlingEventFactory;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEventRepository;
 import org.eclipse.cargotracker.domain.model.location.UnLocode;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
+import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
 
 @Stateless
 public class DefaultHandlingEventService implements HandlingEventService {
@@ -22,6 +27,20 @@ public class DefaultHandlingEventService implements HandlingEventService {
   @Inject private HandlingEventFactory handlingEventFactory;
   @Inject private Logger logger;
 
+  public DefaultHandlingEventService() {}
+
+  /** For tests, outside the container. */
+  DefaultHandlingEventService(
+      ApplicationEvents applicationEvents,
+      HandlingEventRepository handlingEventRepository,
+      HandlingEventFactory handlingEventFactory,
+      Logger logger) {
+    this.applicationEvents = applicationEvents;
+    this.handlingEventRepository = handlingEventRepository;
+    this.handlingEventFactory = handlingEventFactory;
+    this.logger = logger;
+  }
+
   @Override
   public void registerHandlingEvent(
       LocalDateTime completionTime,
@@ -53,4 +72,52 @@ public class DefaultHandlingEventService implements HandlingEventService {
 
     logger.info("Registered handling event");
   }
+
+  @Override
+  public int registerHandlingEvents(List<HandlingEventRegistrationAttempt> attempts) {
+    LocalDateTime registrationTime = LocalDateTime.now();
+    // Only the most recent event of each cargo needs to be published, cargo inspection looks up
+    // the latest handling anyway.
+    Map<TrackingId, HandlingEvent> lastEvents = new LinkedHashMap<>();
+    int registered = 0;
+
+    for (HandlingEventRegistrationAttempt attempt : attempts) {
+      HandlingEvent event;
+
+      try {
+        // The factory is not an EJB, so a failure here doesn't roll back the other attempts. Unknown
+        // voyages and locations surface as a NoResultException from the repositories, which
+        // doesn't mark the transaction for rollback either.
+        event =
+            handlingEventFactory.createHandlingEvent(
+                registrationTime,
+                attempt.getCompletionTime(),
+                attempt.getTrackingId(),
+                attempt.getVoyageNumber(),
+                attempt.getUnLocode(),
+                attempt.getType());
+      } catch (CannotCreateHandlingEventException | RuntimeException e) {
+        logger.log(Level.WARNING, "Rejected handling event registration attempt " + attempt, e);
+        continue;
+      }
+
+      handlingEventRepository.store(event);
+      registered++;
+
+      HandlingEvent lastEvent = lastEvents.get(attempt.getTrackingId());
+      if (lastEvent == null
+          || !event.getCompletionTime().isBefore(lastEvent.getCompletionTime())) {
+        lastEvents.put(attempt.getTrackingId(), event);
+      }
+    }
+
+    lastEvents.values().forEach(applicationEvents::cargoWasHandled);
+
+    logger.log(
+        Level.INFO,
+        "Registered {0} of {1} handling events",
+        new Object[] {registered, attempts.size()});
+
+    return registered;
+  }
 }
@@ -52,6 +52,9 @@ import org.eclipse.cargotracker.domain.shared.DomainObjectUtils;
  */
 @Entity
 @NamedQuery(name = "Cargo.findAll", query = "Select c from Cargo c")
+@NamedQuery(
+    name = "Cargo.findAllTrackingIds",
+    query = "Select c.trackingId.id from Cargo c order by c.trackingId.id")
 @NamedQuery(
     name = "Cargo.findByTrackingId",
     query = "Select c from Cargo c where c.trackingId = :trackingId")
@@ -158,6 +161,28 @@ public class Cargo implements Serializable {
     this.delivery = Delivery.derivedFrom(getRouteSpecification(), getItinerary(), handlingHistory);
   }
 
+  /**
+   * Updates the delivery progress with a single handling event, without replaying the handling
+   * history. The cost does not depend on how many times the cargo has been handled.
+   *
+   * @param handlingEvent a handling event of this cargo
+   * @return False if the event was completed before the last event the delivery is based on, in
+   *     which case the delivery is left unchanged and must be derived from the complete handling
+   *     history instead.
+   */
+  public boolean deriveDeliveryProgress(HandlingEvent handlingEvent) {
+    Validate.notNull(handlingEvent, "Handling event is required.");
+    Validate.isTrue(equals(handlingEvent.getCargo()), "Handling event is of another cargo.");
+
+    if (delivery.precedesLastEvent(handlingEvent)) {
+      return false;
+    }
+
+    this.delivery =
+        delivery.updateOnHandling(handlingEvent, getRouteSpecification(), getItinerary());
+    return true;
+  }
+
   /**
    * @param object to compare
    * @return True if they have the same identity
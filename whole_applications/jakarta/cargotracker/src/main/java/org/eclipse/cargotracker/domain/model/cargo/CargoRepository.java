@@ -1,6 +1,7 @@
 package org.eclipse.cargotracker.domain.model.cargo;
 
 import java.util.List;
+import org.eclipse.cargotracker.domain.shared.Specification;
 
 public interface CargoRepository {
 
@@ -8,6 +9,25 @@ public interface CargoRepository {
 
   List<Cargo> findAll();
 
+  /**
+   * Finds the cargo satisfying the specification. As much of it as can be translated is queried in
+   * the database, and only the rest is checked in memory.
+   */
+  List<Cargo> findSatisfying(Specification<Cargo> specification);
+
+  /**
+   * Finds one page of cargo summaries, ordered by tracking ID. Pages are keyed on the last tracking
+   * ID of the previous page, so each is read straight from the index regardless of its position.
+   *
+   * @param after the last tracking ID of the previous page, or null for the first page
+   */
+  List<CargoSummary> findSummaries(
+      CargoSummary.Filter filter, TrackingId after, boolean descending, int limit);
+
+  long count(CargoSummary.Filter filter);
+
+  List<TrackingId> findAllTrackingIds();
+
   void store(Cargo cargo);
 
   TrackingId nextTrackingId();
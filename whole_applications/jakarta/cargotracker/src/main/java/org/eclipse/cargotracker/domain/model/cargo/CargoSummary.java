@@ -0,0 +1,121 @@
+package org.eclipse.cargotracker.domain.model.cargo;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import org.eclipse.cargotracker.domain.model.location.Location;
+
+/**
+ * A read-only summary of a cargo for listings, selected directly from the columns it needs rather
+ * than loading the cargo aggregate with its itinerary and delivery.
+ */
+public class CargoSummary implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The cargo included in a listing. */
+  public enum Filter {
+    ALL,
+    NOT_ROUTED,
+    ROUTED_UNCLAIMED,
+    CLAIMED
+  }
+
+  private final String trackingId;
+  private final String originUnLocode;
+  private final String originName;
+  private final String destinationUnLocode;
+  private final String destinationName;
+  private final String lastKnownLocationUnLocode;
+  private final String lastKnownLocationName;
+  private final TransportStatus transportStatus;
+  private final RoutingStatus routingStatus;
+  private final LocalDate arrivalDeadline;
+
+  /** Used by the constructor expression of the summary query. */
+  public CargoSummary(
+      String trackingId,
+      String originUnLocode,
+      String originName,
+      String destinationUnLocode,
+      String destinationName,
+      String lastKnownLocationUnLocode,
+      String lastKnownLocationName,
+      TransportStatus transportStatus,
+      RoutingStatus routingStatus,
+      LocalDate arrivalDeadline) {
+    this.trackingId = trackingId;
+    this.originUnLocode = originUnLocode;
+    this.originName = originName;
+    this.destinationUnLocode = destinationUnLocode;
+    this.destinationName = destinationName;
+
+    if (lastKnownLocationUnLocode == null) {
+      this.lastKnownLocationUnLocode = Location.UNKNOWN.getUnLocode().getIdString();
+      this.lastKnownLocationName = Location.UNKNOWN.getName();
+    } else {
+      this.lastKnownLocationUnLocode = lastKnownLocationUnLocode;
+      this.lastKnownLocationName = lastKnownLocationName;
+    }
+
+    this.transportStatus = transportStatus;
+    this.routingStatus = routingStatus;
+    this.arrivalDeadline = arrivalDeadline;
+  }
+
+  public String getTrackingId() {
+    return trackingId;
+  }
+
+  public String getOriginUnLocode() {
+    return originUnLocode;
+  }
+
+  public String getOriginName() {
+    return originName;
+  }
+
+  public String getDestinationUnLocode() {
+    return destinationUnLocode;
+  }
+
+  public String getDestinationName() {
+    return destinationName;
+  }
+
+  public String getLastKnownLocationUnLocode() {
+    return lastKnownLocationUnLocode;
+  }
+
+  public String getLastKnownLocationName() {
+    return lastKnownLocationName;
+  }
+
+  public TransportStatus getTransportStatus() {
+    return transportStatus;
+  }
+
+  public RoutingStatus getRoutingStatus() {
+    return routingStatus;
+  }
+
+  public LocalDate getArrivalDeadline() {
+    return arrivalDeadline;
+  }
+
+  public boolean isRouted() {
+    return !routingStatus.sameValueAs(RoutingStatus.NOT_ROUTED);
+  }
+
+  public boolean isMisrouted() {
+    return routingStatus.sameValueAs(RoutingStatus.MISROUTED);
+  }
+
+  public boolean isClaimed() {
+    return transportStatus.sameValueAs(TransportStatus.CLAIMED);
+  }
+
+  @Override
+  public String toString() {
+    return trackingId;
+  }
+}
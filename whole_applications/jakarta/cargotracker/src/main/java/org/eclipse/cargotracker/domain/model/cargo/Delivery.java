@@ -130,6 +130,26 @@ public class Delivery implements Serializable {
     return new Delivery(this.lastEvent, itinerary, routeSpecification);
   }
 
+  /**
+   * Creates a new delivery snapshot to reflect a handling event, without replaying the handling
+   * history. A delivery only depends on the most recently completed event, so applying events in
+   * completion order gives the same result as {@link #derivedFrom}.
+   */
+  Delivery updateOnHandling(
+      HandlingEvent handlingEvent, RouteSpecification routeSpecification, Itinerary itinerary) {
+    Validate.notNull(handlingEvent, "Handling event is required");
+    Validate.notNull(routeSpecification, "Route specification is required");
+    Validate.isTrue(!precedesLastEvent(handlingEvent), "Handling event is out of order");
+
+    return new Delivery(handlingEvent, itinerary, routeSpecification);
+  }
+
+  /** @return True if the event was completed before the last event this delivery is based on. */
+  boolean precedesLastEvent(HandlingEvent handlingEvent) {
+    return lastEvent != null
+        && handlingEvent.getCompletionTime().isBefore(lastEvent.getCompletionTime());
+  }
+
   public TransportStatus getTransportStatus() {
     return transportStatus;
   }
@@ -0,0 +1,28 @@
+package org.eclipse.cargotracker.domain.model.cargo;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.apache.commons.lang3.Validate;
+import org.eclipse.cargotracker.domain.shared.AbstractSpecification;
+
+/** Cargo with the given routing status. Translates into a query on the delivery. */
+public class RoutingStatusSpecification extends AbstractSpecification<Cargo> {
+
+  private final RoutingStatus routingStatus;
+
+  public RoutingStatusSpecification(RoutingStatus routingStatus) {
+    Validate.notNull(routingStatus, "Routing status is required");
+    this.routingStatus = routingStatus;
+  }
+
+  @Override
+  public boolean isSatisfiedBy(Cargo cargo) {
+    return cargo.getDelivery().getRoutingStatus().sameValueAs(routingStatus);
+  }
+
+  @Override
+  public Predicate toPredicate(Root<Cargo> cargo, CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder.equal(cargo.get("delivery").get("routingStatus"), routingStatus);
+  }
+}
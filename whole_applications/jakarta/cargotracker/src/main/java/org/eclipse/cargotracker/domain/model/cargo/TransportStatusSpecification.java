@@ -0,0 +1,28 @@
+package org.eclipse.cargotracker.domain.model.cargo;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.apache.commons.lang3.Validate;
+import org.eclipse.cargotracker.domain.shared.AbstractSpecification;
+
+/** Cargo with the given transport status. Translates into a query on the delivery. */
+public class TransportStatusSpecification extends AbstractSpecification<Cargo> {
+
+  private final TransportStatus transportStatus;
+
+  public TransportStatusSpecification(TransportStatus transportStatus) {
+    Validate.notNull(transportStatus, "Transport status is required");
+    this.transportStatus = transportStatus;
+  }
+
+  @Override
+  public boolean isSatisfiedBy(Cargo cargo) {
+    return cargo.getDelivery().getTransportStatus().sameValueAs(transportStatus);
+  }
+
+  @Override
+  public Predicate toPredicate(Root<Cargo> cargo, CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder.equal(cargo.get("delivery").get("transportStatus"), transportStatus);
+  }
+}
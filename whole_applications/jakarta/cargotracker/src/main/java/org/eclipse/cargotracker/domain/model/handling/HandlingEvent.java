@@ -9,9 +9,11 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQuery;
+import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.lang3.Validate;
@@ -39,9 +41,15 @@ import org.eclipse.cargotracker.domain.shared.DomainObjectUtils;
  * <p>All other events must be of {@link Type#RECEIVE}, {@link Type#CLAIM} or {@link Type#CUSTOMS}.
  */
 @Entity
+@Table(indexes = @Index(columnList = "cargo_id, completionTime"))
 @NamedQuery(
     name = "HandlingEvent.findByTrackingId",
     query = "Select e from HandlingEvent e where e.cargo.trackingId = :trackingId")
+@NamedQuery(
+    name = "HandlingEvent.findMostRecentByTrackingId",
+    query =
+        "Select e from HandlingEvent e where e.cargo.trackingId = :trackingId"
+            + " order by e.completionTime desc, e.registrationTime desc")
 public class HandlingEvent implements Serializable {
 
   private static final long serialVersionUID = 1L;
@@ -7,4 +7,7 @@ public interface HandlingEventRepository {
   void store(HandlingEvent event);
 
   HandlingHistory lookupHandlingHistoryOfCargo(TrackingId trackingId);
+
+  /** @return The most recently completed handling event of the cargo, or null if there is none. */
+  HandlingEvent lookupMostRecentHandlingEventOfCargo(TrackingId trackingId);
 }
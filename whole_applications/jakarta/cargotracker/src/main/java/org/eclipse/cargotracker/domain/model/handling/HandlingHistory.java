@@ -41,13 +41,16 @@ public class HandlingHistory {
 
   /** @return Most recently completed event, or null if the delivery history is empty. */
   public HandlingEvent getMostRecentlyCompletedEvent() {
-    List<HandlingEvent> distinctEvents = getDistinctEventsByCompletionTime();
+    // Duplicates don't matter here, so a single pass is enough.
+    HandlingEvent mostRecent = null;
 
-    if (distinctEvents.isEmpty()) {
-      return null;
-    } else {
-      return distinctEvents.get(distinctEvents.size() - 1);
+    for (HandlingEvent event : handlingEvents) {
+      if (mostRecent == null || BY_COMPLETION_TIME_COMPARATOR.compare(event, mostRecent) >= 0) {
+        mostRecent = event;
+      }
     }
+
+    return mostRecent;
   }
 
   private boolean sameValueAs(HandlingHistory other) {
@@ -21,6 +21,9 @@ import org.apache.commons.lang3.Validate;
 @NamedQuery(
     name = "Location.findByUnLocode",
     query = "Select l from Location l where l.unLocode = :unLocode")
+@NamedQuery(
+    name = "Location.findByUnLocodes",
+    query = "Select l from Location l where l.unLocode.unlocode in :unLocodes")
 public class Location implements Serializable {
 
   private static final long serialVersionUID = 1L;
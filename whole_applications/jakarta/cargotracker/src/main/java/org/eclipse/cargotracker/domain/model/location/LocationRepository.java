@@ -1,10 +1,14 @@
 package org.eclipse.cargotracker.domain.model.location;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface LocationRepository {
 
   Location find(UnLocode unLocode);
 
+  /** Finds all of the given locations with a single query, skipping any that don't exist. */
+  List<Location> find(Collection<UnLocode> unLocodes);
+
   List<Location> findAll();
 }
@@ -17,6 +17,9 @@ import org.eclipse.cargotracker.domain.model.location.Location;
 @NamedQuery(
     name = "Voyage.findByVoyageNumber",
     query = "Select v from Voyage v where v.voyageNumber = :voyageNumber")
+@NamedQuery(
+    name = "Voyage.findByVoyageNumbers",
+    query = "Select v from Voyage v where v.voyageNumber.number in :voyageNumbers")
 @NamedQuery(name = "Voyage.findAll", query = "Select v from Voyage v order by v.voyageNumber")
 public class Voyage implements Serializable {
   private static final long serialVersionUID = 1L;
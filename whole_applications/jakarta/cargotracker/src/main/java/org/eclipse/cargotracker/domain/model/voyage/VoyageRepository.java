@@ -1,10 +1,14 @@
 package org.eclipse.cargotracker.domain.model.voyage;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VoyageRepository {
 
   Voyage find(VoyageNumber voyageNumber);
 
+  /** Finds all of the given voyages with a single query, skipping any that don't exist. */
+  List<Voyage> find(Collection<VoyageNumber> voyageNumbers);
+
   List<Voyage> findAll();
 }
@@ -1,5 +1,9 @@
 package org.eclipse.cargotracker.domain.shared;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
 /**
  * AND specification, used to create a new specification that is the AND of two other
  * specifications.
@@ -25,4 +29,36 @@ public class AndSpecification<T> extends AbstractSpecification<T> {
   public boolean isSatisfiedBy(T t) {
     return spec1.isSatisfiedBy(t) && spec2.isSatisfiedBy(t);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public Predicate toPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    Predicate predicate1 = spec1.toPredicate(root, criteriaBuilder);
+    Predicate predicate2 = spec2.toPredicate(root, criteriaBuilder);
+
+    if (predicate1 == null || predicate2 == null) {
+      return null;
+    }
+
+    return criteriaBuilder.and(predicate1, predicate2);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Either side narrows the selection on its own, so whatever can be translated is used.
+   */
+  @Override
+  public Predicate toNarrowingPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    Predicate predicate1 = spec1.toNarrowingPredicate(root, criteriaBuilder);
+    Predicate predicate2 = spec2.toNarrowingPredicate(root, criteriaBuilder);
+
+    if (predicate1 == null) {
+      return predicate2;
+    } else if (predicate2 == null) {
+      return predicate1;
+    }
+
+    return criteriaBuilder.and(predicate1, predicate2);
+  }
 }
@@ -1,5 +1,9 @@
 package org.eclipse.cargotracker.domain.shared;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
 /** NOT decorator, used to create a new specifcation that is the inverse (NOT) of the given spec. */
 public class NotSpecification<T> extends AbstractSpecification<T> {
 
@@ -19,4 +23,22 @@ public class NotSpecification<T> extends AbstractSpecification<T> {
   public boolean isSatisfiedBy(T t) {
     return !spec1.isSatisfiedBy(t);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public Predicate toPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    Predicate predicate = spec1.toPredicate(root, criteriaBuilder);
+    return predicate == null ? null : criteriaBuilder.not(predicate);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The inverse of a selection that is too wide would be too narrow, so only an exact
+   * translation is used.
+   */
+  @Override
+  public Predicate toNarrowingPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    return toPredicate(root, criteriaBuilder);
+  }
 }
@@ -1,5 +1,9 @@
 package org.eclipse.cargotracker.domain.shared;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
 /**
  * OR specification, used to create a new specification that is the OR of two other specifications.
  */
@@ -24,4 +28,34 @@ public class OrSpecification<T> extends AbstractSpecification<T> {
   public boolean isSatisfiedBy(T t) {
     return spec1.isSatisfiedBy(t) || spec2.isSatisfiedBy(t);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public Predicate toPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    Predicate predicate1 = spec1.toPredicate(root, criteriaBuilder);
+    Predicate predicate2 = spec2.toPredicate(root, criteriaBuilder);
+
+    if (predicate1 == null || predicate2 == null) {
+      return null;
+    }
+
+    return criteriaBuilder.or(predicate1, predicate2);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Only narrows the selection if both sides do.
+   */
+  @Override
+  public Predicate toNarrowingPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    Predicate predicate1 = spec1.toNarrowingPredicate(root, criteriaBuilder);
+    Predicate predicate2 = spec2.toNarrowingPredicate(root, criteriaBuilder);
+
+    if (predicate1 == null || predicate2 == null) {
+      return null;
+    }
+
+    return criteriaBuilder.or(predicate1, predicate2);
+  }
 }
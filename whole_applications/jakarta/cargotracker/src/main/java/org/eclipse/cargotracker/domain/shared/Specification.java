@@ -1,10 +1,18 @@
 package org.eclipse.cargotracker.domain.shared;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
 /**
  * Specification interface.
  *
  * <p>Use {@link AbstractSpecification} as base for creating specifications, and only the method
  * {@link #isSatisfiedBy(Object)} must be implemented.
+ *
+ * <p>Specifications of entities can also implement {@link #toPredicate(Root, CriteriaBuilder)}, so
+ * that repositories can select the objects satisfying them in the database instead of loading them
+ * all to check in memory.
  */
 public interface Specification<T> {
 
@@ -41,4 +49,29 @@ public interface Specification<T> {
    * @return A new specification.
    */
   Specification<T> not(Specification<T> specification);
+
+  /**
+   * Translate the specification into a JPA Criteria predicate, selecting exactly the objects that
+   * satisfy it.
+   *
+   * @param root Root of the query.
+   * @param criteriaBuilder Builder for the predicate.
+   * @return The predicate, or {@code null} if the specification can only be checked in memory.
+   */
+  default Predicate toPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    return null;
+  }
+
+  /**
+   * Translate as much of the specification as possible into a JPA Criteria predicate, selecting at
+   * least all of the objects that satisfy it. The objects selected must still be checked with
+   * {@link #isSatisfiedBy(Object)} unless {@link #toPredicate(Root, CriteriaBuilder)} is exact.
+   *
+   * @param root Root of the query.
+   * @param criteriaBuilder Builder for the predicate.
+   * @return The predicate, or {@code null} if none of the specification can be translated.
+   */
+  default Predicate toNarrowingPredicate(Root<T> root, CriteriaBuilder criteriaBuilder) {
+    return toPredicate(root, criteriaBuilder);
+  }
 }
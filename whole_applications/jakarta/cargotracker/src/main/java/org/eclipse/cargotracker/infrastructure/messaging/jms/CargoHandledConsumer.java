@@ -9,14 +9,15 @@ import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.jms.TextMessage;
-import org.eclipse.cargotracker.application.CargoInspectionService;
+import org.eclipse.cargotracker.application.internal.CargoInspectionStage;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
 
 /**
  * Consumes JMS messages and delegates notification of misdirected cargo to the tracking service.
  *
  * <p>This is a programmatic hook into the JMS infrastructure to make cargo inspection
- * message-driven.
+ * message-driven. Inspections are run by the {@link CargoInspectionStage}, in order per cargo, and
+ * the message is only consumed once its inspection is done, so a failed one is redelivered.
  */
 @MessageDriven(
     activationConfig = {
@@ -31,7 +32,7 @@ public class CargoHandledConsumer implements MessageListener {
 
   @Inject private Logger logger;
 
-  @Inject private CargoInspectionService cargoInspectionService;
+  @Inject private CargoInspectionStage cargoInspectionStage;
 
   @Override
   public void onMessage(Message message) {
@@ -39,7 +40,7 @@ public class CargoHandledConsumer implements MessageListener {
       TextMessage textMessage = (TextMessage) message;
       String trackingIdString = textMessage.getText();
 
-      cargoInspectionService.inspectCargo(new TrackingId(trackingIdString));
+      cargoInspectionStage.inspect(new TrackingId(trackingIdString)).join();
     } catch (JMSException e) {
       logger.log(Level.SEVERE, "Error procesing JMS message", e);
     }
@@ -1,5 +1,7 @@
 package org.eclipse.cargotracker.infrastructure.messaging.jms;
 
+import java.io.Serializable;
+import java.util.List;
 import javax.ejb.ActivationConfigProperty;
 import javax.ejb.MessageDriven;
 import javax.inject.Inject;
@@ -29,8 +31,18 @@ public class HandlingEventRegistrationAttemptConsumer implements MessageListener
   public void onMessage(Message message) {
     try {
       ObjectMessage objectMessage = (ObjectMessage) message;
-      HandlingEventRegistrationAttempt attempt =
-          (HandlingEventRegistrationAttempt) objectMessage.getObject();
+      Serializable object = objectMessage.getObject();
+
+      if (object instanceof List) {
+        // Bulk reports, registered in this message's transaction.
+        @SuppressWarnings("unchecked")
+        List<HandlingEventRegistrationAttempt> attempts =
+            (List<HandlingEventRegistrationAttempt>) object;
+        handlingEventService.registerHandlingEvents(attempts);
+        return;
+      }
+
+      HandlingEventRegistrationAttempt attempt = (HandlingEventRegistrationAttempt) object;
       handlingEventService.registerHandlingEvent(
           attempt.getCompletionTime(),
           attempt.getTrackingId(),
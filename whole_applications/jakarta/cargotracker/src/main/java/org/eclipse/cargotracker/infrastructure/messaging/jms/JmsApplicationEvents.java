@@ -1,6 +1,10 @@
 package org.eclipse.cargotracker.infrastructure.messaging.jms;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Resource;
@@ -8,6 +12,11 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.jms.Destination;
 import javax.jms.JMSContext;
+import javax.jms.JMSException;
+import javax.jms.JMSRuntimeException;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
 import org.eclipse.cargotracker.application.ApplicationEvents;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
@@ -18,6 +27,10 @@ public class JmsApplicationEvents implements ApplicationEvents, Serializable {
 
   private static final long serialVersionUID = 1L;
   private static final int LOW_PRIORITY = 0;
+  // Browsing the queue is not free, so the backlog is checked at most this often.
+  private static final long BACKLOG_CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+  // The number of attempts in a bulk message, so the backlog can be counted without reading them.
+  private static final String ATTEMPTS = "attempts";
   @Inject JMSContext jmsContext;
 
   @Resource(lookup = "java:app/jms/CargoHandledQueue")
@@ -32,8 +45,14 @@ public class JmsApplicationEvents implements ApplicationEvents, Serializable {
   @Resource(lookup = "java:app/jms/HandlingEventRegistrationAttemptQueue")
   private Destination handlingEventQueue;
 
+  @Resource(lookup = "java:app/configuration/RegistrationBacklogLimit")
+  private Integer registrationBacklogLimit;
+
   @Inject private Logger logger;
 
+  private volatile long backlogCheckedAt = System.nanoTime() - BACKLOG_CHECK_INTERVAL;
+  private volatile boolean backlogged = false;
+
   @Override
   public void cargoWasHandled(HandlingEvent event) {
     Cargo cargo = event.getCargo();
@@ -79,4 +98,45 @@ public class JmsApplicationEvents implements ApplicationEvents, Serializable {
         .setTimeToLive(1000)
         .send(handlingEventQueue, attempt);
   }
+
+  @Override
+  public void receivedHandlingEventRegistrationAttempts(
+      List<HandlingEventRegistrationAttempt> attempts) {
+    logger.log(
+        Level.INFO, "Received {0} handling event registration attempts", attempts.size());
+    // No time to live, unlike single attempts. Bulk senders are throttled by the backlog check
+    // instead.
+    jmsContext
+        .createProducer()
+        .setPriority(LOW_PRIORITY)
+        .setDisableMessageID(true)
+        .setDisableMessageTimestamp(true)
+        .setProperty(ATTEMPTS, attempts.size())
+        .send(handlingEventQueue, new ArrayList<>(attempts));
+  }
+
+  /** Counts the queued attempts, not messages, a bulk message holding many of them. */
+  @Override
+  public boolean isHandlingEventRegistrationBacklogged() {
+    long now = System.nanoTime();
+    if (now - backlogCheckedAt < BACKLOG_CHECK_INTERVAL) {
+      return backlogged;
+    }
+
+    int queued = 0;
+    try (QueueBrowser browser = jmsContext.createBrowser((Queue) handlingEventQueue)) {
+      Enumeration<?> messages = browser.getEnumeration();
+      while (queued < registrationBacklogLimit && messages.hasMoreElements()) {
+        Message message = (Message) messages.nextElement();
+        queued += message.propertyExists(ATTEMPTS) ? message.getIntProperty(ATTEMPTS) : 1;
+      }
+    } catch (JMSException | JMSRuntimeException e) {
+      logger.log(Level.WARNING, "Cannot browse the handling event registration queue", e);
+      return false;
+    }
+
+    backlogged = queued >= registrationBacklogLimit;
+    backlogCheckedAt = now;
+    return backlogged;
+  }
 }
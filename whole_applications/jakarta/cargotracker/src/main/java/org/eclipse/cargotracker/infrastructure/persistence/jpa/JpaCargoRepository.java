@@ -1,8 +1,12 @@
 package org.eclipse.cargotracker.infrastructure.persistence.jpa;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.enterprise.context.ApplicationScoped;
@@ -11,9 +15,18 @@ import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.cargo.CargoRepository;
+import org.eclipse.cargotracker.domain.model.cargo.CargoSummary;
+import org.eclipse.cargotracker.domain.model.cargo.RoutingStatus;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
+import org.eclipse.cargotracker.domain.model.cargo.TransportStatus;
+import org.eclipse.cargotracker.domain.shared.Specification;
 import org.eclipse.cargotracker.infrastructure.events.cdi.CargoUpdated;
 
 @ApplicationScoped
@@ -21,6 +34,18 @@ public class JpaCargoRepository implements CargoRepository, Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  // Only the columns shown in listings, without loading legs, events or voyages.
+  private static final String SUMMARY_SELECT =
+      "Select new org.eclipse.cargotracker.domain.model.cargo.CargoSummary("
+          + "c.trackingId.id, "
+          + "c.origin.unLocode.unlocode, c.origin.name, "
+          + "c.routeSpecification.destination.unLocode.unlocode, "
+          + "c.routeSpecification.destination.name, "
+          + "l.unLocode.unlocode, l.name, "
+          + "c.delivery.transportStatus, c.delivery.routingStatus, "
+          + "c.routeSpecification.arrivalDeadline) "
+          + "from Cargo c left join c.delivery.lastKnownLocation l";
+
   @Inject private Logger logger;
 
   @PersistenceContext private EntityManager entityManager;
@@ -50,6 +75,78 @@ public class JpaCargoRepository implements CargoRepository, Serializable {
     return entityManager.createNamedQuery("Cargo.findAll", Cargo.class).getResultList();
   }
 
+  @Override
+  public List<Cargo> findSatisfying(Specification<Cargo> specification) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Cargo> query = criteriaBuilder.createQuery(Cargo.class);
+    Root<Cargo> cargo = query.from(Cargo.class);
+
+    Predicate exact = specification.toPredicate(cargo, criteriaBuilder);
+
+    if (exact != null) {
+      return entityManager.createQuery(query.where(exact)).getResultList();
+    }
+
+    Predicate narrowing = specification.toNarrowingPredicate(cargo, criteriaBuilder);
+
+    if (narrowing != null) {
+      query.where(narrowing);
+    } else {
+      logger.log(
+          Level.FINE, "Specification {0} is checked in memory for all cargo.", specification);
+    }
+
+    return entityManager
+        .createQuery(query)
+        .getResultList()
+        .stream()
+        .filter(specification::isSatisfiedBy)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<CargoSummary> findSummaries(
+      CargoSummary.Filter filter, TrackingId after, boolean descending, int limit) {
+    List<String> conditions = new ArrayList<>(toConditions(filter));
+
+    if (after != null) {
+      conditions.add(descending ? "c.trackingId.id < :after" : "c.trackingId.id > :after");
+    }
+
+    String query =
+        SUMMARY_SELECT
+            + toWhereClause(conditions)
+            + " order by c.trackingId.id"
+            + (descending ? " desc" : " asc");
+
+    TypedQuery<CargoSummary> summaries =
+        setFilterParameters(entityManager.createQuery(query, CargoSummary.class), filter);
+
+    if (after != null) {
+      summaries.setParameter("after", after.getIdString());
+    }
+
+    return summaries.setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public long count(CargoSummary.Filter filter) {
+    String query = "Select count(c) from Cargo c" + toWhereClause(toConditions(filter));
+
+    return setFilterParameters(entityManager.createQuery(query, Long.class), filter)
+        .getSingleResult();
+  }
+
+  @Override
+  public List<TrackingId> findAllTrackingIds() {
+    return entityManager
+        .createNamedQuery("Cargo.findAllTrackingIds", String.class)
+        .getResultList()
+        .stream()
+        .map(TrackingId::new)
+        .collect(Collectors.toList());
+  }
+
   @Override
   public void store(Cargo cargo) {
     // TODO [Clean Code] See why cascade is not working correctly for legs.
@@ -66,4 +163,36 @@ public class JpaCargoRepository implements CargoRepository, Serializable {
 
     return new TrackingId(random.substring(0, random.indexOf("-")));
   }
+
+  private static List<String> toConditions(CargoSummary.Filter filter) {
+    switch (filter) {
+      case NOT_ROUTED:
+        return Arrays.asList("c.delivery.routingStatus = :notRouted");
+      case ROUTED_UNCLAIMED:
+        return Arrays.asList(
+            "c.delivery.routingStatus <> :notRouted", "c.delivery.transportStatus <> :claimed");
+      case CLAIMED:
+        return Arrays.asList("c.delivery.transportStatus = :claimed");
+      default:
+        return Collections.emptyList();
+    }
+  }
+
+  private static String toWhereClause(List<String> conditions) {
+    return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+  }
+
+  private static <T> TypedQuery<T> setFilterParameters(
+      TypedQuery<T> query, CargoSummary.Filter filter) {
+    if (filter == CargoSummary.Filter.NOT_ROUTED
+        || filter == CargoSummary.Filter.ROUTED_UNCLAIMED) {
+      query.setParameter("notRouted", RoutingStatus.NOT_ROUTED);
+    }
+
+    if (filter == CargoSummary.Filter.ROUTED_UNCLAIMED || filter == CargoSummary.Filter.CLAIMED) {
+      query.setParameter("claimed", TransportStatus.CLAIMED);
+    }
+
+    return query;
+  }
 }
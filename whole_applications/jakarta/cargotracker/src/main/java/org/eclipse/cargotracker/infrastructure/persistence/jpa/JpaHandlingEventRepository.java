@@ -1,6 +1,7 @@
 package org.eclipse.cargotracker.infrastructure.persistence.jpa;
 
 import java.io.Serializable;
+import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -29,4 +30,16 @@ public class JpaHandlingEventRepository implements HandlingEventRepository, Seri
             .setParameter("trackingId", trackingId)
             .getResultList());
   }
+
+  @Override
+  public HandlingEvent lookupMostRecentHandlingEventOfCargo(TrackingId trackingId) {
+    List<HandlingEvent> events =
+        entityManager
+            .createNamedQuery("HandlingEvent.findMostRecentByTrackingId", HandlingEvent.class)
+            .setParameter("trackingId", trackingId)
+            .setMaxResults(1)
+            .getResultList();
+
+    return events.isEmpty() ? null : events.get(0);
+  }
 }
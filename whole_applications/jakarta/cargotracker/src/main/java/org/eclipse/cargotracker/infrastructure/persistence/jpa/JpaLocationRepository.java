@@ -1,8 +1,15 @@
 package org.eclipse.cargotracker.infrastructure.persistence.jpa;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import org.eclipse.cargotracker.domain.model.location.Location;
@@ -14,18 +21,59 @@ public class JpaLocationRepository implements LocationRepository, Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  @Inject private Logger logger;
+
   @PersistenceContext private EntityManager entityManager;
 
+  private ReferenceDataIndex<UnLocode, Location> index;
+
+  @PostConstruct
+  public void init() {
+    index =
+        new ReferenceDataIndex<>(
+            Location::getUnLocode,
+            entityManager.getEntityManagerFactory().getPersistenceUnitUtil()::getIdentifier,
+            id -> entityManager.find(Location.class, id),
+            () ->
+                entityManager.createNamedQuery("Location.findAll", Location.class).getResultList());
+  }
+
   @Override
   public Location find(UnLocode unLocode) {
-    return entityManager
-        .createNamedQuery("Location.findByUnLocode", Location.class)
-        .setParameter("unLocode", unLocode)
-        .getSingleResult();
+    return index.find(
+        unLocode,
+        key -> {
+          logger.log(Level.FINE, "Location {0} is not indexed, {1}", new Object[] {key, index});
+          return entityManager
+              .createNamedQuery("Location.findByUnLocode", Location.class)
+              .setParameter("unLocode", key)
+              .getSingleResult();
+        });
+  }
+
+  @Override
+  public List<Location> find(Collection<UnLocode> unLocodes) {
+    if (unLocodes.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return index.find(
+        unLocodes,
+        keys -> {
+          logger.log(Level.FINE, "Locations {0} are not indexed, {1}", new Object[] {keys, index});
+          return entityManager
+              .createNamedQuery("Location.findByUnLocodes", Location.class)
+              .setParameter(
+                  "unLocodes",
+                  keys.stream().map(UnLocode::getIdString).collect(Collectors.toList()))
+              .getResultList();
+        });
   }
 
   @Override
   public List<Location> findAll() {
-    return entityManager.createNamedQuery("Location.findAll", Location.class).getResultList();
+    List<Location> locations =
+        entityManager.createNamedQuery("Location.findAll", Location.class).getResultList();
+    index.index(locations);
+    return locations;
   }
 }
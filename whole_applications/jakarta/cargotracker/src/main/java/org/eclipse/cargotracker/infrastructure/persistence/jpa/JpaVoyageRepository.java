@@ -1,8 +1,15 @@
 package org.eclipse.cargotracker.infrastructure.persistence.jpa;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import org.eclipse.cargotracker.domain.model.voyage.Voyage;
@@ -14,18 +21,59 @@ public class JpaVoyageRepository implements VoyageRepository, Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  @Inject private Logger logger;
+
   @PersistenceContext private EntityManager entityManager;
 
+  // Schedules are loaded with the voyage through the shared cache as well.
+  private ReferenceDataIndex<VoyageNumber, Voyage> index;
+
+  @PostConstruct
+  public void init() {
+    index =
+        new ReferenceDataIndex<>(
+            Voyage::getVoyageNumber,
+            entityManager.getEntityManagerFactory().getPersistenceUnitUtil()::getIdentifier,
+            id -> entityManager.find(Voyage.class, id),
+            () -> entityManager.createNamedQuery("Voyage.findAll", Voyage.class).getResultList());
+  }
+
   @Override
   public Voyage find(VoyageNumber voyageNumber) {
-    return entityManager
-        .createNamedQuery("Voyage.findByVoyageNumber", Voyage.class)
-        .setParameter("voyageNumber", voyageNumber)
-        .getSingleResult();
+    return index.find(
+        voyageNumber,
+        key -> {
+          logger.log(Level.FINE, "Voyage {0} is not indexed, {1}", new Object[] {key, index});
+          return entityManager
+              .createNamedQuery("Voyage.findByVoyageNumber", Voyage.class)
+              .setParameter("voyageNumber", key)
+              .getSingleResult();
+        });
+  }
+
+  @Override
+  public List<Voyage> find(Collection<VoyageNumber> voyageNumbers) {
+    if (voyageNumbers.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return index.find(
+        voyageNumbers,
+        keys -> {
+          logger.log(Level.FINE, "Voyages {0} are not indexed, {1}", new Object[] {keys, index});
+          return entityManager
+              .createNamedQuery("Voyage.findByVoyageNumbers", Voyage.class)
+              .setParameter(
+                  "voyageNumbers",
+                  keys.stream().map(VoyageNumber::getIdString).collect(Collectors.toList()))
+              .getResultList();
+        });
   }
 
   @Override
   public List<Voyage> findAll() {
-    return entityManager.createNamedQuery("Voyage.findAll", Voyage.class).getResultList();
+    List<Voyage> voyages =
+        entityManager.createNamedQuery("Voyage.findAll", Voyage.class).getResultList();
+    index.index(voyages);
+    return voyages;
   }
 }
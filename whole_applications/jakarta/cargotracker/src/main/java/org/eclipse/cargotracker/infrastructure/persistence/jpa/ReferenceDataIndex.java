@@ -0,0 +1,133 @@
+package org.eclipse.cargotracker.infrastructure.persistence.jpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Index of reference data, such as locations and voyages, from their natural key to their entity
+ * ID. Lookups by ID are served from the persistence context and the shared cache, so the named
+ * queries by natural key only run for entities that are not indexed yet.
+ *
+ * <p>Only the IDs are kept, never the entities, so changes made through JPA are always seen.
+ * The index is filled with every entity on first use, entities added later are indexed on their
+ * first lookup, and removed entities are dropped when their ID no longer resolves.
+ */
+class ReferenceDataIndex<K, E> {
+
+  private final Function<E, K> keyOf;
+  private final Function<E, Object> idOf;
+  private final Function<Object, E> byId;
+  private final Supplier<List<E>> all;
+
+  private final ConcurrentHashMap<K, Object> ids = new ConcurrentHashMap<>();
+  private volatile boolean warm = false;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  ReferenceDataIndex(
+      Function<E, K> keyOf,
+      Function<E, Object> idOf,
+      Function<Object, E> byId,
+      Supplier<List<E>> all) {
+    this.keyOf = keyOf;
+    this.idOf = idOf;
+    this.byId = byId;
+    this.all = all;
+  }
+
+  /** Finds the entity through the index, or with the query if it isn't indexed. */
+  E find(K key, Function<K, E> byKey) {
+    E entity = findIndexed(key);
+
+    if (entity != null) {
+      return entity;
+    }
+
+    entity = byKey.apply(key);
+
+    if (entity != null) {
+      ids.put(key, idOf.apply(entity));
+    }
+
+    return entity;
+  }
+
+  /**
+   * Finds the entities through the index, and those that aren't indexed with a single query.
+   * Entities that don't exist are skipped.
+   */
+  List<E> find(Collection<K> keys, Function<Collection<K>, List<E>> byKeys) {
+    List<E> entities = new ArrayList<>(keys.size());
+    Set<K> unindexed = new LinkedHashSet<>();
+
+    for (K key : new LinkedHashSet<>(keys)) {
+      E entity = findIndexed(key);
+
+      if (entity != null) {
+        entities.add(entity);
+      } else {
+        unindexed.add(key);
+      }
+    }
+
+    if (!unindexed.isEmpty()) {
+      List<E> found = byKeys.apply(unindexed);
+      index(found);
+      entities.addAll(found);
+    }
+
+    return entities;
+  }
+
+  void index(Collection<E> entities) {
+    entities.forEach(entity -> ids.put(keyOf.apply(entity), idOf.apply(entity)));
+  }
+
+  long getHits() {
+    return hits.sum();
+  }
+
+  long getMisses() {
+    return misses.sum();
+  }
+
+  int size() {
+    return ids.size();
+  }
+
+  @Override
+  public String toString() {
+    return size() + " indexed, " + getHits() + " hits, " + getMisses() + " misses";
+  }
+
+  private E findIndexed(K key) {
+    if (!warm) {
+      // Racing callers may both load, which is harmless.
+      index(all.get());
+      warm = true;
+    }
+
+    Object id = ids.get(key);
+    E entity = id == null ? null : byId.apply(id);
+
+    if (entity != null) {
+      hits.increment();
+      return entity;
+    }
+
+    if (id != null) {
+      ids.remove(key, id);
+    }
+
+    misses.increment();
+    return null;
+  }
+}
@@ -1,10 +1,14 @@
 package org.eclipse.cargotracker.infrastructure.routing;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.ejb.Stateless;
@@ -16,8 +20,10 @@ import javax.ws.rs.core.MediaType;
 import org.eclipse.cargotracker.domain.model.cargo.Itinerary;
 import org.eclipse.cargotracker.domain.model.cargo.Leg;
 import org.eclipse.cargotracker.domain.model.cargo.RouteSpecification;
+import org.eclipse.cargotracker.domain.model.location.Location;
 import org.eclipse.cargotracker.domain.model.location.LocationRepository;
 import org.eclipse.cargotracker.domain.model.location.UnLocode;
+import org.eclipse.cargotracker.domain.model.voyage.Voyage;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageRepository;
 import org.eclipse.cargotracker.domain.service.RoutingService;
@@ -32,6 +38,8 @@ import org.eclipse.pathfinder.api.TransitPath;
 @Stateless
 public class ExternalRoutingService implements RoutingService {
 
+  private static final int DEADLINE_BUCKET_DAYS = 7;
+
   @Inject private Logger logger;
 
   @Resource(lookup = "java:app/configuration/GraphTraversalUrl")
@@ -41,6 +49,7 @@ public class ExternalRoutingService implements RoutingService {
 
   @Inject private LocationRepository locationRepository;
   @Inject private VoyageRepository voyageRepository;
+  @Inject private TransitPathCache transitPathCache;
 
   @PostConstruct
   public void init() {
@@ -52,46 +61,80 @@ public class ExternalRoutingService implements RoutingService {
     // The RouteSpecification is picked apart and adapted to the external API.
     String origin = routeSpecification.getOrigin().getUnLocode().getIdString();
     String destination = routeSpecification.getDestination().getUnLocode().getIdString();
+    // Deadlines are rounded up to the end of a bucket so nearby deadlines share cached paths,
+    // paths arriving too late for this deadline are dropped by the specification below.
+    LocalDate deadline = toDeadlineBucket(routeSpecification.getArrivalDeadline());
 
     List<TransitPath> transitPaths =
-        graphTraversalResource
-            .queryParam("origin", origin)
-            .queryParam("destination", destination)
-            .request(MediaType.APPLICATION_JSON_TYPE)
-            .get(new GenericType<List<TransitPath>>() {});
+        transitPathCache.get(
+            origin,
+            destination,
+            deadline,
+            () ->
+                graphTraversalResource
+                    .queryParam("origin", origin)
+                    .queryParam("destination", destination)
+                    .queryParam("deadline", deadline.format(DateTimeFormatter.BASIC_ISO_DATE))
+                    .request(MediaType.APPLICATION_JSON_TYPE)
+                    .get(new GenericType<List<TransitPath>>() {}));
+
+    // The returned result is then translated back into our domain model, looking up all the
+    // voyages and locations used by any path at once.
+    Map<String, Voyage> voyages =
+        voyageRepository
+            .find(
+                transitPaths
+                    .stream()
+                    .flatMap(path -> path.getTransitEdges().stream())
+                    .map(edge -> new VoyageNumber(edge.getVoyageNumber()))
+                    .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(v -> v.getVoyageNumber().getIdString(), v -> v));
+    Map<String, Location> locations =
+        locationRepository
+            .find(
+                transitPaths
+                    .stream()
+                    .flatMap(path -> path.getTransitEdges().stream())
+                    .flatMap(edge -> Stream.of(edge.getFromUnLocode(), edge.getToUnLocode()))
+                    .map(UnLocode::new)
+                    .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(l -> l.getUnLocode().getIdString(), l -> l));
 
-    // The returned result is then translated back into our domain model.
     List<Itinerary> itineraries = new ArrayList<>();
 
     // Use the specification to safe-guard against invalid itineraries
-    transitPaths
-        .stream()
-        .map(this::toItinerary)
-        .forEach(
-            itinerary -> {
-              if (routeSpecification.isSatisfiedBy(itinerary)) {
-                itineraries.add(itinerary);
-              } else {
-                logger.log(
-                    Level.FINE, "Received itinerary that did not satisfy the route specification");
-              }
-            });
+    for (TransitPath transitPath : transitPaths) {
+      Itinerary itinerary = toItinerary(transitPath, voyages, locations);
+      if (itinerary != null && routeSpecification.isSatisfiedBy(itinerary)) {
+        itineraries.add(itinerary);
+      } else {
+        logger.log(Level.FINE, "Received itinerary that did not satisfy the route specification");
+      }
+    }
 
     return itineraries;
   }
 
-  private Itinerary toItinerary(TransitPath transitPath) {
-    List<Leg> legs =
-        transitPath.getTransitEdges().stream().map(this::toLeg).collect(Collectors.toList());
-    return new Itinerary(legs);
+  static LocalDate toDeadlineBucket(LocalDate deadline) {
+    long days = DEADLINE_BUCKET_DAYS;
+    return LocalDate.ofEpochDay(Math.floorDiv(deadline.toEpochDay() + days - 1, days) * days);
   }
 
-  private Leg toLeg(TransitEdge edge) {
-    return new Leg(
-        voyageRepository.find(new VoyageNumber(edge.getVoyageNumber())),
-        locationRepository.find(new UnLocode(edge.getFromUnLocode())),
-        locationRepository.find(new UnLocode(edge.getToUnLocode())),
-        edge.getFromDate(),
-        edge.getToDate());
+  /** Returns null if the path uses a voyage or location we don't know about. */
+  private Itinerary toItinerary(
+      TransitPath transitPath, Map<String, Voyage> voyages, Map<String, Location> locations) {
+    List<Leg> legs = new ArrayList<>(transitPath.getTransitEdges().size());
+    for (TransitEdge edge : transitPath.getTransitEdges()) {
+      Voyage voyage = voyages.get(edge.getVoyageNumber());
+      Location from = locations.get(edge.getFromUnLocode());
+      Location to = locations.get(edge.getToUnLocode());
+      if (voyage == null || from == null || to == null) {
+        return null;
+      }
+      legs.add(new Leg(voyage, from, to, edge.getFromDate(), edge.getToDate()));
+    }
+    return new Itinerary(legs);
   }
 }
@@ -0,0 +1,129 @@
+package org.eclipse.cargotracker.infrastructure.routing;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.pathfinder.api.TransitPath;
+
+/**
+ * Caches the transit paths returned by the graph traversal service, keyed by origin, destination
+ * and deadline bucket. Concurrent requests for the same key share a single call to the service.
+ *
+ * <p>Entries expire after a configurable time, so changes to voyage schedules are picked up.
+ * Failed calls are not cached.
+ */
+@ApplicationScoped
+public class TransitPathCache {
+
+  private static final int PURGE_THRESHOLD = 10_000;
+
+  @Resource(lookup = "java:app/configuration/RoutingCacheTtlSeconds")
+  Integer ttlSeconds;
+
+  private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the cached paths for the key, calling the loader if there are none or they have
+   * expired. Only one caller loads a given key at a time, the others wait for its result.
+   */
+  public List<TransitPath> get(
+      String origin, String destination, LocalDate deadline, Supplier<List<TransitPath>> loader) {
+    Key key = new Key(origin, destination, deadline);
+
+    while (true) {
+      long now = System.nanoTime();
+      Entry entry = entries.get(key);
+      if (entry != null && !entry.isExpired(now)) {
+        return entry.join();
+      }
+
+      Entry loading = new Entry();
+      boolean won =
+          entry == null
+              ? entries.putIfAbsent(key, loading) == null
+              : entries.replace(key, entry, loading);
+      if (!won) {
+        continue;
+      }
+
+      if (entries.size() > PURGE_THRESHOLD) {
+        entries.values().removeIf(e -> e.isExpired(now));
+      }
+
+      try {
+        List<TransitPath> paths = Collections.unmodifiableList(loader.get());
+        loading.expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        loading.paths.complete(paths);
+        return paths;
+      } catch (Throwable e) {
+        // Errors too, or the waiters would never be released and the key never reloaded.
+        entries.remove(key, loading);
+        loading.paths.completeExceptionally(e);
+        throw e;
+      }
+    }
+  }
+
+  private static class Entry {
+    private final CompletableFuture<List<TransitPath>> paths = new CompletableFuture<>();
+    // Set once loaded, until then waiters share the load in progress.
+    private volatile long expiresAt = Long.MAX_VALUE;
+
+    boolean isExpired(long now) {
+      return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+    }
+
+    List<TransitPath> join() {
+      try {
+        return paths.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw e;
+      }
+    }
+  }
+
+  private static class Key {
+    private final String origin;
+    private final String destination;
+    private final LocalDate deadline;
+
+    Key(String origin, String destination, LocalDate deadline) {
+      this.origin = origin;
+      this.destination = destination;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return origin.equals(that.origin)
+          && destination.equals(that.destination)
+          && deadline.equals(that.deadline);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(origin, destination, deadline);
+    }
+  }
+}
@@ -2,6 +2,8 @@ package org.eclipse.cargotracker.interfaces.booking.facade;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoListItem;
 import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoRoute;
 import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoStatus;
 import org.eclipse.cargotracker.interfaces.booking.facade.dto.Location;
@@ -29,8 +31,18 @@ public interface BookingServiceFacade {
 
   List<Location> listShippingLocations();
 
-  // TODO [DDD] Is this the right DTO here?
-  List<CargoRoute> listAllCargos();
+  /**
+   * Lists one page of cargo, ordered by tracking ID.
+   *
+   * @param afterTrackingId the last tracking ID of the previous page, or null for the first page
+   */
+  List<CargoListItem> listCargos(
+      CargoListItem.Filter filter, String afterTrackingId, boolean descending, int pageSize);
+
+  long countCargos(CargoListItem.Filter filter);
+
+  /** Streams the cargo for export, reading them a page at a time as the stream is consumed. */
+  Stream<CargoListItem> streamCargos(CargoListItem.Filter filter);
 
   List<String> listAllTrackingIds();
 }
@@ -0,0 +1,98 @@
+package org.eclipse.cargotracker.interfaces.booking.facade.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import org.eclipse.cargotracker.application.util.DateConverter;
+
+/** DTO for one cargo in a listing, with just what the listing shows. */
+public class CargoListItem implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The cargo included in a listing. */
+  public enum Filter {
+    ALL,
+    NOT_ROUTED,
+    ROUTED_UNCLAIMED,
+    CLAIMED
+  }
+
+  private final String trackingId;
+  private final Location origin;
+  private final Location finalDestination;
+  private final String arrivalDeadline;
+  private final boolean routed;
+  private final boolean misrouted;
+  private final boolean claimed;
+  private final Location lastKnownLocation;
+  private final String transportStatus;
+
+  public CargoListItem(
+      String trackingId,
+      Location origin,
+      Location finalDestination,
+      LocalDate arrivalDeadline,
+      boolean routed,
+      boolean misrouted,
+      boolean claimed,
+      Location lastKnownLocation,
+      String transportStatus) {
+    this.trackingId = trackingId;
+    this.origin = origin;
+    this.finalDestination = finalDestination;
+    this.arrivalDeadline = DateConverter.toString(arrivalDeadline);
+    this.routed = routed;
+    this.misrouted = misrouted;
+    this.claimed = claimed;
+    this.lastKnownLocation = lastKnownLocation;
+    this.transportStatus = transportStatus;
+  }
+
+  public String getTrackingId() {
+    return trackingId;
+  }
+
+  public String getOriginName() {
+    return origin.getName();
+  }
+
+  public String getOriginCode() {
+    return origin.getUnLocode();
+  }
+
+  public String getFinalDestinationName() {
+    return finalDestination.getName();
+  }
+
+  public String getFinalDestinationCode() {
+    return finalDestination.getUnLocode();
+  }
+
+  public String getArrivalDeadline() {
+    return arrivalDeadline;
+  }
+
+  public boolean isRouted() {
+    return routed;
+  }
+
+  public boolean isMisrouted() {
+    return misrouted;
+  }
+
+  public boolean isClaimed() {
+    return claimed;
+  }
+
+  public String getLastKnownLocationName() {
+    return lastKnownLocation.getName();
+  }
+
+  public String getLastKnownLocationCode() {
+    return lastKnownLocation.getUnLocode();
+  }
+
+  public String getTransportStatus() {
+    return transportStatus;
+  }
+}
@@ -2,14 +2,21 @@ package org.eclipse.cargotracker.interfaces.booking.facade.internal;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import org.eclipse.cargotracker.application.BookingService;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.cargo.CargoRepository;
+import org.eclipse.cargotracker.domain.model.cargo.CargoSummary;
 import org.eclipse.cargotracker.domain.model.cargo.Itinerary;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
@@ -19,9 +26,11 @@ import org.eclipse.cargotracker.domain.model.location.LocationRepository;
 import org.eclipse.cargotracker.domain.model.location.UnLocode;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageRepository;
 import org.eclipse.cargotracker.interfaces.booking.facade.BookingServiceFacade;
+import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoListItem;
 import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoRoute;
 import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoStatus;
 import org.eclipse.cargotracker.interfaces.booking.facade.dto.RouteCandidate;
+import org.eclipse.cargotracker.interfaces.booking.facade.internal.assembler.CargoListItemDtoAssembler;
 import org.eclipse.cargotracker.interfaces.booking.facade.internal.assembler.CargoRouteDtoAssembler;
 import org.eclipse.cargotracker.interfaces.booking.facade.internal.assembler.CargoStatusDtoAssembler;
 import org.eclipse.cargotracker.interfaces.booking.facade.internal.assembler.ItineraryCandidateDtoAssembler;
@@ -32,12 +41,15 @@ public class DefaultBookingServiceFacade implements BookingServiceFacade, Serial
 
   private static final long serialVersionUID = 1L;
 
+  private static final int EXPORT_PAGE_SIZE = 500;
+
   @Inject private BookingService bookingService;
   @Inject private LocationRepository locationRepository;
   @Inject private CargoRepository cargoRepository;
   @Inject private VoyageRepository voyageRepository;
   @Inject private HandlingEventRepository handlingEventRepository;
   @Inject private CargoRouteDtoAssembler cargoRouteDtoAssembler;
+  @Inject private CargoListItemDtoAssembler cargoListItemDtoAssembler;
   @Inject private CargoStatusDtoAssembler cargoStatusDtoAssembler;
   @Inject private ItineraryCandidateDtoAssembler itineraryCandidateDtoAssembler;
   @Inject private LocationDtoAssembler locationDtoAssembler;
@@ -84,24 +96,75 @@ public class DefaultBookingServiceFacade implements BookingServiceFacade, Serial
   }
 
   @Override
-  // TODO [DDD] Is this the correct DTO here?
-  public List<CargoRoute> listAllCargos() {
-    List<Cargo> cargos = cargoRepository.findAll();
-    List<CargoRoute> routes;
+  public List<CargoListItem> listCargos(
+      CargoListItem.Filter filter, String afterTrackingId, boolean descending, int pageSize) {
+    return cargoRepository
+        .findSummaries(
+            cargoListItemDtoAssembler.fromDto(filter),
+            afterTrackingId == null ? null : new TrackingId(afterTrackingId),
+            descending,
+            pageSize)
+        .stream()
+        .map(cargoListItemDtoAssembler::toDto)
+        .collect(Collectors.toList());
+  }
 
-    routes = cargos.stream().map(cargoRouteDtoAssembler::toDto).collect(Collectors.toList());
+  @Override
+  public long countCargos(CargoListItem.Filter filter) {
+    return cargoRepository.count(cargoListItemDtoAssembler.fromDto(filter));
+  }
 
-    return routes;
+  @Override
+  public Stream<CargoListItem> streamCargos(CargoListItem.Filter filter) {
+    CargoSummary.Filter summaryFilter = cargoListItemDtoAssembler.fromDto(filter);
+
+    Iterator<CargoSummary> summaries =
+        new Iterator<CargoSummary>() {
+          private Iterator<CargoSummary> page = Collections.emptyIterator();
+          private TrackingId last;
+          private boolean exhausted = false;
+
+          @Override
+          public boolean hasNext() {
+            if (!page.hasNext() && !exhausted) {
+              List<CargoSummary> next =
+                  cargoRepository.findSummaries(summaryFilter, last, false, EXPORT_PAGE_SIZE);
+              exhausted = next.size() < EXPORT_PAGE_SIZE;
+
+              if (!next.isEmpty()) {
+                last = new TrackingId(next.get(next.size() - 1).getTrackingId());
+              }
+
+              page = next.iterator();
+            }
+
+            return page.hasNext();
+          }
+
+          @Override
+          public CargoSummary next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            return page.next();
+          }
+        };
+
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                summaries, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .map(cargoListItemDtoAssembler::toDto);
   }
 
   @Override
   public List<String> listAllTrackingIds() {
-    List<String> trackingIds = new ArrayList<>();
-    cargoRepository
-        .findAll()
-        .forEach(cargo -> trackingIds.add(cargo.getTrackingId().getIdString()));
-
-    return trackingIds;
+    return cargoRepository
+        .findAllTrackingIds()
+        .stream()
+        .map(TrackingId::getIdString)
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -0,0 +1,27 @@
+package org.eclipse.cargotracker.interfaces.booking.facade.internal.assembler;
+
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.cargotracker.domain.model.cargo.CargoSummary;
+import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoListItem;
+import org.eclipse.cargotracker.interfaces.booking.facade.dto.Location;
+
+@ApplicationScoped
+public class CargoListItemDtoAssembler {
+
+  public CargoListItem toDto(CargoSummary summary) {
+    return new CargoListItem(
+        summary.getTrackingId(),
+        new Location(summary.getOriginUnLocode(), summary.getOriginName()),
+        new Location(summary.getDestinationUnLocode(), summary.getDestinationName()),
+        summary.getArrivalDeadline(),
+        summary.isRouted(),
+        summary.isMisrouted(),
+        summary.isClaimed(),
+        new Location(summary.getLastKnownLocationUnLocode(), summary.getLastKnownLocationName()),
+        summary.getTransportStatus().name());
+  }
+
+  public CargoSummary.Filter fromDto(CargoListItem.Filter filter) {
+    return CargoSummary.Filter.valueOf(filter.name());
+  }
+}
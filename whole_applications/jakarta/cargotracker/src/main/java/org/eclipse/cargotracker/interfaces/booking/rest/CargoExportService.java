@@ -0,0 +1,91 @@
+package org.eclipse.cargotracker.interfaces.booking.rest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.eclipse.cargotracker.interfaces.booking.facade.BookingServiceFacade;
+import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoListItem;
+
+/**
+ * Exports the cargo listing as CSV. The cargo are read a page at a time while the response is
+ * written, so an export never holds all of the cargo in memory.
+ */
+@RequestScoped
+@Path("/cargo-export")
+public class CargoExportService {
+
+  private static final String CSV = "text/csv";
+  private static final String HEADER =
+      "trackingId,originCode,originName,destinationCode,destinationName,arrivalDeadline,"
+          + "routed,misrouted,claimed,lastKnownLocationCode,lastKnownLocationName,transportStatus";
+
+  @Inject private BookingServiceFacade bookingServiceFacade;
+
+  @GET
+  @Produces(CSV)
+  public Response export(@QueryParam("filter") @DefaultValue("ALL") CargoListItem.Filter filter) {
+    StreamingOutput csv =
+        output -> {
+          Writer writer =
+              new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+          writer.write(HEADER);
+          writer.write('\n');
+
+          try (Stream<CargoListItem> cargos = bookingServiceFacade.streamCargos(filter)) {
+            for (CargoListItem cargo : (Iterable<CargoListItem>) cargos::iterator) {
+              writeRow(writer, cargo);
+            }
+          }
+
+          writer.flush();
+        };
+
+    return Response.ok(csv)
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cargo.csv\"")
+        .build();
+  }
+
+  private static void writeRow(Writer writer, CargoListItem cargo) throws IOException {
+    writer.write(
+        String.join(
+            ",",
+            escape(cargo.getTrackingId()),
+            escape(cargo.getOriginCode()),
+            escape(cargo.getOriginName()),
+            escape(cargo.getFinalDestinationCode()),
+            escape(cargo.getFinalDestinationName()),
+            escape(cargo.getArrivalDeadline()),
+            Boolean.toString(cargo.isRouted()),
+            Boolean.toString(cargo.isMisrouted()),
+            Boolean.toString(cargo.isClaimed()),
+            escape(cargo.getLastKnownLocationCode()),
+            escape(cargo.getLastKnownLocationName()),
+            escape(cargo.getTransportStatus())));
+    writer.write('\n');
+  }
+
+  private static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
@@ -1,66 +1,343 @@
 package org.eclipse.cargotracker.interfaces.booking.sse;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.Singleton;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.event.ObservesAsync;
 import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.sse.OutboundSseEvent;
 import javax.ws.rs.sse.Sse;
-import javax.ws.rs.sse.SseBroadcaster;
 import javax.ws.rs.sse.SseEventSink;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.cargo.CargoRepository;
 import org.eclipse.cargotracker.infrastructure.events.cdi.CargoUpdated;
+import org.eclipse.cargotracker.interfaces.Coordinates;
 
-/** Sever-sent events service for tracking all cargo in real time. */
+/**
+ * Sever-sent events service for tracking all cargo in real time.
+ *
+ * <p>The latest view of every cargo is kept in memory, with the sequence number of its last update
+ * as event ID, prefixed with the epoch of this run. New clients are sent this snapshot rather than a
+ * query for all cargo, and clients reconnecting with a Last-Event-ID of the same run are only sent
+ * the cargo updated since. Updates are sent at most once per cargo in every update window. Map
+ * clients can pass a bounding box to only be sent the cargo in view.
+ */
 @Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 @Path("/cargo")
 public class RealtimeCargoTrackingService {
-  @Inject private Logger logger;
+
+  private static final Comparator<TrackedCargo> BY_SEQUENCE =
+      Comparator.comparingLong(cargo -> cargo.sequence);
+
+  @Inject Logger logger;
 
   @Inject private CargoRepository cargoRepository;
 
+  @Resource(lookup = "java:app/configuration/TrackingUpdateWindowMillis")
+  private Integer updateWindowMillis;
+
+  @Resource private ManagedScheduledExecutorService scheduler;
+
   @Context private Sse sse;
-  private SseBroadcaster broadcaster;
+  private Jsonb jsonb;
+
+  private final ConcurrentHashMap<String, TrackedCargo> snapshot = new ConcurrentHashMap<>();
+  private volatile boolean snapshotLoaded = false;
+  // Sequence numbers restart with every run, so the epoch tells IDs from before a restart apart.
+  final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  final AtomicLong sequence = new AtomicLong();
+
+  private final Set<String> updated = ConcurrentHashMap.newKeySet();
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  // Keeps a new client's snapshot and the updates sent to everyone in order.
+  private final ReentrantLock sending = new ReentrantLock();
+  private ScheduledFuture<?> flushing;
 
   @PostConstruct
   public void init() {
-    broadcaster = sse.newBroadcaster();
-    logger.log(Level.FINEST, "SSE broadcaster created.");
+    jsonb = JsonbBuilder.create();
+    flushing =
+        scheduler.scheduleAtFixedRate(
+            this::sendUpdates, updateWindowMillis, updateWindowMillis, TimeUnit.MILLISECONDS);
+    logger.log(Level.FINEST, "SSE update window of {0} ms scheduled.", updateWindowMillis);
   }
 
+  /**
+   * Sends the snapshot, or the part of it updated after the Last-Event-ID of a reconnecting client,
+   * and then registers the client for updates. The optional bounding box is in degrees, with west
+   * greater than east when it crosses the antimeridian.
+   */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
-  public void tracking(@Context SseEventSink eventSink) {
-    cargoRepository.findAll().stream().map(this::cargoToSseEvent).forEach(eventSink::send);
+  public void tracking(
+      @Context SseEventSink eventSink,
+      @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+      @QueryParam("south") Double south,
+      @QueryParam("west") Double west,
+      @QueryParam("north") Double north,
+      @QueryParam("east") Double east) {
+    View view = toView(south, west, north, east);
+    loadSnapshot();
+    subscribe(eventSink, lastEventId, view);
 
-    broadcaster.register(eventSink);
     logger.log(Level.FINEST, "SSE event sink registered.");
   }
 
+  void subscribe(SseEventSink eventSink, String lastEventId, View view) {
+    Subscriber subscriber = new Subscriber(eventSink, view);
+
+    sending.lock();
+    try {
+      long since = since(lastEventId);
+      List<TrackedCargo> missed = new ArrayList<>();
+      for (TrackedCargo cargo : snapshot.values()) {
+        if (cargo.sequence > since) {
+          missed.add(cargo);
+        }
+      }
+      missed.sort(BY_SEQUENCE);
+
+      subscriber.send(missed);
+      subscribers.add(subscriber);
+    } finally {
+      sending.unlock();
+    }
+  }
+
   @PreDestroy
   public void close() {
-    broadcaster.close();
-    logger.log(Level.FINEST, "SSE broadcaster closed.");
+    flushing.cancel(false);
+    subscribers.forEach(subscriber -> subscriber.sink.close());
+    subscribers.clear();
+
+    try {
+      jsonb.close();
+    } catch (Exception e) {
+      logger.log(Level.FINEST, "Error closing JSON-B.", e);
+    }
+
+    logger.log(Level.FINEST, "SSE event sinks closed.");
   }
 
   public void onCargoUpdated(@ObservesAsync @CargoUpdated Cargo cargo) {
-    logger.log(Level.FINEST, "SSE event broadcast for cargo: {0}", cargo);
-    broadcaster.broadcast(cargoToSseEvent(cargo));
+    logger.log(Level.FINEST, "SSE event queued for cargo: {0}", cargo);
+    update(toTrackedCargo(cargo, sequence.incrementAndGet()));
+  }
+
+  void update(TrackedCargo tracked) {
+    // Async events can be observed out of order, keep the latest.
+    snapshot.merge(
+        tracked.trackingId,
+        tracked,
+        (previous, next) -> next.sequence > previous.sequence ? next : previous);
+    updated.add(tracked.trackingId);
+  }
+
+  void sendUpdates() {
+    if (updated.isEmpty()) {
+      return;
+    }
+
+    sending.lock();
+    try {
+      List<TrackedCargo> changed = new ArrayList<>(updated.size());
+      for (Iterator<String> iterator = updated.iterator(); iterator.hasNext(); ) {
+        changed.add(snapshot.get(iterator.next()));
+        iterator.remove();
+      }
+      changed.sort(BY_SEQUENCE);
+
+      for (Subscriber subscriber : subscribers) {
+        if (subscriber.sink.isClosed()) {
+          subscribers.remove(subscriber);
+        } else {
+          subscriber.send(changed);
+        }
+      }
+    } catch (RuntimeException e) {
+      // Keep the schedule going.
+      logger.log(Level.WARNING, "Error sending SSE updates.", e);
+    } finally {
+      sending.unlock();
+    }
+  }
+
+  private void loadSnapshot() {
+    if (snapshotLoaded) {
+      return;
+    }
+
+    synchronized (snapshot) {
+      if (!snapshotLoaded) {
+        long initial = sequence.get();
+        // Cargo updated while loading are already in the snapshot, and newer.
+        cargoRepository
+            .findAll()
+            .forEach(
+                cargo ->
+                    snapshot.putIfAbsent(
+                        cargo.getTrackingId().getIdString(), toTrackedCargo(cargo, initial)));
+        snapshotLoaded = true;
+      }
+    }
+  }
+
+  private TrackedCargo toTrackedCargo(Cargo cargo, long sequence) {
+    RealtimeCargoTrackingViewAdapter view = new RealtimeCargoTrackingViewAdapter(cargo);
+
+    // Serialized once, and the same event sent to every client.
+    OutboundSseEvent event =
+        sse.newEventBuilder()
+            .id(eventId(sequence))
+            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+            .data(String.class, jsonb.toJson(view))
+            .build();
+
+    return new TrackedCargo(
+        view.getTrackingId(), sequence, view.getLocation().getCoordinates(), event);
+  }
+
+  String eventId(long sequence) {
+    return epoch + '.' + sequence;
+  }
+
+  /**
+   * @return The sequence number of a Last-Event-ID sent during this run, or -1 when there is none
+   *     or it is from another run, as the client then needs everything.
+   */
+  long since(String lastEventId) {
+    String prefix = epoch + '.';
+    if (lastEventId == null || !lastEventId.startsWith(prefix)) {
+      return -1;
+    }
+
+    try {
+      long since = Long.parseLong(lastEventId.substring(prefix.length()));
+      return since <= sequence.get() ? since : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static View toView(Double south, Double west, Double north, Double east) {
+    if (south == null && west == null && north == null && east == null) {
+      return null;
+    }
+
+    if (south == null || west == null || north == null || east == null) {
+      throw new BadRequestException("A bounding box needs south, west, north and east.");
+    }
+
+    return new View(south, west, north, east);
   }
 
-  private OutboundSseEvent cargoToSseEvent(Cargo cargo) {
-    return sse.newEventBuilder()
-        .mediaType(MediaType.APPLICATION_JSON_TYPE)
-        .data(new RealtimeCargoTrackingViewAdapter(cargo))
-        .build();
+  static class TrackedCargo {
+    private final String trackingId;
+    private final long sequence;
+    private final Coordinates coordinates;
+    private final OutboundSseEvent event;
+
+    TrackedCargo(
+        String trackingId, long sequence, Coordinates coordinates, OutboundSseEvent event) {
+      this.trackingId = trackingId;
+      this.sequence = sequence;
+      this.coordinates = coordinates;
+      this.event = event;
+    }
+  }
+
+  static class View {
+    private final double south;
+    private final double west;
+    private final double north;
+    private final double east;
+
+    View(double south, double west, double north, double east) {
+      this.south = south;
+      this.west = west;
+      this.north = north;
+      this.east = east;
+    }
+
+    boolean contains(Coordinates coordinates) {
+      if (coordinates == null
+          || coordinates.getLatitude() < south
+          || coordinates.getLatitude() > north) {
+        return false;
+      }
+
+      double longitude = coordinates.getLongitude();
+      return west <= east
+          ? longitude >= west && longitude <= east
+          : longitude >= west || longitude <= east;
+    }
+  }
+
+  private class Subscriber {
+    private final SseEventSink sink;
+    private final View view;
+    // Cargo sent while in view, which are sent once more when they leave it.
+    private final Set<String> inView = ConcurrentHashMap.newKeySet();
+
+    Subscriber(SseEventSink sink, View view) {
+      this.sink = sink;
+      this.view = view;
+    }
+
+    void send(Collection<TrackedCargo> cargos) {
+      for (TrackedCargo cargo : cargos) {
+        boolean send;
+
+        if (view == null) {
+          send = true;
+        } else if (view.contains(cargo.coordinates)) {
+          inView.add(cargo.trackingId);
+          send = true;
+        } else {
+          send = inView.remove(cargo.trackingId);
+        }
+
+        if (send) {
+          sink.send(cargo.event)
+              .exceptionally(
+                  e -> {
+                    logger.log(Level.FINEST, "SSE event sink failed, removing it.", e);
+                    subscribers.remove(this);
+                    sink.close();
+                    return null;
+                  });
+        }
+      }
+    }
   }
 }
@@ -1,14 +1,18 @@
 package org.eclipse.cargotracker.interfaces.booking.web;
 
-import static java.util.stream.Collectors.toList;
-
+import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import javax.annotation.PostConstruct;
-import javax.enterprise.context.RequestScoped;
+import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.eclipse.cargotracker.interfaces.booking.facade.BookingServiceFacade;
-import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoRoute;
+import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoListItem;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
 
 /**
  * Handles listing cargo. Operates against a dedicated service facade, and could easily be rewritten
@@ -19,35 +23,100 @@ import org.eclipse.cargotracker.interfaces.booking.facade.dto.CargoRoute;
  * this approach is generally preferred to the one taken in the tracking controller. However, there
  * is never any one perfect solution for all situations, so we've chosen to demonstrate two
  * polarized ways to build user interfaces.
+ *
+ * <p>Each table loads one page at a time. Pages are keyed on the last tracking ID of the page
+ * before, so paging stays as fast on the last page as on the first.
  */
 @Named
-@RequestScoped
-public class ListCargo {
+@ViewScoped
+public class ListCargo implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   @Inject private BookingServiceFacade bookingServiceFacade;
 
-  private List<CargoRoute> notRoutedCargos;
-  private List<CargoRoute> routedUnclaimedCargos;
-  private List<CargoRoute> claimedCargos;
+  private CargoListModel notRoutedCargos;
+  private CargoListModel routedUnclaimedCargos;
+  private CargoListModel claimedCargos;
 
   @PostConstruct
   public void init() {
-    List<CargoRoute> cargos = bookingServiceFacade.listAllCargos();
-    notRoutedCargos = cargos.stream().filter(route -> !route.isRouted()).collect(toList());
-    routedUnclaimedCargos =
-        cargos.stream().filter(route -> route.isRouted() && !route.isClaimed()).collect(toList());
-    claimedCargos = cargos.stream().filter(CargoRoute::isClaimed).collect(toList());
+    notRoutedCargos = new CargoListModel(CargoListItem.Filter.NOT_ROUTED);
+    routedUnclaimedCargos = new CargoListModel(CargoListItem.Filter.ROUTED_UNCLAIMED);
+    claimedCargos = new CargoListModel(CargoListItem.Filter.CLAIMED);
   }
 
-  public List<CargoRoute> getNotRoutedCargos() {
+  public LazyDataModel<CargoListItem> getNotRoutedCargos() {
     return notRoutedCargos;
   }
 
-  public List<CargoRoute> getRoutedUnclaimedCargos() {
+  public LazyDataModel<CargoListItem> getRoutedUnclaimedCargos() {
     return routedUnclaimedCargos;
   }
 
-  public List<CargoRoute> getClaimedCargos() {
+  public LazyDataModel<CargoListItem> getClaimedCargos() {
     return claimedCargos;
   }
+
+  private class CargoListModel extends LazyDataModel<CargoListItem> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CargoListItem.Filter filter;
+    // The last tracking ID before each page seen so far, by the index of its first row.
+    private final TreeMap<Integer, String> pageKeys = new TreeMap<>();
+    private boolean descending = false;
+
+    CargoListModel(CargoListItem.Filter filter) {
+      this.filter = filter;
+      pageKeys.put(0, null);
+    }
+
+    @Override
+    public List<CargoListItem> load(
+        int first,
+        int pageSize,
+        String sortField,
+        SortOrder sortOrder,
+        Map<String, FilterMeta> filterBy) {
+      boolean sortDescending = sortOrder == SortOrder.DESCENDING;
+
+      if (sortDescending != descending) {
+        descending = sortDescending;
+        pageKeys.tailMap(0, false).clear();
+      }
+
+      setRowCount((int) bookingServiceFacade.countCargos(filter));
+
+      Map.Entry<Integer, String> known = pageKeys.floorEntry(first);
+      String after = known.getValue();
+
+      if (known.getKey() < first) {
+        // Jumped past the pages seen so far, skip ahead reading only as far as needed.
+        List<CargoListItem> skipped =
+            bookingServiceFacade.listCargos(filter, after, descending, first - known.getKey());
+
+        if (skipped.isEmpty()) {
+          return skipped;
+        }
+
+        after = skipped.get(skipped.size() - 1).getTrackingId();
+        pageKeys.put(known.getKey() + skipped.size(), after);
+      }
+
+      List<CargoListItem> page =
+          bookingServiceFacade.listCargos(filter, after, descending, pageSize);
+
+      if (!page.isEmpty()) {
+        pageKeys.put(first + page.size(), page.get(page.size() - 1).getTrackingId());
+      }
+
+      return page;
+    }
+
+    @Override
+    public String getRowKey(CargoListItem cargo) {
+      return cargo.getTrackingId();
+    }
+  }
 }
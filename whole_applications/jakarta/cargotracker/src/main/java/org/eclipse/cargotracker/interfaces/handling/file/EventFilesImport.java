@@ -0,0 +1,137 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks which partitions of each upload file have been imported during one partitioned step. A
+ * file is done once all of its partitions have completed, while the lines that were imported from a
+ * file with failed partitions are cut out of it so they are not imported again by the next scan:
+ * the completed partitions, and the chunks a failed partition committed before it failed.
+ *
+ * <p>Only used from the thread running the partitioned step, by the partition analyzer and reducer.
+ */
+class EventFilesImport {
+
+  /** A byte range of an upload file, read as by {@link EventLineReader}. */
+  static final class Range {
+    final File file;
+    final long start;
+    final long end;
+
+    Range(File file, long start, long end) {
+      this.file = file;
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  /** The position up to which a partition has committed its chunks, sent by its collector. */
+  static final class Checkpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    final int partition;
+    final long position;
+
+    Checkpoint(int partition, long position) {
+      this.partition = partition;
+      this.position = position;
+    }
+  }
+
+  private final List<Range> partitions;
+  private final boolean[] completed;
+  private final long[] committed;
+  private final Map<File, Integer> remaining = new HashMap<>();
+
+  EventFilesImport(List<Range> partitions) {
+    this.partitions = partitions;
+    this.completed = new boolean[partitions.size()];
+    this.committed = new long[partitions.size()];
+    for (int i = 0; i < partitions.size(); i++) {
+      Range range = partitions.get(i);
+      committed[i] = range.start;
+      remaining.merge(range.file, 1, Integer::sum);
+    }
+  }
+
+  /** @return The file of the partition if all of its partitions have now completed, else null. */
+  File completed(int partition) {
+    if (partition < 0 || partition >= partitions.size() || completed[partition]) {
+      return null;
+    }
+    completed[partition] = true;
+    File file = partitions.get(partition).file;
+    return remaining.merge(file, -1, Integer::sum) == 0 ? file : null;
+  }
+
+  /** Records that the partition has committed the lines before the position of the checkpoint. */
+  void committed(Checkpoint checkpoint) {
+    int partition = checkpoint.partition;
+    if (partition < 0 || partition >= partitions.size()) {
+      return;
+    }
+    committed[partition] = Math.max(committed[partition], checkpoint.position);
+  }
+
+  /**
+   * @return The ranges not yet imported of the files that were only partly imported, each failed
+   *     partition starting after the chunks it committed.
+   */
+  Map<File, List<Range>> getPartlyImported() {
+    Set<File> imported = new HashSet<>();
+    for (int i = 0; i < partitions.size(); i++) {
+      Range range = partitions.get(i);
+      if (completed[i] || committed[i] > range.start) {
+        imported.add(range.file);
+      }
+    }
+
+    Map<File, List<Range>> partlyImported = new LinkedHashMap<>();
+    for (int i = 0; i < partitions.size(); i++) {
+      Range range = partitions.get(i);
+      if (!completed[i] && imported.contains(range.file)) {
+        partlyImported
+            .computeIfAbsent(range.file, f -> new ArrayList<>())
+            .add(new Range(range.file, Math.min(committed[i], range.end), range.end));
+      }
+    }
+    return partlyImported;
+  }
+
+  /**
+   * Replaces the file with only the lines of the given ranges. The new contents are written next to
+   * the file under a hidden name, which the partition mapper skips, and then moved over it.
+   */
+  static void retain(File file, List<Range> ranges) throws IOException {
+    Path temp = new File(file.getParentFile(), "." + file.getName() + ".tmp").toPath();
+
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for (Range range : ranges) {
+        try (EventLineReader reader = new EventLineReader(file.toPath(), range.start, range.end)) {
+          for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            writer.write(line);
+            writer.write('\n');
+          }
+        }
+      }
+    }
+
+    Files.move(
+        temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,58 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.batch.api.partition.AbstractPartitionAnalyzer;
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Deletes each imported file as soon as all of its partitions have completed, so a failure in
+ * another partition doesn't make the next scan import it again. The partition is identified by the
+ * exit status set by {@link EventItemReader}. Also records the checkpoints sent by {@link
+ * EventFilesPartitionCollector}, for the partitions that fail.
+ */
+@Dependent
+@Named("EventFilesPartitionAnalyzer")
+public class EventFilesPartitionAnalyzer extends AbstractPartitionAnalyzer {
+
+  @Inject private Logger logger;
+
+  @Inject private StepContext stepContext;
+
+  @Override
+  public void analyzeCollectorData(Serializable data) throws Exception {
+    EventFilesImport files = (EventFilesImport) stepContext.getTransientUserData();
+
+    if (files != null && data instanceof EventFilesImport.Checkpoint) {
+      files.committed((EventFilesImport.Checkpoint) data);
+    }
+  }
+
+  @Override
+  public void analyzeStatus(BatchStatus batchStatus, String exitStatus) throws Exception {
+    EventFilesImport files = (EventFilesImport) stepContext.getTransientUserData();
+
+    if (batchStatus != BatchStatus.COMPLETED || files == null) {
+      return;
+    }
+
+    int partition;
+    try {
+      partition = Integer.parseInt(exitStatus);
+    } catch (NumberFormatException e) {
+      return;
+    }
+
+    File file = files.completed(partition);
+    if (file != null) {
+      logger.log(Level.INFO, "Finished processing file, deleting: {0}", file);
+      file.delete();
+    }
+  }
+}
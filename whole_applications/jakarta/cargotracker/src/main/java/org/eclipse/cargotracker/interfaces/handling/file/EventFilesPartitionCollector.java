@@ -0,0 +1,24 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import java.io.Serializable;
+import javax.batch.api.partition.PartitionCollector;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Sends the last checkpoint of the partition to {@link EventFilesPartitionAnalyzer} after each
+ * chunk, so the lines a failed partition has already imported are not imported again.
+ */
+@Dependent
+@Named("EventFilesPartitionCollector")
+public class EventFilesPartitionCollector implements PartitionCollector {
+
+  @Inject private StepContext stepContext;
+
+  @Override
+  public Serializable collectPartitionData() throws Exception {
+    return (EventFilesImport.Checkpoint) stepContext.getTransientUserData();
+  }
+}
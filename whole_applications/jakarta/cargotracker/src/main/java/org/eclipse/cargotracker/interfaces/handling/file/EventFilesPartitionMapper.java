@@ -0,0 +1,108 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.api.partition.PartitionPlanImpl;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Splits the files in the upload directory into partitions that are imported in parallel: one per
+ * file, or one per byte range for files larger than the partition size.
+ *
+ * <p>The partitions are tracked in an {@link EventFilesImport}, through which {@link
+ * EventFilesPartitionAnalyzer} deletes each file as soon as all of its partitions have completed.
+ * Hidden files are skipped, they are being rewritten by {@link EventFilesPartitionReducer}.
+ */
+@Dependent
+@Named("EventFilesPartitionMapper")
+public class EventFilesPartitionMapper implements PartitionMapper {
+
+  static final String PARTITION = "partition";
+  static final String FILE = "file";
+  static final String START = "start";
+  static final String END = "end";
+
+  private static final String UPLOAD_DIRECTORY = "upload_directory";
+  private static final String PARTITION_SIZE = "partition_size";
+  private static final String MAX_PARTITION_THREADS = "max_partition_threads";
+
+  @Inject private Logger logger;
+
+  @Inject private JobContext jobContext;
+  @Inject private StepContext stepContext;
+
+  @Override
+  public PartitionPlan mapPartitions() throws Exception {
+    Properties jobProperties = jobContext.getProperties();
+    File uploadDirectory = new File(jobProperties.getProperty(UPLOAD_DIRECTORY));
+    long partitionSize = Long.parseLong(jobProperties.getProperty(PARTITION_SIZE));
+    int maxThreads = Integer.parseInt(jobProperties.getProperty(MAX_PARTITION_THREADS));
+
+    logger.log(Level.INFO, "Scanning upload directory: {0}", uploadDirectory);
+
+    List<File> files = new ArrayList<>();
+    if (!uploadDirectory.exists()) {
+      logger.log(Level.INFO, "Upload directory does not exist, creating it");
+      uploadDirectory.mkdirs();
+    } else {
+      File[] listed = uploadDirectory.listFiles(f -> f.isFile() && !f.isHidden());
+      if (listed != null) {
+        Arrays.sort(listed);
+        files.addAll(Arrays.asList(listed));
+      }
+    }
+
+    List<Properties> partitions = new ArrayList<>();
+    List<EventFilesImport.Range> ranges = new ArrayList<>();
+    for (File file : files) {
+      long length = file.length();
+      long start = 0;
+      do {
+        long end = Math.min(length, start + partitionSize);
+        Properties partition = new Properties();
+        partition.setProperty(PARTITION, Integer.toString(partitions.size()));
+        partition.setProperty(FILE, file.getPath());
+        partition.setProperty(START, Long.toString(start));
+        partition.setProperty(END, Long.toString(end));
+        partitions.add(partition);
+        ranges.add(new EventFilesImport.Range(file, start, end));
+        start = end;
+      } while (start < length);
+    }
+
+    if (partitions.isEmpty()) {
+      logger.log(Level.INFO, "No files to process");
+      // A partitioned step needs at least one partition, this one reads nothing.
+      Properties empty = new Properties();
+      empty.setProperty(PARTITION, "-1");
+      empty.setProperty(FILE, "");
+      empty.setProperty(START, "0");
+      empty.setProperty(END, "0");
+      partitions.add(empty);
+    } else {
+      logger.log(
+          Level.INFO,
+          "Processing {0} files in {1} partitions",
+          new Object[] {files.size(), partitions.size()});
+    }
+
+    stepContext.setTransientUserData(new EventFilesImport(ranges));
+
+    PartitionPlan plan = new PartitionPlanImpl();
+    plan.setPartitions(partitions.size());
+    plan.setThreads(Math.min(maxThreads, partitions.size()));
+    plan.setPartitionProperties(partitions.toArray(new Properties[0]));
+    return plan;
+  }
+}
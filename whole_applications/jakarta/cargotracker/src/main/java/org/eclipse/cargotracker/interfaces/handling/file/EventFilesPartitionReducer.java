@@ -0,0 +1,60 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.batch.api.partition.AbstractPartitionReducer;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Cuts the imported lines out of files that were only partly imported, so the next scan imports
+ * just the lines the failed partitions did not commit. Fully imported files have already been deleted by {@link
+ * EventFilesPartitionAnalyzer}.
+ */
+@Dependent
+@Named("EventFilesPartitionReducer")
+public class EventFilesPartitionReducer extends AbstractPartitionReducer {
+
+  @Inject private Logger logger;
+
+  @Inject private StepContext stepContext;
+
+  private long startTime;
+
+  @Override
+  public void beginPartitionedStep() throws Exception {
+    startTime = System.nanoTime();
+  }
+
+  @Override
+  public void afterPartitionedStepCompletion(PartitionStatus status) throws Exception {
+    EventFilesImport files = (EventFilesImport) stepContext.getTransientUserData();
+
+    if (files != null) {
+      for (Map.Entry<File, List<EventFilesImport.Range>> entry :
+          files.getPartlyImported().entrySet()) {
+        logger.log(
+            Level.INFO, "Keeping the lines of {0} that were not imported", entry.getKey());
+        try {
+          EventFilesImport.retain(entry.getKey(), entry.getValue());
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Cannot rewrite partly imported file " + entry.getKey(), e);
+        }
+      }
+    }
+
+    logger.log(
+        Level.INFO,
+        "Partitioned import {0} after {1} ms",
+        new Object[] {
+          status == PartitionStatus.COMMIT ? "completed" : "rolled back",
+          (System.nanoTime() - startTime) / 1_000_000
+        });
+  }
+}
@@ -1,15 +1,14 @@
 package org.eclipse.cargotracker.interfaces.handling.file;
 
-import java.io.File;
-import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
-import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemReader;
-import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -20,82 +19,106 @@ import org.eclipse.cargotracker.domain.model.location.UnLocode;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
 import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
 
+/**
+ * Reads the handling event registration attempts of one partition, a byte range of an upload file,
+ * and reports the throughput of the partition when done.
+ *
+ * <p>The exit status of the partition is set to its number, so that {@link
+ * EventFilesPartitionAnalyzer} knows which partition completed. The position of each checkpoint is
+ * left in the transient user data of the partition, for {@link EventFilesPartitionCollector}.
+ */
 @Dependent
 @Named("EventItemReader")
 public class EventItemReader extends AbstractItemReader {
 
-  private static final String UPLOAD_DIRECTORY = "upload_directory";
+  private static final int FIELD_COUNT = 5;
 
   @Inject private Logger logger;
 
-  @Inject private JobContext jobContext;
-  private EventFilesCheckpoint checkpoint;
-  private RandomAccessFile currentFile;
+  @Inject private StepContext stepContext;
+
+  @Inject
+  @BatchProperty(name = EventFilesPartitionMapper.PARTITION)
+  private String partition;
+
+  @Inject
+  @BatchProperty(name = EventFilesPartitionMapper.FILE)
+  private String file;
+
+  @Inject
+  @BatchProperty(name = EventFilesPartitionMapper.START)
+  private String start;
+
+  @Inject
+  @BatchProperty(name = EventFilesPartitionMapper.END)
+  private String end;
+
+  private EventLineReader currentFile;
+  private long events;
+  private long startTime;
 
   @Override
   public void open(Serializable checkpoint) throws Exception {
-    File uploadDirectory = new File(jobContext.getProperties().getProperty(UPLOAD_DIRECTORY));
+    stepContext.setExitStatus(partition);
 
+    if (file == null || file.isEmpty()) {
+      currentFile = null;
+      return;
+    }
+
+    long position = Long.parseLong(start);
     if (checkpoint == null) {
-      this.checkpoint = new EventFilesCheckpoint();
-      logger.log(Level.INFO, "Scanning upload directory: {0}", uploadDirectory);
-
-      if (!uploadDirectory.exists()) {
-        logger.log(Level.INFO, "Upload directory does not exist, creating it");
-        uploadDirectory.mkdirs();
-      } else {
-        this.checkpoint.setFiles(Arrays.asList(uploadDirectory.listFiles()));
-      }
+      logger.log(
+          Level.INFO, "Processing file: {0} [{1}, {2})", new Object[] {file, start, end});
     } else {
       logger.log(Level.INFO, "Starting from previous checkpoint");
-      this.checkpoint = (EventFilesCheckpoint) checkpoint;
+      position = (Long) checkpoint;
     }
 
-    File file = this.checkpoint.currentFile();
-
-    if (file == null) {
-      logger.log(Level.INFO, "No files to process");
-      currentFile = null;
-    } else {
-      currentFile = new RandomAccessFile(file, "r");
-      logger.log(Level.INFO, "Processing file: {0}", file);
-      currentFile.seek(this.checkpoint.getFilePointer());
-    }
+    currentFile = new EventLineReader(Paths.get(file), position, Long.parseLong(end));
+    startTime = System.nanoTime();
   }
 
   @Override
   public Object readItem() throws Exception {
-    if (currentFile != null) {
-      String line = currentFile.readLine();
-
-      if (line != null) {
-        this.checkpoint.setFilePointer(currentFile.getFilePointer());
-        return parseLine(line);
-      } else {
-        logger.log(
-            Level.INFO, "Finished processing file, deleting: {0}", this.checkpoint.currentFile());
-        currentFile.close();
-        this.checkpoint.currentFile().delete();
-        File nextFile = this.checkpoint.nextFile();
-
-        if (nextFile == null) {
-          logger.log(Level.INFO, "No more files to process");
-          return null;
-        } else {
-          currentFile = new RandomAccessFile(nextFile, "r");
-          logger.log(Level.INFO, "Processing file: {0}", nextFile);
-          return readItem();
-        }
-      }
-    } else {
+    if (currentFile == null) {
       return null;
     }
+
+    String line = currentFile.readLine();
+
+    if (line == null) {
+      return null;
+    }
+
+    HandlingEventRegistrationAttempt attempt = parseLine(line);
+    events++;
+    return attempt;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (currentFile == null) {
+      return;
+    }
+
+    currentFile.close();
+    currentFile = null;
+
+    long elapsed = Math.max(1, System.nanoTime() - startTime);
+    logger.log(
+        Level.INFO,
+        "Processed file: {0} [{1}, {2}), {3} events in {4} ms, {5} events/sec",
+        new Object[] {
+          file, start, end, events, elapsed / 1_000_000, events * 1_000_000_000L / elapsed
+        });
   }
 
-  private Object parseLine(String line) throws EventLineParseException {
-    String[] result = line.split(",");
+  private HandlingEventRegistrationAttempt parseLine(String line)
+      throws EventLineParseException {
+    String[] result = split(line);
 
-    if (result.length != 5) {
+    if (result == null) {
       throw new EventLineParseException("Wrong number of data elements", line);
     }
 
@@ -148,8 +171,33 @@ public class EventItemReader extends AbstractItemReader {
     return attempt;
   }
 
+  /** @return The comma separated fields of the line, or null if there are not exactly five. */
+  private static String[] split(String line) {
+    String[] fields = new String[FIELD_COUNT];
+    int field = 0;
+    int fieldStart = 0;
+
+    for (int i = 0; i <= line.length(); i++) {
+      if (i == line.length() || line.charAt(i) == ',') {
+        if (field == FIELD_COUNT) {
+          return null;
+        }
+        fields[field++] = line.substring(fieldStart, i);
+        fieldStart = i + 1;
+      }
+    }
+
+    return field == FIELD_COUNT ? fields : null;
+  }
+
   @Override
   public Serializable checkpointInfo() throws Exception {
-    return this.checkpoint;
+    if (currentFile == null) {
+      return null;
+    }
+    long position = currentFile.getPosition();
+    stepContext.setTransientUserData(
+        new EventFilesImport.Checkpoint(Integer.parseInt(partition), position));
+    return position;
   }
 }
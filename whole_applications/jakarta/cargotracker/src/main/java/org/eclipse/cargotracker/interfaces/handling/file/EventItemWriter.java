@@ -1,11 +1,11 @@
 package org.eclipse.cargotracker.interfaces.handling.file;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.util.List;
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemWriter;
 import javax.batch.runtime.context.JobContext;
 import javax.enterprise.context.Dependent;
@@ -25,6 +25,16 @@ public class EventItemWriter extends AbstractItemWriter {
   @Inject private JobContext jobContext;
   @Inject private ApplicationEvents applicationEvents;
 
+  @Inject
+  @BatchProperty(name = EventFilesPartitionMapper.FILE)
+  private String file;
+
+  @Inject
+  @BatchProperty(name = EventFilesPartitionMapper.START)
+  private String start;
+
+  private File archive;
+
   @Override
   public void open(Serializable checkpoint) throws Exception {
     File archiveDirectory = new File(jobContext.getProperties().getProperty(ARCHIVE_DIRECTORY));
@@ -32,42 +42,48 @@ public class EventItemWriter extends AbstractItemWriter {
     if (!archiveDirectory.exists()) {
       archiveDirectory.mkdirs();
     }
+
+    // One archive per partition, so that partitions running in parallel don't interleave.
+    archive =
+        new File(
+            archiveDirectory,
+            "archive_"
+                + jobContext.getJobName()
+                + "_"
+                + jobContext.getInstanceId()
+                + "_"
+                + new File(file).getName()
+                + "_"
+                + start
+                + ".csv");
   }
 
   @Override
   @Transactional
   public void writeItems(List<Object> items) throws Exception {
-    try (PrintWriter archive =
-        new PrintWriter(
-            new BufferedWriter(
-                new FileWriter(
-                    jobContext.getProperties().getProperty(ARCHIVE_DIRECTORY)
-                        + "/archive_"
-                        + jobContext.getJobName()
-                        + "_"
-                        + jobContext.getInstanceId()
-                        + ".csv",
-                    true)))) {
+    StringBuilder lines = new StringBuilder(items.size() * 64);
+
+    for (Object item : items) {
+      HandlingEventRegistrationAttempt attempt = (HandlingEventRegistrationAttempt) item;
+      applicationEvents.receivedHandlingEventRegistrationAttempt(attempt);
+      lines
+          .append(DateConverter.toString(attempt.getRegistrationTime()))
+          .append(',')
+          .append(DateConverter.toString(attempt.getCompletionTime()))
+          .append(',')
+          .append(attempt.getTrackingId())
+          .append(',')
+          .append(attempt.getVoyageNumber())
+          .append(',')
+          .append(attempt.getUnLocode())
+          .append(',')
+          .append(attempt.getType())
+          .append(System.lineSeparator());
+    }
 
-      items
-          .stream()
-          .map(item -> (HandlingEventRegistrationAttempt) item)
-          .forEach(
-              attempt -> {
-                applicationEvents.receivedHandlingEventRegistrationAttempt(attempt);
-                archive.println(
-                    DateConverter.toString(attempt.getRegistrationTime())
-                        + ","
-                        + DateConverter.toString(attempt.getCompletionTime())
-                        + ","
-                        + attempt.getTrackingId()
-                        + ","
-                        + attempt.getVoyageNumber()
-                        + ","
-                        + attempt.getUnLocode()
-                        + ","
-                        + attempt.getType());
-              });
+    // The whole chunk is archived with a single write.
+    try (Writer writer = new FileWriter(archive, true)) {
+      writer.write(lines.toString());
     }
   }
 }
@@ -0,0 +1,102 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a byte range of an event file through a large buffer.
+ *
+ * <p>A range owns every line that starts inside it, including the tail of a line that runs past its
+ * end, so splitting a file into consecutive ranges reads every line exactly once. The position is
+ * always at the start of a line and can be used as a checkpoint to resume from.
+ */
+class EventLineReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileChannel channel;
+  private final long end;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int bufferIndex = 0;
+  private int bufferLimit = 0;
+  private byte[] line = new byte[256];
+  private long position;
+
+  /**
+   * @param start offset to start from, lines starting before it are skipped
+   * @param end offset of the end of the range, exclusive
+   */
+  EventLineReader(Path file, long start, long end) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.end = end;
+
+    if (start > 0) {
+      // Skip the rest of the line that belongs to the previous range, unless it ends right here.
+      this.position = start - 1;
+      channel.position(position);
+      while (true) {
+        int next = read();
+        if (next < 0 || next == '\n') {
+          break;
+        }
+      }
+    }
+  }
+
+  /** @return The next line without its terminator, or null at the end of the range. */
+  String readLine() throws IOException {
+    if (position >= end) {
+      return null;
+    }
+
+    int length = 0;
+    int next = read();
+    if (next < 0) {
+      return null;
+    }
+
+    while (next >= 0 && next != '\n') {
+      if (length == line.length) {
+        line = Arrays.copyOf(line, length * 2);
+      }
+      line[length++] = (byte) next;
+      next = read();
+    }
+
+    if (length > 0 && line[length - 1] == '\r') {
+      length--;
+    }
+
+    return new String(line, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /** @return The offset of the next line. */
+  long getPosition() {
+    return position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int read() throws IOException {
+    if (bufferIndex == bufferLimit) {
+      int read = channel.read(ByteBuffer.wrap(buffer));
+      if (read <= 0) {
+        return -1;
+      }
+      bufferIndex = 0;
+      bufferLimit = read;
+    }
+
+    position++;
+    return buffer[bufferIndex++] & 0xFF;
+  }
+}
@@ -1,17 +1,24 @@
 package org.eclipse.cargotracker.interfaces.handling.file;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.annotation.security.PermitAll;
 import javax.batch.operations.JobOperator;
+import javax.batch.operations.NoSuchJobException;
 import javax.batch.runtime.BatchRuntime;
 import javax.ejb.Schedule;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionManagement;
 import javax.ejb.TransactionManagementType;
+import javax.inject.Inject;
 
 /**
  * Periodically scans a certain directory for files and attempts to parse handling event
  * registrations from the contents by calling a batch job.
  *
+ * <p>The job imports the files in parallel partitions. A scan is skipped while the previous job is
+ * still running, since it would import the same files again.
+ *
  * <p>Files that fail to parse are moved into a separate directory, successful files are deleted.
  */
 @Stateless
@@ -19,9 +26,23 @@ import javax.ejb.TransactionManagementType;
 @TransactionManagement(TransactionManagementType.BEAN) // Batch steps manage their own transactions.
 public class UploadDirectoryScanner {
 
+  private static final String JOB_NAME = "EventFilesProcessorJob";
+
+  @Inject private Logger logger;
+
   @Schedule(minute = "*/2", hour = "*") // In production, run every fifteen minutes
   public void processFiles() {
     JobOperator jobOperator = BatchRuntime.getJobOperator();
-    jobOperator.start("EventFilesProcessorJob", null);
+
+    try {
+      if (!jobOperator.getRunningExecutions(JOB_NAME).isEmpty()) {
+        logger.log(Level.INFO, "Previous {0} still running, skipping scan", JOB_NAME);
+        return;
+      }
+    } catch (NoSuchJobException e) {
+      // The job has never run.
+    }
+
+    jobOperator.start(JOB_NAME, null);
   }
 }
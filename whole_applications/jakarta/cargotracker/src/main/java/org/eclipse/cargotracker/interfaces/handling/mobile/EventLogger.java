@@ -21,8 +21,11 @@ import org.eclipse.cargotracker.application.ApplicationEvents;
 import org.eclipse.cargotracker.application.util.DateConverter;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.cargo.CargoRepository;
+import org.eclipse.cargotracker.domain.model.cargo.RoutingStatus;
+import org.eclipse.cargotracker.domain.model.cargo.RoutingStatusSpecification;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
 import org.eclipse.cargotracker.domain.model.cargo.TransportStatus;
+import org.eclipse.cargotracker.domain.model.cargo.TransportStatusSpecification;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
 import org.eclipse.cargotracker.domain.model.location.Location;
 import org.eclipse.cargotracker.domain.model.location.LocationRepository;
@@ -30,6 +33,7 @@ import org.eclipse.cargotracker.domain.model.location.UnLocode;
 import org.eclipse.cargotracker.domain.model.voyage.Voyage;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
 import org.eclipse.cargotracker.domain.model.voyage.VoyageRepository;
+import org.eclipse.cargotracker.domain.shared.NotSpecification;
 import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
 import org.primefaces.event.FlowEvent;
 
@@ -125,20 +129,18 @@ public class EventLogger implements Serializable {
 
   @PostConstruct
   public void init() {
-    List<Cargo> cargos = cargoRepository.findAll();
+    // List only routed cargo that is not claimed yet.
+    List<Cargo> cargos =
+        cargoRepository.findSatisfying(
+            new NotSpecification<>(new RoutingStatusSpecification(RoutingStatus.NOT_ROUTED))
+                .and(
+                    new NotSpecification<>(
+                        new TransportStatusSpecification(TransportStatus.CLAIMED))));
 
     trackingIds = new ArrayList<>(cargos.size());
 
-    // List only routed cargo that is not claimed yet.
     cargos
         .stream()
-        .filter(
-            cargo ->
-                !cargo.getItinerary().getLegs().isEmpty()
-                    && !(cargo
-                        .getDelivery()
-                        .getTransportStatus()
-                        .sameValueAs(TransportStatus.CLAIMED)))
         .map(cargo -> cargo.getTrackingId().getIdString())
         .forEachOrdered(trackingId -> trackingIds.add(new SelectItem(trackingId, trackingId)));
 
@@ -0,0 +1,191 @@
+package org.eclipse.cargotracker.interfaces.handling.rest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import org.eclipse.cargotracker.application.ApplicationEvents;
+import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
+import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
+
+/**
+ * The handling reports of one bulk submission. Reports are validated one at a time as they are
+ * read, valid ones are grouped per cargo to be registered together, and a result is recorded for
+ * every report.
+ */
+class HandlingReportBatch {
+
+  static final int MAX_REPORTS = 10_000;
+  // Attempts of one cargo are registered in one transaction, up to this many at a time.
+  private static final int MAX_ATTEMPTS_PER_MESSAGE = 100;
+
+  private final Validator validator;
+  private final LocalDateTime registrationTime = LocalDateTime.now();
+  private final Map<TrackingId, List<HandlingEventRegistrationAttempt>> attemptsByCargo =
+      new LinkedHashMap<>();
+  private final JsonArrayBuilder results = Json.createArrayBuilder();
+  private int reports = 0;
+  private int accepted = 0;
+
+  HandlingReportBatch(Validator validator) {
+    this.validator = validator;
+  }
+
+  /** Reads the reports of a JSON array. */
+  void readArray(InputStream handlingReports) {
+    try (JsonParser parser = Json.createParser(handlingReports)) {
+      if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+        throw new BadRequestException("Expected an array of handling reports.");
+      }
+
+      parser.getArrayStream().forEach(this::add);
+    } catch (JsonException e) {
+      throw new BadRequestException("Malformed handling reports: " + e.getMessage(), e);
+    }
+  }
+
+  /** Reads newline delimited reports, blank lines are ignored. */
+  void readLines(InputStream handlingReports) throws IOException {
+    try (BufferedReader lines =
+        new BufferedReader(new InputStreamReader(handlingReports, StandardCharsets.UTF_8))) {
+      for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+
+        // Every line stands on its own, so a malformed one only rejects that report.
+        try (JsonReader reader = Json.createReader(new StringReader(line))) {
+          add(reader.readValue());
+        } catch (JsonException e) {
+          reject("Malformed handling report: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  void add(JsonValue value) {
+    int index = next();
+
+    if (value.getValueType() != JsonValue.ValueType.OBJECT) {
+      reject(index, "Not a handling report.");
+      return;
+    }
+
+    HandlingReport handlingReport = toHandlingReport(value.asJsonObject());
+    Set<ConstraintViolation<HandlingReport>> violations = validator.validate(handlingReport);
+
+    if (!violations.isEmpty()) {
+      JsonArrayBuilder errors = Json.createArrayBuilder();
+      violations.forEach(violation -> errors.add(violation.getMessage()));
+      reject(index, errors);
+      return;
+    }
+
+    HandlingEventRegistrationAttempt attempt;
+
+    try {
+      attempt = HandlingReportService.toRegistrationAttempt(handlingReport, registrationTime);
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      reject(index, e.getMessage());
+      return;
+    }
+
+    attemptsByCargo.computeIfAbsent(attempt.getTrackingId(), id -> new ArrayList<>()).add(attempt);
+    accepted++;
+    results.add(
+        Json.createObjectBuilder()
+            .add("index", index)
+            .add("status", "ACCEPTED")
+            .add("trackingId", attempt.getTrackingId().getIdString()));
+  }
+
+  /** Records a report that could not even be read. */
+  void reject(String error) {
+    reject(next(), error);
+  }
+
+  void submit(ApplicationEvents applicationEvents) {
+    for (List<HandlingEventRegistrationAttempt> attempts : attemptsByCargo.values()) {
+      for (int start = 0; start < attempts.size(); start += MAX_ATTEMPTS_PER_MESSAGE) {
+        applicationEvents.receivedHandlingEventRegistrationAttempts(
+            new ArrayList<>(
+                attempts.subList(
+                    start, Math.min(attempts.size(), start + MAX_ATTEMPTS_PER_MESSAGE))));
+      }
+    }
+  }
+
+  JsonObject getResults() {
+    return Json.createObjectBuilder()
+        .add("accepted", accepted)
+        .add("rejected", reports - accepted)
+        .add("results", results)
+        .build();
+  }
+
+  private int next() {
+    if (reports == MAX_REPORTS) {
+      throw new WebApplicationException(
+          "At most " + MAX_REPORTS + " handling reports can be submitted at once.",
+          Response.Status.REQUEST_ENTITY_TOO_LARGE);
+    }
+
+    return reports++;
+  }
+
+  private void reject(int index, String error) {
+    reject(index, Json.createArrayBuilder().add(error));
+  }
+
+  private void reject(int index, JsonArrayBuilder errors) {
+    results.add(
+        Json.createObjectBuilder()
+            .add("index", index)
+            .add("status", "REJECTED")
+            .add("errors", errors));
+  }
+
+  private static HandlingReport toHandlingReport(JsonObject object) {
+    HandlingReport handlingReport = new HandlingReport();
+    handlingReport.setCompletionTime(getString(object, "completionTime"));
+    handlingReport.setTrackingId(getString(object, "trackingId"));
+    handlingReport.setEventType(getString(object, "eventType"));
+    handlingReport.setUnLocode(getString(object, "unLocode"));
+    handlingReport.setVoyageNumber(getString(object, "voyageNumber"));
+    return handlingReport;
+  }
+
+  private static String getString(JsonObject object, String name) {
+    JsonValue value = object.get(name);
+
+    if (value == null || value.getValueType() == JsonValue.ValueType.NULL) {
+      return null;
+    } else if (value instanceof JsonString) {
+      return ((JsonString) value).getString();
+    } else {
+      return value.toString();
+    }
+  }
+}
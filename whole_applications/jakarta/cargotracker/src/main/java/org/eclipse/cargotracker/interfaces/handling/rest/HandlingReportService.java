@@ -1,13 +1,20 @@
 package org.eclipse.cargotracker.interfaces.handling.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import org.eclipse.cargotracker.application.ApplicationEvents;
 import org.eclipse.cargotracker.application.util.DateConverter;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
@@ -20,18 +27,68 @@ import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAtt
  * This REST end-point implementation performs basic validation and parsing of incoming data, and in
  * case of a valid registration attempt, sends an asynchronous message with the information to the
  * handling event registration system for proper registration.
+ *
+ * <p>Bursts of reports, for example from handheld scanners, can be submitted in bulk as a JSON
+ * array or as newline delimited JSON. The reports are read as a stream and validated one by one,
+ * and the valid ones are grouped per cargo and registered in batches. The response has a result for
+ * every report. When registration falls behind, bulk submissions are turned away with 429 Too Many
+ * Requests and a Retry-After header.
  */
 @Stateless
 @Path("/handling")
 public class HandlingReportService {
 
+  private static final String NDJSON = "application/x-ndjson";
+  private static final int RETRY_AFTER_SECONDS = 5;
+
   @Inject private ApplicationEvents applicationEvents;
+  @Inject private Validator validator;
 
   @POST
   @Path("/reports")
   @Consumes({"application/json", "application/xml"})
   public void submitReport(
       @NotNull(message = "Missing handling report.") @Valid HandlingReport handlingReport) {
+    HandlingEventRegistrationAttempt attempt =
+        toRegistrationAttempt(handlingReport, LocalDateTime.now());
+
+    applicationEvents.receivedHandlingEventRegistrationAttempt(attempt);
+  }
+
+  @POST
+  @Path("/reports/bulk")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response submitReports(InputStream handlingReports) {
+    if (applicationEvents.isHandlingEventRegistrationBacklogged()) {
+      return tooManyRequests();
+    }
+
+    HandlingReportBatch batch = new HandlingReportBatch(validator);
+    batch.readArray(handlingReports);
+    batch.submit(applicationEvents);
+
+    return Response.ok(batch.getResults()).build();
+  }
+
+  @POST
+  @Path("/reports/bulk")
+  @Consumes(NDJSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response submitReportLines(InputStream handlingReports) throws IOException {
+    if (applicationEvents.isHandlingEventRegistrationBacklogged()) {
+      return tooManyRequests();
+    }
+
+    HandlingReportBatch batch = new HandlingReportBatch(validator);
+    batch.readLines(handlingReports);
+    batch.submit(applicationEvents);
+
+    return Response.ok(batch.getResults()).build();
+  }
+
+  static HandlingEventRegistrationAttempt toRegistrationAttempt(
+      HandlingReport handlingReport, LocalDateTime registrationTime) {
     LocalDateTime completionTime = DateConverter.toDateTime(handlingReport.getCompletionTime());
     VoyageNumber voyageNumber = null;
 
@@ -44,10 +101,13 @@ public class HandlingReportService {
 
     TrackingId trackingId = new TrackingId(handlingReport.getTrackingId());
 
-    HandlingEventRegistrationAttempt attempt =
-        new HandlingEventRegistrationAttempt(
-            LocalDateTime.now(), completionTime, trackingId, voyageNumber, type, unLocode);
+    return new HandlingEventRegistrationAttempt(
+        registrationTime, completionTime, trackingId, voyageNumber, type, unLocode);
+  }
 
-    applicationEvents.receivedHandlingEventRegistrationAttempt(attempt);
+  private static Response tooManyRequests() {
+    return Response.status(Response.Status.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+        .build();
   }
 }
@@ -1,33 +1,33 @@
 package org.eclipse.pathfinder.api;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import org.eclipse.pathfinder.internal.GraphDao;
+import org.eclipse.pathfinder.internal.RouteFinder;
+import org.eclipse.pathfinder.internal.TransitGraph;
 
 @Stateless
 @Path("/graph-traversal")
 public class GraphTraversalService {
 
-  private static final long ONE_MIN_MS = 1000 * 60;
-  private static final long ONE_DAY_MS = ONE_MIN_MS * 60 * 24;
+  private static final int MAX_CANDIDATES = 5;
   private static final String UNLOCODE_PATTERN_VIOLATION_MESSAGE =
       "UN location code value must be five characters long, "
           + "the first two must be alphabetic and "
           + "the last three must be alphanumeric (excluding 0 and 1).";
-  private final Random random = new Random();
   @Inject private GraphDao dao;
 
   @GET
@@ -46,55 +46,57 @@ public class GraphTraversalService {
               message = "Destination " + UNLOCODE_PATTERN_VIOLATION_MESSAGE)
           @QueryParam("destination")
           String destinationUnLocode,
-      // TODO [DDD] Apply regular expression validation.
       @Size(min = 8, max = 8, message = "Deadline value must be eight characters long.")
+          @Pattern(
+              regexp = "[0-9]{8}",
+              message = "Deadline value must be a date in yyyyMMdd format.")
           @QueryParam("deadline")
           String deadline) {
 
-    List<String> allVertices = dao.listLocations();
-    allVertices.remove(originUnLocode);
-    allVertices.remove(destinationUnLocode);
+    // Itineraries must arrive before the day of the deadline, as in RouteSpecification.
+    long arriveBefore = Long.MAX_VALUE;
+    if (deadline != null) {
+      try {
+        arriveBefore =
+            TransitGraph.toEpochSecond(
+                LocalDate.parse(deadline, DateTimeFormatter.BASIC_ISO_DATE).atStartOfDay());
+      } catch (DateTimeParseException e) {
+        throw new BadRequestException("Deadline value must be a date in yyyyMMdd format.", e);
+      }
+    }
 
-    int candidateCount = getRandomNumberOfCandidates();
-    List<TransitPath> candidates = new ArrayList<>(candidateCount);
+    TransitGraph graph = dao.getGraph();
+    List<int[]> paths =
+        new RouteFinder(graph)
+            .findPaths(
+                originUnLocode, destinationUnLocode, Long.MIN_VALUE, arriveBefore, MAX_CANDIDATES);
 
-    for (int i = 0; i < candidateCount; i++) {
-      allVertices = getRandomChunkOfLocations(allVertices);
-      List<TransitEdge> transitEdges = new ArrayList<>(allVertices.size() - 1);
-      String fromUnLocode = originUnLocode;
-      LocalDateTime date = LocalDateTime.now();
+    List<TransitPath> candidates = new ArrayList<>(paths.size());
+    for (int[] path : paths) {
+      candidates.add(toTransitPath(graph, path));
+    }
+    return candidates;
+  }
 
-      for (int j = 0; j <= allVertices.size(); ++j) {
-        LocalDateTime fromDate = nextDate(date);
-        LocalDateTime toDate = nextDate(fromDate);
-        String toUnLocode = (j >= allVertices.size() ? destinationUnLocode : allVertices.get(j));
+  /** Cargo staying aboard a voyage through intermediate stops travels on a single edge. */
+  private TransitPath toTransitPath(TransitGraph graph, int[] path) {
+    List<TransitEdge> transitEdges = new ArrayList<>();
+    int first = path[0];
+    for (int i = 1; i <= path.length; i++) {
+      if (i == path.length || graph.getNextOnVoyage(path[i - 1]) != path[i]) {
+        int last = path[i - 1];
         transitEdges.add(
             new TransitEdge(
-                dao.getVoyageNumber(fromUnLocode, toUnLocode),
-                fromUnLocode,
-                toUnLocode,
-                fromDate,
-                toDate));
-        fromUnLocode = toUnLocode;
-        date = nextDate(toDate);
+                graph.getVoyageNumber(first),
+                graph.getLocation(graph.getFrom(first)),
+                graph.getLocation(graph.getTo(last)),
+                TransitGraph.toLocalDateTime(graph.getDeparture(first)),
+                TransitGraph.toLocalDateTime(graph.getArrival(last))));
+        if (i < path.length) {
+          first = path[i];
+        }
       }
-      candidates.add(new TransitPath(transitEdges));
     }
-    return candidates;
-  }
-
-  private LocalDateTime nextDate(LocalDateTime date) {
-    return date.plus(ONE_DAY_MS + (random.nextInt(1000) - 500) * ONE_MIN_MS, ChronoUnit.MILLIS);
-  }
-
-  private int getRandomNumberOfCandidates() {
-    return 3 + random.nextInt(3);
-  }
-
-  private List<String> getRandomChunkOfLocations(List<String> allLocations) {
-    Collections.shuffle(allLocations);
-    int total = allLocations.size();
-    int chunk = total > 4 ? 1 + random.nextInt(5) : total;
-    return allLocations.subList(0, chunk);
+    return new TransitPath(transitEdges);
   }
 }
@@ -1,40 +1,79 @@
 package org.eclipse.pathfinder.internal;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Resource;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.eclipse.cargotracker.domain.model.voyage.CarrierMovement;
+import org.eclipse.cargotracker.domain.model.voyage.Voyage;
+import org.eclipse.cargotracker.domain.model.voyage.VoyageRepository;
 
+/**
+ * Provides the transit network, built from the published voyage schedules. The graph is shared by
+ * all queries, as it is immutable, and rebuilt once it is older than the routing cache time to
+ * live so schedule changes are picked up.
+ */
 @ApplicationScoped
 public class GraphDao implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
-  private final Random random = new Random();
+  @Inject private VoyageRepository voyageRepository;
 
-  public List<String> listLocations() {
-    return new ArrayList<>(
-        Arrays.asList(
-            "CNHKG", "AUMEL", "SESTO", "FIHEL", "USCHI", "JNTKO", "DEHAM", "CNSHA", "NLRTM",
-            "SEGOT", "CNHGH", "USNYC", "USDAL"));
+  @Resource(lookup = "java:app/configuration/RoutingCacheTtlSeconds")
+  Integer ttlSeconds;
+
+  private transient volatile CachedGraph cached;
+
+  public TransitGraph getGraph() {
+    CachedGraph current = cached;
+    if (current == null || current.isExpired(System.nanoTime())) {
+      synchronized (this) {
+        current = cached;
+        if (current == null || current.isExpired(System.nanoTime())) {
+          TransitGraph graph = buildGraph(voyageRepository.findAll());
+          current = new CachedGraph(graph, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+          // Don't hold on to an empty network, voyages may not have been loaded yet.
+          cached = graph.getEdgeCount() > 0 ? current : null;
+        }
+      }
+    }
+    return current.graph;
   }
 
-  public String getVoyageNumber(String from, String to) {
-    int i = random.nextInt(5);
-
-    switch (i) {
-      case 0:
-        return "0100S";
-      case 1:
-        return "0200T";
-      case 2:
-        return "0300A";
-      case 3:
-        return "0301S";
-      default:
-        return "0400S";
+  /** Drops the current graph, the next query rebuilds it from the voyage schedules. */
+  public void invalidate() {
+    cached = null;
+  }
+
+  static TransitGraph buildGraph(List<Voyage> voyages) {
+    TransitGraph.Builder builder = new TransitGraph.Builder();
+    for (Voyage voyage : voyages) {
+      builder.addVoyage(voyage.getVoyageNumber().getIdString());
+      for (CarrierMovement movement : voyage.getSchedule().getCarrierMovements()) {
+        builder.addMovement(
+            movement.getDepartureLocation().getUnLocode().getIdString(),
+            movement.getArrivalLocation().getUnLocode().getIdString(),
+            movement.getDepartureTime(),
+            movement.getArrivalTime());
+      }
+    }
+    return builder.build();
+  }
+
+  private static final class CachedGraph {
+    final TransitGraph graph;
+    final long expiresAt;
+
+    CachedGraph(TransitGraph graph, long expiresAt) {
+      this.graph = graph;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
     }
   }
 }
@@ -0,0 +1,256 @@
+package org.eclipse.pathfinder.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds the k earliest-arriving paths between two locations of a {@link TransitGraph}.
+ *
+ * <p>A single search is a time-dependent Dijkstra over carrier movements: a movement can be taken
+ * if it departs no earlier than the cargo is available at its departure location, or if it is the
+ * next movement of the voyage the cargo is already aboard. Every movement has a fixed arrival time,
+ * so movements are settled in order of arrival, and the first time a location is reached all later
+ * departures from it are boarded at once. This explores the same states as a time-expanded graph
+ * without materializing it. Movements arriving at or after the deadline are never boarded.
+ *
+ * <p>Alternatives are found with Yen's algorithm, spurring from the arrival time of the shared root
+ * path, so every alternative respects the schedule as well.
+ *
+ * <p>Instances keep per-search scratch space and are not thread-safe; use one per query.
+ */
+public class RouteFinder {
+
+  private final TransitGraph graph;
+
+  // Scratch space, reset between searches by bumping the stamps.
+  private final int[] reachedStamp;
+  private final int[] previous;
+  private final int[] settledStamp;
+  private final int[] blockedEdgeStamp;
+  private final int[] blockedLocationStamp;
+  private int searchStamp = 0;
+  private int blockStamp = 0;
+
+  private final int[] heap;
+  private int heapSize;
+
+  public RouteFinder(TransitGraph graph) {
+    this.graph = graph;
+    int edges = graph.getEdgeCount();
+    int locations = graph.getLocationCount();
+    this.reachedStamp = new int[edges];
+    this.previous = new int[edges];
+    this.blockedEdgeStamp = new int[edges];
+    this.settledStamp = new int[locations];
+    this.blockedLocationStamp = new int[locations];
+    this.heap = new int[edges];
+  }
+
+  /**
+   * Returns up to k paths, each an array of edges, ordered by arrival time and then by number of
+   * voyages used.
+   *
+   * @param notBefore earliest departure from the origin, in epoch seconds
+   * @param arriveBefore every path must arrive before this time, in epoch seconds
+   */
+  public List<int[]> findPaths(
+      String originUnLocode,
+      String destinationUnLocode,
+      long notBefore,
+      long arriveBefore,
+      int k) {
+    int origin = graph.indexOf(originUnLocode);
+    int destination = graph.indexOf(destinationUnLocode);
+    if (origin < 0 || destination < 0 || origin == destination || k < 1) {
+      return Collections.emptyList();
+    }
+
+    blockStamp++;
+    int[] shortest = search(origin, notBefore, -1, destination, arriveBefore);
+    if (shortest == null) {
+      return Collections.emptyList();
+    }
+
+    List<int[]> paths = new ArrayList<>(k);
+    paths.add(shortest);
+    PriorityQueue<int[]> candidates = new PriorityQueue<>(byArrivalThenVoyages());
+    Set<String> seen = new HashSet<>();
+    seen.add(Arrays.toString(shortest));
+
+    while (paths.size() < k) {
+      int[] last = paths.get(paths.size() - 1);
+
+      for (int i = 0; i < last.length; i++) {
+        // Spur from the location reached after the first i edges of the last path.
+        int spurLocation = i == 0 ? origin : graph.getTo(last[i - 1]);
+        long available = i == 0 ? notBefore : graph.getArrival(last[i - 1]);
+        int aboard = i == 0 ? -1 : last[i - 1];
+
+        blockStamp++;
+        for (int[] path : paths) {
+          if (path.length > i && sameRoot(path, last, i)) {
+            blockedEdgeStamp[path[i]] = blockStamp;
+          }
+        }
+        blockedLocationStamp[origin] = blockStamp;
+        for (int j = 0; j < i - 1; j++) {
+          blockedLocationStamp[graph.getTo(last[j])] = blockStamp;
+        }
+
+        int[] spur = search(spurLocation, available, aboard, destination, arriveBefore);
+        if (spur != null) {
+          int[] candidate = Arrays.copyOf(last, i + spur.length);
+          System.arraycopy(spur, 0, candidate, i, spur.length);
+          if (seen.add(Arrays.toString(candidate))) {
+            candidates.add(candidate);
+          }
+        }
+      }
+
+      if (candidates.isEmpty()) {
+        break;
+      }
+      paths.add(candidates.poll());
+    }
+    return paths;
+  }
+
+  /**
+   * Returns the number of voyages a path uses, counting staying aboard as one voyage.
+   */
+  public int countVoyages(int[] path) {
+    int voyages = 0;
+    for (int i = 0; i < path.length; i++) {
+      if (i == 0 || graph.getNextOnVoyage(path[i - 1]) != path[i]) {
+        voyages++;
+      }
+    }
+    return voyages;
+  }
+
+  private Comparator<int[]> byArrivalThenVoyages() {
+    return Comparator.<int[]>comparingLong(path -> graph.getArrival(path[path.length - 1]))
+        .thenComparingInt(this::countVoyages);
+  }
+
+  private static boolean sameRoot(int[] path, int[] other, int length) {
+    for (int i = 0; i < length; i++) {
+      if (path[i] != other[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Earliest-arrival search from a location where cargo is available at the given time, optionally
+   * still aboard a movement whose voyage continues. Returns the edges to the target, or null.
+   */
+  private int[] search(int source, long available, int aboard, int target, long arriveBefore) {
+    searchStamp++;
+    heapSize = 0;
+
+    if (aboard >= 0) {
+      reach(graph.getNextOnVoyage(aboard), -1, source, arriveBefore);
+    }
+    settledStamp[source] = searchStamp;
+    board(source, available, -1, source, arriveBefore);
+
+    while (heapSize > 0) {
+      int edge = pop();
+      int location = graph.getTo(edge);
+      if (location == target) {
+        return pathTo(edge);
+      }
+      reach(graph.getNextOnVoyage(edge), edge, source, arriveBefore);
+      if (settledStamp[location] != searchStamp) {
+        // Reached earliest by this edge, so boarding here covers any later arrival too.
+        settledStamp[location] = searchStamp;
+        board(location, graph.getArrival(edge), edge, source, arriveBefore);
+      }
+    }
+    return null;
+  }
+
+  private void board(int location, long available, int from, int source, long arriveBefore) {
+    for (int edge = graph.firstDepartureAfter(location, available);
+        edge < graph.endEdge(location);
+        edge++) {
+      reach(edge, from, source, arriveBefore);
+    }
+  }
+
+  private void reach(int edge, int from, int source, long arriveBefore) {
+    if (edge < 0
+        || reachedStamp[edge] == searchStamp
+        || blockedEdgeStamp[edge] == blockStamp
+        || graph.getArrival(edge) >= arriveBefore) {
+      return;
+    }
+    int location = graph.getTo(edge);
+    if (location == source || blockedLocationStamp[location] == blockStamp) {
+      return;
+    }
+    reachedStamp[edge] = searchStamp;
+    previous[edge] = from;
+    push(edge);
+  }
+
+  private int[] pathTo(int edge) {
+    int length = 0;
+    for (int e = edge; e >= 0; e = previous[e]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int e = edge; e >= 0; e = previous[e]) {
+      path[--length] = e;
+    }
+    return path;
+  }
+
+  // Binary min-heap of edges keyed by arrival time.
+
+  private void push(int edge) {
+    int i = heapSize++;
+    long arrival = graph.getArrival(edge);
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (graph.getArrival(heap[parent]) <= arrival) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = edge;
+  }
+
+  private int pop() {
+    int top = heap[0];
+    int last = heap[--heapSize];
+    long arrival = graph.getArrival(last);
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize
+          && graph.getArrival(heap[child + 1]) < graph.getArrival(heap[child])) {
+        child++;
+      }
+      if (graph.getArrival(heap[child]) >= arrival) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = last;
+    return top;
+  }
+}
@@ -0,0 +1,238 @@
+package org.eclipse.pathfinder.internal;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, time-dependent transit network. Every carrier movement of every voyage is an edge
+ * from its departure to its arrival location, with departure and arrival times in epoch seconds
+ * (UTC).
+ *
+ * <p>Edges are held in flat arrays grouped by departure location (a compressed adjacency array) and
+ * sorted by departure time within each group, so the departures from a location after a given time
+ * are found with a binary search. Each edge also knows the next movement of the same voyage, which
+ * cargo can stay aboard without a transfer.
+ */
+public class TransitGraph {
+
+  private final String[] locations;
+  private final Map<String, Integer> locationIndex;
+  private final String[] voyageNumbers;
+
+  // Edges from location v are firstEdge[v] until firstEdge[v + 1].
+  private final int[] firstEdge;
+  private final int[] to;
+  private final long[] departure;
+  private final long[] arrival;
+  private final int[] voyage;
+  private final int[] nextOnVoyage;
+
+  private TransitGraph(Builder builder) {
+    this.locations = builder.locations.toArray(new String[0]);
+    this.locationIndex = builder.locationIndex;
+    this.voyageNumbers = builder.voyageNumbers.toArray(new String[0]);
+
+    int edgeCount = builder.movementCount;
+    Integer[] order = new Integer[edgeCount];
+    for (int i = 0; i < edgeCount; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+        order,
+        (a, b) -> {
+          int byLocation = Integer.compare(builder.from[a], builder.from[b]);
+          return byLocation != 0
+              ? byLocation
+              : Long.compare(builder.departure[a], builder.departure[b]);
+        });
+
+    int[] position = new int[edgeCount];
+    for (int i = 0; i < edgeCount; i++) {
+      position[order[i]] = i;
+    }
+
+    this.firstEdge = new int[locations.length + 1];
+    this.to = new int[edgeCount];
+    this.departure = new long[edgeCount];
+    this.arrival = new long[edgeCount];
+    this.voyage = new int[edgeCount];
+    this.nextOnVoyage = new int[edgeCount];
+
+    for (int i = 0; i < edgeCount; i++) {
+      int movement = order[i];
+      firstEdge[builder.from[movement] + 1]++;
+      to[i] = builder.to[movement];
+      departure[i] = builder.departure[movement];
+      arrival[i] = builder.arrival[movement];
+      voyage[i] = builder.voyage[movement];
+      int next = builder.nextOnVoyage[movement];
+      nextOnVoyage[i] = next < 0 ? -1 : position[next];
+    }
+    for (int v = 0; v < locations.length; v++) {
+      firstEdge[v + 1] += firstEdge[v];
+    }
+  }
+
+  public int getLocationCount() {
+    return locations.length;
+  }
+
+  public int getEdgeCount() {
+    return to.length;
+  }
+
+  /** Returns the index of the location, or -1 if no voyage calls there. */
+  public int indexOf(String unLocode) {
+    Integer index = locationIndex.get(unLocode);
+    return index == null ? -1 : index;
+  }
+
+  public String getLocation(int location) {
+    return locations[location];
+  }
+
+  int endEdge(int location) {
+    return firstEdge[location + 1];
+  }
+
+  /** Returns the first edge from the location departing at or after the given time. */
+  int firstDepartureAfter(int location, long time) {
+    int low = firstEdge[location];
+    int high = firstEdge[location + 1];
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (departure[middle] < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  public int getFrom(int edge) {
+    int low = 0;
+    int high = locations.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (firstEdge[middle + 1] <= edge) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  public int getTo(int edge) {
+    return to[edge];
+  }
+
+  public long getDeparture(int edge) {
+    return departure[edge];
+  }
+
+  public long getArrival(int edge) {
+    return arrival[edge];
+  }
+
+  public int getVoyage(int edge) {
+    return voyage[edge];
+  }
+
+  public String getVoyageNumber(int edge) {
+    return voyageNumbers[voyage[edge]];
+  }
+
+  /** Returns the next movement of the edge's voyage, or -1 if the voyage ends here. */
+  public int getNextOnVoyage(int edge) {
+    return nextOnVoyage[edge];
+  }
+
+  public static long toEpochSecond(LocalDateTime time) {
+    return time.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  public static LocalDateTime toLocalDateTime(long epochSecond) {
+    return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+  }
+
+  /**
+   * Builder for a transit graph. Movements must be added voyage by voyage, in schedule order, so
+   * that consecutive movements of a voyage can be chained.
+   */
+  public static class Builder {
+
+    private final List<String> locations = new ArrayList<>();
+    private final Map<String, Integer> locationIndex = new HashMap<>();
+    private final List<String> voyageNumbers = new ArrayList<>();
+
+    private int movementCount = 0;
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private long[] departure = new long[16];
+    private long[] arrival = new long[16];
+    private int[] voyage = new int[16];
+    private int[] nextOnVoyage = new int[16];
+
+    public Builder addVoyage(String voyageNumber) {
+      voyageNumbers.add(voyageNumber);
+      return this;
+    }
+
+    /** Adds the next movement of the voyage added last. */
+    public Builder addMovement(
+        String fromUnLocode,
+        String toUnLocode,
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime) {
+      if (voyageNumbers.isEmpty()) {
+        throw new IllegalStateException("A voyage must be added before its movements.");
+      }
+      if (movementCount == from.length) {
+        grow();
+      }
+      int current = voyageNumbers.size() - 1;
+      int movement = movementCount++;
+      from[movement] = location(fromUnLocode);
+      to[movement] = location(toUnLocode);
+      departure[movement] = toEpochSecond(departureTime);
+      arrival[movement] = toEpochSecond(arrivalTime);
+      voyage[movement] = current;
+      nextOnVoyage[movement] = -1;
+      if (movement > 0 && voyage[movement - 1] == current) {
+        nextOnVoyage[movement - 1] = movement;
+      }
+      return this;
+    }
+
+    public TransitGraph build() {
+      return new TransitGraph(this);
+    }
+
+    private int location(String unLocode) {
+      Integer index = locationIndex.get(unLocode);
+      if (index == null) {
+        index = locations.size();
+        locations.add(unLocode);
+        locationIndex.put(unLocode, index);
+      }
+      return index;
+    }
+
+    private void grow() {
+      int size = from.length * 2;
+      from = Arrays.copyOf(from, size);
+      to = Arrays.copyOf(to, size);
+      departure = Arrays.copyOf(departure, size);
+      arrival = Arrays.copyOf(arrival, size);
+      voyage = Arrays.copyOf(voyage, size);
+      nextOnVoyage = Arrays.copyOf(nextOnVoyage, size);
+    }
+  }
+}
@@ -15,14 +15,17 @@ import org.eclipse.cargotracker.application.util.DateConverter;
 import org.eclipse.cargotracker.application.util.RestConfiguration;
 import org.eclipse.cargotracker.domain.model.cargo.Cargo;
 import org.eclipse.cargotracker.domain.model.cargo.CargoRepository;
+import org.eclipse.cargotracker.domain.model.cargo.CargoSummary;
 import org.eclipse.cargotracker.domain.model.cargo.Delivery;
 import org.eclipse.cargotracker.domain.model.cargo.HandlingActivity;
 import org.eclipse.cargotracker.domain.model.cargo.Itinerary;
 import org.eclipse.cargotracker.domain.model.cargo.Leg;
 import org.eclipse.cargotracker.domain.model.cargo.RouteSpecification;
 import org.eclipse.cargotracker.domain.model.cargo.RoutingStatus;
+import org.eclipse.cargotracker.domain.model.cargo.RoutingStatusSpecification;
 import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
 import org.eclipse.cargotracker.domain.model.cargo.TransportStatus;
+import org.eclipse.cargotracker.domain.model.cargo.TransportStatusSpecification;
 import org.eclipse.cargotracker.domain.model.handling.CannotCreateHandlingEventException;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
 import org.eclipse.cargotracker.domain.model.handling.HandlingEventFactory;
@@ -54,10 +57,13 @@ import org.eclipse.cargotracker.infrastructure.persistence.jpa.JpaHandlingEventR
 import org.eclipse.cargotracker.infrastructure.persistence.jpa.JpaLocationRepository;
 import org.eclipse.cargotracker.infrastructure.persistence.jpa.JpaVoyageRepository;
 import org.eclipse.cargotracker.infrastructure.routing.ExternalRoutingService;
+import org.eclipse.cargotracker.infrastructure.routing.TransitPathCache;
 import org.eclipse.pathfinder.api.GraphTraversalService;
 import org.eclipse.pathfinder.api.TransitEdge;
 import org.eclipse.pathfinder.api.TransitPath;
 import org.eclipse.pathfinder.internal.GraphDao;
+import org.eclipse.pathfinder.internal.RouteFinder;
+import org.eclipse.pathfinder.internal.TransitGraph;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.junit.InSequence;
@@ -80,6 +86,7 @@ public class BookingServiceTest {
   private static Itinerary assigned;
 
   @Inject private BookingService bookingService;
+  @Inject private CargoRepository cargoRepository;
   @PersistenceContext private EntityManager entityManager;
 
   @Deployment
@@ -109,9 +116,13 @@ public class BookingServiceTest {
         .addClass(TransportStatus.class)
         .addClass(HandlingActivity.class)
         .addClass(RoutingStatus.class)
+        .addClass(RoutingStatusSpecification.class)
+        .addClass(TransportStatusSpecification.class)
         .addClass(HandlingHistory.class)
         .addClass(DomainObjectUtils.class)
         .addClass(CargoRepository.class)
+        .addClass(CargoSummary.class)
+        .addClass(CargoSummary.Filter.class)
         .addClass(LocationRepository.class)
         .addClass(VoyageRepository.class)
         .addClass(HandlingEventRepository.class)
@@ -130,7 +141,9 @@ public class BookingServiceTest {
         .addClass(JpaVoyageRepository.class)
         .addClass(JpaHandlingEventRepository.class)
         .addClass(JpaLocationRepository.class)
+        .addClass("org.eclipse.cargotracker.infrastructure.persistence.jpa.ReferenceDataIndex")
         .addClass(ExternalRoutingService.class)
+        .addClass(TransitPathCache.class)
         .addClass(LoggerProducer.class)
         // Interface components
         .addClass(TransitPath.class)
@@ -138,6 +151,8 @@ public class BookingServiceTest {
         // Third-party system simulator
         .addClass(GraphTraversalService.class)
         .addClass(GraphDao.class)
+        .addClass(TransitGraph.class)
+        .addClass(RouteFinder.class)
         // Sample data.
         .addClass(BookingServiceTestDataGenerator.class)
         .addClass(SampleLocations.class)
@@ -271,4 +286,52 @@ public class BookingServiceTest {
     assertFalse(cargo.getDelivery().isUnloadedAtDestination());
     assertEquals(RoutingStatus.MISROUTED, cargo.getDelivery().getRoutingStatus());
   }
+
+  @Test
+  @InSequence(6)
+  public void testListSummaries() {
+    List<CargoSummary> summaries =
+        cargoRepository.findSummaries(CargoSummary.Filter.ROUTED_UNCLAIMED, null, false, 10);
+
+    assertEquals(1, summaries.size());
+    CargoSummary summary = summaries.get(0);
+    assertEquals(trackingId.getIdString(), summary.getTrackingId());
+    assertEquals(SampleLocations.CHICAGO.getName(), summary.getOriginName());
+    assertEquals("FIHEL", summary.getDestinationUnLocode());
+    assertEquals(Location.UNKNOWN.getName(), summary.getLastKnownLocationName());
+    assertEquals(TransportStatus.NOT_RECEIVED, summary.getTransportStatus());
+    assertTrue(summary.isMisrouted());
+    assertEquals(1, cargoRepository.count(CargoSummary.Filter.ROUTED_UNCLAIMED));
+
+    assertTrue(
+        cargoRepository.findSummaries(CargoSummary.Filter.NOT_ROUTED, null, false, 10).isEmpty());
+    assertEquals(0, cargoRepository.count(CargoSummary.Filter.CLAIMED));
+    assertTrue(
+        cargoRepository.findSummaries(CargoSummary.Filter.ALL, trackingId, false, 10).isEmpty());
+    assertEquals(1, cargoRepository.findAllTrackingIds().size());
+  }
+
+  @Test
+  @InSequence(7)
+  public void testFindSatisfying() {
+    Specification<Cargo> misrouted = new RoutingStatusSpecification(RoutingStatus.MISROUTED);
+    Specification<Cargo> claimed = new TransportStatusSpecification(TransportStatus.CLAIMED);
+    // Can only be checked in memory.
+    Specification<Cargo> toHelsinki =
+        new AbstractSpecification<Cargo>() {
+          @Override
+          public boolean isSatisfiedBy(Cargo cargo) {
+            return cargo.getRouteSpecification().getDestination().equals(SampleLocations.HELSINKI);
+          }
+        };
+
+    assertEquals(1, cargoRepository.findSatisfying(misrouted).size());
+    assertEquals(1, cargoRepository.findSatisfying(misrouted.and(toHelsinki)).size());
+    assertEquals(1, cargoRepository.findSatisfying(claimed.or(toHelsinki)).size());
+    assertTrue(cargoRepository.findSatisfying(misrouted.and(claimed)).isEmpty());
+    assertTrue(
+        cargoRepository
+            .findSatisfying(new NotSpecification<>(misrouted.and(toHelsinki)))
+            .isEmpty());
+  }
 }
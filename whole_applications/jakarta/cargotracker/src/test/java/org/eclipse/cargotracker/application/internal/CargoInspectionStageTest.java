@@ -0,0 +1,128 @@
+package org.eclipse.cargotracker.application.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
+import org.junit.After;
+import org.junit.Test;
+
+public class CargoInspectionStageTest {
+
+  private static final TrackingId ABC = new TrackingId("ABC");
+  private static final TrackingId XYZ = new TrackingId("XYZ");
+
+  private final List<TrackingId> inspected = new CopyOnWriteArrayList<>();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private CargoInspectionStage stage;
+
+  private CargoInspectionStage stage(int laneCount) {
+    CargoInspectionStage stage = new CargoInspectionStage();
+    stage.logger = Logger.getLogger(CargoInspectionStageTest.class.getName());
+    stage.laneCount = laneCount;
+    stage.threadFactory = Thread::new;
+    stage.cargoInspectionService =
+        trackingId -> {
+          started.countDown();
+          await(release);
+          inspected.add(trackingId);
+
+          if (trackingId.getIdString().equals("FAIL")) {
+            throw new IllegalStateException("Inspection failed");
+          }
+        };
+    stage.init();
+    return stage;
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    stage.close();
+  }
+
+  @Test
+  public void testWaitingInspectionsAreShared() throws Exception {
+    stage = stage(1);
+
+    CompletableFuture<Void> running = stage.inspect(ABC);
+    await(started);
+
+    // The running inspection may not see newer events, so a new one is queued.
+    CompletableFuture<Void> queued = stage.inspect(ABC);
+    CompletableFuture<Void> other = stage.inspect(XYZ);
+    assertNotSame(running, queued);
+    assertSame(queued, stage.inspect(ABC));
+    assertSame(other, stage.inspect(XYZ));
+
+    release.countDown();
+    CompletableFuture.allOf(running, queued, other).get(5, TimeUnit.SECONDS);
+
+    assertEquals(3, inspected.size());
+    assertEquals(2, inspected.stream().filter(ABC::equals).count());
+  }
+
+  @Test
+  public void testInspectionsOfACargoNeverOverlap() throws Exception {
+    stage = stage(4);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger overlapping = new AtomicInteger();
+    stage.cargoInspectionService =
+        trackingId -> {
+          if (running.incrementAndGet() > 1) {
+            overlapping.incrementAndGet();
+          }
+          Thread.yield();
+          running.decrementAndGet();
+        };
+
+    ExecutorService consumers = Executors.newFixedThreadPool(8);
+    List<Future<?>> inspections = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      inspections.add(consumers.submit(() -> stage.inspect(ABC).join()));
+    }
+    for (Future<?> inspection : inspections) {
+      inspection.get(5, TimeUnit.SECONDS);
+    }
+    consumers.shutdown();
+
+    assertEquals(0, overlapping.get());
+  }
+
+  @Test
+  public void testFailuresAreReported() {
+    stage = stage(2);
+    release.countDown();
+
+    try {
+      stage.inspect(new TrackingId("FAIL")).join();
+      fail("Failure of the inspection should be reported");
+    } catch (CompletionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package org.eclipse.cargotracker.application.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import javax.persistence.NoResultException;
+import org.eclipse.cargotracker.application.ApplicationEvents;
+import org.eclipse.cargotracker.domain.model.cargo.Cargo;
+import org.eclipse.cargotracker.domain.model.cargo.RouteSpecification;
+import org.eclipse.cargotracker.domain.model.cargo.TrackingId;
+import org.eclipse.cargotracker.domain.model.handling.CannotCreateHandlingEventException;
+import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
+import org.eclipse.cargotracker.domain.model.handling.HandlingEventFactory;
+import org.eclipse.cargotracker.domain.model.handling.HandlingEventRepository;
+import org.eclipse.cargotracker.domain.model.handling.HandlingHistory;
+import org.eclipse.cargotracker.domain.model.handling.UnknownCargoException;
+import org.eclipse.cargotracker.domain.model.location.SampleLocations;
+import org.eclipse.cargotracker.domain.model.location.UnLocode;
+import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
+import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultHandlingEventServiceTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+  private static final VoyageNumber UNKNOWN_VOYAGE = new VoyageNumber("XX999");
+
+  private final List<HandlingEvent> stored = new ArrayList<>();
+  private final List<HandlingEvent> handled = new ArrayList<>();
+  private DefaultHandlingEventService service;
+
+  @Before
+  public void setUp() {
+    service =
+        new DefaultHandlingEventService(
+            new StubApplicationEvents(),
+            new StubHandlingEventRepository(),
+            new StubHandlingEventFactory(),
+            Logger.getLogger(DefaultHandlingEventServiceTest.class.getName()));
+  }
+
+  @Test
+  public void testRejectedAttemptsDoNotStopTheOthers() {
+    int registered =
+        service.registerHandlingEvents(
+            Arrays.asList(
+                attempt("ABC", 0, HandlingEvent.Type.RECEIVE, null),
+                // The voyage repository throws for a voyage number it doesn't know.
+                attempt("ABC", 1, HandlingEvent.Type.LOAD, UNKNOWN_VOYAGE),
+                attempt("NONE", 2, HandlingEvent.Type.RECEIVE, null),
+                attempt("XYZ", 3, HandlingEvent.Type.RECEIVE, null)));
+
+    assertEquals(2, registered);
+    assertEquals(2, stored.size());
+    assertEquals("ABC", stored.get(0).getCargo().getTrackingId().getIdString());
+    assertEquals("XYZ", stored.get(1).getCargo().getTrackingId().getIdString());
+  }
+
+  @Test
+  public void testPublishesTheLatestEventOfEachCargo() {
+    service.registerHandlingEvents(
+        Arrays.asList(
+            attempt("ABC", 5, HandlingEvent.Type.CLAIM, null),
+            attempt("XYZ", 1, HandlingEvent.Type.RECEIVE, null),
+            attempt("ABC", 0, HandlingEvent.Type.RECEIVE, null)));
+
+    assertEquals(3, stored.size());
+    assertEquals(2, handled.size());
+    assertEquals(HandlingEvent.Type.CLAIM, handled.get(0).getType());
+    assertEquals("XYZ", handled.get(1).getCargo().getTrackingId().getIdString());
+  }
+
+  private static HandlingEventRegistrationAttempt attempt(
+      String trackingId, int hours, HandlingEvent.Type type, VoyageNumber voyageNumber) {
+    return new HandlingEventRegistrationAttempt(
+        START,
+        START.plusHours(hours),
+        new TrackingId(trackingId),
+        voyageNumber,
+        type,
+        SampleLocations.STOCKHOLM.getUnLocode());
+  }
+
+  private static class StubHandlingEventFactory extends HandlingEventFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public HandlingEvent createHandlingEvent(
+        LocalDateTime registrationTime,
+        LocalDateTime completionTime,
+        TrackingId trackingId,
+        VoyageNumber voyageNumber,
+        UnLocode unlocode,
+        HandlingEvent.Type type)
+        throws CannotCreateHandlingEventException {
+      if (trackingId.getIdString().equals("NONE")) {
+        throw new UnknownCargoException(trackingId);
+      }
+      if (UNKNOWN_VOYAGE.equals(voyageNumber)) {
+        throw new NoResultException();
+      }
+
+      Cargo cargo =
+          new Cargo(
+              trackingId,
+              new RouteSpecification(
+                  SampleLocations.STOCKHOLM, SampleLocations.TOKYO, LocalDate.of(2023, 2, 1)));
+      return new HandlingEvent(
+          cargo, completionTime, registrationTime, type, SampleLocations.STOCKHOLM);
+    }
+  }
+
+  private class StubHandlingEventRepository implements HandlingEventRepository {
+
+    @Override
+    public void store(HandlingEvent event) {
+      stored.add(event);
+    }
+
+    @Override
+    public HandlingHistory lookupHandlingHistoryOfCargo(TrackingId trackingId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public HandlingEvent lookupMostRecentHandlingEventOfCargo(TrackingId trackingId) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private class StubApplicationEvents implements ApplicationEvents {
+
+    @Override
+    public void cargoWasHandled(HandlingEvent event) {
+      handled.add(event);
+    }
+
+    @Override
+    public void cargoWasMisdirected(Cargo cargo) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void cargoHasArrived(Cargo cargo) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void receivedHandlingEventRegistrationAttempt(
+        HandlingEventRegistrationAttempt attempt) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void receivedHandlingEventRegistrationAttempts(
+        List<HandlingEventRegistrationAttempt> attempts) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isHandlingEventRegistrationBacklogged() {
+      return false;
+    }
+  }
+}
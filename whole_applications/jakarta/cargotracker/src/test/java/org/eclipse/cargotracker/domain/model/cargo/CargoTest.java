@@ -536,6 +536,111 @@ public class CargoTest {
     assertTrue(cargo.getDelivery().isMisdirected());
   }
 
+  @Test
+  public void testIncrementalDeliveryProgressMatchesReplay() {
+    Cargo incremental =
+        setUpCargoWithItinerary(
+            SampleLocations.HANGZOU, SampleLocations.TOKYO, SampleLocations.NEWYORK);
+    Cargo replayed =
+        setUpCargoWithItinerary(
+            SampleLocations.HANGZOU, SampleLocations.TOKYO, SampleLocations.NEWYORK);
+    LocalDateTime time = LocalDateTime.now().minusDays(30);
+
+    events.add(
+        new HandlingEvent(
+            incremental, time, time, HandlingEvent.Type.RECEIVE, SampleLocations.HANGZOU));
+    events.add(
+        new HandlingEvent(
+            incremental,
+            time.plusDays(1),
+            time,
+            HandlingEvent.Type.LOAD,
+            SampleLocations.HANGZOU,
+            voyage));
+    events.add(
+        new HandlingEvent(
+            incremental,
+            time.plusDays(5),
+            time,
+            HandlingEvent.Type.UNLOAD,
+            SampleLocations.TOKYO,
+            voyage));
+    events.add(
+        new HandlingEvent(
+            incremental,
+            time.plusDays(6),
+            time,
+            HandlingEvent.Type.CUSTOMS,
+            SampleLocations.TOKYO));
+    events.add(
+        new HandlingEvent(
+            incremental,
+            time.plusDays(7),
+            time,
+            HandlingEvent.Type.LOAD,
+            SampleLocations.TOKYO,
+            voyage));
+    events.add(
+        new HandlingEvent(
+            incremental,
+            time.plusDays(12),
+            time,
+            HandlingEvent.Type.UNLOAD,
+            SampleLocations.NEWYORK,
+            voyage));
+    events.add(
+        new HandlingEvent(
+            incremental,
+            time.plusDays(13),
+            time,
+            HandlingEvent.Type.CLAIM,
+            SampleLocations.NEWYORK));
+
+    for (int i = 0; i < events.size(); i++) {
+      assertTrue(incremental.deriveDeliveryProgress(events.get(i)));
+      replayed.deriveDeliveryProgress(new HandlingHistory(events.subList(0, i + 1)));
+
+      assertSameProgress(replayed.getDelivery(), incremental.getDelivery());
+    }
+  }
+
+  @Test
+  public void testOutOfOrderEventIsNotApplied() {
+    Cargo cargo =
+        setUpCargoWithItinerary(
+            SampleLocations.HANGZOU, SampleLocations.TOKYO, SampleLocations.NEWYORK);
+    LocalDateTime time = LocalDateTime.now().minusDays(30);
+
+    assertTrue(
+        cargo.deriveDeliveryProgress(
+            new HandlingEvent(
+                cargo,
+                time.plusDays(1),
+                time,
+                HandlingEvent.Type.LOAD,
+                SampleLocations.HANGZOU,
+                voyage)));
+    Delivery delivery = cargo.getDelivery();
+
+    assertFalse(
+        cargo.deriveDeliveryProgress(
+            new HandlingEvent(
+                cargo, time, time, HandlingEvent.Type.RECEIVE, SampleLocations.HANGZOU)));
+    assertEquals(delivery, cargo.getDelivery());
+    assertEquals(TransportStatus.ONBOARD_CARRIER, cargo.getDelivery().getTransportStatus());
+  }
+
+  private static void assertSameProgress(Delivery expected, Delivery actual) {
+    assertEquals(expected.getTransportStatus(), actual.getTransportStatus());
+    assertEquals(expected.getLastKnownLocation(), actual.getLastKnownLocation());
+    assertEquals(expected.getCurrentVoyage(), actual.getCurrentVoyage());
+    assertEquals(expected.isMisdirected(), actual.isMisdirected());
+    assertEquals(expected.getEstimatedTimeOfArrival(), actual.getEstimatedTimeOfArrival());
+    assertEquals(expected.getNextExpectedActivity(), actual.getNextExpectedActivity());
+    assertEquals(expected.isUnloadedAtDestination(), actual.isUnloadedAtDestination());
+    assertEquals(expected.getRoutingStatus(), actual.getRoutingStatus());
+  }
+
   private Cargo setUpCargoWithItinerary(Location origin, Location midpoint, Location destination) {
     Cargo cargo =
         new Cargo(
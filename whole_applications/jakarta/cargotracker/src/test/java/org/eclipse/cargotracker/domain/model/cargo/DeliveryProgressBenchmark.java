@@ -0,0 +1,127 @@
+package org.eclipse.cargotracker.domain.model.cargo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.cargotracker.domain.model.handling.HandlingEvent;
+import org.eclipse.cargotracker.domain.model.handling.HandlingHistory;
+import org.eclipse.cargotracker.domain.model.location.SampleLocations;
+import org.eclipse.cargotracker.domain.model.voyage.Voyage;
+import org.eclipse.cargotracker.domain.model.voyage.VoyageNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of deriving the delivery progress of a cargo from its complete handling
+ * history, sorted as before and with a single pass, against applying only the latest event, for
+ * increasingly long histories.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=DeliveryProgressBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryProgressBenchmark {
+
+  @Param({"10", "100", "1000", "10000"})
+  int events;
+
+  Cargo cargo;
+  List<HandlingEvent> history;
+  HandlingEvent lastEvent;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    cargo = newCargo();
+    history = newHistory(cargo, events);
+    lastEvent = history.get(history.size() - 1);
+  }
+
+  /** The delivery derived from the last of the distinct events, sorted by completion time. */
+  @Benchmark
+  public Delivery sortedReplay() {
+    List<HandlingEvent> ordered = new HandlingHistory(history).getDistinctEventsByCompletionTime();
+    return new Delivery(
+        ordered.get(ordered.size() - 1), cargo.getItinerary(), cargo.getRouteSpecification());
+  }
+
+  @Benchmark
+  public Cargo replay() {
+    cargo.deriveDeliveryProgress(new HandlingHistory(history));
+    return cargo;
+  }
+
+  @Benchmark
+  public Cargo incremental() {
+    cargo.deriveDeliveryProgress(lastEvent);
+    return cargo;
+  }
+
+  private static Cargo newCargo() {
+    Voyage voyage =
+        new Voyage.Builder(new VoyageNumber("0100S"), SampleLocations.HANGZOU)
+            .addMovement(SampleLocations.TOKYO, LocalDateTime.now(), LocalDateTime.now())
+            .addMovement(SampleLocations.NEWYORK, LocalDateTime.now(), LocalDateTime.now())
+            .build();
+    Cargo cargo =
+        new Cargo(
+            new TrackingId("BENCH1"),
+            new RouteSpecification(
+                SampleLocations.HANGZOU, SampleLocations.NEWYORK, LocalDate.now().plusYears(1)));
+    cargo.assignToRoute(
+        new Itinerary(
+            Arrays.asList(
+                new Leg(
+                    voyage,
+                    SampleLocations.HANGZOU,
+                    SampleLocations.TOKYO,
+                    LocalDateTime.now(),
+                    LocalDateTime.now()),
+                new Leg(
+                    voyage,
+                    SampleLocations.TOKYO,
+                    SampleLocations.NEWYORK,
+                    LocalDateTime.now(),
+                    LocalDateTime.now()))));
+    return cargo;
+  }
+
+  /** A long haul, loaded onto and unloaded from the first leg's voyage over and over. */
+  private static List<HandlingEvent> newHistory(Cargo cargo, int length) {
+    Leg leg = cargo.getItinerary().getLegs().get(0);
+    LocalDateTime time = LocalDateTime.now().minusYears(1);
+    List<HandlingEvent> events = new ArrayList<>(length);
+
+    for (int i = 0; i < length; i++) {
+      time = time.plusMinutes(30);
+      boolean load = i % 2 == 0;
+      events.add(
+          new HandlingEvent(
+              cargo,
+              time,
+              time,
+              load ? HandlingEvent.Type.LOAD : HandlingEvent.Type.UNLOAD,
+              load ? leg.getLoadLocation() : leg.getUnloadLocation(),
+              leg.getVoyage()));
+    }
+
+    return events;
+  }
+}
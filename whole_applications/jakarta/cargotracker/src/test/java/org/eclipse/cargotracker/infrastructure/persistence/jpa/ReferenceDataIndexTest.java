@@ -0,0 +1,122 @@
+package org.eclipse.cargotracker.infrastructure.persistence.jpa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReferenceDataIndexTest {
+
+  private final Map<Long, Entity> database = new HashMap<>();
+  private final AtomicInteger queries = new AtomicInteger();
+  private ReferenceDataIndex<String, Entity> index;
+
+  @Before
+  public void setUp() {
+    store(new Entity(1L, "CNHKG"));
+    store(new Entity(2L, "SESTO"));
+
+    index =
+        new ReferenceDataIndex<>(
+            entity -> entity.key,
+            entity -> entity.id,
+            database::get,
+            () -> {
+              queries.incrementAndGet();
+              return new ArrayList<>(database.values());
+            });
+  }
+
+  @Test
+  public void testIndexedEntitiesAreFoundById() {
+    Entity first = index.find("CNHKG", this::queryByKey);
+    Entity second = index.find("SESTO", this::queryByKey);
+
+    assertSame(database.get(1L), first);
+    assertSame(database.get(2L), second);
+    // Only the query warming the index.
+    assertEquals(1, queries.get());
+    assertEquals(2, index.getHits());
+    assertEquals(0, index.getMisses());
+  }
+
+  @Test
+  public void testAddedEntitiesAreIndexedOnFirstLookup() {
+    index.find("CNHKG", this::queryByKey);
+    store(new Entity(3L, "FIHEL"));
+
+    Entity first = index.find("FIHEL", this::queryByKey);
+    Entity second = index.find("FIHEL", this::queryByKey);
+
+    assertSame(database.get(3L), first);
+    assertSame(first, second);
+    assertEquals(2, queries.get());
+    assertEquals(1, index.getMisses());
+  }
+
+  @Test
+  public void testRemovedEntitiesAreDropped() {
+    index.find("CNHKG", this::queryByKey);
+    database.remove(1L);
+
+    assertNull(index.find("CNHKG", this::queryByKey));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  public void testOnlyUnindexedEntitiesAreQueriedInBulk() {
+    index.find("CNHKG", this::queryByKey);
+    store(new Entity(3L, "FIHEL"));
+
+    List<String> queried = new ArrayList<>();
+    List<Entity> found =
+        index.find(
+            Arrays.asList("CNHKG", "FIHEL", "SESTO", "CNHKG", "XXXXX"),
+            keys -> {
+              queried.addAll(keys);
+              return queryByKeys(keys);
+            });
+
+    assertEquals(
+        Arrays.asList("CNHKG", "SESTO", "FIHEL"),
+        found.stream().map(entity -> entity.key).collect(Collectors.toList()));
+    assertEquals(Arrays.asList("FIHEL", "XXXXX"), queried);
+    assertEquals(3, index.size());
+  }
+
+  private void store(Entity entity) {
+    database.put(entity.id, entity);
+  }
+
+  private Entity queryByKey(String key) {
+    queries.incrementAndGet();
+    return database.values().stream().filter(e -> e.key.equals(key)).findFirst().orElse(null);
+  }
+
+  private List<Entity> queryByKeys(Collection<String> keys) {
+    queries.incrementAndGet();
+    return database.values().stream()
+        .filter(e -> keys.contains(e.key))
+        .collect(Collectors.toList());
+  }
+
+  private static class Entity {
+    private final Long id;
+    private final String key;
+
+    Entity(Long id, String key) {
+      this.id = id;
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package org.eclipse.cargotracker.infrastructure.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.pathfinder.api.TransitPath;
+import org.junit.Test;
+
+public class TransitPathCacheTest {
+
+  private static final LocalDate DEADLINE = LocalDate.of(2023, 6, 1);
+
+  private TransitPathCache cache(int ttlSeconds) {
+    TransitPathCache cache = new TransitPathCache();
+    cache.ttlSeconds = ttlSeconds;
+    return cache;
+  }
+
+  @Test
+  public void testCachesByKey() {
+    TransitPathCache cache = cache(300);
+    AtomicInteger loads = new AtomicInteger();
+
+    List<TransitPath> first = cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads));
+    List<TransitPath> second = cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads));
+    cache.get("CNHKG", "FIHEL", DEADLINE.plusDays(7), () -> load(loads));
+    cache.get("CNHKG", "SESTO", DEADLINE, () -> load(loads));
+
+    assertSame(first, second);
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testExpiredEntriesAreReloaded() {
+    TransitPathCache cache = cache(0);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads));
+    cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testFailuresAreNotCached() {
+    TransitPathCache cache = cache(300);
+    AtomicInteger loads = new AtomicInteger();
+
+    try {
+      cache.get(
+          "CNHKG",
+          "FIHEL",
+          DEADLINE,
+          () -> {
+            throw new IllegalStateException("Service unavailable");
+          });
+      fail("Expected the load failure to be thrown");
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+    cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads));
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testErrorsAreNotCached() {
+    TransitPathCache cache = cache(300);
+    AtomicInteger loads = new AtomicInteger();
+
+    try {
+      cache.get(
+          "CNHKG",
+          "FIHEL",
+          DEADLINE,
+          () -> {
+            throw new StackOverflowError();
+          });
+      fail("Expected the load error to be thrown");
+    } catch (StackOverflowError e) {
+      // Expected.
+    }
+    cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads));
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testConcurrentRequestsShareOneLoad() throws Exception {
+    TransitPathCache cache = cache(300);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      List<Future<List<TransitPath>>> results = new ArrayList<>();
+      results.add(
+          executor.submit(
+              () ->
+                  cache.get(
+                      "CNHKG",
+                      "FIHEL",
+                      DEADLINE,
+                      () -> {
+                        loading.countDown();
+                        try {
+                          release.await();
+                        } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                        }
+                        return load(loads);
+                      })));
+      loading.await();
+      for (int i = 0; i < 7; i++) {
+        results.add(
+            executor.submit(() -> cache.get("CNHKG", "FIHEL", DEADLINE, () -> load(loads))));
+      }
+      release.countDown();
+
+      List<TransitPath> first = results.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<List<TransitPath>> result : results) {
+        assertSame(first, result.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<TransitPath> load(AtomicInteger loads) {
+    loads.incrementAndGet();
+    List<TransitPath> paths = new ArrayList<>();
+    paths.add(new TransitPath());
+    return paths;
+  }
+}
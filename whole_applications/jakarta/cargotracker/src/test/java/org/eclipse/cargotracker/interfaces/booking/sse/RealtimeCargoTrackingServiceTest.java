@@ -0,0 +1,141 @@
+package org.eclipse.cargotracker.interfaces.booking.sse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.SseEventSink;
+import org.eclipse.cargotracker.interfaces.Coordinates;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RealtimeCargoTrackingServiceTest {
+
+  private static final Coordinates STOCKHOLM = new Coordinates(59.3, 18.1);
+  private static final Coordinates HAMBURG = new Coordinates(53.6, 10.0);
+  private static final Coordinates TOKYO = new Coordinates(35.7, 139.7);
+  private static final Coordinates HONOLULU = new Coordinates(21.3, -157.9);
+
+  private RealtimeCargoTrackingService service;
+
+  @Before
+  public void setUp() {
+    service = new RealtimeCargoTrackingService();
+    service.logger = Logger.getLogger(RealtimeCargoTrackingServiceTest.class.getName());
+  }
+
+  @Test
+  public void testResumesAfterLastEventId() {
+    update("ABC", STOCKHOLM);
+    String lastEventId = update("DEF", HAMBURG);
+    String missed = update("GHI", TOKYO);
+    service.sendUpdates();
+
+    List<String> sent = new ArrayList<>();
+    service.subscribe(sink(sent), lastEventId, null);
+    assertEquals(Arrays.asList(missed), sent);
+
+    String moved = update("ABC", TOKYO);
+    service.sendUpdates();
+    assertEquals(Arrays.asList(missed, moved), sent);
+  }
+
+  @Test
+  public void testSendsEverythingForIdsOfAnotherRun() {
+    String first = update("ABC", STOCKHOLM);
+    String second = update("DEF", HAMBURG);
+
+    for (String lastEventId :
+        Arrays.asList(
+            null,
+            // Sequence numbers of an earlier run, or not sent yet.
+            "0.1",
+            service.epoch + ".3",
+            service.epoch + ".x",
+            "-1")) {
+      List<String> sent = new ArrayList<>();
+      service.subscribe(sink(sent), lastEventId, null);
+      assertEquals(lastEventId, Arrays.asList(first, second), sent);
+    }
+  }
+
+  @Test
+  public void testSendsOnlyTheCargoInView() {
+    update("ABC", STOCKHOLM);
+    update("DEF", TOKYO);
+
+    List<String> sent = new ArrayList<>();
+    service.subscribe(sink(sent), null, new RealtimeCargoTrackingService.View(50, 0, 60, 20));
+    assertEquals(1, sent.size());
+
+    // Sent once more when leaving the view, so the map can move it out.
+    String leaving = update("ABC", TOKYO);
+    service.sendUpdates();
+    update("ABC", HONOLULU);
+    update("DEF", HONOLULU);
+    service.sendUpdates();
+    String entering = update("DEF", HAMBURG);
+    service.sendUpdates();
+
+    assertEquals(Arrays.asList(sent.get(0), leaving, entering), sent);
+  }
+
+  @Test
+  public void testViewAcrossTheAntimeridian() {
+    RealtimeCargoTrackingService.View pacific =
+        new RealtimeCargoTrackingService.View(-60, 120, 60, -120);
+
+    assertTrue(pacific.contains(TOKYO));
+    assertTrue(pacific.contains(HONOLULU));
+    assertFalse(pacific.contains(STOCKHOLM));
+    assertFalse(pacific.contains(new Coordinates(70, 180)));
+    assertFalse(pacific.contains(null));
+  }
+
+  private String update(String trackingId, Coordinates coordinates) {
+    long sequence = service.sequence.incrementAndGet();
+    String id = service.eventId(sequence);
+    service.update(
+        new RealtimeCargoTrackingService.TrackedCargo(trackingId, sequence, coordinates, event(id)));
+    return id;
+  }
+
+  private static OutboundSseEvent event(String id) {
+    return (OutboundSseEvent)
+        Proxy.newProxyInstance(
+            OutboundSseEvent.class.getClassLoader(),
+            new Class<?>[] {OutboundSseEvent.class},
+            (proxy, method, args) -> {
+              if (!method.getName().equals("getId")) {
+                throw new UnsupportedOperationException(method.getName());
+              }
+              return id;
+            });
+  }
+
+  /** A sink recording the IDs of the events sent to it. */
+  private static SseEventSink sink(List<String> sent) {
+    return (SseEventSink)
+        Proxy.newProxyInstance(
+            SseEventSink.class.getClassLoader(),
+            new Class<?>[] {SseEventSink.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "send":
+                  sent.add(((OutboundSseEvent) args[0]).getId());
+                  return CompletableFuture.completedFuture(null);
+                case "isClosed":
+                  return false;
+                default:
+                  throw new UnsupportedOperationException(method.getName());
+              }
+            });
+  }
+}
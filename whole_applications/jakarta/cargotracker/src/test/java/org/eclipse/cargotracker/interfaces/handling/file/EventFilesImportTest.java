@@ -0,0 +1,110 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EventFilesImportTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testFileIsDoneWhenAllItsPartitionsComplete() throws IOException {
+    File a = folder.newFile("a.csv");
+    File b = folder.newFile("b.csv");
+    EventFilesImport files =
+        new EventFilesImport(
+            Arrays.asList(
+                new EventFilesImport.Range(a, 0, 10),
+                new EventFilesImport.Range(a, 10, 20),
+                new EventFilesImport.Range(b, 0, 5)));
+
+    assertEquals(b, files.completed(2));
+    assertNull(files.completed(0));
+    // Reported twice, or not a partition of this step.
+    assertNull(files.completed(0));
+    assertNull(files.completed(-1));
+    assertEquals(a, files.completed(1));
+    assertTrue(files.getPartlyImported().isEmpty());
+  }
+
+  @Test
+  public void testFailedPartitionsOfPartlyImportedFiles() throws IOException {
+    File a = folder.newFile("a.csv");
+    File b = folder.newFile("b.csv");
+    EventFilesImport files =
+        new EventFilesImport(
+            Arrays.asList(
+                new EventFilesImport.Range(a, 0, 10),
+                new EventFilesImport.Range(a, 10, 20),
+                new EventFilesImport.Range(b, 0, 5)));
+
+    files.completed(0);
+
+    // b failed entirely, so it is imported again as it is.
+    Map<File, List<EventFilesImport.Range>> partlyImported = files.getPartlyImported();
+    assertEquals(1, partlyImported.size());
+    assertRanges(partlyImported.get(a), 10, 20);
+  }
+
+  @Test
+  public void testFailedPartitionsKeepOnlyTheLinesAfterTheirCheckpoint() throws IOException {
+    File a = folder.newFile("a.csv");
+    File b = folder.newFile("b.csv");
+    EventFilesImport files =
+        new EventFilesImport(
+            Arrays.asList(
+                new EventFilesImport.Range(a, 0, 10),
+                new EventFilesImport.Range(a, 10, 20),
+                new EventFilesImport.Range(b, 0, 5)));
+
+    files.committed(new EventFilesImport.Checkpoint(0, 4));
+    files.committed(new EventFilesImport.Checkpoint(0, 7));
+    // Reported out of order, or not a partition of this step.
+    files.committed(new EventFilesImport.Checkpoint(0, 6));
+    files.committed(new EventFilesImport.Checkpoint(-1, 3));
+    files.committed(new EventFilesImport.Checkpoint(1, 10));
+
+    Map<File, List<EventFilesImport.Range>> partlyImported = files.getPartlyImported();
+    assertEquals(1, partlyImported.size());
+    assertRanges(partlyImported.get(a), 7, 10, 10, 20);
+  }
+
+  @Test
+  public void testRetainKeepsOnlyTheLinesOfTheRanges() throws IOException {
+    File file = folder.newFile("events.csv");
+    Files.write(
+        file.toPath(), "first\nsecond\r\nthird\nfourth\n".getBytes(StandardCharsets.UTF_8));
+
+    // The lines starting in [0, 3) and [13, 25): "first", "third" and "fourth".
+    EventFilesImport.retain(
+        file,
+        Arrays.asList(
+            new EventFilesImport.Range(file, 0, 3), new EventFilesImport.Range(file, 13, 25)));
+
+    assertEquals(
+        Arrays.asList("first", "third", "fourth"),
+        Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    assertEquals(1, folder.getRoot().listFiles().length);
+  }
+
+  /** Asserts the start and end of each range, in order. */
+  private static void assertRanges(List<EventFilesImport.Range> ranges, long... bounds) {
+    assertEquals(bounds.length / 2, ranges.size());
+    for (int i = 0; i < ranges.size(); i++) {
+      assertEquals(bounds[2 * i], ranges.get(i).start);
+      assertEquals(bounds[2 * i + 1], ranges.get(i).end);
+    }
+  }
+}
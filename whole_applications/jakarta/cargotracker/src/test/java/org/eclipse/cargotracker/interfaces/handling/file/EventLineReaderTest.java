@@ -0,0 +1,92 @@
+package org.eclipse.cargotracker.interfaces.handling.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EventLineReaderTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testReadsLines() throws IOException {
+    Path file = write("first\r\nsecond\n\nlast");
+
+    assertEquals(Arrays.asList("first", "second", "", "last"), read(file, 0, Files.size(file)));
+  }
+
+  @Test
+  public void testRangesReadEveryLineOnce() throws IOException {
+    StringBuilder content = new StringBuilder();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      String line = "2023-01-01 00:00," + "ABC" + i + ",0100S,CNHKG,LOAD";
+      expected.add(line);
+      content.append(line).append('\n');
+    }
+    Path file = write(content.toString());
+    long size = Files.size(file);
+
+    // Sizes that cut lines anywhere, including exactly at line boundaries.
+    for (long rangeSize : new long[] {1, 7, 37, 38, 39, 1_000, size}) {
+      List<String> lines = new ArrayList<>();
+      for (long start = 0; start < size; start += rangeSize) {
+        lines.addAll(read(file, start, Math.min(size, start + rangeSize)));
+      }
+      assertEquals("Range size " + rangeSize, expected, lines);
+    }
+  }
+
+  @Test
+  public void testResumesFromPosition() throws IOException {
+    Path file = write("first\nsecond\nthird\n");
+    long position;
+
+    try (EventLineReader reader = new EventLineReader(file, 0, Files.size(file))) {
+      reader.readLine();
+      position = reader.getPosition();
+    }
+
+    assertEquals(Arrays.asList("second", "third"), read(file, position, Files.size(file)));
+  }
+
+  @Test
+  public void testLongLines() throws IOException {
+    char[] longLine = new char[100_000];
+    Arrays.fill(longLine, 'x');
+    Path file = write(new String(longLine) + "\nshort\n");
+
+    List<String> lines = read(file, 0, Files.size(file));
+
+    assertEquals(2, lines.size());
+    assertEquals(longLine.length, lines.get(0).length());
+    assertEquals("short", lines.get(1));
+  }
+
+  private Path write(String content) throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static List<String> read(Path file, long start, long end) throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (EventLineReader reader = new EventLineReader(file, start, end)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        lines.add(line);
+      }
+      assertNull(reader.readLine());
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,152 @@
+package org.eclipse.cargotracker.interfaces.handling.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.eclipse.cargotracker.application.ApplicationEvents;
+import org.eclipse.cargotracker.interfaces.handling.HandlingEventRegistrationAttempt;
+import org.junit.Test;
+
+public class HandlingReportBatchTest {
+
+  private final List<List<HandlingEventRegistrationAttempt>> messages = new ArrayList<>();
+
+  @Test
+  public void testReadsArray() {
+    HandlingReportBatch batch = new HandlingReportBatch(validator());
+
+    batch.readArray(
+        json(
+            "["
+                + report("ABC123", "RECEIVE", null)
+                + ", 42, "
+                + report(null, "RECEIVE", null)
+                + ", "
+                + report("XYZ789", "UNKNOWN", null)
+                + ", "
+                + report("XYZ789", "LOAD", "0100S")
+                + ", "
+                + report("ABC123", "LOAD", "0100S")
+                + "]"));
+
+    JsonObject results = batch.getResults();
+    assertEquals(3, results.getInt("accepted"));
+    assertEquals(3, results.getInt("rejected"));
+    assertStatuses(
+        results, "ACCEPTED", "REJECTED", "REJECTED", "REJECTED", "ACCEPTED", "ACCEPTED");
+    assertEquals(
+        "Missing tracking ID.",
+        results.getJsonArray("results").getJsonObject(2).getJsonArray("errors").getString(0));
+
+    // One message per cargo, in the order the cargo were first reported.
+    batch.submit(applicationEvents());
+    assertEquals(2, messages.size());
+    assertEquals(2, messages.get(0).size());
+    assertEquals("ABC123", messages.get(0).get(0).getTrackingId().getIdString());
+    assertEquals(1, messages.get(1).size());
+  }
+
+  @Test
+  public void testReadsLines() throws IOException {
+    HandlingReportBatch batch = new HandlingReportBatch(validator());
+
+    batch.readLines(
+        json(
+            report("ABC123", "RECEIVE", null)
+                + "\n\n{\"trackingId\": \n"
+                + report("ABC123", "LOAD", "0100S")
+                + "\r\n"));
+
+    JsonObject results = batch.getResults();
+    assertEquals(2, results.getInt("accepted"));
+    // A malformed line only rejects that report.
+    assertStatuses(results, "ACCEPTED", "REJECTED", "ACCEPTED");
+    assertEquals(2, results.getJsonArray("results").getJsonObject(2).getInt("index"));
+  }
+
+  @Test
+  public void testSplitsLargeGroups() throws IOException {
+    HandlingReportBatch batch = new HandlingReportBatch(validator());
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < 250; i++) {
+      lines.append(report("ABC123", "RECEIVE", null)).append('\n');
+    }
+
+    batch.readLines(json(lines.toString()));
+    batch.submit(applicationEvents());
+
+    assertEquals(3, messages.size());
+    assertEquals(100, messages.get(0).size());
+    assertEquals(100, messages.get(1).size());
+    assertEquals(50, messages.get(2).size());
+  }
+
+  private static void assertStatuses(JsonObject results, String... statuses) {
+    JsonArray array = results.getJsonArray("results");
+    assertEquals(statuses.length, array.size());
+    for (int i = 0; i < statuses.length; i++) {
+      assertEquals(statuses[i], array.getJsonObject(i).getString("status"));
+    }
+  }
+
+  private static String report(String trackingId, String eventType, String voyageNumber) {
+    return "{\"completionTime\": \"3/1/2023 10:15 AM\""
+        + (trackingId == null ? "" : ", \"trackingId\": \"" + trackingId + "\"")
+        + ", \"eventType\": \""
+        + eventType
+        + "\", \"unLocode\": \"SESTO\""
+        + (voyageNumber == null ? "" : ", \"voyageNumber\": \"" + voyageNumber + "\"")
+        + "}";
+  }
+
+  private static InputStream json(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Rejects reports without a tracking ID, the bean validation constraints are not run here. */
+  private static Validator validator() {
+    return (Validator)
+        Proxy.newProxyInstance(
+            Validator.class.getClassLoader(),
+            new Class<?>[] {Validator.class},
+            (proxy, method, args) -> {
+              HandlingReport report = (HandlingReport) args[0];
+              if (report.getTrackingId() != null) {
+                return Collections.emptySet();
+              }
+              return Collections.singleton(
+                  Proxy.newProxyInstance(
+                      ConstraintViolation.class.getClassLoader(),
+                      new Class<?>[] {ConstraintViolation.class},
+                      (violation, violationMethod, violationArgs) -> "Missing tracking ID."));
+            });
+  }
+
+  private ApplicationEvents applicationEvents() {
+    return (ApplicationEvents)
+        Proxy.newProxyInstance(
+            ApplicationEvents.class.getClassLoader(),
+            new Class<?>[] {ApplicationEvents.class},
+            (proxy, method, args) -> {
+              if (!method.getName().equals("receivedHandlingEventRegistrationAttempts")) {
+                throw new UnsupportedOperationException(method.getName());
+              }
+              @SuppressWarnings("unchecked")
+              List<HandlingEventRegistrationAttempt> attempts =
+                  (List<HandlingEventRegistrationAttempt>) args[0];
+              messages.add(attempts);
+              return null;
+            });
+  }
+}
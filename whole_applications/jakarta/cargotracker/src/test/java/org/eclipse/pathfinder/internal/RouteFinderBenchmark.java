@@ -0,0 +1,95 @@
+package org.eclipse.pathfinder.internal;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures route queries over a synthetic network shaped like the one in {@link RouteFinderTest},
+ * and the cost of building the graph that {@link GraphDao} repeats on every expiry.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=RouteFinderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteFinderBenchmark {
+
+  private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+  private static final int QUERIES = 1_024;
+
+  @Param({"1000", "10000"})
+  int locations;
+
+  @Param({"4000"})
+  int voyages;
+
+  TransitGraph graph;
+  String[] origins;
+  String[] destinations;
+  int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    graph = network(new TransitGraph.Builder()).build();
+
+    Random random = new Random(7);
+    origins = new String[QUERIES];
+    destinations = new String[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      origins[i] = location(random.nextInt(locations));
+      destinations[i] = location(random.nextInt(locations));
+    }
+  }
+
+  /** One shortest-path request, as served by GraphTraversalService. */
+  @Benchmark
+  public List<int[]> findPaths() {
+    int i = next++ & (QUERIES - 1);
+    return new RouteFinder(graph)
+        .findPaths(origins[i], destinations[i], Long.MIN_VALUE, Long.MAX_VALUE, 5);
+  }
+
+  @Benchmark
+  public TransitGraph buildGraph() {
+    return network(new TransitGraph.Builder()).build();
+  }
+
+  private TransitGraph.Builder network(TransitGraph.Builder builder) {
+    Random random = new Random(42);
+    for (int v = 0; v < voyages; v++) {
+      builder.addVoyage("V" + v);
+      int from = random.nextInt(locations);
+      LocalDateTime time = START.plusHours(random.nextInt(24 * 30));
+      for (int m = 0; m < 10; m++) {
+        int to = random.nextInt(locations);
+        LocalDateTime arrival = time.plusHours(6 + random.nextInt(66));
+        builder.addMovement(location(from), location(to), time, arrival);
+        from = to;
+        time = arrival.plusHours(2 + random.nextInt(22));
+      }
+    }
+    return builder;
+  }
+
+  private static String location(int index) {
+    return String.format("L%04d", index);
+  }
+}
@@ -0,0 +1,228 @@
+package org.eclipse.pathfinder.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class RouteFinderTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+  @Test
+  public void testRespectsConnectionTimes() {
+    TransitGraph graph =
+        new TransitGraph.Builder()
+            .addVoyage("V1")
+            .addMovement("AAAAA", "BBBBB", hours(0), hours(10))
+            // Leaves before V1 arrives, so it can't be used.
+            .addVoyage("V2")
+            .addMovement("BBBBB", "CCCCC", hours(5), hours(12))
+            .addVoyage("V3")
+            .addMovement("BBBBB", "CCCCC", hours(11), hours(20))
+            .build();
+
+    List<int[]> paths =
+        new RouteFinder(graph).findPaths("AAAAA", "CCCCC", Long.MIN_VALUE, Long.MAX_VALUE, 3);
+
+    assertEquals(1, paths.size());
+    assertEquals("V1", graph.getVoyageNumber(paths.get(0)[0]));
+    assertEquals("V3", graph.getVoyageNumber(paths.get(0)[1]));
+  }
+
+  @Test
+  public void testStaysAboardVoyage() {
+    TransitGraph graph =
+        new TransitGraph.Builder()
+            .addVoyage("V1")
+            .addMovement("AAAAA", "BBBBB", hours(0), hours(10))
+            .addMovement("BBBBB", "CCCCC", hours(12), hours(20))
+            .build();
+    RouteFinder finder = new RouteFinder(graph);
+
+    List<int[]> paths = finder.findPaths("AAAAA", "CCCCC", Long.MIN_VALUE, Long.MAX_VALUE, 3);
+
+    assertEquals(1, paths.size());
+    assertEquals(2, paths.get(0).length);
+    assertEquals(1, finder.countVoyages(paths.get(0)));
+  }
+
+  @Test
+  public void testHonoursDeadline() {
+    TransitGraph graph =
+        new TransitGraph.Builder()
+            .addVoyage("FAST")
+            .addMovement("AAAAA", "CCCCC", hours(0), hours(30))
+            .addVoyage("SLOW")
+            .addMovement("AAAAA", "CCCCC", hours(0), hours(60))
+            .build();
+    RouteFinder finder = new RouteFinder(graph);
+
+    assertEquals(
+        2,
+        finder.findPaths("AAAAA", "CCCCC", Long.MIN_VALUE, Long.MAX_VALUE, 5).size());
+    List<int[]> paths =
+        finder.findPaths("AAAAA", "CCCCC", Long.MIN_VALUE, seconds(hours(48)), 5);
+    assertEquals(1, paths.size());
+    assertEquals("FAST", graph.getVoyageNumber(paths.get(0)[0]));
+    assertTrue(
+        finder.findPaths("AAAAA", "CCCCC", Long.MIN_VALUE, seconds(hours(24)), 5).isEmpty());
+  }
+
+  @Test
+  public void testAlternativesOrderedByArrival() {
+    TransitGraph graph =
+        new TransitGraph.Builder()
+            .addVoyage("V1")
+            .addMovement("AAAAA", "BBBBB", hours(0), hours(10))
+            .addMovement("BBBBB", "DDDDD", hours(11), hours(30))
+            .addVoyage("V2")
+            .addMovement("AAAAA", "CCCCC", hours(1), hours(5))
+            .addVoyage("V3")
+            .addMovement("CCCCC", "DDDDD", hours(6), hours(20))
+            .addVoyage("V4")
+            .addMovement("BBBBB", "CCCCC", hours(12), hours(14))
+            .addMovement("CCCCC", "DDDDD", hours(15), hours(40))
+            .build();
+    RouteFinder finder = new RouteFinder(graph);
+
+    List<int[]> paths = finder.findPaths("AAAAA", "DDDDD", Long.MIN_VALUE, Long.MAX_VALUE, 5);
+
+    // V2-V3, V1, then V1-V4 and V2-V4 which both arrive with V4.
+    assertEquals(4, paths.size());
+    assertEquals(seconds(hours(20)), graph.getArrival(last(paths.get(0))));
+    assertEquals(seconds(hours(30)), graph.getArrival(last(paths.get(1))));
+    assertEquals(seconds(hours(40)), graph.getArrival(last(paths.get(2))));
+    assertEquals(seconds(hours(40)), graph.getArrival(last(paths.get(3))));
+  }
+
+  @Test
+  public void testUnknownLocations() {
+    TransitGraph graph =
+        new TransitGraph.Builder()
+            .addVoyage("V1")
+            .addMovement("AAAAA", "BBBBB", hours(0), hours(10))
+            .build();
+
+    assertTrue(
+        new RouteFinder(graph)
+            .findPaths("AAAAA", "ZZZZZ", Long.MIN_VALUE, Long.MAX_VALUE, 5)
+            .isEmpty());
+  }
+
+  /**
+   * Routes over a synthetic network of 10,000 locations and checks every path against the
+   * schedule, and the earliest arrival against a connection scan over all movements.
+   */
+  @Test
+  public void testSyntheticNetwork() {
+    Random random = new Random(42);
+    int locations = 10_000;
+    TransitGraph.Builder builder = new TransitGraph.Builder();
+    for (int v = 0; v < 4_000; v++) {
+      builder.addVoyage("V" + v);
+      int from = random.nextInt(locations);
+      LocalDateTime time = hours(random.nextInt(24 * 30));
+      for (int m = 0; m < 10; m++) {
+        int to = random.nextInt(locations);
+        LocalDateTime arrival = time.plusHours(6 + random.nextInt(66));
+        builder.addMovement(location(from), location(to), time, arrival);
+        from = to;
+        time = arrival.plusHours(2 + random.nextInt(22));
+      }
+    }
+    TransitGraph graph = builder.build();
+    RouteFinder finder = new RouteFinder(graph);
+
+    int routed = 0;
+    for (int q = 0; q < 50; q++) {
+      String origin = location(random.nextInt(locations));
+      String destination = location(random.nextInt(locations));
+      List<int[]> paths =
+          finder.findPaths(origin, destination, Long.MIN_VALUE, Long.MAX_VALUE, 5);
+      long earliest = earliestArrival(graph, origin, destination);
+
+      if (earliest == Long.MAX_VALUE || origin.equals(destination)) {
+        assertTrue(paths.isEmpty());
+        continue;
+      }
+      routed++;
+      assertFalse(paths.isEmpty());
+      assertEquals(earliest, graph.getArrival(last(paths.get(0))));
+
+      Set<String> distinct = new HashSet<>();
+      long previousArrival = Long.MIN_VALUE;
+      for (int[] path : paths) {
+        assertValid(graph, origin, destination, path);
+        assertTrue(distinct.add(Arrays.toString(path)));
+        assertTrue(graph.getArrival(last(path)) >= previousArrival);
+        previousArrival = graph.getArrival(last(path));
+      }
+    }
+    assertTrue(routed > 0);
+  }
+
+  private static void assertValid(
+      TransitGraph graph, String origin, String destination, int[] path) {
+    assertEquals(origin, graph.getLocation(graph.getFrom(path[0])));
+    assertEquals(destination, graph.getLocation(graph.getTo(last(path))));
+    for (int i = 1; i < path.length; i++) {
+      assertEquals(graph.getTo(path[i - 1]), graph.getFrom(path[i]));
+      assertTrue(
+          graph.getNextOnVoyage(path[i - 1]) == path[i]
+              || graph.getDeparture(path[i]) >= graph.getArrival(path[i - 1]));
+    }
+  }
+
+  /** Connection scan: movements in departure order, each usable if its start was reached in time */
+  private static long earliestArrival(TransitGraph graph, String origin, String destination) {
+    if (graph.indexOf(origin) < 0 || graph.indexOf(destination) < 0) {
+      return Long.MAX_VALUE;
+    }
+    int edges = graph.getEdgeCount();
+    Integer[] byDeparture = new Integer[edges];
+    for (int i = 0; i < edges; i++) {
+      byDeparture[i] = i;
+    }
+    Arrays.sort(byDeparture, (a, b) -> Long.compare(graph.getDeparture(a), graph.getDeparture(b)));
+
+    long[] earliest = new long[graph.getLocationCount()];
+    Arrays.fill(earliest, Long.MAX_VALUE);
+    earliest[graph.indexOf(origin)] = Long.MIN_VALUE;
+    boolean[] aboard = new boolean[edges];
+    for (int edge : byDeparture) {
+      if (aboard[edge] || earliest[graph.getFrom(edge)] <= graph.getDeparture(edge)) {
+        int next = graph.getNextOnVoyage(edge);
+        if (next >= 0) {
+          aboard[next] = true;
+        }
+        int to = graph.getTo(edge);
+        earliest[to] = Math.min(earliest[to], graph.getArrival(edge));
+      }
+    }
+    return earliest[graph.indexOf(destination)];
+  }
+
+  private static int last(int[] path) {
+    return path[path.length - 1];
+  }
+
+  private static String location(int index) {
+    return String.format("L%04d", index);
+  }
+
+  private static LocalDateTime hours(int hours) {
+    return START.plusHours(hours);
+  }
+
+  private static long seconds(LocalDateTime time) {
+    return TransitGraph.toEpochSecond(time);
+  }
+}
@@ -7,9 +7,6 @@ import org.eclipse.microprofile.reactive.messaging.Incoming;
 import org.eclipse.microprofile.reactive.messaging.Outgoing;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @ApplicationScoped
 public class BaristaConsumer {
 
@@ -22,20 +19,13 @@ public class BaristaConsumer {
     public Message<String> makeCoffee(String orderJson) {
         try {
             System.out.println("[barista] received: " + orderJson);
-            // Parse whatever orders-service sent (JSON String)
-            Map<String, Object> in = jsonb.fromJson(orderJson, Map.class);
+            // Bind straight to the command orders-service sent, instead of a Map of boxed values
+            BaristaCommand in = jsonb.fromJson(orderJson, BaristaCommand.class);
 
             // Carry through orderId if present (original Quarkus did this)
-            Object orderId = in.get("orderId");
-
-            Map<String, Object> out = new HashMap<>();
-            if (orderId != null) {
-                out.put("orderId", orderId);
-            }
-            out.put("status", "READY");
-            out.put("from", "barista");
+            OrderUpdate out = new OrderUpdate(in.orderId(), "READY", "barista");
 
-            // Produce clean JSON (no backslashes)
+            // Produce clean JSON (no backslashes); a null orderId is left out
             return Message.of(jsonb.toJson(out));
 
         } catch (Exception e) {
@@ -44,4 +34,9 @@ public class BaristaConsumer {
             throw e;
         }
     }
+
+    // OrdersPipeline.OrderCommand as sent to the barista
+    public record BaristaCommand(String target, Long orderId, String item, int quantity) {}
+
+    public record OrderUpdate(Long orderId, String status, String from) {}
 }
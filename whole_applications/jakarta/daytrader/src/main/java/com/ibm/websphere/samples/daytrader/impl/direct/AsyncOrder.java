@@ -15,57 +15,76 @@
  */
 package com.ibm.websphere.samples.daytrader.impl.direct;
 
+import java.util.List;
+
 import javax.annotation.Resource;
 import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.transaction.UserTransaction;
 
+import com.ibm.websphere.samples.daytrader.interfaces.RuntimeMode;
 import com.ibm.websphere.samples.daytrader.interfaces.TradeJDBC;
-import com.ibm.websphere.samples.daytrader.interfaces.TradeServices;
+import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
+/**
+ * Completes one batch of queued orders in a single global transaction. If the
+ * batch fails it is rolled back and each order is completed in its own
+ * transaction, which cancels only the orders that cannot be completed.
+ */
 @Dependent
 public class AsyncOrder implements Runnable {
 
   @Inject
   @TradeJDBC
-  TradeServices tradeService;
+  TradeDirect tradeService;
+
+  // Completing orders updates quotes, which must go through the quote cache in that mode
+  @Inject
+  @RuntimeMode("Direct (JDBC) + Quote Cache")
+  Instance<TradeDirect> quoteCacheTradeService;
 
   @Resource
   UserTransaction ut;
       
-  Integer orderID;
-  boolean twoPhase;
+  List<Integer> orderIDs;
   
-  public void setProperties(Integer orderID, boolean twoPhase) {
-    this.orderID = orderID;
-    this.twoPhase =  twoPhase;
+  public void setProperties(List<Integer> orderIDs) {
+    this.orderIDs = orderIDs;
   }     
   
   @Override
   public void run() {
-        
-        
+    TradeDirect tradeService = (TradeConfig.getRunTimeMode() == TradeConfig.DIRECT_QUOTE_CACHE) ? quoteCacheTradeService.get() : this.tradeService;
+
     try {  
       ut.begin();
-      tradeService.completeOrder(orderID, twoPhase);      
+      tradeService.completeOrderBatch(orderIDs, true);
       ut.commit();
+      return;
     } catch (Exception e) {
-      
+      Log.error("AsyncOrder:run -- error completing batch of " + orderIDs.size() + " orders, completing them one at a time", e);
       try {
         ut.rollback();
       } catch (Exception e1) {
-        try {
-          throw new Exception(e1);
-        } catch (Exception e2) {
-          e2.printStackTrace();
-        }
+        Log.error("AsyncOrder:run -- error rolling back batch", e1);
       } 
+    } 
+
+    for (Integer orderID : orderIDs) {
       try {
-        throw new Exception(e);
-      } catch (Exception e1) {
-        // TODO Auto-generated catch block
-        e1.printStackTrace();
+        ut.begin();
+        tradeService.completeOrder(orderID, true);      
+        ut.commit();
+      } catch (Exception e) {
+        Log.error("AsyncOrder:run -- error completing order " + orderID, e);
+        try {
+          ut.rollback();
+        } catch (Exception e1) {
+          Log.error("AsyncOrder:run -- error rolling back order " + orderID, e1);
+        }
       }
-    } 
+    }
   }
 }
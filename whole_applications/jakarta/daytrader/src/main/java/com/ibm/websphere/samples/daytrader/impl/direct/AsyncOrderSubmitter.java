@@ -15,26 +15,145 @@
  */
 package com.ibm.websphere.samples.daytrader.impl.direct;
 
-import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
-import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
-@RequestScoped
+import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.MDBStats;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+/**
+ * Queues orders for asynchronous completion in the Direct (JDBC) runtime mode.
+ *
+ * Pending orders are collected into micro-batches of up to
+ * TradeConfig.getAsyncOrderBatchSize() orders, waiting at most
+ * TradeConfig.getAsyncOrderBatchWait() milliseconds for a batch to fill, and
+ * each batch is completed by an {@link AsyncOrder} in one transaction. A
+ * single drainer runs while the queue is short, more are started (up to one
+ * per core) when a full batch is waiting. Queue depth and batch size are
+ * recorded as {@link MDBStats} counts AsyncOrder:queueDepth and
+ * AsyncOrder:batchSize.
+ */
+@ApplicationScoped
 public class AsyncOrderSubmitter {
   
-  
+  private static final int MAX_DRAINERS = Runtime.getRuntime().availableProcessors();
+
   @Resource
   private ManagedExecutorService mes;
 
   @Inject
-  private AsyncOrder asyncOrder;
-  
+  private Instance<AsyncOrder> asyncOrders;
+
+  private final LinkedBlockingQueue<PendingOrder> pending = new LinkedBlockingQueue<PendingOrder>();
+  private final AtomicInteger drainers = new AtomicInteger();
   
-  public Future<?> submitOrder(Integer orderID, boolean twoPhase) {
-    asyncOrder.setProperties(orderID,twoPhase);
-    return mes.submit(asyncOrder);
+  public void submitOrder(Integer orderID) {
+    pending.add(new PendingOrder(orderID));
+    int active = drainers.get();
+    if (active == 0 || (active < MAX_DRAINERS && pending.size() >= TradeConfig.getAsyncOrderBatchSize())) {
+      startDrainer();
+    }
+  }
+
+  public int getQueueDepth() {
+    return pending.size();
+  }
+
+  private void startDrainer() {
+    if (drainers.incrementAndGet() > MAX_DRAINERS) {
+      drainers.decrementAndGet();
+      return;
+    }
+    try {
+      mes.submit(this::drain);
+    } catch (Exception e) {
+      drainers.decrementAndGet();
+      Log.error(e, "AsyncOrderSubmitter:startDrainer -- unable to submit order batch drainer, " + pending.size() + " orders queued");
+    }
+  }
+
+  private void drain() {
+    try {
+      List<PendingOrder> batch;
+      while (!(batch = nextBatch()).isEmpty()) {
+        complete(batch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // An order queued after the last poll but before the count dropped would otherwise wait for the next submit
+      if (drainers.decrementAndGet() == 0 && !pending.isEmpty()) {
+        startDrainer();
+      }
+    }
+  }
+
+  private List<PendingOrder> nextBatch() throws InterruptedException {
+    int batchSize = Math.max(1, TradeConfig.getAsyncOrderBatchSize());
+    List<PendingOrder> batch = new ArrayList<PendingOrder>(batchSize);
+
+    MDBStats.getInstance().recordCount("AsyncOrder:queueDepth", pending.size());
+
+    PendingOrder first = pending.poll();
+    if (first == null) {
+      return batch;
+    }
+    batch.add(first);
+    pending.drainTo(batch, batchSize - 1);
+
+    long deadline = System.currentTimeMillis() + TradeConfig.getAsyncOrderBatchWait();
+    while (batch.size() < batchSize) {
+      long wait = deadline - System.currentTimeMillis();
+      PendingOrder next = (wait > 0) ? pending.poll(wait, TimeUnit.MILLISECONDS) : null;
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+      pending.drainTo(batch, batchSize - batch.size());
+    }
+    return batch;
+  }
+
+  private void complete(List<PendingOrder> batch) {
+    List<Integer> orderIDs = new ArrayList<Integer>(batch.size());
+    for (PendingOrder order : batch) {
+      orderIDs.add(order.orderID);
+    }
+
+    AsyncOrder asyncOrder = asyncOrders.get();
+    try {
+      asyncOrder.setProperties(orderIDs);
+      asyncOrder.run();
+    } finally {
+      asyncOrders.destroy(asyncOrder);
+    }
+
+    MDBStats stats = MDBStats.getInstance();
+    stats.recordCount("AsyncOrder:batchSize", batch.size());
+    long completeTime = System.currentTimeMillis();
+    for (PendingOrder order : batch) {
+      // Time from submission to completion, including the wait in the queue
+      stats.addTiming("AsyncOrder:completeOrder", order.submitTime, completeTime);
+    }
+  }
+
+  private static final class PendingOrder {
+    private final Integer orderID;
+    private final long submitTime;
+
+    PendingOrder(Integer orderID) {
+      this.orderID = orderID;
+      this.submitTime = System.currentTimeMillis();
+    }
   }
 }
@@ -18,43 +18,117 @@ package com.ibm.websphere.samples.daytrader.impl.direct;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.sql.DataSource;
 
-import com.ibm.websphere.samples.daytrader.util.KeyBlock;
 import com.ibm.websphere.samples.daytrader.util.Log;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
+/**
+ * KeySequenceDirect hands out primary keys for the Direct (JDBC) runtime mode.
+ *
+ * Keys are reserved from keygenejb in blocks. Each key name is split into
+ * stripes (one per core) which own their own block, so concurrent threads
+ * take keys with a single atomic increment instead of serializing on one
+ * block. When a stripe's block runs low the next block is reserved in the
+ * background on its own connection, so the select ... for update on
+ * keygenejb is normally off the request path.
+ */
+@ApplicationScoped
 public class KeySequenceDirect {
 
-    private static HashMap<String, Collection<?>> keyMap = new HashMap<String, Collection<?>>();
+    private static final int STRIPES = Runtime.getRuntime().availableProcessors();
+
+    private final ConcurrentHashMap<String, KeySequence> sequences = new ConcurrentHashMap<String, KeySequence>();
+
+    @Resource(lookup = "jdbc/TradeDataSource")
+    //@Resource(lookup = "java:/jdbc/TradeDataSource")
+    private DataSource datasource;
 
-    public static synchronized Integer getNextID(Connection conn, String keyName, boolean inSession, boolean inGlobalTxn) throws Exception {
-        Integer nextID = null;
-        // First verify we have allocated a block of keys
-        // for this key name
-        // Then verify the allocated block has not been depleted
-        // allocate a new block if necessary
-        if (keyMap.containsKey(keyName) == false) {
-            allocNewBlock(conn, keyName, inSession, inGlobalTxn);
+    @Resource
+    private ManagedExecutorService mes;
+
+    public int getNextID(Connection conn, String keyName, boolean inSession, boolean inGlobalTxn) throws Exception {
+        KeySequence sequence = sequences.computeIfAbsent(keyName, KeySequence::new);
+        Stripe stripe = sequence.stripes[(int) (Thread.currentThread().getId() % STRIPES)];
+
+        int nextID = stripe.next();
+        if (nextID < 0) {
+            synchronized (stripe) {
+                nextID = stripe.next();
+                if (nextID < 0) {
+                    // No prefetched block was ready, reserve one on the caller's connection
+                    stripe.current = allocNewBlock(conn, keyName, TradeConfig.getKeyBlockSize(keyName), inSession, inGlobalTxn);
+                    nextID = stripe.current.next();
+                }
+            }
         }
-        Collection<?> block = keyMap.get(keyName);
 
-        Iterator<?> ids = block.iterator();
-        if (ids.hasNext() == false) {
-            ids = allocNewBlock(conn, keyName, inSession, inGlobalTxn).iterator();
+        if (stripe.current.remaining() <= stripe.lowWaterMark) {
+            prefetch(keyName, stripe);
         }
-        // get and return a new unique key
-        nextID = (Integer) ids.next();
 
-        
         Log.trace("KeySequenceDirect:getNextID inSession(" + inSession + ") - return new PK ID for Entity type: " + keyName + " ID=" + nextID);
-        
+
         return nextID;
     }
 
-    private static Collection<?> allocNewBlock(Connection conn, String keyName, boolean inSession, boolean inGlobalTxn) throws Exception {
+    private void prefetch(final String keyName, final Stripe stripe) {
+        if (stripe.prefetched != null || !stripe.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mes.submit(() -> {
+                Connection conn = null;
+                try {
+                    conn = datasource.getConnection();
+                    conn.setAutoCommit(false);
+                    stripe.prefetched = allocNewBlock(conn, keyName, TradeConfig.getKeyBlockSize(keyName), false, false);
+                } catch (Exception e) {
+                    Log.error(e, "KeySequenceDirect:prefetch - failure to prefetch block of keys for Entity type: " + keyName);
+                } finally {
+                    stripe.prefetching.set(false);
+                    if (conn != null) {
+                        try {
+                            conn.close();
+                        } catch (Exception e) {
+                            Log.error("KeySequenceDirect:prefetch -- failed to close connection", e);
+                        }
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // Executor unavailable, the block is reserved synchronously when the stripe runs out
+            stripe.prefetching.set(false);
+            Log.debug("KeySequenceDirect:prefetch - unable to submit prefetch for Entity type: " + keyName);
+        }
+    }
+
+    /**
+     * Reserve a contiguous range of count keys on a dedicated connection and
+     * return the first one. Used by bulk population, which knows up front
+     * how many keys it needs.
+     */
+    public int reserveKeys(String keyName, int count) throws Exception {
+        Connection conn = null;
+        try {
+            conn = datasource.getConnection();
+            conn.setAutoCommit(false);
+            return allocNewBlock(conn, keyName, count, false, false).next();
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    private KeyRange allocNewBlock(Connection conn, String keyName, int blockSize, boolean inSession, boolean inGlobalTxn) throws Exception {
         try {
 
             if (inGlobalTxn == false && !inSession) {
@@ -85,19 +159,16 @@ public class KeySequenceDirect {
             stmt.close();
 
             stmt = conn.prepareStatement(updateKeyValueSQL);
-            stmt.setInt(1, keyVal + TradeConfig.KEYBLOCKSIZE);
+            stmt.setInt(1, keyVal + blockSize);
             stmt.setString(2, keyName);
             stmt.executeUpdate();
             stmt.close();
 
-            Collection<?> block = new KeyBlock(keyVal, keyVal + TradeConfig.KEYBLOCKSIZE - 1);
-            keyMap.put(keyName, block);
-
             if (inGlobalTxn == false && !inSession) {
                 conn.commit();
             }
 
-            return block;
+            return new KeyRange(keyVal, keyVal + blockSize - 1);
         } catch (Exception e) {
             String error = "KeySequenceDirect:allocNewBlock - failure to allocate new block of keys for Entity type: " + keyName;
             Log.error(e, error);
@@ -105,6 +176,72 @@ public class KeySequenceDirect {
         }
     }
 
+    /** Range of reserved keys [min, max], handed out with a single atomic increment */
+    private static final class KeyRange {
+        private final AtomicInteger index;
+        private final int max;
+
+        KeyRange(int min, int max) {
+            this.index = new AtomicInteger(min);
+            this.max = max;
+        }
+
+        /** Returns the next key, or -1 when the range is depleted */
+        int next() {
+            if (index.get() > max) {
+                return -1;
+            }
+            int id = index.getAndIncrement();
+            return (id <= max) ? id : -1;
+        }
+
+        int remaining() {
+            return Math.max(0, max - index.get() + 1);
+        }
+    }
+
+    private static final class Stripe {
+        private final int lowWaterMark;
+        private volatile KeyRange current = new KeyRange(0, -1);
+        private volatile KeyRange prefetched;
+        private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+        Stripe(int blockSize) {
+            this.lowWaterMark = Math.max(1, blockSize / 4);
+        }
+
+        int next() {
+            int id = current.next();
+            if (id >= 0) {
+                return id;
+            }
+            // Switch to the prefetched block, if any; only one thread wins the swap
+            KeyRange depleted = current;
+            KeyRange ready = prefetched;
+            if (ready != null) {
+                synchronized (this) {
+                    if (current == depleted && prefetched == ready) {
+                        current = ready;
+                        prefetched = null;
+                    }
+                }
+                return current.next();
+            }
+            return -1;
+        }
+    }
+
+    private static final class KeySequence {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        KeySequence(String keyName) {
+            int blockSize = TradeConfig.getKeyBlockSize(keyName);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(blockSize);
+            }
+        }
+    }
+
     private static final String getKeyForUpdateSQL = "select * from keygenejb kg where kg.keyname = ?  for update";
 
     private static final String createKeySQL = "insert into keygenejb " + "( keyname, keyval ) " + "VALUES (  ?  ,  ? )";
@@ -0,0 +1,327 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.impl.direct;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.sql.DataSource;
+
+import com.ibm.websphere.samples.daytrader.entities.QuoteDataBean;
+import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+/**
+ * QuoteCacheDirect holds quotes in memory for the Direct (JDBC) + Quote Cache
+ * runtime mode.
+ *
+ * Quotes are loaded on first use and the cache is bounded by
+ * TradeConfig.getQuoteCacheSize(); clean entries are evicted when it is full.
+ * Price/volume changes are applied under a per-symbol striped lock and bump
+ * the entry's version. Changed quotes are written to quoteejb in one JDBC
+ * batch every TradeConfig.getQuoteCacheFlushInterval() milliseconds, an entry
+ * becomes clean once the version that was written is still its current one.
+ */
+@ApplicationScoped
+public class QuoteCacheDirect {
+
+  private static final int STRIPES = 64;
+
+  private final ConcurrentHashMap<String, CachedQuote> quotes = new ConcurrentHashMap<String, CachedQuote>();
+  private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+  private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+  // Held while writing, so a flush never runs alongside another one or an invalidate
+  private final Object flushLock = new Object();
+
+  // True while every quote in quoteejb is in the cache
+  private volatile boolean complete = false;
+
+  @Resource(lookup = "jdbc/TradeDataSource")
+  //@Resource(lookup = "java:/jdbc/TradeDataSource")
+  private DataSource datasource;
+
+  @Resource
+  private ManagedScheduledExecutorService mses;
+
+  public QuoteCacheDirect() {
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Returns the lock guarding updates to the given symbol
+   */
+  public ReentrantLock lockFor(String symbol) {
+    return locks[(symbol.hashCode() & 0x7fffffff) % STRIPES];
+  }
+
+  /**
+   * Returns a copy of the cached quote, loading it with the given loader if
+   * it is not cached
+   */
+  public QuoteDataBean get(String symbol, Callable<QuoteDataBean> loader) throws Exception {
+    CachedQuote entry = quotes.get(symbol);
+    if (entry == null) {
+      QuoteDataBean loaded = loader.call();
+      if (loaded == null) {
+        return null;
+      }
+      CachedQuote existing = quotes.putIfAbsent(symbol, new CachedQuote(copyOf(loaded)));
+      if (existing == null) {
+        evictIfNeeded();
+        return loaded;
+      }
+      entry = existing;
+    }
+    return copyOf(entry.quote);
+  }
+
+  /**
+   * Returns copies of all quotes. The first call, and every call after an
+   * eviction, flushes pending changes and reloads the full set with the loader.
+   */
+  public Collection<QuoteDataBean> getAll(Callable<Collection<QuoteDataBean>> loader) throws Exception {
+    if (!complete) {
+      flush();
+      for (QuoteDataBean quote : loader.call()) {
+        quotes.putIfAbsent(quote.getSymbol(), new CachedQuote(copyOf(quote)));
+      }
+      complete = quotes.size() <= TradeConfig.getQuoteCacheSize();
+      evictIfNeeded();
+    }
+    Collection<QuoteDataBean> all = new ArrayList<QuoteDataBean>(quotes.size());
+    for (CachedQuote entry : quotes.values()) {
+      all.add(copyOf(entry.quote));
+    }
+    return all;
+  }
+
+  /**
+   * Replace the cached quote with an updated one and schedule it to be
+   * written. The caller must hold {@link #lockFor(String)} for the symbol.
+   */
+  public void update(QuoteDataBean quoteData) {
+    CachedQuote entry = quotes.get(quoteData.getSymbol());
+    if (entry == null) {
+      entry = new CachedQuote(copyOf(quoteData));
+      quotes.put(quoteData.getSymbol(), entry);
+    } else {
+      entry.quote = copyOf(quoteData);
+    }
+    entry.version++;
+    scheduleFlush();
+  }
+
+  /**
+   * Add a newly created quote, already written to quoteejb
+   */
+  public void put(QuoteDataBean quoteData) {
+    ReentrantLock lock = lockFor(quoteData.getSymbol());
+    lock.lock();
+    try {
+      quotes.put(quoteData.getSymbol(), new CachedQuote(copyOf(quoteData)));
+    } finally {
+      lock.unlock();
+    }
+    evictIfNeeded();
+  }
+
+  /**
+   * Drop all cached quotes, including unwritten changes. Called whenever
+   * quoteejb is rebuilt or reset outside the normal trade path. Waits for a
+   * flush in progress, which would otherwise write its quotes over the rebuilt
+   * table.
+   */
+  public void invalidate() {
+    synchronized (flushLock) {
+      complete = false;
+      quotes.clear();
+    }
+  }
+
+  private void evictIfNeeded() {
+    int excess = quotes.size() - TradeConfig.getQuoteCacheSize();
+    if (excess <= 0) {
+      return;
+    }
+    complete = false;
+    Iterator<Map.Entry<String, CachedQuote>> it = quotes.entrySet().iterator();
+    while (excess > 0 && it.hasNext()) {
+      Map.Entry<String, CachedQuote> e = it.next();
+      ReentrantLock lock = lockFor(e.getKey());
+      // Skip symbols being updated, and never drop a change that has not been written
+      if (lock.tryLock()) {
+        try {
+          if (e.getValue().isClean() && quotes.remove(e.getKey(), e.getValue())) {
+            excess--;
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  private void scheduleFlush() {
+    if (!flushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      mses.schedule(() -> {
+        flushScheduled.set(false);
+        flush();
+      }, TradeConfig.getQuoteCacheFlushInterval(), TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      flushScheduled.set(false);
+      Log.error(e, "QuoteCacheDirect:scheduleFlush -- unable to schedule write-behind flush");
+    }
+  }
+
+  /**
+   * Write the changes still waiting for the flush timer before the application
+   * stops, they would be lost otherwise
+   */
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  /**
+   * Write every changed quote to quoteejb in one batch
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      writeChanges();
+    }
+  }
+
+  private void writeChanges() {
+    List<String> symbols = new ArrayList<String>();
+    List<QuoteDataBean> written = new ArrayList<QuoteDataBean>();
+    List<Long> versions = new ArrayList<Long>();
+
+    for (Map.Entry<String, CachedQuote> e : quotes.entrySet()) {
+      if (e.getValue().isClean()) {
+        continue;
+      }
+      ReentrantLock lock = lockFor(e.getKey());
+      lock.lock();
+      try {
+        symbols.add(e.getKey());
+        written.add(e.getValue().quote);
+        versions.add(e.getValue().version);
+      } finally {
+        lock.unlock();
+      }
+    }
+    if (written.isEmpty()) {
+      return;
+    }
+
+    Connection conn = null;
+    try {
+      conn = datasource.getConnection();
+      conn.setAutoCommit(false);
+      PreparedStatement stmt = conn.prepareStatement(flushQuoteSQL);
+      for (QuoteDataBean quote : written) {
+        stmt.setBigDecimal(1, quote.getPrice());
+        stmt.setDouble(2, quote.getChange());
+        stmt.setDouble(3, quote.getVolume());
+        stmt.setString(4, quote.getSymbol());
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+      stmt.close();
+      conn.commit();
+
+      for (int i = 0; i < symbols.size(); i++) {
+        CachedQuote entry = quotes.get(symbols.get(i));
+        if (entry != null) {
+          ReentrantLock lock = lockFor(symbols.get(i));
+          lock.lock();
+          try {
+            entry.flushedVersion = Math.max(entry.flushedVersion, versions.get(i));
+          } finally {
+            lock.unlock();
+          }
+        }
+      }
+      Log.trace("QuoteCacheDirect:flush -- wrote " + written.size() + " quotes");
+    } catch (Exception e) {
+      Log.error(e, "QuoteCacheDirect:flush -- error writing " + written.size() + " quotes, will retry");
+      try {
+        if (conn != null) {
+          conn.rollback();
+        }
+      } catch (Exception e1) {
+        Log.error(e1, "QuoteCacheDirect:flush -- error rolling back");
+      }
+    } finally {
+      if (conn != null) {
+        try {
+          conn.close();
+        } catch (Exception e) {
+          Log.error(e, "QuoteCacheDirect:flush -- failed to close connection");
+        }
+      }
+    }
+
+    // Changes made while writing, or a failed write, are picked up by the next flush
+    for (CachedQuote entry : quotes.values()) {
+      if (!entry.isClean()) {
+        scheduleFlush();
+        break;
+      }
+    }
+  }
+
+  private static QuoteDataBean copyOf(QuoteDataBean q) {
+    return new QuoteDataBean(q.getSymbol(), q.getCompanyName(), q.getVolume(), q.getPrice(), q.getOpen(), q.getLow(), q.getHigh(), q.getChange());
+  }
+
+  /** A cached quote; version and flushedVersion are guarded by the symbol's stripe lock */
+  private static final class CachedQuote {
+    private volatile QuoteDataBean quote;
+    private volatile long version;
+    private volatile long flushedVersion;
+
+    CachedQuote(QuoteDataBean quote) {
+      this.quote = quote;
+    }
+
+    boolean isClean() {
+      return version == flushedVersion;
+    }
+  }
+
+  private static final String flushQuoteSQL = "update quoteejb set " + "price = ?, change1 = ?, volume = ? " + "where symbol = ?";
+
+}
@@ -25,7 +25,11 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
@@ -51,8 +55,10 @@ import com.ibm.websphere.samples.daytrader.entities.AccountProfileDataBean;
 import com.ibm.websphere.samples.daytrader.entities.HoldingDataBean;
 import com.ibm.websphere.samples.daytrader.entities.OrderDataBean;
 import com.ibm.websphere.samples.daytrader.entities.QuoteDataBean;
+import com.ibm.websphere.samples.daytrader.util.AfterCommit;
 import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
 import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.MarketSummaryEngine;
 import com.ibm.websphere.samples.daytrader.util.MDBStats;
 import com.ibm.websphere.samples.daytrader.util.RecentQuotePriceChangeList;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
@@ -93,7 +99,6 @@ public class TradeDirect implements TradeServices, Serializable {
   private static long nextMarketSummary = System.currentTimeMillis();
   private static MarketSummaryDataBean cachedMSDB = MarketSummaryDataBean.getRandomInstance();
 
-  private static BigDecimal ZERO = new BigDecimal(0.0);
   private boolean inGlobalTxn = false;
   private boolean inSession = false;
 
@@ -124,6 +129,18 @@ public class TradeDirect implements TradeServices, Serializable {
 
   @Inject
   RecentQuotePriceChangeList recentQuotePriceChangeList;
+
+  @Inject
+  MarketSummaryEngine marketSummaryEngine;
+
+  @Inject
+  AfterCommit afterCommit;
+
+  @Inject
+  KeySequenceDirect keySequenceDirect;
+
+  @Inject
+  QuoteCacheDirect quoteCache;
   
   @Inject 
   AsyncOrderSubmitter asyncOrderSubmitter;  
@@ -201,94 +218,46 @@ public class TradeDirect implements TradeServices, Serializable {
   public MarketSummaryDataBean getMarketSummaryInternal() throws Exception {
 
     MarketSummaryDataBean marketSummaryData = null;
-    Connection conn = null;
-    try {
 
-      Log.trace("TradeDirect:getMarketSummary - inSession(" + this.inSession + ")");
+    Log.trace("TradeDirect:getMarketSummary - inSession(" + this.inSession + ")");
 
-      conn = getConn();
-      PreparedStatement stmt = getStatement(conn, getTSIAQuotesOrderByChangeSQL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+    // The summary is maintained incrementally from quote updates, the quote
+    // table is only scanned once to seed the engine
+    if (!marketSummaryEngine.isSeeded()) {
+      seedMarketSummaryEngine();
+    }
 
-      ArrayList<QuoteDataBean> topGainersData = new ArrayList<QuoteDataBean>(5);
-      ArrayList<QuoteDataBean> topLosersData = new ArrayList<QuoteDataBean>(5);
+    marketSummaryData = marketSummaryEngine.getMarketSummary();
+    if (marketSummaryData != null) {
+      mkSummaryUpdateEvent.fireAsync("MarketSummaryUpdate", NotificationOptions.builder().setExecutor(mes).build());
+    }
+    return marketSummaryData;
 
-      ResultSet rs = stmt.executeQuery();
+  }
 
-      int count = 0;
-      while (rs.next() && (count++ < 5)) {
-        QuoteDataBean quoteData = getQuoteDataFromResultSet(rs);
-        topLosersData.add(quoteData);
-      }
+  private void seedMarketSummaryEngine() throws Exception {
+    Connection conn = null;
+    try {
+      Log.trace("TradeDirect:seedMarketSummaryEngine - inSession(" + this.inSession + ")");
 
-      stmt.close();
-      stmt = getStatement(conn, "select * from quoteejb q order by q.change1 DESC", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-      rs = stmt.executeQuery();
+      conn = getConn();
+      PreparedStatement stmt = getStatement(conn, getAllQuotesSQL);
+      ResultSet rs = stmt.executeQuery();
 
-      count = 0;
-      while (rs.next() && (count++ < 5)) {
-        QuoteDataBean quoteData = getQuoteDataFromResultSet(rs);
-        topGainersData.add(quoteData);
+      ArrayList<QuoteDataBean> quotes = new ArrayList<QuoteDataBean>(TradeConfig.getMAX_QUOTES());
+      while (rs.next()) {
+        quotes.add(getQuoteDataFromResultSet(rs));
       }
-
-      /*
-       * rs.last(); count = 0; while (rs.previous() && (count++ < 5) ) {
-       * QuoteDataBean quoteData = getQuoteDataFromResultSet(rs);
-       * topGainersData.add(quoteData); }
-       */
-
       stmt.close();
-
-      BigDecimal TSIA = ZERO;
-      BigDecimal openTSIA = ZERO;
-      double volume = 0.0;
-
-      if ((topGainersData.size() > 0) || (topLosersData.size() > 0)) {
-
-        stmt = getStatement(conn, getTSIASQL);
-        rs = stmt.executeQuery();
-
-        if (!rs.next()) {
-          Log.error("TradeDirect:getMarketSummary -- error w/ getTSIASQL -- no results");
-        } else {
-          TSIA = rs.getBigDecimal("TSIA");
-        }
-        stmt.close();
-
-        stmt = getStatement(conn, getOpenTSIASQL);
-        rs = stmt.executeQuery();
-
-        if (!rs.next()) {
-          Log.error("TradeDirect:getMarketSummary -- error w/ getOpenTSIASQL -- no results");
-        } else {
-          openTSIA = rs.getBigDecimal("openTSIA");
-        }
-        stmt.close();
-
-        stmt = getStatement(conn, getTSIATotalVolumeSQL);
-        rs = stmt.executeQuery();
-
-        if (!rs.next()) {
-          Log.error("TradeDirect:getMarketSummary -- error w/ getTSIATotalVolumeSQL -- no results");
-        } else {
-          volume = rs.getDouble("totalVolume");
-        }
-        stmt.close();
-      }
       commit(conn);
 
-      marketSummaryData = new MarketSummaryDataBean(TSIA, openTSIA, volume, topGainersData, topLosersData);
-      mkSummaryUpdateEvent.fireAsync("MarketSummaryUpdate", NotificationOptions.builder().setExecutor(mes).build());
-
-    }
-
-    catch (Exception e) {
-      Log.error("TradeDirect:login -- error logging in user", e);
+      marketSummaryEngine.seed(quotes);
+    } catch (Exception e) {
+      Log.error("TradeDirect:getMarketSummary -- error loading quotes for market summary", e);
       rollBack(conn, e);
     } finally {
       releaseConn(conn);
     }
-    return marketSummaryData;
-
   }
 
   /**
@@ -541,13 +510,141 @@ public class TradeDirect implements TradeServices, Serializable {
 
   @Override
   public Future<OrderDataBean> completeOrderAsync(Integer orderID, boolean twoPhase) throws Exception {
+    // Queued orders are completed in batches, always in a global transaction
     if (!inSession) {
-      asyncOrderSubmitter.submitOrder(orderID, twoPhase);
+      asyncOrderSubmitter.submitOrder(orderID);
     }
     return null;
   }
 
 
+  /**
+   * Complete a batch of queued orders in one transaction. The orders are read
+   * with a single prepared statement and the holdingejb and orderejb changes
+   * for the whole batch are sent as JDBC batches. Any failure rolls back the
+   * entire batch and is rethrown, so the caller can complete the orders one at
+   * a time through {@link #completeOrder(Integer, boolean)} instead.
+   *
+   * @return the number of orders completed or cancelled
+   */
+  public int completeOrderBatch(List<Integer> orderIDs, boolean twoPhase) throws Exception {
+    Connection conn = null;
+    int completed = 0;
+
+    try {
+      Log.trace("TradeDirect:completeOrderBatch - inSession(" + this.inSession + ")", orderIDs);
+
+      setInGlobalTxn(!inSession && twoPhase);
+      conn = getConn();
+
+      completed = completeOrders(conn, orderIDs);
+
+      commit(conn);
+
+    } catch (Exception e) {
+      Log.error("TradeDirect:completeOrderBatch -- error completing " + orderIDs.size() + " orders", e);
+      if (getInGlobalTxn() == false && conn != null) {
+        conn.rollback();
+      }
+      throw e;
+    } finally {
+      releaseConn(conn);
+    }
+
+    return completed;
+  }
+
+  private int completeOrders(Connection conn, List<Integer> orderIDs) throws Exception {
+    PreparedStatement getOrderStmt = getStatement(conn, getOrderSQL);
+    PreparedStatement createHoldingStmt = getStatement(conn, createHoldingSQL);
+    PreparedStatement removeHoldingStmt = getStatement(conn, removeHoldingSQL);
+    PreparedStatement removeHoldingFromOrderStmt = getStatement(conn, removeHoldingFromOrderSQL);
+    PreparedStatement updateOrderStatusStmt = getStatement(conn, updateOrderStatusSQL);
+    PreparedStatement completeBuyOrderStmt = getStatement(conn, completeBuyOrderSQL);
+
+    List<OrderDataBean> quoteUpdates = new ArrayList<OrderDataBean>(orderIDs.size());
+    // The removes of this batch have not run yet, so a second sell of the same holding still finds its row
+    Set<Integer> soldHoldings = new HashSet<Integer>();
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+
+    try {
+      for (Integer orderID : orderIDs) {
+        getOrderStmt.setInt(1, orderID.intValue());
+        ResultSet rs = getOrderStmt.executeQuery();
+
+        if (!rs.next()) {
+          rs.close();
+          throw new Exception("TradeDirect:completeOrderBatch -- unable to find order: " + orderID);
+        }
+        OrderDataBean orderData = getOrderDataFromResultSet(rs);
+        int accountID = rs.getInt(10); // account_accountid
+        int holdingID = rs.getInt(11); // holding_holdingid
+        rs.close();
+
+        String orderStatus = orderData.getOrderStatus();
+        if ((orderStatus.compareToIgnoreCase("completed") == 0) || (orderStatus.compareToIgnoreCase("alertcompleted") == 0)
+            || (orderStatus.compareToIgnoreCase("cancelled") == 0)) {
+          throw new Exception("TradeDirect:completeOrderBatch -- attempt to complete Order that is already completed: " + orderID);
+        }
+
+        if (orderData.getOrderType().compareToIgnoreCase("buy") == 0) {
+          int newHoldingID = keySequenceDirect.getNextID(conn, "holding", inSession, getInGlobalTxn());
+          createHoldingStmt.setInt(1, newHoldingID);
+          createHoldingStmt.setTimestamp(2, now);
+          createHoldingStmt.setBigDecimal(3, orderData.getPrice());
+          createHoldingStmt.setDouble(4, orderData.getQuantity());
+          createHoldingStmt.setString(5, orderData.getSymbol());
+          createHoldingStmt.setInt(6, accountID);
+          createHoldingStmt.addBatch();
+
+          completeBuyOrderStmt.setString(1, "closed");
+          completeBuyOrderStmt.setTimestamp(2, now);
+          completeBuyOrderStmt.setInt(3, newHoldingID);
+          completeBuyOrderStmt.setInt(4, orderID.intValue());
+          completeBuyOrderStmt.addBatch();
+          quoteUpdates.add(orderData);
+        } else if (orderData.getOrderType().compareToIgnoreCase("sell") == 0) {
+          if (soldHoldings.contains(holdingID) || getHoldingData(conn, holdingID) == null) {
+            Log.debug("TradeDirect:completeOrderBatch:sell -- already sold holding: " + holdingID);
+            updateOrderStatusStmt.setString(1, "cancelled");
+          } else {
+            soldHoldings.add(holdingID);
+            removeHoldingStmt.setInt(1, holdingID);
+            removeHoldingStmt.addBatch();
+            removeHoldingFromOrderStmt.setInt(1, holdingID);
+            removeHoldingFromOrderStmt.addBatch();
+            updateOrderStatusStmt.setString(1, "closed");
+            quoteUpdates.add(orderData);
+          }
+          updateOrderStatusStmt.setTimestamp(2, now);
+          updateOrderStatusStmt.setInt(3, orderID.intValue());
+          updateOrderStatusStmt.addBatch();
+        }
+      }
+
+      createHoldingStmt.executeBatch();
+      completeBuyOrderStmt.executeBatch();
+      removeHoldingFromOrderStmt.executeBatch();
+      removeHoldingStmt.executeBatch();
+      updateOrderStatusStmt.executeBatch();
+    } finally {
+      getOrderStmt.close();
+      createHoldingStmt.close();
+      removeHoldingStmt.close();
+      removeHoldingFromOrderStmt.close();
+      updateOrderStatusStmt.close();
+      completeBuyOrderStmt.close();
+    }
+
+    for (OrderDataBean orderData : quoteUpdates) {
+      updateQuotePriceVolume(orderData.getSymbol(), TradeConfig.getRandomPriceChangeFactor(), orderData.getQuantity());
+    }
+
+    Log.trace("TradeDirect:completeOrderBatch--> Completed " + orderIDs.size() + " orders");
+
+    return orderIDs.size();
+  }
+
   private OrderDataBean completeOrder(Connection conn, Integer orderID) throws Exception {
     //conn = getConn();
     OrderDataBean orderData = null;
@@ -576,9 +673,9 @@ public class TradeDirect implements TradeServices, Serializable {
       throw new Exception("TradeDirect:completeOrder -- attempt to complete Order that is already completed");
     }
 
-    int accountID = rs.getInt("account_accountID");
-    String quoteID = rs.getString("quote_symbol");
-    int holdingID = rs.getInt("holding_holdingID");
+    int accountID = rs.getInt(10); // account_accountid
+    String quoteID = rs.getString(9); // quote_symbol
+    int holdingID = rs.getInt(11); // holding_holdingid
 
     BigDecimal price = orderData.getPrice();
     double quantity = orderData.getQuantity();
@@ -683,8 +780,8 @@ public class TradeDirect implements TradeServices, Serializable {
     Timestamp purchaseDate = new Timestamp(System.currentTimeMillis());
     PreparedStatement stmt = getStatement(conn, createHoldingSQL);
 
-    Integer holdingID = KeySequenceDirect.getNextID(conn, "holding", inSession, getInGlobalTxn());
-    stmt.setInt(1, holdingID.intValue());
+    int holdingID = keySequenceDirect.getNextID(conn, "holding", inSession, getInGlobalTxn());
+    stmt.setInt(1, holdingID);
     stmt.setTimestamp(2, purchaseDate);
     stmt.setBigDecimal(3, purchasePrice);
     stmt.setDouble(4, quantity);
@@ -694,7 +791,7 @@ public class TradeDirect implements TradeServices, Serializable {
 
     stmt.close();
 
-    return getHoldingData(conn, holdingID.intValue());
+    return getHoldingData(conn, holdingID);
   }
 
   private void removeHolding(Connection conn, int holdingID, int orderID) throws Exception {
@@ -725,8 +822,8 @@ public class TradeDirect implements TradeServices, Serializable {
 
       PreparedStatement stmt = getStatement(conn, createOrderSQL);
 
-      Integer orderID = KeySequenceDirect.getNextID(conn, "order", inSession, getInGlobalTxn());
-      stmt.setInt(1, orderID.intValue());
+      int orderID = keySequenceDirect.getNextID(conn, "order", inSession, getInGlobalTxn());
+      stmt.setInt(1, orderID);
       stmt.setString(2, orderType);
       stmt.setString(3, "open");
       stmt.setTimestamp(4, currentDate);
@@ -742,7 +839,7 @@ public class TradeDirect implements TradeServices, Serializable {
       stmt.setString(10, quoteData.getSymbol());
       stmt.executeUpdate();
 
-      orderData = getOrderData(conn, orderID.intValue());
+      orderData = getOrderData(conn, orderID);
 
       stmt.close();
 
@@ -864,6 +961,13 @@ public class TradeDirect implements TradeServices, Serializable {
       commit(conn);
 
       quoteData = new QuoteDataBean(symbol, companyName, volume, price, price, price, price, change);
+      QuoteDataBean created = quoteData;
+      afterCommit.run(() -> {
+        if (useQuoteCache()) {
+          quoteCache.put(created);
+        }
+        marketSummaryEngine.quoteUpdated(created);
+      });
     } catch (Exception e) {
       Log.error("TradeDirect:createQuote -- error creating quote", e);
     } finally {
@@ -878,6 +982,13 @@ public class TradeDirect implements TradeServices, Serializable {
 
   @Override
   public QuoteDataBean getQuote(String symbol) throws Exception {
+    if (useQuoteCache()) {
+      return quoteCache.get(symbol, () -> getQuoteFromDB(symbol));
+    }
+    return getQuoteFromDB(symbol);
+  }
+
+  private QuoteDataBean getQuoteFromDB(String symbol) throws Exception {
     QuoteDataBean quoteData = null;
     Connection conn = null;
 
@@ -939,6 +1050,13 @@ public class TradeDirect implements TradeServices, Serializable {
    */
   @Override
   public Collection<QuoteDataBean> getAllQuotes() throws Exception {
+    if (useQuoteCache()) {
+      return quoteCache.getAll(this::getAllQuotesFromDB);
+    }
+    return getAllQuotesFromDB();
+  }
+
+  private Collection<QuoteDataBean> getAllQuotesFromDB() throws Exception {
     Collection<QuoteDataBean> quotes = new ArrayList<QuoteDataBean>();
     QuoteDataBean quoteData = null;
 
@@ -950,7 +1068,7 @@ public class TradeDirect implements TradeServices, Serializable {
 
       ResultSet rs = stmt.executeQuery();
 
-      while (!rs.next()) {
+      while (rs.next()) {
         quoteData = getQuoteDataFromResultSet(rs);
         quotes.add(quoteData);
       }
@@ -1098,6 +1216,13 @@ public class TradeDirect implements TradeServices, Serializable {
   }
 
   private QuoteDataBean getQuoteData(Connection conn, String symbol) throws Exception {
+    if (useQuoteCache()) {
+      return quoteCache.get(symbol, () -> getQuoteDataFromDB(conn, symbol));
+    }
+    return getQuoteDataFromDB(conn, symbol);
+  }
+
+  private QuoteDataBean getQuoteDataFromDB(Connection conn, String symbol) throws Exception {
     QuoteDataBean quoteData = null;
     PreparedStatement stmt = getStatement(conn, getQuoteSQL);
     stmt.setString(1, symbol);
@@ -1249,7 +1374,7 @@ public class TradeDirect implements TradeServices, Serializable {
   // UPDATE -- could add a "status" attribute to holding
   private void updateHoldingStatus(Connection conn, Integer holdingID, String symbol) throws Exception {
     Timestamp ts = new Timestamp(0);
-    PreparedStatement stmt = getStatement(conn, "update holdingejb set purchasedate= ? where holdingid = ?");
+    PreparedStatement stmt = getStatement(conn, updateHoldingStatusSQL);
 
     stmt.setTimestamp(1, ts);
     stmt.setInt(2, holdingID.intValue());
@@ -1315,6 +1440,10 @@ public class TradeDirect implements TradeServices, Serializable {
       return new QuoteDataBean();
     }
 
+    if (useQuoteCache()) {
+      return updateCachedQuotePriceVolume(symbol, changeFactor, sharesTraded, publishQuotePriceChange);
+    }
+
     QuoteDataBean quoteData = null;
     Connection conn = null;
 
@@ -1329,11 +1458,7 @@ public class TradeDirect implements TradeServices, Serializable {
 
       double newVolume = quoteData.getVolume() + sharesTraded;
 
-      if (oldPrice.equals(TradeConfig.PENNY_STOCK_PRICE)) {
-        changeFactor = TradeConfig.PENNY_STOCK_RECOVERY_MIRACLE_MULTIPLIER;
-      } else if (oldPrice.compareTo(TradeConfig.MAXIMUM_STOCK_PRICE) > 0) {
-        changeFactor = TradeConfig.MAXIMUM_STOCK_SPLIT_MULTIPLIER;
-      }
+      changeFactor = adjustChangeFactor(oldPrice, changeFactor);
 
       BigDecimal newPrice = changeFactor.multiply(oldPrice).setScale(2, BigDecimal.ROUND_HALF_UP);
       double change = newPrice.subtract(openPrice).doubleValue();
@@ -1347,7 +1472,12 @@ public class TradeDirect implements TradeServices, Serializable {
         publishQuotePriceChange(quoteData, oldPrice, changeFactor, sharesTraded);
       }
 
-      recentQuotePriceChangeList.add(quoteData);
+      // In a global transaction commit(conn) does not commit, the summary waits for the transaction
+      QuoteDataBean updated = quoteData;
+      afterCommit.run(() -> {
+        recentQuotePriceChangeList.add(updated);
+        marketSummaryEngine.quoteUpdated(updated);
+      });
       
     } catch (Exception e) {
       Log.error("TradeDirect:updateQuotePriceVolume -- error updating quote price/volume for symbol:" + symbol);
@@ -1359,6 +1489,82 @@ public class TradeDirect implements TradeServices, Serializable {
     return quoteData;
   }
 
+  /*
+   * Quote cache variant of updateQuotePriceVolumeInt. The change is applied
+   * in memory under the symbol's lock and written to quoteejb by the cache's
+   * write-behind flush, which is not part of the caller's transaction. Inside
+   * a global transaction the change is therefore only applied once it commits,
+   * and the quote returned is the one before the change.
+   */
+  private QuoteDataBean updateCachedQuotePriceVolume(String symbol, BigDecimal changeFactor, double sharesTraded, boolean publishQuotePriceChange)
+      throws Exception {
+
+    Log.trace("TradeDirect:updateCachedQuotePriceVolume - inSession(" + this.inSession + ")", symbol, changeFactor, new Double(sharesTraded));
+
+    if (!afterCommit.inTransaction()) {
+      return applyCachedQuotePriceVolume(symbol, changeFactor, sharesTraded, publishQuotePriceChange);
+    }
+
+    // Loaded now, so applying the change after the commit does not go to the database
+    QuoteDataBean quoteData = quoteCache.get(symbol, () -> getQuoteFromDB(symbol));
+    if (quoteData == null) {
+      throw new Exception("TradeDirect:updateCachedQuotePriceVolume -- unable to find quote for symbol: " + symbol);
+    }
+    afterCommit.run(() -> {
+      try {
+        applyCachedQuotePriceVolume(symbol, changeFactor, sharesTraded, publishQuotePriceChange);
+      } catch (Exception e) {
+        Log.error(e, "TradeDirect:updateCachedQuotePriceVolume -- error applying committed change for symbol: " + symbol);
+      }
+    });
+    return quoteData;
+  }
+
+  private QuoteDataBean applyCachedQuotePriceVolume(String symbol, BigDecimal changeFactor, double sharesTraded, boolean publishQuotePriceChange)
+      throws Exception {
+    QuoteDataBean quoteData = null;
+    BigDecimal oldPrice = null;
+
+    ReentrantLock lock = quoteCache.lockFor(symbol);
+    lock.lock();
+    try {
+      quoteData = quoteCache.get(symbol, () -> getQuoteFromDB(symbol));
+      if (quoteData == null) {
+        throw new Exception("TradeDirect:updateCachedQuotePriceVolume -- unable to find quote for symbol: " + symbol);
+      }
+      oldPrice = quoteData.getPrice();
+      changeFactor = adjustChangeFactor(oldPrice, changeFactor);
+
+      BigDecimal newPrice = changeFactor.multiply(oldPrice).setScale(2, BigDecimal.ROUND_HALF_UP);
+      quoteData.setPrice(newPrice);
+      quoteData.setChange(newPrice.subtract(quoteData.getOpen()).doubleValue());
+      quoteData.setVolume(quoteData.getVolume() + sharesTraded);
+
+      quoteCache.update(quoteData);
+    } finally {
+      lock.unlock();
+    }
+
+    if (publishQuotePriceChange) {
+      publishQuotePriceChange(quoteData, oldPrice, changeFactor, sharesTraded);
+    }
+
+    recentQuotePriceChangeList.add(quoteData);
+    marketSummaryEngine.quoteUpdated(quoteData);
+
+    return quoteData;
+  }
+
+  // Penny stocks jump back to $6.00 and stocks over the maximum price split
+  private BigDecimal adjustChangeFactor(BigDecimal oldPrice, BigDecimal changeFactor) {
+    if (oldPrice.equals(TradeConfig.PENNY_STOCK_PRICE)) {
+      return TradeConfig.PENNY_STOCK_RECOVERY_MIRACLE_MULTIPLIER;
+    } else if (oldPrice.compareTo(TradeConfig.MAXIMUM_STOCK_PRICE) > 0) {
+      return TradeConfig.MAXIMUM_STOCK_SPLIT_MULTIPLIER;
+    }
+    return changeFactor;
+  }
+
   private void updateQuotePriceVolume(Connection conn, String symbol, BigDecimal newPrice, double newVolume, double change) throws Exception {
 
     PreparedStatement stmt = getStatement(conn, updateQuotePriceVolumeSQL);
@@ -1425,7 +1631,7 @@ public class TradeDirect implements TradeServices, Serializable {
         throw new javax.ejb.FinderException("Cannot find account for" + userID);
       }
 
-      String pw = rs.getString("passwd");
+      String pw = rs.getString(2); // passwd
       stmt.close();
       if ((pw == null) || (pw.equals(password) == false)) {
         String error = "TradeDirect:Login failure for user: " + userID + "\n\tIncorrect password-->" + userID + ":" + password;
@@ -1504,14 +1710,14 @@ public class TradeDirect implements TradeServices, Serializable {
       conn = getConn();
       PreparedStatement stmt = getStatement(conn, createAccountSQL);
 
-      Integer accountID = KeySequenceDirect.getNextID(conn, "account", inSession, getInGlobalTxn());
+      int accountID = keySequenceDirect.getNextID(conn, "account", inSession, getInGlobalTxn());
       BigDecimal balance = openBalance;
       Timestamp creationDate = new Timestamp(System.currentTimeMillis());
       Timestamp lastLogin = creationDate;
       int loginCount = 0;
       int logoutCount = 0;
 
-      stmt.setInt(1, accountID.intValue());
+      stmt.setInt(1, accountID);
       stmt.setTimestamp(2, creationDate);
       stmt.setBigDecimal(3, openBalance);
       stmt.setBigDecimal(4, balance);
@@ -1544,15 +1750,18 @@ public class TradeDirect implements TradeServices, Serializable {
     return accountData;
   }
 
+  /*
+   * The row mappers read columns by position, in the order given by the
+   * *Columns constants used in the select statements below
+   */
   private AccountDataBean getAccountDataFromResultSet(ResultSet rs) throws Exception {
     AccountDataBean accountData = null;
 
     if (!rs.next()) {
       Log.error("TradeDirect:getAccountDataFromResultSet -- cannot find account data");
     } else {
-      accountData = new AccountDataBean(new Integer(rs.getInt("accountID")), rs.getInt("loginCount"), rs.getInt("logoutCount"),
-          rs.getTimestamp("lastLogin"), rs.getTimestamp("creationDate"), rs.getBigDecimal("balance"), rs.getBigDecimal("openBalance"),
-          rs.getString("profile_userID"));
+      accountData = new AccountDataBean(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getTimestamp(4), rs.getTimestamp(5), rs.getBigDecimal(6),
+          rs.getBigDecimal(7), rs.getString(8));
     }
     return accountData;
   }
@@ -1563,8 +1772,8 @@ public class TradeDirect implements TradeServices, Serializable {
     if (!rs.next()) {
       Log.error("TradeDirect:getAccountProfileDataFromResultSet -- cannot find accountprofile data");
     } else {
-      accountProfileData = new AccountProfileDataBean(rs.getString("userID"), rs.getString("passwd"), rs.getString("fullName"), rs.getString("address"),
-          rs.getString("email"), rs.getString("creditCard"));
+      accountProfileData = new AccountProfileDataBean(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+          rs.getString(6));
     }
 
     return accountProfileData;
@@ -1573,25 +1782,23 @@ public class TradeDirect implements TradeServices, Serializable {
   private HoldingDataBean getHoldingDataFromResultSet(ResultSet rs) throws Exception {
     HoldingDataBean holdingData = null;
 
-    holdingData = new HoldingDataBean(new Integer(rs.getInt("holdingID")), rs.getDouble("quantity"), rs.getBigDecimal("purchasePrice"),
-        rs.getTimestamp("purchaseDate"), rs.getString("quote_symbol"));
+    holdingData = new HoldingDataBean(rs.getInt(1), rs.getDouble(2), rs.getBigDecimal(3), rs.getTimestamp(4), rs.getString(5));
     return holdingData;
   }
 
   private QuoteDataBean getQuoteDataFromResultSet(ResultSet rs) throws Exception {
     QuoteDataBean quoteData = null;
 
-    quoteData = new QuoteDataBean(rs.getString("symbol"), rs.getString("companyName"), rs.getDouble("volume"), rs.getBigDecimal("price"),
-        rs.getBigDecimal("open1"), rs.getBigDecimal("low"), rs.getBigDecimal("high"), rs.getDouble("change1"));
+    quoteData = new QuoteDataBean(rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6),
+        rs.getBigDecimal(7), rs.getDouble(8));
     return quoteData;
   }
 
   private OrderDataBean getOrderDataFromResultSet(ResultSet rs) throws Exception {
     OrderDataBean orderData = null;
 
-    orderData = new OrderDataBean(new Integer(rs.getInt("orderID")), rs.getString("orderType"), rs.getString("orderStatus"), rs.getTimestamp("openDate"),
-        rs.getTimestamp("completionDate"), rs.getDouble("quantity"), rs.getBigDecimal("price"), rs.getBigDecimal("orderFee"),
-        rs.getString("quote_symbol"));
+    orderData = new OrderDataBean(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getTimestamp(4), rs.getTimestamp(5), rs.getDouble(6),
+        rs.getBigDecimal(7), rs.getBigDecimal(8), rs.getString(9));
     return orderData;
   }
 
@@ -1622,6 +1829,8 @@ public class TradeDirect implements TradeServices, Serializable {
       }
       stmt.close();
       commit(conn);
+      marketSummaryEngine.invalidate();
+      quoteCache.invalidate();
       success = true;
     } catch (Exception e) {
       Log.error(e, "TradeDirect:recreateDBTables() -- Error dropping and recreating the database tables");
@@ -1709,7 +1918,10 @@ public class TradeDirect implements TradeServices, Serializable {
   }
 
   /*
-   * Allocate a new prepared statment for this connection
+   * Allocate a new prepared statment for this connection. All SQL is held in
+   * the static constants below so the datasource statement cache, which is
+   * kept per pooled connection and keyed by SQL text, serves repeat
+   * prepares without a round trip to the database.
    */
   private PreparedStatement getStatement(Connection conn, String sql) throws Exception {
     return conn.prepareStatement(sql);
@@ -1719,6 +1931,18 @@ public class TradeDirect implements TradeServices, Serializable {
     return conn.prepareStatement(sql, type, concurrency);
   }
 
+  private static final String quoteColumns = "q.symbol, q.companyName, q.volume, q.price, q.open1, q.low, q.high, q.change1";
+
+  private static final String holdingColumns = "h.holdingid, h.quantity, h.purchasePrice, h.purchaseDate, h.quote_symbol";
+
+  private static final String orderColumns = "o.orderid, o.orderType, o.orderStatus, o.openDate, o.completionDate, o.quantity, o.price, o.orderFee, "
+      + "o.quote_symbol, o.account_accountid, o.holding_holdingid";
+
+  private static final String accountColumns = "a.accountid, a.loginCount, a.logoutCount, a.lastLogin, a.creationDate, a.balance, a.openBalance, "
+      + "a.profile_userid";
+
+  private static final String accountProfileColumns = "ap.userid, ap.passwd, ap.fullname, ap.address, ap.email, ap.creditcard";
+
   private static final String createQuoteSQL = "insert into quoteejb " + "( symbol, companyName, volume, price, open1, low, high, change1 ) "
       + "VALUES (  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  )";
 
@@ -1747,50 +1971,47 @@ public class TradeDirect implements TradeServices, Serializable {
 
   private static final String logoutSQL = "update accountejb set logoutcount=logoutcount+1 " + "where profile_userid=?";
 
-  private static final String getAccountSQL = "select * from accountejb a where a.accountid = ?";
+  private static final String getAccountSQL = "select " + accountColumns + " from accountejb a where a.accountid = ?";
 
-  private static final String getAccountProfileSQL = "select * from accountprofileejb ap where ap.userid = "
+  private static final String getAccountProfileSQL = "select " + accountProfileColumns + " from accountprofileejb ap where ap.userid = "
       + "(select profile_userid from accountejb a where a.profile_userid=?)";
 
-  private static final String getAccountProfileForAccountSQL = "select * from accountprofileejb ap where ap.userid = "
+  private static final String getAccountProfileForAccountSQL = "select " + accountProfileColumns + " from accountprofileejb ap where ap.userid = "
       + "(select profile_userid from accountejb a where a.accountid=?)";
 
-  private static final String getAccountForUserSQL = "select * from accountejb a where a.profile_userid = "
+  private static final String getAccountForUserSQL = "select " + accountColumns + " from accountejb a where a.profile_userid = "
       + "( select userid from accountprofileejb ap where ap.userid = ?)";
 
-  private static final String getHoldingSQL = "select * from holdingejb h where h.holdingid = ?";
+  private static final String getHoldingSQL = "select " + holdingColumns + " from holdingejb h where h.holdingid = ?";
 
-  private static final String getHoldingsForUserSQL = "select * from holdingejb h where h.account_accountid = "
+  private static final String getHoldingsForUserSQL = "select " + holdingColumns + " from holdingejb h where h.account_accountid = "
       + "(select a.accountid from accountejb a where a.profile_userid = ?)";
 
-  private static final String getOrderSQL = "select * from orderejb o where o.orderid = ?";
+  private static final String getOrderSQL = "select " + orderColumns + " from orderejb o where o.orderid = ?";
 
-  private static final String getOrdersByUserSQL = "select * from orderejb o where o.account_accountid = "
+  private static final String getOrdersByUserSQL = "select " + orderColumns + " from orderejb o where o.account_accountid = "
       + "(select a.accountid from accountejb a where a.profile_userid = ?)";
 
-  private static final String getClosedOrdersSQL = "select * from orderejb o " + "where o.orderstatus = 'closed' AND o.account_accountid = "
+  private static final String getClosedOrdersSQL = "select " + orderColumns + " from orderejb o " + "where o.orderstatus = 'closed' AND o.account_accountid = "
       + "(select a.accountid from accountejb a where a.profile_userid = ?)";
 
-  private static final String getQuoteSQL = "select * from quoteejb q where q.symbol=?";
+  private static final String getQuoteSQL = "select " + quoteColumns + " from quoteejb q where q.symbol=?";
 
-  private static final String getAllQuotesSQL = "select * from quoteejb q";
+  private static final String getAllQuotesSQL = "select " + quoteColumns + " from quoteejb q";
 
-  private static final String getQuoteForUpdateSQL = "select * from quoteejb q where q.symbol=? For Update";
-
-  private static final String getTSIAQuotesOrderByChangeSQL = "select * from quoteejb q order by q.change1";
-
-  private static final String getTSIASQL = "select SUM(price)/count(*) as TSIA from quoteejb q ";
-
-  private static final String getOpenTSIASQL = "select SUM(open1)/count(*) as openTSIA from quoteejb q ";
-
-  private static final String getTSIATotalVolumeSQL = "select SUM(volume) as totalVolume from quoteejb q ";
+  private static final String getQuoteForUpdateSQL = "select " + quoteColumns + " from quoteejb q where q.symbol=? For Update";
 
   private static final String creditAccountBalanceSQL = "update accountejb set " + "balance = balance + ? " + "where accountid = ?";
 
   private static final String updateOrderStatusSQL = "update orderejb set " + "orderstatus = ?, completiondate = ? " + "where orderid = ?";
 
+  private static final String completeBuyOrderSQL = "update orderejb set " + "orderstatus = ?, completiondate = ?, holding_holdingID = ? "
+      + "where orderid = ?";
+
   private static final String updateOrderHoldingSQL = "update orderejb set " + "holding_holdingID = ? " + "where orderid = ?";
 
+  private static final String updateHoldingStatusSQL = "update holdingejb set purchasedate= ? where holdingid = ?";
+
   private static final String updateQuotePriceVolumeSQL = "update quoteejb set " + "price = ?, change1 = ?, volume = ? " + "where symbol = ?";
 
   /**
@@ -1821,6 +2042,14 @@ public class TradeDirect implements TradeServices, Serializable {
     return TradeConfig.DIRECT;
   }
 
+  /**
+   * Quotes are served from and updated in {@link QuoteCacheDirect} when true,
+   * used by the Direct (JDBC) + Quote Cache runtime mode
+   */
+  protected boolean useQuoteCache() {
+    return false;
+  }
+
 
 
   @Override
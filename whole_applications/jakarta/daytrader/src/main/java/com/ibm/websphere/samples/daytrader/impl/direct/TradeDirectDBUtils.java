@@ -26,9 +26,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.sql.DataSource;
@@ -38,7 +46,9 @@ import com.ibm.websphere.samples.daytrader.entities.AccountDataBean;
 import com.ibm.websphere.samples.daytrader.interfaces.TradeDB;
 import com.ibm.websphere.samples.daytrader.interfaces.TradeJDBC;
 import com.ibm.websphere.samples.daytrader.interfaces.TradeServices;
+import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
 import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.MarketSummaryEngine;
 import com.ibm.websphere.samples.daytrader.util.MDBStats;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
@@ -62,6 +72,18 @@ public class TradeDirectDBUtils implements TradeDB {
   @TradeJDBC
   TradeServices ts;
 
+  @Inject
+  MarketSummaryEngine marketSummaryEngine;
+
+  @Inject
+  QuoteCacheDirect quoteCache;
+
+  @Inject
+  KeySequenceDirect keySequenceDirect;
+
+  @Resource
+  private ManagedExecutorService mes;
+
   public String checkDBProductName() throws Exception {
     Connection conn = null;
     String dbProductName = null;
@@ -135,6 +157,13 @@ public class TradeDirectDBUtils implements TradeDB {
     } catch (Exception e) {
       Log.error(e, "TradeBuildDB: Unable to delete Trade users (uid:0, uid:1, ...) and Trade Quotes (s:0, s:1, ...)");
     }
+
+    if (TradeConfig.getBuildDBBatchSize() > 0) {
+      populateDBBatch(out);
+      out.println("</BODY>");
+      return;
+    }
+
     for (int i = 0; i < TradeConfig.getMAX_QUOTES(); i++) {
       symbol = "s:" + i;
       companyName = "S" + i + " Incorporated";
@@ -208,6 +237,265 @@ public class TradeDirectDBUtils implements TradeDB {
     out.println("</BODY>");
   }
 
+  /**
+   * Populate the quotes and users with JDBC batch inserts. The rows are split
+   * into TradeConfig.getBuildDBThreads() partitions which are inserted in
+   * parallel, each on its own connection. Every user gets the same random
+   * holdings a serial build would create, written directly as a holding and
+   * its closed buy order rather than going through TradeServices.buy.
+   */
+  private void populateDBBatch(java.io.PrintWriter out) throws Exception {
+    int maxQuotes = TradeConfig.getMAX_QUOTES();
+    int maxUsers = TradeConfig.getMAX_USERS();
+    int threads = Math.max(1, TradeConfig.getBuildDBThreads());
+
+    out.println("<BR>TradeBuildDB: **** Batch populating with " + threads + " threads, batch size " + TradeConfig.getBuildDBBatchSize()
+        + ", commit interval " + TradeConfig.getBuildDBCommitInterval() + " ****</BR>");
+    out.flush();
+
+    final BigDecimal[] prices = new BigDecimal[maxQuotes];
+    for (int i = 0; i < maxQuotes; i++) {
+      prices[i] = new BigDecimal(TradeConfig.rndPrice()).setScale(FinancialUtils.SCALE, FinancialUtils.ROUND);
+    }
+
+    AtomicLong rows = new AtomicLong();
+    List<Future<?>> partitions = new ArrayList<Future<?>>(threads);
+    for (int[] range : partition(maxQuotes, threads)) {
+      partitions.add(mes.submit(() -> {
+        populateQuotes(range[0], range[1], prices, rows);
+        return null;
+      }));
+    }
+    waitForPartitions(out, "quotes", partitions, rows);
+
+    out.println("<BR>**** Registering " + maxUsers + " Users **** ");
+    rows.set(0);
+    partitions.clear();
+    for (int[] range : partition(maxUsers, threads)) {
+      partitions.add(mes.submit(() -> {
+        populateUsers(range[0], range[1], prices, rows);
+        return null;
+      }));
+    }
+    waitForPartitions(out, "user rows", partitions, rows);
+
+    // The rows were written behind their backs; a summary or quote read during
+    // the build may have seeded them from a partial table
+    marketSummaryEngine.invalidate();
+    quoteCache.invalidate();
+  }
+
+  private static List<int[]> partition(int count, int partitions) {
+    List<int[]> ranges = new ArrayList<int[]>(partitions);
+    int size = (count + partitions - 1) / partitions;
+    for (int from = 0; from < count; from += size) {
+      ranges.add(new int[] { from, Math.min(count, from + size) });
+    }
+    return ranges;
+  }
+
+  /*
+   * Wait for all partitions to finish, reporting rows/sec progress. Only this
+   * thread writes to out as PrintWriter is shared with the servlet response.
+   */
+  private void waitForPartitions(java.io.PrintWriter out, String what, List<Future<?>> partitions, AtomicLong rows) throws Exception {
+    long start = System.currentTimeMillis();
+    try {
+      for (Future<?> partition : partitions) {
+        while (true) {
+          try {
+            partition.get(2, TimeUnit.SECONDS);
+            break;
+          } catch (TimeoutException e) {
+            printProgress(out, what, rows.get(), start);
+          }
+        }
+      }
+    } catch (ExecutionException e) {
+      for (Future<?> partition : partitions) {
+        partition.cancel(true);
+      }
+      String error = "Populate Trade DB aborting, a batch partition failed. Check the log for details. <BR><BR> Exception is: <BR>" + e.getCause();
+      Log.error(e.getCause(), error);
+      out.println("<BR>" + error + "</BR>");
+      throw new Exception(error, e.getCause());
+    }
+    printProgress(out, what, rows.get(), start);
+  }
+
+  private void printProgress(java.io.PrintWriter out, String what, long count, long start) {
+    long elapsed = Math.max(1, System.currentTimeMillis() - start);
+    out.println("<BR>TradeBuildDB: " + count + " " + what + " inserted in " + (elapsed / 1000.0) + " secs (" + (count * 1000 / elapsed) + " rows/sec)");
+    out.flush();
+  }
+
+  private void populateQuotes(int from, int to, BigDecimal[] prices, AtomicLong rows) throws Exception {
+    int batchSize = TradeConfig.getBuildDBBatchSize();
+    int commitInterval = Math.max(batchSize, TradeConfig.getBuildDBCommitInterval());
+    Connection conn = null;
+    try {
+      conn = datasource.getConnection();
+      conn.setAutoCommit(false);
+      PreparedStatement stmt = getStatement(conn, createQuoteSQL);
+
+      int pending = 0, uncommitted = 0;
+      for (int i = from; i < to; i++) {
+        BigDecimal price = prices[i];
+        stmt.setString(1, "s:" + i); // symbol
+        stmt.setString(2, "S" + i + " Incorporated"); // companyName
+        stmt.setDouble(3, 0.0); // volume
+        stmt.setBigDecimal(4, price); // price
+        stmt.setBigDecimal(5, price); // open
+        stmt.setBigDecimal(6, price); // low
+        stmt.setBigDecimal(7, price); // high
+        stmt.setDouble(8, 0.0); // change
+        stmt.addBatch();
+
+        if (++pending == batchSize) {
+          stmt.executeBatch();
+          rows.addAndGet(pending);
+          uncommitted += pending;
+          pending = 0;
+          if (uncommitted >= commitInterval) {
+            conn.commit();
+            uncommitted = 0;
+          }
+        }
+      }
+      if (pending > 0) {
+        stmt.executeBatch();
+        rows.addAndGet(pending);
+      }
+      conn.commit();
+      stmt.close();
+    } catch (Exception e) {
+      Log.error(e, "TradeBuildDB: batch insert of quotes s:" + from + " to s:" + (to - 1) + " failed");
+      if (conn != null) {
+        conn.rollback();
+      }
+      throw e;
+    } finally {
+      if (conn != null) {
+        conn.close();
+      }
+    }
+  }
+
+  private void populateUsers(int from, int to, BigDecimal[] prices, AtomicLong rows) throws Exception {
+    int batchSize = TradeConfig.getBuildDBBatchSize();
+    int commitInterval = Math.max(batchSize, TradeConfig.getBuildDBCommitInterval());
+    int users = to - from;
+
+    // Decide the holdings up front so the partition can reserve all of its keys at once
+    int[] holdingCounts = new int[users];
+    int totalHoldings = 0;
+    for (int i = 0; i < users; i++) {
+      holdingCounts[i] = TradeConfig.rndInt(TradeConfig.getMAX_HOLDINGS() + 1); // 0-MAX_HOLDING (inclusive)
+      totalHoldings += holdingCounts[i];
+    }
+    int accountID = keySequenceDirect.reserveKeys("account", users);
+    int holdingID = (totalHoldings > 0) ? keySequenceDirect.reserveKeys("holding", totalHoldings) : 0;
+    int orderID = (totalHoldings > 0) ? keySequenceDirect.reserveKeys("order", totalHoldings) : 0;
+
+    BigDecimal orderFee = TradeConfig.getOrderFee("buy");
+    Connection conn = null;
+    try {
+      conn = datasource.getConnection();
+      conn.setAutoCommit(false);
+      PreparedStatement profileStmt = getStatement(conn, createAccountProfileSQL);
+      PreparedStatement accountStmt = getStatement(conn, createAccountSQL);
+      PreparedStatement holdingStmt = getStatement(conn, createHoldingSQL);
+      PreparedStatement orderStmt = getStatement(conn, createClosedOrderSQL);
+
+      int pending = 0, uncommitted = 0;
+      for (int u = 0; u < users; u++) {
+        int i = from + u;
+        String userID = "uid:" + i;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        BigDecimal openBalance = new BigDecimal((i == 0) ? 1000000 : (double) (TradeConfig.rndInt(100000)) + 200000); // uid:0 starts with a cool million.
+        BigDecimal balance = openBalance;
+
+        for (int j = 0; j < holdingCounts[u]; j++) {
+          int quote = TradeConfig.rndInt(TradeConfig.getMAX_QUOTES() - 1);
+          String symbol = "s:" + quote;
+          double quantity = TradeConfig.rndQuantity();
+          BigDecimal price = prices[quote];
+          balance = balance.subtract(new BigDecimal(quantity).multiply(price).add(orderFee));
+
+          holdingStmt.setInt(1, holdingID);
+          holdingStmt.setTimestamp(2, now);
+          holdingStmt.setBigDecimal(3, price);
+          holdingStmt.setDouble(4, quantity);
+          holdingStmt.setString(5, symbol);
+          holdingStmt.setInt(6, accountID);
+          holdingStmt.addBatch();
+
+          orderStmt.setInt(1, orderID++);
+          orderStmt.setString(2, "buy");
+          orderStmt.setString(3, "closed");
+          orderStmt.setTimestamp(4, now);
+          orderStmt.setTimestamp(5, now);
+          orderStmt.setDouble(6, quantity);
+          orderStmt.setBigDecimal(7, price);
+          orderStmt.setBigDecimal(8, orderFee);
+          orderStmt.setInt(9, accountID);
+          orderStmt.setInt(10, holdingID++);
+          orderStmt.setString(11, symbol);
+          orderStmt.addBatch();
+          pending += 2;
+        }
+
+        profileStmt.setString(1, userID);
+        profileStmt.setString(2, "xxx");
+        profileStmt.setString(3, TradeConfig.rndFullName());
+        profileStmt.setString(4, TradeConfig.rndAddress());
+        profileStmt.setString(5, TradeConfig.rndEmail(userID));
+        profileStmt.setString(6, TradeConfig.rndCreditCard());
+        profileStmt.addBatch();
+
+        accountStmt.setInt(1, accountID++);
+        accountStmt.setTimestamp(2, now);
+        accountStmt.setBigDecimal(3, openBalance);
+        accountStmt.setBigDecimal(4, balance);
+        accountStmt.setTimestamp(5, now);
+        accountStmt.setInt(6, 0);
+        accountStmt.setInt(7, 0);
+        accountStmt.setString(8, userID);
+        accountStmt.addBatch();
+        pending += 2;
+
+        if (pending >= batchSize || u == users - 1) {
+          profileStmt.executeBatch();
+          accountStmt.executeBatch();
+          holdingStmt.executeBatch();
+          orderStmt.executeBatch();
+          rows.addAndGet(pending);
+          uncommitted += pending;
+          pending = 0;
+          if (uncommitted >= commitInterval || u == users - 1) {
+            conn.commit();
+            uncommitted = 0;
+          }
+        }
+      }
+
+      profileStmt.close();
+      accountStmt.close();
+      holdingStmt.close();
+      orderStmt.close();
+    } catch (Exception e) {
+      Log.error(e, "TradeBuildDB: batch insert of users uid:" + from + " to uid:" + (to - 1) + " failed");
+      if (conn != null) {
+        conn.rollback();
+      }
+      throw e;
+    } finally {
+      if (conn != null) {
+        conn.close();
+      }
+    }
+  }
+
   private boolean recreateDBTables(Object[] sqlBuffer, java.io.PrintWriter out) throws Exception {
     // Clear MDB Statistics
     MDBStats.getInstance().reset();
@@ -232,6 +520,8 @@ public class TradeDirectDBUtils implements TradeDB {
       }
       stmt.close();
       conn.commit();
+      marketSummaryEngine.invalidate();
+      quoteCache.invalidate();
       success = true;
     } catch (Exception e) {
       Log.error(e, "TradeDirect:recreateDBTables() -- Error dropping and recreating the database tables");
@@ -283,6 +573,8 @@ public class TradeDirectDBUtils implements TradeDB {
           // stmt.executeUpdate();
           // stmt.close();
           conn.commit();
+          marketSummaryEngine.invalidate();
+          quoteCache.invalidate();
         } catch (Exception e) {
           Log.error(e, "TradeDirect:resetTrade(deleteAll) -- Error deleting Trade users and stock from the Trade database");
         }
@@ -418,6 +710,9 @@ public class TradeDirectDBUtils implements TradeDB {
       rs.close();
 
       conn.commit();
+      // Write pending price changes, then reload quotes from the database for the next run
+      quoteCache.flush();
+      quoteCache.invalidate();
 
       System.out.println("TradeDirect:reset Run stats data\n\n" + runStatsData);
     } catch (Exception e) {
@@ -435,6 +730,23 @@ public class TradeDirectDBUtils implements TradeDB {
     return conn.prepareStatement(sql);
   }
 
+  private static final String createQuoteSQL = "insert into quoteejb " + "( symbol, companyName, volume, price, open1, low, high, change1 ) "
+      + "VALUES (  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  )";
+
+  private static final String createAccountSQL = "insert into accountejb "
+      + "( accountid, creationDate, openBalance, balance, lastLogin, loginCount, logoutCount, profile_userid) "
+      + "VALUES (  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  )";
+
+  private static final String createAccountProfileSQL = "insert into accountprofileejb " + "( userid, passwd, fullname, address, email, creditcard ) "
+      + "VALUES (  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  )";
+
+  private static final String createHoldingSQL = "insert into holdingejb "
+      + "( holdingid, purchaseDate, purchasePrice, quantity, quote_symbol, account_accountid ) " + "VALUES (  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ? )";
+
+  private static final String createClosedOrderSQL = "insert into orderejb "
+      + "( orderid, ordertype, orderstatus, opendate, completiondate, quantity, price, orderfee, account_accountid,  holding_holdingid, quote_symbol) "
+      + "VALUES (  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  ,  ?  , ? , ? , ?)";
+
   public Object[] parseDDLToBuffer(InputStream ddlFile) throws Exception {
     BufferedReader br = null;
     ArrayList<String> sqlBuffer = new ArrayList<String>(30); //initial capacity 30 assuming we have 30 ddl-sql statements to read
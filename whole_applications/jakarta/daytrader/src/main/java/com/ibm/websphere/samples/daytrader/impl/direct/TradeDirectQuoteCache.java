@@ -0,0 +1,45 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.impl.direct;
+
+import javax.enterprise.context.Dependent;
+
+import com.ibm.websphere.samples.daytrader.interfaces.RuntimeMode;
+import com.ibm.websphere.samples.daytrader.interfaces.Trace;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+/**
+ * TradeDirectQuoteCache is the Direct (JDBC) runtime with quotes served from
+ * and updated in {@link QuoteCacheDirect}. Everything else goes straight to
+ * the database as in {@link TradeDirect}.
+ */
+@Dependent
+@RuntimeMode("Direct (JDBC) + Quote Cache")
+@Trace
+public class TradeDirectQuoteCache extends TradeDirect {
+
+  private static final long serialVersionUID = 2310963518427359817L;
+
+  @Override
+  public int getImpl() {
+    return TradeConfig.DIRECT_QUOTE_CACHE;
+  }
+
+  @Override
+  protected boolean useQuoteCache() {
+    return true;
+  }
+}
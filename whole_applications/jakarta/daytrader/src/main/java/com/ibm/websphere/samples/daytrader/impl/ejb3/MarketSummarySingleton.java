@@ -15,8 +15,6 @@
  */
 package com.ibm.websphere.samples.daytrader.impl.ejb3;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.Resource;
@@ -39,8 +37,8 @@ import javax.persistence.criteria.Root;
 import com.ibm.websphere.samples.daytrader.beans.MarketSummaryDataBean;
 import com.ibm.websphere.samples.daytrader.entities.QuoteDataBean;
 import com.ibm.websphere.samples.daytrader.interfaces.MarketSummaryUpdate;
-import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
 import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.MarketSummaryEngine;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
 @Singleton
@@ -50,6 +48,9 @@ public class MarketSummarySingleton {
 
   @PersistenceContext
   private EntityManager entityManager;
+
+  @Inject
+  private MarketSummaryEngine marketSummaryEngine;
   
   @Inject
   @MarketSummaryUpdate
@@ -73,51 +74,30 @@ public class MarketSummarySingleton {
       return; // Only do the actual work if in EJB3 Mode
     }
 
-    List<QuoteDataBean> quotes;
-
-    try {        
-      // Find Trade Stock Index Quotes (Top 100 quotes) ordered by their change in value
-      CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-      CriteriaQuery<QuoteDataBean> criteriaQuery = criteriaBuilder.createQuery(QuoteDataBean.class);
-      Root<QuoteDataBean> quoteRoot = criteriaQuery.from(QuoteDataBean.class);
-      criteriaQuery.orderBy(criteriaBuilder.desc(quoteRoot.get("change1")));
-      criteriaQuery.select(quoteRoot);
-      TypedQuery<QuoteDataBean> q = entityManager.createQuery(criteriaQuery);
-      quotes = q.getResultList();
-    } catch (Exception e) {
-      Log.debug("Warning: The database has not been configured. If this is the first time the application has been started, please create and populate the database tables. Then restart the server.");
-      return;
-    }	
-
-    /* TODO: Make this cleaner? */
-    QuoteDataBean[] quoteArray = quotes.toArray(new QuoteDataBean[quotes.size()]);
-    ArrayList<QuoteDataBean> topGainers = new ArrayList<QuoteDataBean>(5);
-    ArrayList<QuoteDataBean> topLosers = new ArrayList<QuoteDataBean>(5);
-    BigDecimal TSIA = FinancialUtils.ZERO;
-    BigDecimal openTSIA = FinancialUtils.ZERO;
-    double totalVolume = 0.0;
-
-    if (quoteArray.length > 5) {
-      for (int i = 0; i < 5; i++) {
-        topGainers.add(quoteArray[i]);
-      }
-      for (int i = quoteArray.length - 1; i >= quoteArray.length - 5; i--) {
-        topLosers.add(quoteArray[i]);
+    if (!marketSummaryEngine.isSeeded()) {
+      List<QuoteDataBean> quotes;
+
+      try {
+        // Load all quotes once, the engine is kept current from quote updates afterwards
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<QuoteDataBean> criteriaQuery = criteriaBuilder.createQuery(QuoteDataBean.class);
+        Root<QuoteDataBean> quoteRoot = criteriaQuery.from(QuoteDataBean.class);
+        criteriaQuery.select(quoteRoot);
+        TypedQuery<QuoteDataBean> q = entityManager.createQuery(criteriaQuery);
+        quotes = q.getResultList();
+      } catch (Exception e) {
+        Log.debug("Warning: The database has not been configured. If this is the first time the application has been started, please create and populate the database tables. Then restart the server.");
+        return;
       }
+      marketSummaryEngine.seed(quotes);
+    }
 
-      for (QuoteDataBean quote : quoteArray) {
-        BigDecimal price = quote.getPrice();
-        BigDecimal open = quote.getOpen();
-        double volume = quote.getVolume();
-        TSIA = TSIA.add(price);
-        openTSIA = openTSIA.add(open);
-        totalVolume += volume;
-      }
-      TSIA = TSIA.divide(new BigDecimal(quoteArray.length), FinancialUtils.ROUND);
-      openTSIA = openTSIA.divide(new BigDecimal(quoteArray.length), FinancialUtils.ROUND);
+    MarketSummaryDataBean summary = marketSummaryEngine.getMarketSummary();
+    if (summary == null) {
+      return;
     }
 
-    setMarketSummaryDataBean(new MarketSummaryDataBean(TSIA, openTSIA, totalVolume, topGainers, topLosers));
+    setMarketSummaryDataBean(summary);
     mkSummaryUpdateEvent.fireAsync("MarketSummaryUpdate", NotificationOptions.builder().setExecutor(mes).build());
   }
 
@@ -59,7 +59,9 @@ import com.ibm.websphere.samples.daytrader.entities.HoldingDataBean;
 import com.ibm.websphere.samples.daytrader.entities.OrderDataBean;
 import com.ibm.websphere.samples.daytrader.entities.QuoteDataBean;
 import com.ibm.websphere.samples.daytrader.util.FinancialUtils;
+import com.ibm.websphere.samples.daytrader.util.AfterCommit;
 import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.MarketSummaryEngine;
 import com.ibm.websphere.samples.daytrader.util.RecentQuotePriceChangeList;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
@@ -103,6 +105,12 @@ public class TradeSLSBBean implements TradeServices {
     @Inject
     RecentQuotePriceChangeList recentQuotePriceChangeList;
 
+    @Inject
+    MarketSummaryEngine marketSummaryEngine;
+
+    @Inject
+    AfterCommit afterCommit;
+
     @Override
     public MarketSummaryDataBean getMarketSummary() {
         return marketSummarySingleton.getMarketSummaryDataBean();
@@ -351,6 +359,7 @@ public class TradeSLSBBean implements TradeServices {
         try {
             QuoteDataBean quote = new QuoteDataBean(symbol, companyName, 0, price, price, price, price, 0);
             entityManager.persist(quote);
+            afterCommit.run(() -> marketSummaryEngine.quoteUpdated(quote));
 
             Log.trace("TradeSLSBBean:createQuote-->" + quote);
 
@@ -404,7 +413,11 @@ public class TradeSLSBBean implements TradeServices {
           publishQuotePriceChange(quote, oldPrice, changeFactor, sharesTraded);
         }
 
-        recentQuotePriceChangeList.add(quote);
+        // The in-memory summary only sees the update once it has committed
+        afterCommit.run(() -> {
+            recentQuotePriceChangeList.add(quote);
+            marketSummaryEngine.quoteUpdated(quote);
+        });
 
         return quote;
     }
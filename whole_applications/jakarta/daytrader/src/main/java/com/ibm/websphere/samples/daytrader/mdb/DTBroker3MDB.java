@@ -105,7 +105,9 @@ public class DTBroker3MDB implements MessageListener {
 
           Log.trace("DTBroker3MDB:onMessage - completing order " + orderID + " twoPhase=" + twoPhase + " direct=" + direct);
 
+          long completeStart = System.currentTimeMillis();
           trade.completeOrder(orderID, twoPhase);
+          mdbStats.addTiming("DTBroker3MDB:completeOrder", completeStart, System.currentTimeMillis());
 
           TimerStat currentStats = mdbStats.addTiming("DTBroker3MDB:neworder", publishTime, receiveTime);
 
@@ -115,7 +117,8 @@ public class DTBroker3MDB implements MessageListener {
                 "Time (in seconds):" +
                 " min: " +currentStats.getMinSecs()+
                 " max: " +currentStats.getMaxSecs()+
-                " avg: " +currentStats.getAvgSecs());
+                " avg: " +currentStats.getAvgSecs()+
+                " p99: " +currentStats.getPercentileSecs(99));
           }
         } catch (Exception e) {
           Log.error("DTBroker3MDB:onMessage Exception completing order: " + orderID + "\n", e);
@@ -142,7 +145,8 @@ public class DTBroker3MDB implements MessageListener {
               " Time (in seconds):" +
               " min: " +currentStats.getMinSecs()+
               " max: " +currentStats.getMaxSecs()+
-              " avg: " +currentStats.getAvgSecs());
+              " avg: " +currentStats.getAvgSecs()+
+              " p99: " +currentStats.getPercentileSecs(99));
         }
       } else {
         Log.error("DTBroker3MDB:onMessage - unknown message request command-->" + command + "<-- message=" + ((TextMessage) message).getText());
@@ -90,7 +90,8 @@ public class DTStreamer3MDB implements MessageListener {
               " Time (in seconds):" +
               " min: " +currentStats.getMinSecs()+
               " max: " +currentStats.getMaxSecs()+
-              " avg: " +currentStats.getAvgSecs() );
+              " avg: " +currentStats.getAvgSecs()+
+              " p99: " +currentStats.getPercentileSecs(99) );
         }
       } else if (command.equalsIgnoreCase("ping")) {
         Log.trace("DTStreamer3MDB:onMessage  received ping command -- message: " + ((TextMessage) message).getText());
@@ -107,7 +108,8 @@ public class DTStreamer3MDB implements MessageListener {
               " Time (in seconds):" +
               " min: " +currentStats.getMinSecs()+
               " max: " +currentStats.getMaxSecs()+
-              " avg: " +currentStats.getAvgSecs());
+              " avg: " +currentStats.getAvgSecs()+
+              " p99: " +currentStats.getPercentileSecs(99));
         }
       } else {
         Log.error("DTStreamer3MDB:onMessage - unknown message request command-->" + command + "<-- message=" + ((TextMessage) message).getText());
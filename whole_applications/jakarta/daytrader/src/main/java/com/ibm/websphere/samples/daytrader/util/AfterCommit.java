@@ -0,0 +1,85 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/** This class defers the in-memory state kept next to the database, such as the
+ *  market summary, until the database change it mirrors has committed. Inside a
+ *  global transaction the updates run once it commits, in the order they were
+ *  added, and are dropped if it rolls back. Without one the caller has already
+ *  committed its connection, so they run right away.
+ **/
+
+@ApplicationScoped
+public class AfterCommit {
+
+  @Resource
+  private TransactionSynchronizationRegistry registry;
+
+  /**
+   * Returns true if updates are deferred to the end of the current transaction
+   */
+  public boolean inTransaction() {
+    return registry.getTransactionStatus() != Status.STATUS_NO_TRANSACTION;
+  }
+
+  /**
+   * Run the update once the current transaction commits, or now if there is none
+   */
+  public void run(Runnable update) {
+    if (!inTransaction()) {
+      update.run();
+      return;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Runnable> updates = (List<Runnable>) registry.getResource(AfterCommit.class);
+    if (updates == null) {
+      final List<Runnable> registered = new ArrayList<Runnable>();
+      registry.putResource(AfterCommit.class, registered);
+      registry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          if (status != Status.STATUS_COMMITTED) {
+            Log.trace("AfterCommit -- transaction not committed, dropped " + registered.size() + " updates");
+            return;
+          }
+          for (Runnable committed : registered) {
+            try {
+              committed.run();
+            } catch (RuntimeException e) {
+              Log.error(e, "AfterCommit -- error applying a committed update");
+            }
+          }
+        }
+      });
+      updates = registered;
+    }
+    updates.add(update);
+  }
+}
@@ -15,18 +15,25 @@
  */
 package com.ibm.websphere.samples.daytrader.util;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  *
- * To change this generated comment edit the template variable "typecomment":
- * Window>Preferences>Java>Templates. To enable and disable the creation of type
- * comments go to Window>Preferences>Java>Code Generation.
+ * MDBStats keeps a {@link TimerStat} per message or operation type. Timings
+ * are recorded without locking; {@link #reset()} swaps in empty stats, so
+ * reporting and resetting never pause message processing. Values that are
+ * not latencies, such as batch sizes, are kept apart by {@link #recordCount}.
  */
-public class MDBStats extends java.util.HashMap<String, TimerStat> {
+public class MDBStats extends ConcurrentHashMap<String, TimerStat> {
 
     private static final long serialVersionUID = -3759835921094193760L;
     // Singleton class
     private static MDBStats mdbStats = null;
 
+    private final ConcurrentHashMap<String, TimerStat> counts = new ConcurrentHashMap<String, TimerStat>();
+
     private MDBStats() {
     }
 
@@ -38,31 +45,53 @@ public class MDBStats extends java.util.HashMap<String, TimerStat> {
     }
 
     public TimerStat addTiming(String type, long sendTime, long recvTime) {
-        TimerStat stats = null;
-        synchronized (type) {
+        return record(type, recvTime - sendTime);
+    }
 
-            stats = get(type);
-            if (stats == null) {
-                stats = new TimerStat();
-            }
+    /**
+     * Records one latency, in milliseconds
+     */
+    public TimerStat record(String type, long time) {
+        return record(this, type, time);
+    }
 
-            long time = recvTime - sendTime;
-            if (time > stats.getMax()) {
-                stats.setMax(time);
-            }
-            if (time < stats.getMin()) {
-                stats.setMin(time);
-            }
-            stats.setCount(stats.getCount() + 1);
-            stats.setTotalTime(stats.getTotalTime() + time);
+    /**
+     * Records a count rather than a latency, such as a batch size or queue depth
+     */
+    public TimerStat recordCount(String type, long count) {
+        return record(counts, type, count);
+    }
 
-            put(type, stats);
+    private static TimerStat record(ConcurrentHashMap<String, TimerStat> map, String type, long value) {
+        TimerStat stats = map.get(type);
+        if (stats == null) {
+            TimerStat newStats = new TimerStat();
+            stats = map.putIfAbsent(type, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
         }
+        stats.record(value);
         return stats;
     }
 
-    public synchronized void reset() {
+    /**
+     * Returns the current latency stats sorted by type
+     */
+    public Map<String, TimerStat> getStats() {
+        return new TreeMap<String, TimerStat>(this);
+    }
+
+    /**
+     * Returns the current count stats sorted by type
+     */
+    public Map<String, TimerStat> getCountStats() {
+        return new TreeMap<String, TimerStat>(counts);
+    }
+
+    public void reset() {
         clear();
+        counts.clear();
     }
 
 }
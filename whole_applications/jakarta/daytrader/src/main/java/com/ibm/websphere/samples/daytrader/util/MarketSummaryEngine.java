@@ -0,0 +1,215 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import com.ibm.websphere.samples.daytrader.beans.MarketSummaryDataBean;
+import com.ibm.websphere.samples.daytrader.entities.QuoteDataBean;
+
+/** This class maintains the market summary in memory from quote price/volume updates,
+ *  so the TSIA, open TSIA, total volume and top gainers/losers no longer require
+ *  scanning quoteejb. It is seeded once from the database and then kept current
+ *  by the runtime modes each time a quote is created or updated.
+ **/
+
+@ApplicationScoped
+public class MarketSummaryEngine {
+
+  private static final int TOP_N = 5;
+
+  private final AtomicReference<State> state = new AtomicReference<State>(new State());
+
+  /**
+   * Returns true once the engine has been loaded with the full set of quotes
+   */
+  public boolean isSeeded() {
+    return state.get().seeded;
+  }
+
+  /**
+   * Load the engine with the current contents of quoteejb. Quotes already
+   * applied through {@link #quoteUpdated(QuoteDataBean)} are newer than the
+   * loaded rows and are kept.
+   */
+  public void seed(Collection<QuoteDataBean> quotes) {
+    State current = state.get();
+    for (QuoteDataBean quote : quotes) {
+      current.apply(quote, false);
+    }
+    current.seeded = true;
+    Log.trace("MarketSummaryEngine:seed -- loaded " + current.quotes.size() + " quotes");
+  }
+
+  /**
+   * Drop all state, the next market summary request re-seeds from the database.
+   * Called whenever quoteejb is rebuilt or reset outside the normal trade path.
+   */
+  public void invalidate() {
+    state.set(new State());
+  }
+
+  /**
+   * Apply a created or updated quote to the running totals and rankings
+   */
+  public void quoteUpdated(QuoteDataBean quoteData) {
+    if (quoteData == null || quoteData.getSymbol() == null || quoteData.getPrice() == null || quoteData.getOpen() == null) {
+      return;
+    }
+    state.get().apply(quoteData, true);
+  }
+
+  /**
+   * Returns the current market summary, or null if the engine has not been seeded
+   */
+  public MarketSummaryDataBean getMarketSummary() {
+    State current = state.get();
+    if (!current.seeded) {
+      return null;
+    }
+    return current.snapshot();
+  }
+
+  /** Sums over all quotes, replaced as a unit so readers never see a partial update */
+  private static final class Totals {
+    final BigDecimal price;
+    final BigDecimal open;
+    final double volume;
+    final int count;
+
+    Totals(BigDecimal price, BigDecimal open, double volume, int count) {
+      this.price = price;
+      this.open = open;
+      this.volume = volume;
+      this.count = count;
+    }
+  }
+
+  /** Ranking entry for a quote, ordered by change1 and then symbol */
+  private static final class Entry {
+    final double change;
+    final String symbol;
+    final QuoteDataBean quote;
+
+    Entry(QuoteDataBean quote) {
+      this.change = quote.getChange();
+      this.symbol = quote.getSymbol();
+      this.quote = quote;
+    }
+  }
+
+  private static final Comparator<Entry> BY_CHANGE = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry e1, Entry e2) {
+      int c = Double.compare(e1.change, e2.change);
+      return (c != 0) ? c : e1.symbol.compareTo(e2.symbol);
+    }
+  };
+
+  private static final class Snapshot {
+    final long version;
+    final MarketSummaryDataBean summary;
+
+    Snapshot(long version, MarketSummaryDataBean summary) {
+      this.version = version;
+      this.summary = summary;
+    }
+  }
+
+  private static final class State {
+    final ConcurrentHashMap<String, Entry> quotes = new ConcurrentHashMap<String, Entry>();
+    final ConcurrentSkipListSet<Entry> byChange = new ConcurrentSkipListSet<Entry>(BY_CHANGE);
+    final AtomicReference<Totals> totals = new AtomicReference<Totals>(new Totals(FinancialUtils.ZERO, FinancialUtils.ZERO, 0.0, 0));
+    final AtomicLong version = new AtomicLong();
+    final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>(new Snapshot(-1, null));
+    volatile boolean seeded = false;
+
+    void apply(QuoteDataBean quoteData, final boolean replace) {
+      final QuoteDataBean copy = copyOf(quoteData);
+
+      // compute() serializes updates to the same symbol, so the ranking and
+      // totals always move from the previous value of that symbol to the new one
+      quotes.compute(copy.getSymbol(), (symbol, previous) -> {
+        if (previous != null && !replace) {
+          return previous;
+        }
+        Entry next = new Entry(copy);
+        if (previous != null) {
+          byChange.remove(previous);
+        }
+        byChange.add(next);
+
+        final BigDecimal dPrice = (previous == null) ? copy.getPrice() : copy.getPrice().subtract(previous.quote.getPrice());
+        final BigDecimal dOpen = (previous == null) ? copy.getOpen() : copy.getOpen().subtract(previous.quote.getOpen());
+        final double dVolume = (previous == null) ? copy.getVolume() : copy.getVolume() - previous.quote.getVolume();
+        final int dCount = (previous == null) ? 1 : 0;
+        totals.updateAndGet(t -> new Totals(t.price.add(dPrice), t.open.add(dOpen), t.volume + dVolume, t.count + dCount));
+
+        version.incrementAndGet();
+        return next;
+      });
+    }
+
+    MarketSummaryDataBean snapshot() {
+      Snapshot current = snapshot.get();
+      long v = version.get();
+      if (current.version == v) {
+        return current.summary;
+      }
+
+      Totals t = totals.get();
+      BigDecimal TSIA = FinancialUtils.ZERO;
+      BigDecimal openTSIA = FinancialUtils.ZERO;
+      if (t.count > 0) {
+        TSIA = t.price.divide(new BigDecimal(t.count), FinancialUtils.ROUND);
+        openTSIA = t.open.divide(new BigDecimal(t.count), FinancialUtils.ROUND);
+      }
+
+      MarketSummaryDataBean summary = new MarketSummaryDataBean(TSIA, openTSIA, t.volume, top(byChange.descendingIterator()),
+          top(byChange.iterator()));
+
+      // Publish only if no newer snapshot was installed in the meantime
+      Snapshot next = new Snapshot(v, summary);
+      while (current.version < v && !snapshot.compareAndSet(current, next)) {
+        current = snapshot.get();
+      }
+      return summary;
+    }
+
+    private static ArrayList<QuoteDataBean> top(Iterator<Entry> it) {
+      ArrayList<QuoteDataBean> top = new ArrayList<QuoteDataBean>(TOP_N);
+      while (it.hasNext() && top.size() < TOP_N) {
+        top.add(it.next().quote);
+      }
+      return top;
+    }
+
+    // QuoteDataBean is a managed entity in the EJB3 mode, keep a detached copy
+    private static QuoteDataBean copyOf(QuoteDataBean q) {
+      return new QuoteDataBean(q.getSymbol(), q.getCompanyName(), q.getVolume(), q.getPrice(), q.getOpen(), q.getLow(), q.getHigh(), q.getChange());
+    }
+  }
+}
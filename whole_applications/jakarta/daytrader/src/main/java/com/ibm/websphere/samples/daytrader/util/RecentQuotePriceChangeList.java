@@ -14,8 +14,11 @@
  * limitations under the License.
  */
 package com.ibm.websphere.samples.daytrader.util;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
@@ -33,14 +36,22 @@ import com.ibm.websphere.samples.daytrader.interfaces.QuotePriceChange;
 
 /** This class is a holds the last 5 stock changes, used by the MarketSummary WebSocket
  *  and the JAX-RS SSE Broadcaster
- *  It fires a CDI event everytime a price change is added
+ *  The changes are kept in a fixed size ring buffer, writers claim a slot with a single
+ *  atomic increment and readers take a snapshot of the newest entries.
+ *  It fires a CDI event when a price change is added, changes added while an event
+ *  is still being delivered are reported by one follow-up event.
  **/
 
 @ApplicationScoped
 public class RecentQuotePriceChangeList  {
 
-  private List<QuoteDataBean> list = new CopyOnWriteArrayList<QuoteDataBean>();
-  private int maxSize = 5;
+  private static final int maxSize = 5;
+
+  private final AtomicReferenceArray<Entry> ring = new AtomicReferenceArray<Entry>(maxSize);
+  private final AtomicLong head = new AtomicLong();
+  // The last change stored in the ring, returned when every slot is still being written
+  private volatile Entry lastPublished;
+  private final AtomicBoolean notifyPending = new AtomicBoolean(false);
 
   @Resource
   private ManagedExecutorService mes;
@@ -51,27 +62,104 @@ public class RecentQuotePriceChangeList  {
 
   public boolean add(QuoteDataBean quoteData) {
 
-    int symbolNumber = new Integer(quoteData.getSymbol().substring(2));
+    long symbolNumber = symbolNumber(quoteData.getSymbol());
 
-    if ( symbolNumber < TradeConfig.getMAX_QUOTES() * TradeConfig.getListQuotePriceChangeFrequency() * 0.01) {
-      list.add(0, quoteData);
+    // A symbol that is not "s:<n>" is not tracked
+    if (symbolNumber >= 0 && symbolNumber < TradeConfig.getMAX_QUOTES() * TradeConfig.getListQuotePriceChangeFrequency() * 0.01) {
+      long seq = head.getAndIncrement();
+      Entry next = new Entry(seq, quoteData);
+      int slot = (int) (seq % maxSize);
 
-      // Add stock, remove if needed
-      if(list.size() > maxSize) {
-        list.remove(maxSize);
-      }      
-      quotePriceChangeEvent.fireAsync("quotePriceChange for symbol: " + quoteData.getSymbol(), NotificationOptions.builder().setExecutor(mes).build());
+      // Only replace an older entry, a writer that lapped this one may already own the slot
+      Entry current = ring.get(slot);
+      while ((current == null || current.seq < seq) && !ring.compareAndSet(slot, current, next)) {
+        current = ring.get(slot);
+      }
+      lastPublished = next;
+      notifyChange(quoteData.getSymbol());
     }
     return true;
   }
 
   public boolean isEmpty() {
-    return list.isEmpty();
+    return lastPublished == null;
   }
 
+  /**
+   * Returns a snapshot of the most recent changes, newest first
+   */
   @Size(max=5)
   @NotEmpty
   public List<@NotNull QuoteDataBean> recentList() {
-    return list;
+    List<QuoteDataBean> snapshot = new ArrayList<QuoteDataBean>(maxSize);
+    long last = head.get() - 1;
+    for (long seq = last; seq >= 0 && seq > last - maxSize; seq--) {
+      Entry entry = ring.get((int) (seq % maxSize));
+      // Skip a slot whose writer has not finished or that was already reused
+      if (entry != null && entry.seq == seq) {
+        snapshot.add(entry.quote);
+      }
+    }
+    // A writer claims its sequence before it stores the entry, so every slot in the
+    // window can still be in flight. Keep the list non-empty once isEmpty() is false.
+    Entry published = lastPublished;
+    if (snapshot.isEmpty() && published != null) {
+      snapshot.add(published.quote);
+    }
+    return snapshot;
+  }
+
+  private void notifyChange(String symbol) {
+    if (!notifyPending.compareAndSet(false, true)) {
+      return;
+    }
+    final long seq = head.get();
+    boolean fired = false;
+    try {
+      quotePriceChangeEvent.fireAsync("quotePriceChange for symbol: " + symbol, NotificationOptions.builder().setExecutor(mes).build())
+          .whenComplete((event, t) -> {
+            notifyPending.set(false);
+            // Observers may have read the list before the latest changes were added
+            if (head.get() != seq) {
+              notifyChange(symbol);
+            }
+          });
+      fired = true;
+    } finally {
+      // No completion callback will clear the flag if the event was never fired
+      if (!fired) {
+        notifyPending.set(false);
+      }
+    }
+  }
+
+  // Parse the number from a "s:<n>" symbol without allocating, -1 if it is not numeric
+  // or too large to be a quote number
+  private static long symbolNumber(String symbol) {
+    if (symbol == null || symbol.length() < 3) {
+      return -1;
+    }
+    long n = 0;
+    for (int i = 2; i < symbol.length(); i++) {
+      char c = symbol.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      n = n * 10 + (c - '0');
+      if (n > Integer.MAX_VALUE) {
+        return -1;
+      }
+    }
+    return n;
+  }
+
+  private static final class Entry {
+    final long seq;
+    final QuoteDataBean quote;
+
+    Entry(long seq, QuoteDataBean quote) {
+      this.seq = seq;
+      this.quote = quote;
+    }
   }
 }
@@ -15,72 +15,102 @@
  */
 package com.ibm.websphere.samples.daytrader.util;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  *
- * To change this generated comment edit the template variable "typecomment":
- * Window>Preferences>Java>Templates. To enable and disable the creation of type
- * comments go to Window>Preferences>Java>Code Generation.
+ * TimerStat records the latencies of one message or operation type. Every
+ * value goes into a cumulative {@link LatencyHistogram} and into a histogram
+ * for the current second, the last {@link #WINDOW_SECONDS} of which are kept
+ * so recent behaviour can be reported separately from the whole run.
+ * Recording never blocks, so stats can be read or reset while messages are
+ * being processed.
  */
 public class TimerStat {
 
-    private double min = 1000000000.0, max = 0.0, totalTime = 0.0;
-    private int count;
+    public static final int WINDOW_SECONDS = 60;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final AtomicReferenceArray<Interval> intervals = new AtomicReferenceArray<Interval>(WINDOW_SECONDS);
 
     /**
-     * Returns the count.
+     * Records one latency value, in milliseconds
      *
-     * @return int
+     * @param time
+     *            The latency to record
      */
-    public int getCount() {
-        return count;
+    public void record(long time) {
+        histogram.record(time);
+
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        Interval interval = intervals.get(slot);
+        while (interval == null || interval.second < second) {
+            // The slot still holds an interval from a previous lap of the window
+            Interval next = new Interval(second);
+            if (intervals.compareAndSet(slot, interval, next)) {
+                interval = next;
+            } else {
+                interval = intervals.get(slot);
+            }
+        }
+        interval.histogram.record(time);
     }
 
     /**
-     * Returns the max.
+     * Returns the histogram of every value recorded
      *
-     * @return double
+     * @return LatencyHistogram
      */
-    public double getMax() {
-        return max;
+    public LatencyHistogram getHistogram() {
+        return histogram;
     }
 
     /**
-     * Returns the min.
+     * Returns a histogram of the values recorded in the last seconds,
+     * at most {@link #WINDOW_SECONDS}
      *
-     * @return double
+     * @param seconds
+     *            Length of the window
+     * @return LatencyHistogram
      */
-    public double getMin() {
-        return min;
+    public LatencyHistogram getWindow(int seconds) {
+        LatencyHistogram window = new LatencyHistogram();
+        long oldest = System.currentTimeMillis() / 1000 - Math.min(seconds, WINDOW_SECONDS);
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            Interval interval = intervals.get(i);
+            if (interval != null && interval.second > oldest) {
+                window.add(interval.histogram);
+            }
+        }
+        return window;
     }
 
     /**
-     * Sets the count.
+     * Returns the count.
      *
-     * @param count
-     *            The count to set
+     * @return long
      */
-    public void setCount(int count) {
-        this.count = count;
+    public long getCount() {
+        return histogram.getCount();
     }
 
     /**
-     * Sets the max.
+     * Returns the max.
      *
-     * @param max
-     *            The max to set
+     * @return double
      */
-    public void setMax(double max) {
-        this.max = max;
+    public double getMax() {
+        return histogram.getMax();
     }
 
     /**
-     * Sets the min.
+     * Returns the min.
      *
-     * @param min
-     *            The min to set
+     * @return double
      */
-    public void setMin(double min) {
-        this.min = min;
+    public double getMin() {
+        return histogram.getMin();
     }
 
     /**
@@ -89,17 +119,7 @@ public class TimerStat {
      * @return double
      */
     public double getTotalTime() {
-        return totalTime;
-    }
-
-    /**
-     * Sets the totalTime.
-     *
-     * @param totalTime
-     *            The totalTime to set
-     */
-    public void setTotalTime(double totalTime) {
-        this.totalTime = totalTime;
+        return histogram.getTotal();
     }
 
     /**
@@ -108,7 +128,7 @@ public class TimerStat {
      * @return double
      */
     public double getMaxSecs() {
-        return max / 1000.0;
+        return getMax() / 1000.0;
     }
 
     /**
@@ -117,7 +137,7 @@ public class TimerStat {
      * @return double
      */
     public double getMinSecs() {
-        return min / 1000.0;
+        return getMin() / 1000.0;
     }
 
     /**
@@ -126,8 +146,24 @@ public class TimerStat {
      * @return double
      */
     public double getAvgSecs() {
+        return histogram.getMean() / 1000.0;
+    }
+
+    /**
+     * Returns the given percentile (0 - 100) in Secs
+     *
+     * @return double
+     */
+    public double getPercentileSecs(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class Interval {
+        private final long second;
+        private final LatencyHistogram histogram = new LatencyHistogram();
 
-        double avg = getTotalTime() / getCount();
-        return avg / 1000.0;
+        Interval(long second) {
+            this.second = second;
+        }
     }
 }
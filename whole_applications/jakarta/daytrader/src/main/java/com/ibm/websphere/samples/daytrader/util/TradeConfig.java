@@ -18,6 +18,7 @@ package com.ibm.websphere.samples.daytrader.util;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TradeConfig is a JavaBean holding all configuration and runtime parameters
@@ -31,10 +32,11 @@ public class TradeConfig {
   /* Trade Runtime Configuration Parameters */
 
   /* Trade Runtime Mode parameters */
-  private static String[] runTimeModeNames = { "Full EJB3", "Direct (JDBC)", "Session to Direct"};
+  private static String[] runTimeModeNames = { "Full EJB3", "Direct (JDBC)", "Session to Direct", "Direct (JDBC) + Quote Cache"};
   public static final int EJB3 = 0;
   public static final int DIRECT = 1;
   public static final int SESSION_TO_DIRECT = 2;
+  public static final int DIRECT_QUOTE_CACHE = 3;
   private static int runTimeMode = EJB3;
 
   private static String[] orderProcessingModeNames = { "Sync", "Async","Async_2-Phase" };
@@ -65,6 +67,8 @@ public class TradeConfig {
   /* Trade Config Miscellaneous itmes */
   public static String DATASOURCE = "java:comp/env/jdbc/TradeDataSource";
   public static int KEYBLOCKSIZE = 1000;
+  // Per entity (keygenejb keyname) overrides of KEYBLOCKSIZE, e.g. "order"
+  private static ConcurrentHashMap<String, Integer> keyBlockSizes = new ConcurrentHashMap<String, Integer>();
   public static int QUOTES_PER_PAGE = 10;
   public static boolean RND_USER = true;
   // public static int RND_SEED = 0;
@@ -85,6 +89,32 @@ public class TradeConfig {
   private static int listQuotePriceChangeFrequency = 100;
   private static boolean displayOrderAlerts = true;
 
+  /*
+   * Quote cache parameters for the Direct (JDBC) + Quote Cache runtime mode.
+   * At most quoteCacheSize quotes are held in memory, changed quotes are
+   * written to the database every quoteCacheFlushInterval milliseconds.
+   */
+  private static int quoteCacheSize = 20000;
+  private static int quoteCacheFlushInterval = 1000;
+
+  /*
+   * Asynchronous (ASYNCH) order completion parameters. Queued orders are
+   * completed in batches of up to asyncOrderBatchSize orders, waiting at most
+   * asyncOrderBatchWait milliseconds for a batch to fill.
+   */
+  private static int asyncOrderBatchSize = 50;
+  private static int asyncOrderBatchWait = 5;
+
+  /*
+   * Database population parameters. A batch size of 0 populates one row at a
+   * time through the TradeServices implementation, otherwise rows are
+   * inserted with JDBC batches by buildDBThreads workers, committing every
+   * buildDBCommitInterval rows.
+   */
+  private static int buildDBBatchSize = 500;
+  private static int buildDBCommitInterval = 5000;
+  private static int buildDBThreads = Runtime.getRuntime().availableProcessors();
+
   /**
    * -1 means every operation 0 means never perform a market summary > 0 means
    * number of seconds between summaries. These will be synchronized so only
@@ -93,6 +123,13 @@ public class TradeConfig {
    */
   private static int marketSummaryInterval = 20;
 
+  /*
+   * Minimum number of milliseconds between WebSocket market summary and quote
+   * price change broadcasts. Updates arriving within the interval are
+   * coalesced into a single frame. 0 broadcasts every update.
+   */
+  private static int webSocketBroadcastInterval = 250;
+
   /*
    * Penny stocks is a problem where the random price change factor gets a
    * stock down to $.01. In this case trade jumpstarts the price back to $6.00
@@ -503,6 +540,76 @@ public class TradeConfig {
             + "reverting to current value: " + MAX_QUOTES, e);
         // <<rjm
       } // On error, revert to saved
+    } else if (parm.toLowerCase().startsWith("keyblocksize")) {
+      // keyBlockSize sets the default, keyBlockSize.<keyname> sets it for one entity type
+      try {
+        int blockSize = Integer.parseInt(value);
+        int dot = parm.indexOf('.');
+        if (dot < 0) {
+          KEYBLOCKSIZE = blockSize;
+        } else {
+          setKeyBlockSize(parm.substring(dot + 1), blockSize);
+        }
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting " + parm + ", error parsing string to int:" + value
+            + "revering to current value", e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("quoteCacheSize")) {
+      try {
+        quoteCacheSize = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting quoteCacheSize, error parsing string to int:" + value
+            + "revering to current value: " + quoteCacheSize, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("quoteCacheFlushInterval")) {
+      try {
+        quoteCacheFlushInterval = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting quoteCacheFlushInterval, error parsing string to int:" + value
+            + "revering to current value: " + quoteCacheFlushInterval, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("asyncOrderBatchSize")) {
+      try {
+        asyncOrderBatchSize = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting asyncOrderBatchSize, error parsing string to int:" + value
+            + "revering to current value: " + asyncOrderBatchSize, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("asyncOrderBatchWait")) {
+      try {
+        asyncOrderBatchWait = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting asyncOrderBatchWait, error parsing string to int:" + value
+            + "revering to current value: " + asyncOrderBatchWait, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("buildDBBatchSize")) {
+      try {
+        buildDBBatchSize = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting buildDBBatchSize, error parsing string to int:" + value
+            + "revering to current value: " + buildDBBatchSize, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("buildDBCommitInterval")) {
+      try {
+        buildDBCommitInterval = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting buildDBCommitInterval, error parsing string to int:" + value
+            + "revering to current value: " + buildDBCommitInterval, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("webSocketBroadcastInterval")) {
+      try {
+        webSocketBroadcastInterval = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting webSocketBroadcastInterval, error parsing string to int:" + value
+            + "revering to current value: " + webSocketBroadcastInterval, e);
+      } // On error, revert to saved
+    } else if (parm.equalsIgnoreCase("buildDBThreads")) {
+      try {
+        buildDBThreads = Integer.parseInt(value);
+      } catch (Exception e) {
+        Log.error("TradeConfig.setConfigParm(..): minor exception caught" + "Setting buildDBThreads, error parsing string to int:" + value
+            + "revering to current value: " + buildDBThreads, e);
+      } // On error, revert to saved
     } else if (parm.equalsIgnoreCase("primIterations")) {
       try {
         primIterations = Integer.parseInt(value);
@@ -670,6 +777,21 @@ public class TradeConfig {
     TradeConfig.updateQuotePrices = updateQuotePrices;
   }
 
+  /**
+   * Gets the number of keys reserved from keygenejb per block for the given
+   * key name, defaulting to KEYBLOCKSIZE
+   */
+  public static int getKeyBlockSize(String keyName) {
+    Integer blockSize = keyBlockSizes.get(keyName);
+    return (blockSize == null) ? KEYBLOCKSIZE : blockSize.intValue();
+  }
+
+  public static void setKeyBlockSize(String keyName, int blockSize) {
+    if (blockSize > 0) {
+      keyBlockSizes.put(keyName, blockSize);
+    }
+  }
+
   public static int getPrimIterations() {
     return primIterations;
   }
@@ -702,6 +824,14 @@ public class TradeConfig {
     return TradeConfig.marketSummaryInterval;
   }
 
+  public static void setWebSocketBroadcastInterval(int millis) {
+    TradeConfig.webSocketBroadcastInterval = millis;
+  }
+
+  public static int getWebSocketBroadcastInterval() {
+    return TradeConfig.webSocketBroadcastInterval;
+  }
+
   public static void setRunTimeMode(int value) {
     runTimeMode = value;
   }
@@ -742,6 +872,62 @@ public class TradeConfig {
     return displayOrderAlerts;
   }
 
+  public static int getQuoteCacheSize() {
+    return quoteCacheSize;
+  }
+
+  public static void setQuoteCacheSize(int value) {
+    quoteCacheSize = value;
+  }
+
+  public static int getQuoteCacheFlushInterval() {
+    return quoteCacheFlushInterval;
+  }
+
+  public static void setQuoteCacheFlushInterval(int value) {
+    quoteCacheFlushInterval = value;
+  }
+
+  public static int getAsyncOrderBatchSize() {
+    return asyncOrderBatchSize;
+  }
+
+  public static void setAsyncOrderBatchSize(int value) {
+    asyncOrderBatchSize = value;
+  }
+
+  public static int getAsyncOrderBatchWait() {
+    return asyncOrderBatchWait;
+  }
+
+  public static void setAsyncOrderBatchWait(int value) {
+    asyncOrderBatchWait = value;
+  }
+
+  public static int getBuildDBBatchSize() {
+    return buildDBBatchSize;
+  }
+
+  public static void setBuildDBBatchSize(int value) {
+    buildDBBatchSize = value;
+  }
+
+  public static int getBuildDBCommitInterval() {
+    return buildDBCommitInterval;
+  }
+
+  public static void setBuildDBCommitInterval(int value) {
+    buildDBCommitInterval = value;
+  }
+
+  public static int getBuildDBThreads() {
+    return buildDBThreads;
+  }
+
+  public static void setBuildDBThreads(int value) {
+    buildDBThreads = value;
+  }
+
   public static void setListQuotePriceChangeFrequency(int value) {
     listQuotePriceChangeFrequency = value;
   }
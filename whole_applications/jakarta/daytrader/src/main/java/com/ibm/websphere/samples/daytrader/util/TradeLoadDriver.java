@@ -0,0 +1,384 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.util;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import com.ibm.websphere.samples.daytrader.entities.AccountProfileDataBean;
+import com.ibm.websphere.samples.daytrader.entities.HoldingDataBean;
+import com.ibm.websphere.samples.daytrader.interfaces.TradeServices;
+
+/**
+ * TradeLoadDriver is an in-process, closed-loop load generator. Each
+ * simulated user runs on its own managed thread and replays the
+ * TradeScenarioServlet action mix (TradeConfig.getScenarioAction) directly
+ * against the TradeServices implementation of the configured runtime mode,
+ * waiting a random think time between actions. Runs always use the
+ * configured mode, since asynchronous order completion follows it too.
+ *
+ * Users are started evenly over the ramp-up period. Only actions that start
+ * after ramp-up and before the end of the run are measured, so the report
+ * covers the steady state. Latencies are recorded in microseconds.
+ */
+@ApplicationScoped
+public class TradeLoadDriver {
+
+  /** Upper bound on the simulated users of one run, each is a thread */
+  public static final int MAX_USERS = 500;
+
+  private static final char[] ACTIONS = { 'h', 'q', 'l', 'o', 'r', 'a', 'p', 'b', 's', 'u' };
+  private static final String[] ACTION_NAMES = { "home", "quote", "login", "logout", "register", "account", "portfolio", "buy", "sell",
+      "update profile" };
+
+  @Inject
+  @Any
+  Instance<TradeServices> services;
+
+  @Resource
+  private ManagedThreadFactory threadFactory;
+
+  private volatile Run current;
+
+  /**
+   * Start a run against the configured runtime mode unless one is already in
+   * progress. users is capped at {@link #MAX_USERS}.
+   *
+   * @return false if a run is already in progress
+   */
+  public synchronized boolean start(int users, int rampUpSecs, int durationSecs, int thinkTimeMs) {
+    if (isRunning()) {
+      return false;
+    }
+    int runTimeMode = TradeConfig.getRunTimeMode();
+    users = Math.max(1, Math.min(users, MAX_USERS));
+    Run run = new Run(runTimeMode, users, rampUpSecs, durationSecs, thinkTimeMs);
+    current = run;
+    Log.log("TradeLoadDriver:start -- " + users + " users against " + TradeConfig.getRunTimeModeNames()[runTimeMode] + ", ramp-up "
+        + rampUpSecs + "s, duration " + durationSecs + "s, think time " + thinkTimeMs + "ms");
+    for (int i = 0; i < users; i++) {
+      long startDelay = (users > 1) ? (rampUpSecs * 1000L * i) / users : 0;
+      try {
+        Thread thread = threadFactory.newThread(new SimulatedUser(run, startDelay));
+        thread.setName("TradeLoadDriver-user-" + i);
+        thread.start();
+      } catch (Exception e) {
+        Log.error(e, "TradeLoadDriver:start -- unable to start user " + i + ", stopping run");
+        run.stopped = true;
+        for (int j = i; j < users; j++) {
+          run.userDone();
+        }
+        break;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ask the users of the current run to stop after their current action
+   */
+  public void stop() {
+    Run run = current;
+    if (run != null) {
+      run.stopped = true;
+    }
+  }
+
+  public boolean isRunning() {
+    Run run = current;
+    return (run != null) && (run.activeUsers.sum() > 0);
+  }
+
+  /**
+   * Returns the current or last run, or null if none has been started
+   */
+  public Run getRun() {
+    return current;
+  }
+
+  /**
+   * One load driver run and its per-action results
+   */
+  public static class Run {
+    private final int runTimeMode;
+    private final int users;
+    private final int durationSecs;
+    private final int thinkTimeMs;
+    private final long measureStart;
+    private final long measureEnd;
+    private final Map<Character, ActionStat> stats = new LinkedHashMap<Character, ActionStat>();
+    private final LongAdder activeUsers = new LongAdder();
+    private volatile boolean stopped = false;
+    private volatile long stoppedAt = 0;
+
+    Run(int runTimeMode, int users, int rampUpSecs, int durationSecs, int thinkTimeMs) {
+      this.runTimeMode = runTimeMode;
+      this.users = users;
+      this.durationSecs = durationSecs;
+      this.thinkTimeMs = thinkTimeMs;
+      this.measureStart = System.currentTimeMillis() + rampUpSecs * 1000L;
+      this.measureEnd = measureStart + durationSecs * 1000L;
+      for (int i = 0; i < ACTIONS.length; i++) {
+        stats.put(ACTIONS[i], new ActionStat(ACTION_NAMES[i]));
+      }
+      activeUsers.add(users);
+    }
+
+    boolean isDone() {
+      return stopped || System.currentTimeMillis() >= measureEnd;
+    }
+
+    void record(char action, long startMillis, long micros, boolean failed) {
+      if (startMillis < measureStart || startMillis >= measureEnd) {
+        return;
+      }
+      ActionStat stat = stats.get(action);
+      stat.latency.record(micros);
+      if (failed) {
+        stat.errors.increment();
+      }
+    }
+
+    void userDone() {
+      activeUsers.decrement();
+      if (activeUsers.sum() == 0) {
+        stoppedAt = System.currentTimeMillis();
+      }
+    }
+
+    public String getRunTimeModeName() {
+      return TradeConfig.getRunTimeModeNames()[runTimeMode];
+    }
+
+    public int getUsers() {
+      return users;
+    }
+
+    public long getActiveUsers() {
+      return activeUsers.sum();
+    }
+
+    public int getDurationSecs() {
+      return durationSecs;
+    }
+
+    public int getThinkTimeMs() {
+      return thinkTimeMs;
+    }
+
+    public boolean isRampingUp() {
+      return System.currentTimeMillis() < measureStart;
+    }
+
+    /**
+     * Returns the number of seconds measured so far
+     */
+    public double getMeasuredSecs() {
+      long end = Math.min((stoppedAt > 0) ? stoppedAt : System.currentTimeMillis(), measureEnd);
+      return Math.max(0, end - measureStart) / 1000.0;
+    }
+
+    /**
+     * Returns the per-action results, in TradeScenarioServlet mix order
+     */
+    public Collection<ActionStat> getStats() {
+      return stats.values();
+    }
+  }
+
+  /**
+   * Latency and error count of one action type
+   */
+  public static class ActionStat {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    ActionStat(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public LatencyHistogram getLatency() {
+      return latency;
+    }
+
+    public long getErrors() {
+      return errors.sum();
+    }
+  }
+
+  /**
+   * A simulated user, following TradeScenarioServlet: log in, then perform
+   * actions from the scenario mix until logged out, then log in again.
+   */
+  private class SimulatedUser implements Runnable {
+    private final Run run;
+    private final long startDelay;
+    private TradeServices trade;
+    private String userID = null;
+
+    SimulatedUser(Run run, long startDelay) {
+      this.run = run;
+      this.startDelay = startDelay;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (startDelay > 0) {
+          Thread.sleep(startDelay);
+        }
+        trade = services.select(new TradeRunTimeModeLiteral(TradeConfig.getRunTimeModeNames()[run.runTimeMode])).get();
+
+        while (!run.isDone()) {
+          char action = (userID == null) ? 'l' : TradeConfig.getScenarioAction(userID.startsWith(TradeConfig.newUserPrefix));
+          long startMillis = System.currentTimeMillis();
+          long start = System.nanoTime();
+          boolean failed = false;
+          try {
+            action = perform(action);
+          } catch (Exception e) {
+            Log.error(e, "TradeLoadDriver:SimulatedUser -- error performing action " + action + " for user " + userID);
+            failed = true;
+            // Start over from a login, as the scenario servlet does for a lost session
+            userID = null;
+          }
+          run.record(action, startMillis, (System.nanoTime() - start) / 1000, failed);
+
+          if (run.thinkTimeMs > 0) {
+            // Uniformly distributed around the configured mean
+            Thread.sleep(ThreadLocalRandom.current().nextLong(2L * run.thinkTimeMs + 1));
+          }
+        }
+        if (userID != null) {
+          trade.logout(userID);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        Log.error(e, "TradeLoadDriver:SimulatedUser -- error ending run for user " + userID);
+      } finally {
+        if (trade != null) {
+          services.destroy(trade);
+        }
+        run.userDone();
+      }
+    }
+
+    /**
+     * Perform one scenario action, returning the action that was actually
+     * performed (a sell with nothing to sell becomes a buy)
+     */
+    private char perform(char action) throws Exception {
+      switch (action) {
+      case 'q': // quote
+        for (String symbol : TradeConfig.rndSymbols().split(",")) {
+          trade.getQuote(symbol.trim());
+        }
+        return action;
+      case 'a': // account
+        account();
+        return action;
+      case 'u': // update account profile
+        account();
+        trade.updateAccountProfile(new AccountProfileDataBean(userID, "xxx", "rnd" + System.currentTimeMillis(), "rndAddress", "rndEmail",
+            "rndCC"));
+        return action;
+      case 'h': // home
+        home();
+        return action;
+      case 'l': // login
+        String loginID = TradeConfig.getUserID();
+        if (trade.login(loginID, "xxx") != null) {
+          userID = loginID;
+          home();
+        }
+        return action;
+      case 'o': // logout
+        trade.logout(userID);
+        userID = null;
+        return action;
+      case 'p': // portfolio
+        for (HoldingDataBean holdingData : trade.getHoldings(userID)) {
+          trade.getQuote(holdingData.getQuoteID());
+        }
+        return action;
+      case 'r': // register
+        trade.logout(userID);
+        userID = null;
+        String newUserID = TradeConfig.rndNewUserID();
+        if (trade.register(newUserID, "yyy", TradeConfig.rndFullName(), TradeConfig.rndAddress(), TradeConfig.rndEmail(newUserID),
+            TradeConfig.rndCreditCard(), new BigDecimal(TradeConfig.rndBalance())) != null) {
+          trade.login(newUserID, "yyy");
+          userID = newUserID;
+          home();
+        }
+        return action;
+      case 's': // sell
+        for (HoldingDataBean holdingData : trade.getHoldings(userID)) {
+          if (!(holdingData.getPurchaseDate().equals(new java.util.Date(0)))) {
+            trade.sell(userID, holdingData.getHoldingID(), TradeConfig.getOrderProcessingMode());
+            return action;
+          }
+        }
+        // Nothing to sell, buy instead and keep the buy/sell mix (see TradeScenarioServlet)
+        if (userID.startsWith(TradeConfig.newUserPrefix) == false) {
+          TradeConfig.incrementSellDeficit();
+        }
+        buy();
+        return 'b';
+      case 'b': // buy
+      default:
+        buy();
+        return 'b';
+      }
+    }
+
+    private void home() throws Exception {
+      trade.getAccountData(userID);
+      trade.getHoldings(userID);
+    }
+
+    private void account() throws Exception {
+      trade.getAccountData(userID);
+      trade.getAccountProfileData(userID);
+      if (!TradeConfig.getLongRun()) {
+        trade.getOrders(userID);
+      }
+    }
+
+    private void buy() throws Exception {
+      String symbol = TradeConfig.rndSymbol();
+      trade.getQuote(symbol);
+      trade.buy(userID, symbol, TradeConfig.rndQuantity(), TradeConfig.getOrderProcessingMode());
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/**
+ * (C) Copyright IBM Corporation 2015.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.web.prims;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+import com.ibm.websphere.samples.daytrader.entities.HoldingDataBean;
+import com.ibm.websphere.samples.daytrader.entities.OrderDataBean;
+import com.ibm.websphere.samples.daytrader.entities.QuoteDataBean;
+import com.ibm.websphere.samples.daytrader.interfaces.TradeJDBC;
+import com.ibm.websphere.samples.daytrader.interfaces.TradeServices;
+import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+
+/**
+ *
+ * PingJDBCReadMapping compares two ways of reading quotes, holdings and
+ * orders over JDBC. The "select *" path prepares each statement and maps
+ * each row by column name. The TradeDirect path uses
+ * {@link com.ibm.websphere.samples.daytrader.impl.direct.TradeDirect}, which
+ * selects explicit column lists from constant SQL and maps rows by column
+ * index. Each operation is repeated
+ * {@link com.ibm.websphere.samples.daytrader.util.TradeConfig#getPrimIterations()}
+ * times and the average time per operation is reported.
+ *
+ */
+
+@WebServlet(name = "PingJDBCReadMapping", urlPatterns = { "/servlet/PingJDBCReadMapping" })
+public class PingJDBCReadMapping extends HttpServlet {
+
+    @Inject
+    @TradeJDBC
+    TradeServices trade;
+
+    @Resource(lookup = "jdbc/TradeDataSource")
+    //@Resource(lookup = "java:/jdbc/TradeDataSource")
+    private DataSource datasource;
+
+    private static final long serialVersionUID = 4179534920843610124L;
+    private static String initTime;
+    private static int hitCount;
+
+    private static final String selectAllQuoteSQL = "select * from quoteejb q where q.symbol=?";
+
+    private static final String selectAllHoldingsSQL = "select * from holdingejb h where h.account_accountid = "
+            + "(select a.accountid from accountejb a where a.profile_userid = ?)";
+
+    private static final String selectAllOrdersSQL = "select * from orderejb o where o.account_accountid = "
+            + "(select a.accountid from accountejb a where a.profile_userid = ?)";
+
+    /**
+     * forwards post requests to the doGet method
+     */
+    @Override
+    public void doPost(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
+        doGet(req, res);
+    }
+
+    /**
+     * this is the main method of the servlet that will service all get
+     * requests.
+     *
+     * @param request
+     *            HttpServletRequest
+     * @param responce
+     *            HttpServletResponce
+     **/
+    @Override
+    public void doGet(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
+        res.setContentType("text/html");
+        java.io.PrintWriter out = res.getWriter();
+        String symbol = TradeConfig.rndSymbol();
+        String userID = TradeConfig.getUserID();
+        StringBuffer output = new StringBuffer(100);
+
+        try {
+            int iter = TradeConfig.getPrimIterations();
+            long[] selectAll = new long[3];
+            long[] tradeDirect = new long[3];
+
+            long start = System.nanoTime();
+            for (int ii = 0; ii < iter; ii++) {
+                getQuoteSelectAll(symbol);
+            }
+            selectAll[0] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < iter; ii++) {
+                trade.getQuote(symbol);
+            }
+            tradeDirect[0] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < iter; ii++) {
+                getHoldingsSelectAll(userID);
+            }
+            selectAll[1] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < iter; ii++) {
+                trade.getHoldings(userID);
+            }
+            tradeDirect[1] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < iter; ii++) {
+                getOrdersSelectAll(userID);
+            }
+            selectAll[2] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < iter; ii++) {
+                trade.getOrders(userID);
+            }
+            tradeDirect[2] = System.nanoTime() - start;
+
+            output.append("<html><head><title>Ping JDBC Read Mapping</title></head>"
+                    + "<body><HR><FONT size=\"+2\" color=\"#000066\">Ping JDBC Read Mapping:</FONT><HR><FONT size=\"-1\" color=\"#000066\">Init time : "
+                    + initTime);
+            hitCount++;
+            output.append("<BR>Hit Count: " + hitCount);
+            output.append("<BR>Iterations: " + iter + " symbol: " + symbol + " userID: " + userID);
+            output.append("<HR><TABLE border=\"1\"><TR><TH>Operation</TH><TH>select * / by name (us/op)</TH><TH>TradeDirect (us/op)</TH></TR>");
+            String[] operations = { "getQuote", "getHoldings", "getOrders" };
+            for (int i = 0; i < operations.length; i++) {
+                output.append("<TR><TD>" + operations[i] + "</TD><TD>" + (selectAll[i] / 1000 / iter) + "</TD><TD>" + (tradeDirect[i] / 1000 / iter)
+                        + "</TD></TR>");
+            }
+            output.append("</TABLE><HR></body></html>");
+            out.println(output.toString());
+        } catch (Exception e) {
+            Log.error(e, "PingJDBCReadMapping -- error reading data for symbol " + symbol + " user " + userID);
+            res.sendError(500, "PingJDBCReadMapping Exception caught: " + e.toString());
+        }
+
+    }
+
+    private QuoteDataBean getQuoteSelectAll(String symbol) throws Exception {
+        QuoteDataBean quoteData = null;
+        try (Connection conn = datasource.getConnection(); PreparedStatement stmt = conn.prepareStatement(selectAllQuoteSQL)) {
+            stmt.setString(1, symbol);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                quoteData = new QuoteDataBean(rs.getString("symbol"), rs.getString("companyName"), rs.getDouble("volume"), rs.getBigDecimal("price"),
+                        rs.getBigDecimal("open1"), rs.getBigDecimal("low"), rs.getBigDecimal("high"), rs.getDouble("change1"));
+            }
+        }
+        return quoteData;
+    }
+
+    private Collection<HoldingDataBean> getHoldingsSelectAll(String userID) throws Exception {
+        Collection<HoldingDataBean> holdings = new ArrayList<HoldingDataBean>();
+        try (Connection conn = datasource.getConnection(); PreparedStatement stmt = conn.prepareStatement(selectAllHoldingsSQL)) {
+            stmt.setString(1, userID);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                holdings.add(new HoldingDataBean(rs.getInt("holdingID"), rs.getDouble("quantity"), rs.getBigDecimal("purchasePrice"),
+                        rs.getTimestamp("purchaseDate"), rs.getString("quote_symbol")));
+            }
+        }
+        return holdings;
+    }
+
+    private Collection<OrderDataBean> getOrdersSelectAll(String userID) throws Exception {
+        Collection<OrderDataBean> orders = new ArrayList<OrderDataBean>();
+        try (Connection conn = datasource.getConnection(); PreparedStatement stmt = conn.prepareStatement(selectAllOrdersSQL)) {
+            stmt.setString(1, userID);
+            ResultSet rs = stmt.executeQuery();
+            int i = 0;
+            while ((rs.next()) && (i++ < 5)) {
+                orders.add(new OrderDataBean(rs.getInt("orderID"), rs.getString("orderType"), rs.getString("orderStatus"), rs.getTimestamp("openDate"),
+                        rs.getTimestamp("completionDate"), rs.getDouble("quantity"), rs.getBigDecimal("price"), rs.getBigDecimal("orderFee"),
+                        rs.getString("quote_symbol")));
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * returns a string of information about the servlet
+     *
+     * @return info String: contains info about the servlet
+     **/
+    @Override
+    public String getServletInfo() {
+        return "Compares select * with by-name mapping against the TradeDirect column list and by-index mapping";
+    }
+
+    /**
+     * called when the class is loaded to initialize the servlet
+     *
+     * @param config
+     *            ServletConfig:
+     **/
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        hitCount = 0;
+        initTime = new java.util.Date().toString();
+    }
+}
@@ -16,6 +16,8 @@
 package com.ibm.websphere.samples.daytrader.web.servlet;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.servlet.ServletConfig;
@@ -29,7 +31,10 @@ import javax.servlet.http.HttpServletResponse;
 import com.ibm.websphere.samples.daytrader.beans.RunStatsDataBean;
 import com.ibm.websphere.samples.daytrader.impl.direct.TradeDirectDBUtils;
 import com.ibm.websphere.samples.daytrader.interfaces.Trace;
+import com.ibm.websphere.samples.daytrader.util.LatencyHistogram;
 import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.MDBStats;
+import com.ibm.websphere.samples.daytrader.util.TimerStat;
 import com.ibm.websphere.samples.daytrader.util.TradeConfig;
 
 
@@ -91,6 +96,58 @@ public class TradeConfigServlet extends HttpServlet {
 
   }
 
+  /**
+   * Dump the MDB and order latency statistics, then optionally reset them.
+   * Recording continues while the stats are read or reset.
+   */
+  void doMDBStats(HttpServletRequest req, HttpServletResponse resp) throws Exception {
+    int window = TimerStat.WINDOW_SECONDS;
+    String parm = req.getParameter("window");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        window = Integer.parseInt(parm);
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set window, error on parsing int " + parm,
+            "reverting to " + window);
+      }
+    }
+    boolean reset = Boolean.parseBoolean(req.getParameter("reset"));
+
+    Map<String, TimerStat> stats = MDBStats.getInstance().getStats();
+    Map<String, TimerStat> counts = MDBStats.getInstance().getCountStats();
+    if (reset) {
+      MDBStats.getInstance().reset();
+    }
+
+    PrintWriter out = resp.getWriter();
+    out.println("<HTML><HEAD><TITLE>DayTrader Latency Statistics</TITLE></HEAD><BODY>");
+    out.println("<FONT size=\"+2\" color=\"#000066\">DayTrader Latency Statistics (milliseconds)</FONT><HR>");
+    printLatencyTable(out, "Since last reset", stats, 0);
+    printLatencyTable(out, "Last " + Math.min(window, TimerStat.WINDOW_SECONDS) + " seconds", stats, window);
+    if (!counts.isEmpty()) {
+      out.println("<HR><FONT size=\"+2\" color=\"#000066\">DayTrader Count Statistics (orders)</FONT><BR>");
+      printLatencyTable(out, "Since last reset", counts, 0);
+      printLatencyTable(out, "Last " + Math.min(window, TimerStat.WINDOW_SECONDS) + " seconds", counts, window);
+    }
+    if (reset) {
+      out.println("<BR><B>Statistics reset</B>");
+    }
+    out.println("<BR><A href=\"config?action=mdbStats\">Refresh</A> &nbsp; <A href=\"config?action=mdbStats&reset=true\">Dump and reset</A>");
+    out.println("</BODY></HTML>");
+  }
+
+  private void printLatencyTable(PrintWriter out, String title, Map<String, TimerStat> stats, int window) {
+    out.println("<P><B>" + title + "</B><TABLE border=\"1\" style=\"font-size: smaller\">");
+    out.println("<TR><TH>Type</TH><TH>Count</TH><TH>Min</TH><TH>Mean</TH><TH>p50</TH><TH>p99</TH><TH>p99.9</TH><TH>Max</TH></TR>");
+    for (Map.Entry<String, TimerStat> entry : stats.entrySet()) {
+      LatencyHistogram h = (window > 0) ? entry.getValue().getWindow(window) : entry.getValue().getHistogram();
+      out.println("<TR><TD>" + entry.getKey() + "</TD><TD>" + h.getCount() + "</TD><TD>" + h.getMin() + "</TD><TD>"
+          + String.format("%.1f", h.getMean()) + "</TD><TD>" + h.getValueAtPercentile(50) + "</TD><TD>" + h.getValueAtPercentile(99)
+          + "</TD><TD>" + h.getValueAtPercentile(99.9) + "</TD><TD>" + h.getMax() + "</TD></TR>");
+    }
+    out.println("</TABLE></P>");
+  }
+
   /**
    * Update Trade runtime configuration paramaters
    * Creation date: (2/8/2000 3:44:24 PM)
@@ -166,6 +223,18 @@ public class TradeConfigServlet extends HttpServlet {
     }
     currentConfigStr += "\t\tMarket Summary Interval:\t" + TradeConfig.getMarketSummaryInterval() + "\n";
 
+    parm = req.getParameter("webSocketBroadcastInterval");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setWebSocketBroadcastInterval(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set webSocketBroadcastInterval, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getWebSocketBroadcastInterval());
+
+      }
+    }
+    currentConfigStr += "\t\tWebSocket Broadcast Interval:\t" + TradeConfig.getWebSocketBroadcastInterval() + "\n";
+
     parm = req.getParameter("primIterations");
     if ((parm != null) && (parm.length() > 0)) {
       try {
@@ -178,6 +247,90 @@ public class TradeConfigServlet extends HttpServlet {
     }
     currentConfigStr += "\t\tPrimitive Iterations:\t\t" + TradeConfig.getPrimIterations() + "\n";
 
+    parm = req.getParameter("QuoteCacheSize");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setQuoteCacheSize(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set quoteCacheSize, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getQuoteCacheSize());
+
+      }
+    }
+    currentConfigStr += "\t\tQuote Cache Size:\t\t" + TradeConfig.getQuoteCacheSize() + "\n";
+
+    parm = req.getParameter("QuoteCacheFlushInterval");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setQuoteCacheFlushInterval(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set quoteCacheFlushInterval, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getQuoteCacheFlushInterval());
+
+      }
+    }
+    currentConfigStr += "\t\tQuote Cache Flush Interval:\t" + TradeConfig.getQuoteCacheFlushInterval() + "\n";
+
+    parm = req.getParameter("AsyncOrderBatchSize");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setAsyncOrderBatchSize(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set asyncOrderBatchSize, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getAsyncOrderBatchSize());
+
+      }
+    }
+    currentConfigStr += "\t\tAsync Order Batch Size:\t\t" + TradeConfig.getAsyncOrderBatchSize() + "\n";
+
+    parm = req.getParameter("AsyncOrderBatchWait");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setAsyncOrderBatchWait(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set asyncOrderBatchWait, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getAsyncOrderBatchWait());
+
+      }
+    }
+    currentConfigStr += "\t\tAsync Order Batch Wait:\t\t" + TradeConfig.getAsyncOrderBatchWait() + "\n";
+
+    parm = req.getParameter("BuildDBBatchSize");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setBuildDBBatchSize(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set buildDBBatchSize, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getBuildDBBatchSize());
+
+      }
+    }
+    currentConfigStr += "\t\tPopulate Batch Size:\t\t" + TradeConfig.getBuildDBBatchSize() + "\n";
+
+    parm = req.getParameter("BuildDBCommitInterval");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setBuildDBCommitInterval(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set buildDBCommitInterval, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getBuildDBCommitInterval());
+
+      }
+    }
+    currentConfigStr += "\t\tPopulate Commit Interval:\t" + TradeConfig.getBuildDBCommitInterval() + "\n";
+
+    parm = req.getParameter("BuildDBThreads");
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        TradeConfig.setBuildDBThreads(Integer.parseInt(parm));
+      } catch (Exception e) {
+        Log.error(e, "TradeConfigServlet: minor exception caught", "trying to set buildDBThreads, error on parsing int " + parm,
+            "reverting to current value " + TradeConfig.getBuildDBThreads());
+
+      }
+    }
+    currentConfigStr += "\t\tPopulate Threads:\t\t" + TradeConfig.getBuildDBThreads() + "\n";
+
     String enablePublishQuotePriceChange = req.getParameter("EnablePublishQuotePriceChange");
 
     if (enablePublishQuotePriceChange != null)
@@ -232,6 +385,9 @@ public class TradeConfigServlet extends HttpServlet {
       } else if (action.equals("updateConfig")) {
         doConfigUpdate(req, resp);
         result = "<B><BR>DayTrader Configuration Updated</BR></B>";
+      } else if (action.equals("mdbStats")) {
+        doMDBStats(req, resp);
+        return;
       } else if (action.equals("resetTrade")) {
         doResetTrade(req, resp, "");
         return;
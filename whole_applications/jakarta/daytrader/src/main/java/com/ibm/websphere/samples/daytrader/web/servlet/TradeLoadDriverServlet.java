@@ -0,0 +1,148 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.web.servlet;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.ibm.websphere.samples.daytrader.util.LatencyHistogram;
+import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+import com.ibm.websphere.samples.daytrader.util.TradeLoadDriver;
+
+/**
+ * TradeLoadDriverServlet starts, stops and reports on runs of the in-process
+ * {@link TradeLoadDriver}.
+ *
+ * action=start takes users (at most {@link TradeLoadDriver#MAX_USERS}),
+ * rampUp (seconds), duration (seconds) and thinkTime (mean, in
+ * milliseconds). Runs use the configured runtime mode. action=stop ends the
+ * current run early. Any other request shows the current or last run.
+ */
+@WebServlet(name = "TradeLoadDriverServlet", urlPatterns = { "/loaddriver" })
+public class TradeLoadDriverServlet extends HttpServlet {
+
+  private static final long serialVersionUID = -3853203434283930475L;
+
+  @Inject
+  private TradeLoadDriver loadDriver;
+
+  @Override
+  public void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    performTask(req, resp);
+  }
+
+  @Override
+  public void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    performTask(req, resp);
+  }
+
+  public void performTask(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    String status = "";
+    String action = req.getParameter("action");
+    if ("start".equals(action)) {
+      int users = Math.max(1, Math.min(getIntParameter(req, "users", 20), TradeLoadDriver.MAX_USERS));
+      int rampUp = Math.max(0, getIntParameter(req, "rampUp", 10));
+      int duration = Math.max(1, getIntParameter(req, "duration", 60));
+      int thinkTime = Math.max(0, getIntParameter(req, "thinkTime", 0));
+      if (loadDriver.start(users, rampUp, duration, thinkTime)) {
+        status = "Run started";
+      } else {
+        status = "A run is already in progress";
+      }
+    } else if ("stop".equals(action)) {
+      loadDriver.stop();
+      status = "Stopping run";
+    }
+
+    resp.setContentType("text/html");
+    PrintWriter out = resp.getWriter();
+    TradeLoadDriver.Run run = loadDriver.getRun();
+    out.println("<HTML><HEAD><TITLE>DayTrader Load Driver</TITLE>");
+    if (loadDriver.isRunning()) {
+      out.println("<META http-equiv=\"refresh\" content=\"5; url=loaddriver\">");
+    }
+    out.println("</HEAD><BODY>");
+    out.println("<FONT size=\"+2\" color=\"#000066\">DayTrader Load Driver</FONT><BR>"
+        + "<FONT size=\"-1\">Replays the TradeScenarioServlet mix in-process, latencies in microseconds</FONT><HR>");
+    if (status.length() > 0) {
+      out.println("<B>" + status + "</B><BR>");
+    }
+
+    if (run == null) {
+      out.println("No run has been started.<BR>");
+    } else {
+      String state = loadDriver.isRunning() ? (run.isRampingUp() ? "ramping up" : "running") : "finished";
+      out.println("<P>" + run.getRunTimeModeName() + ": " + run.getUsers() + " users (" + run.getActiveUsers() + " active), think time "
+          + run.getThinkTimeMs() + " ms, " + state + ", " + String.format("%.1f", run.getMeasuredSecs()) + " of " + run.getDurationSecs()
+          + " seconds measured</P>");
+      printResults(out, run);
+    }
+
+    out.println("<FORM action=\"loaddriver\" method=\"get\"><INPUT type=\"hidden\" name=\"action\" value=\"start\">");
+    out.println("Runtime mode " + TradeConfig.getRunTimeModeNames()[TradeConfig.getRunTimeMode()]
+        + " Users (max " + TradeLoadDriver.MAX_USERS + ") <INPUT size=\"5\" name=\"users\" value=\"20\"> Ramp-up (s) <INPUT size=\"5\" name=\"rampUp\" value=\"10\">"
+        + " Duration (s) <INPUT size=\"5\" name=\"duration\" value=\"60\"> Think time (ms) <INPUT size=\"5\" name=\"thinkTime\" value=\"0\">"
+        + " <INPUT type=\"submit\" value=\"Start\"></FORM>");
+    out.println("<A href=\"loaddriver\">Refresh</A> &nbsp; <A href=\"loaddriver?action=stop\">Stop</A> &nbsp; "
+        + "<A href=\"config?action=resetTrade\">Reset DayTrader</A> (before each run)");
+    out.println("</BODY></HTML>");
+  }
+
+  private void printResults(PrintWriter out, TradeLoadDriver.Run run) {
+    double secs = run.getMeasuredSecs();
+    LatencyHistogram all = new LatencyHistogram();
+    long errors = 0;
+
+    out.println("<TABLE border=\"1\" style=\"font-size: smaller\">");
+    out.println("<TR><TH>Action</TH><TH>Count</TH><TH>Errors</TH><TH>Ops/sec</TH><TH>Min</TH><TH>Mean</TH><TH>p50</TH><TH>p99</TH>"
+        + "<TH>p99.9</TH><TH>Max</TH></TR>");
+    for (TradeLoadDriver.ActionStat stat : run.getStats()) {
+      printRow(out, stat.getName(), stat.getLatency(), stat.getErrors(), secs);
+      all.add(stat.getLatency());
+      errors += stat.getErrors();
+    }
+    printRow(out, "<B>total</B>", all, errors, secs);
+    out.println("</TABLE>");
+  }
+
+  private void printRow(PrintWriter out, String name, LatencyHistogram h, long errors, double secs) {
+    out.println("<TR><TD>" + name + "</TD><TD>" + h.getCount() + "</TD><TD>" + errors + "</TD><TD>"
+        + String.format("%.1f", (secs > 0) ? h.getCount() / secs : 0.0) + "</TD><TD>" + h.getMin() + "</TD><TD>"
+        + String.format("%.1f", h.getMean()) + "</TD><TD>" + h.getValueAtPercentile(50) + "</TD><TD>" + h.getValueAtPercentile(99)
+        + "</TD><TD>" + h.getValueAtPercentile(99.9) + "</TD><TD>" + h.getMax() + "</TD></TR>");
+  }
+
+  private int getIntParameter(HttpServletRequest req, String name, int defaultValue) {
+    String parm = req.getParameter(name);
+    if ((parm != null) && (parm.length() > 0)) {
+      try {
+        return Integer.parseInt(parm);
+      } catch (Exception e) {
+        Log.error(e, "TradeLoadDriverServlet: minor exception caught", "trying to set " + name + ", error on parsing int " + parm,
+            "reverting to " + defaultValue);
+      }
+    }
+    return defaultValue;
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * (C) Copyright IBM Corporation 2019.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.websphere.samples.daytrader.web.websocket;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Priority;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.ObservesAsync;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.interceptor.Interceptor;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import com.ibm.websphere.samples.daytrader.interfaces.MarketSummaryUpdate;
+import com.ibm.websphere.samples.daytrader.interfaces.QuotePriceChange;
+import com.ibm.websphere.samples.daytrader.interfaces.TradeServices;
+import com.ibm.websphere.samples.daytrader.util.Log;
+import com.ibm.websphere.samples.daytrader.util.RecentQuotePriceChangeList;
+import com.ibm.websphere.samples.daytrader.util.TradeConfig;
+import com.ibm.websphere.samples.daytrader.util.TradeRunTimeModeLiteral;
+
+/** This class fans the market summary and recent quote price changes out to the
+ *  MarketSummary WebSocket sessions.
+ *
+ *  CDI events only mark a frame as dirty. At most once per broadcast interval the
+ *  dirty frames are serialized a single time and the same text is offered to every
+ *  session. Each session has at most one send in flight and keeps only the latest
+ *  unsent frame of each kind, so a slow client skips stale frames instead of
+ *  queueing them.
+ **/
+
+@ApplicationScoped
+public class MarketSummaryBroadcaster {
+
+  @Inject
+  RecentQuotePriceChangeList recentQuotePriceChangeList;
+
+  @Inject
+  @Any
+  Instance<TradeServices> services;
+
+  @Resource
+  private ManagedScheduledExecutorService mses;
+
+  private final ConcurrentHashMap<Session, SessionSender> senders = new ConcurrentHashMap<Session, SessionSender>();
+
+  private final AtomicBoolean summaryDirty = new AtomicBoolean(false);
+  private final AtomicBoolean recentDirty = new AtomicBoolean(false);
+  private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+  private volatile long lastFlush = 0;
+
+  public void register(Session session) {
+    senders.put(session, new SessionSender(session));
+  }
+
+  public void unregister(Session session) {
+    senders.remove(session);
+  }
+
+  public void onStockChange(@ObservesAsync @Priority(Interceptor.Priority.APPLICATION) @QuotePriceChange String event) {
+    Log.trace("MarketSummaryBroadcaster:onStockChange");
+    recentDirty.set(true);
+    scheduleFlush();
+  }
+
+  public void onMarketSummaryUpdate(@ObservesAsync @Priority(Interceptor.Priority.APPLICATION) @MarketSummaryUpdate String event) {
+    Log.trace("MarketSummaryBroadcaster:onMarketSummaryUpdate");
+    summaryDirty.set(true);
+    scheduleFlush();
+  }
+
+  /**
+   * Send the current market summary to a single session, on request from the client
+   */
+  public void sendMarketSummary(Session session) throws Exception {
+    SessionSender sender = senders.get(session);
+    if (sender != null) {
+      sender.offer(sender.summary, marketSummaryFrame());
+    }
+  }
+
+  /**
+   * Send the recent quote price changes to a single session, on request from the client
+   */
+  public void sendRecentQuotePriceChange(Session session) {
+    SessionSender sender = senders.get(session);
+    if (sender != null && !recentQuotePriceChangeList.isEmpty()) {
+      sender.offer(sender.recent, recentQuotePriceChangeFrame());
+    }
+  }
+
+  private void scheduleFlush() {
+    if (senders.isEmpty() || !flushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    long delay = Math.max(0, lastFlush + TradeConfig.getWebSocketBroadcastInterval() - System.currentTimeMillis());
+    try {
+      mses.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      flushScheduled.set(false);
+      Log.error(e, "MarketSummaryBroadcaster:scheduleFlush -- unable to schedule broadcast");
+    }
+  }
+
+  private void flush() {
+    lastFlush = System.currentTimeMillis();
+    // Clear before reading the flags; an event arriving during the flush schedules the next one
+    flushScheduled.set(false);
+
+    try {
+      if (summaryDirty.getAndSet(false)) {
+        String frame = marketSummaryFrame();
+        for (SessionSender sender : senders.values()) {
+          sender.offer(sender.summary, frame);
+        }
+      }
+      if (recentDirty.getAndSet(false) && !recentQuotePriceChangeList.isEmpty()) {
+        String frame = recentQuotePriceChangeFrame();
+        for (SessionSender sender : senders.values()) {
+          sender.offer(sender.recent, frame);
+        }
+      }
+    } catch (Exception e) {
+      Log.error(e, "MarketSummaryBroadcaster:flush -- error broadcasting market summary");
+    }
+  }
+
+  private String marketSummaryFrame() throws Exception {
+    TradeServices tradeAction = services.select(new TradeRunTimeModeLiteral(TradeConfig.getRunTimeModeNames()[TradeConfig.getRunTimeMode()])).get();
+    String frame = tradeAction.getMarketSummary().toJSON().toString();
+    Log.trace("MarketSummaryBroadcaster:marketSummaryFrame -- sending -->" + frame + "<--");
+    return frame;
+  }
+
+  private String recentQuotePriceChangeFrame() {
+    return QuotePriceChangeListEncoder.toJson(recentQuotePriceChangeList.recentList());
+  }
+
+  /** Latest unsent frames for one session, sent one at a time */
+  private final class SessionSender implements SendHandler {
+    private final Session session;
+    private final AtomicReference<String> summary = new AtomicReference<String>();
+    private final AtomicReference<String> recent = new AtomicReference<String>();
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+
+    SessionSender(Session session) {
+      this.session = session;
+    }
+
+    void offer(AtomicReference<String> slot, String frame) {
+      // Replaces any frame of the same kind the session has not received yet
+      slot.set(frame);
+      drain();
+    }
+
+    private void drain() {
+      while (sending.compareAndSet(false, true)) {
+        String frame = summary.getAndSet(null);
+        if (frame == null) {
+          frame = recent.getAndSet(null);
+        }
+        if (frame == null) {
+          sending.set(false);
+          // A frame offered after the slots were read but before the flag was cleared is picked up here
+          if (summary.get() == null && recent.get() == null) {
+            return;
+          }
+          continue;
+        }
+        if (!session.isOpen()) {
+          senders.remove(session);
+          return;
+        }
+        try {
+          session.getAsyncRemote().sendText(frame, this);
+          return;
+        } catch (Exception e) {
+          sending.set(false);
+          Log.error(e, "MarketSummaryBroadcaster:drain -- unable to send to session " + session.getId());
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+      if (!result.isOK()) {
+        Log.trace("MarketSummaryBroadcaster:onResult -- send failed for session " + session.getId() + " " + result.getException());
+      }
+      sending.set(false);
+      drain();
+    }
+  }
+}
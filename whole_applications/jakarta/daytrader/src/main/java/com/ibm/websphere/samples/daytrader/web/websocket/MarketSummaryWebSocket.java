@@ -15,18 +15,9 @@
  */
 package com.ibm.websphere.samples.daytrader.web.websocket;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 
-import javax.annotation.Priority;
-import javax.enterprise.event.ObservesAsync;
-import javax.enterprise.inject.Any;
-import javax.enterprise.inject.Instance;
-import javax.interceptor.Interceptor;
 import javax.inject.Inject;
-import javax.json.JsonObject;
 import javax.websocket.CloseReason;
 import javax.websocket.EndpointConfig;
 import javax.websocket.OnClose;
@@ -36,46 +27,27 @@ import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
-
-
-import com.ibm.websphere.samples.daytrader.interfaces.MarketSummaryUpdate;
-import com.ibm.websphere.samples.daytrader.interfaces.QuotePriceChange;
-import com.ibm.websphere.samples.daytrader.interfaces.TradeServices;
 import com.ibm.websphere.samples.daytrader.util.Log;
-import com.ibm.websphere.samples.daytrader.util.RecentQuotePriceChangeList;
-import com.ibm.websphere.samples.daytrader.util.TradeConfig;
-import com.ibm.websphere.samples.daytrader.util.TradeRunTimeModeLiteral;
 
 
 /** This class is a WebSocket EndPoint that sends the Market Summary in JSON form and
- *  encodes recent quote price changes when requested or when triggered by CDI events.
+ *  encodes recent quote price changes when requested. Updates triggered by CDI events
+ *  are coalesced and fanned out by the MarketSummaryBroadcaster.
  **/
 
 @ServerEndpoint(value = "/marketsummary",encoders={QuotePriceChangeListEncoder.class},decoders={ActionDecoder.class})
 public class MarketSummaryWebSocket {
 
   @Inject
-  RecentQuotePriceChangeList recentQuotePriceChangeList;
-  
-  private TradeServices tradeAction;
+  MarketSummaryBroadcaster broadcaster;
 
-  private static final List<Session> sessions = new CopyOnWriteArrayList<>();  
   private final CountDownLatch latch = new CountDownLatch(1);
 
-  @Inject 
-  public MarketSummaryWebSocket(@Any Instance<TradeServices> services) {
-    tradeAction = services.select(new TradeRunTimeModeLiteral(TradeConfig.getRunTimeModeNames()[TradeConfig.getRunTimeMode()])).get();
-  }
-
-  // should never be used
-  public MarketSummaryWebSocket(){
-  }
-
   @OnOpen
   public void onOpen(final Session session, EndpointConfig ec) {  
     Log.trace("MarketSummaryWebSocket:onOpen -- session -->" + session + "<--");
 
-    sessions.add(session);
+    broadcaster.register(session);
     latch.countDown();
   } 
 
@@ -98,20 +70,12 @@ public class MarketSummaryWebSocket {
     if (action != null && action.equals("updateMarketSummary")) {
 
       try {
-
-        JsonObject mkSummary = tradeAction.getMarketSummary().toJSON();
-
-        Log.trace("MarketSummaryWebSocket:sendMarketSummary -- sending -->" + mkSummary + "<--");
-                
-        currentSession.getAsyncRemote().sendText(mkSummary.toString());
-        
+        broadcaster.sendMarketSummary(currentSession);
       } catch (Exception e) {
         e.printStackTrace();
       }
     } else if (action != null && action.equals("updateRecentQuotePriceChange")) {
-      if (!recentQuotePriceChangeList.isEmpty()) {
-        currentSession.getAsyncRemote().sendObject(recentQuotePriceChangeList.recentList());
-      }
+      broadcaster.sendRecentQuotePriceChange(currentSession);
     }
   }
 
@@ -124,38 +88,6 @@ public class MarketSummaryWebSocket {
   @OnClose
   public void onClose(Session session, CloseReason reason) {
     Log.trace("MarketSummaryWebSocket:onClose -- session -->" + session + "<--");
-    sessions.remove(session);
-  }
-
-  public void onStockChange(@ObservesAsync @Priority(Interceptor.Priority.APPLICATION) @QuotePriceChange String event) {
-
-    Log.trace("MarketSummaryWebSocket:onStockChange");
-
-    Iterator<Session> failSafeIterator = sessions.iterator();
-    while(failSafeIterator.hasNext()) {
-      Session s = failSafeIterator.next();
-      if (s.isOpen()) {
-        s.getAsyncRemote().sendObject(recentQuotePriceChangeList.recentList());
-      }
-    }
-  }
-
-  public void onMarketSummarytUpdate(@ObservesAsync @Priority(Interceptor.Priority.APPLICATION) @MarketSummaryUpdate String event) {
-
-    Log.trace("MarketSummaryWebSocket:onJMSMessage");
-   
-    try {
-    JsonObject mkSummary = tradeAction.getMarketSummary().toJSON();
-    
-    Iterator<Session> failSafeIterator = sessions.iterator();
-    while(failSafeIterator.hasNext()) {
-      Session s = failSafeIterator.next();
-      if (s.isOpen()) {
-        s.getAsyncRemote().sendText(mkSummary.toString());
-      }
-    }
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
+    broadcaster.unregister(session);
   }
 }
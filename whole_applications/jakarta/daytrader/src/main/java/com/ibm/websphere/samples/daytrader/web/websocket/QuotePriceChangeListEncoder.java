@@ -16,6 +16,7 @@
 package com.ibm.websphere.samples.daytrader.web.websocket;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.json.Json;
@@ -35,6 +36,11 @@ public class QuotePriceChangeListEncoder implements Encoder.Text<CopyOnWriteArra
   private static final JsonBuilderFactory jsonObjectFactory  = Json.createBuilderFactory(null);
   
   public String encode(CopyOnWriteArrayList<QuoteDataBean> list) throws EncodeException {
+    return toJson(list);
+  }
+
+  /** Encode the list once so the same text frame can be sent to every session **/
+  public static String toJson(List<QuoteDataBean> list) {
 
     JsonObjectBuilder jObjectBuilder = jsonObjectFactory.createObjectBuilder();
 
@@ -103,7 +103,9 @@
                         the DayTrader application Enterprise Java Beans
                         including Session, Entity and Message beans or
                         Direct mode which uses direct database and JMS
-                        access. See <A href="docs/tradeFAQ.html">DayTrader
+                        access. Direct (JDBC) + Quote Cache serves and
+                        updates quotes in memory and writes price changes
+                        to the database in the background. See <A href="docs/tradeFAQ.html">DayTrader
                             FAQ</A> for details.<BR></TD>
                 </TR>
                 <TR>
@@ -176,6 +178,16 @@
                         seconds between Market Summary Operations<br>
                     </TD>
                 </TR>
+                <TR>
+                    <TD align="left"><B>WebSocket Broadcast Interval</B><BR>
+                        <INPUT size="25" type="text"
+                        name="webSocketBroadcastInterval"
+                        value="<%=TradeConfig.getWebSocketBroadcastInterval()%>"></TD>
+                    <TD>Minimum number of milliseconds between Market
+                        Summary and quote price change updates pushed to
+                        WebSocket clients. Updates within the interval
+                        are combined. 0 pushes every update.</TD>
+                </TR>
                 <TR>
                     <TD align="left"><B>Primitive Iteration</B><BR>
                         <INPUT size="25" type="text"
@@ -186,6 +198,68 @@
                         this value to repeat operations multiple times
                         per web request.</TD>
                 </TR>
+                <TR>
+                    <TD align="left"><B>Quote Cache Size</B><BR>
+                        <INPUT size="25" type="text"
+                        name="QuoteCacheSize"
+                        value="<%=TradeConfig.getQuoteCacheSize()%>"></TD>
+                    <TD>Maximum number of quotes held in memory by
+                        the Direct (JDBC) + Quote Cache run-time
+                        mode.</TD>
+                </TR>
+                <TR>
+                    <TD align="left"><B>Quote Cache Flush Interval</B><BR>
+                        <INPUT size="25" type="text"
+                        name="QuoteCacheFlushInterval"
+                        value="<%=TradeConfig.getQuoteCacheFlushInterval()%>"></TD>
+                    <TD>Number of milliseconds between writes of
+                        changed quote prices and volumes to the
+                        database in the Direct (JDBC) + Quote Cache
+                        run-time mode.</TD>
+                </TR>
+                <TR>
+                    <TD align="left"><B>Async Order Batch Size</B><BR>
+                        <INPUT size="25" type="text"
+                        name="AsyncOrderBatchSize"
+                        value="<%=TradeConfig.getAsyncOrderBatchSize()%>"></TD>
+                    <TD>Maximum number of orders completed in one
+                        transaction in Asynchronous order processing
+                        mode. 1 completes each order on its own.</TD>
+                </TR>
+                <TR>
+                    <TD align="left"><B>Async Order Batch Wait</B><BR>
+                        <INPUT size="25" type="text"
+                        name="AsyncOrderBatchWait"
+                        value="<%=TradeConfig.getAsyncOrderBatchWait()%>"></TD>
+                    <TD>Maximum number of milliseconds to wait for
+                        more orders before completing a partial
+                        batch.</TD>
+                </TR>
+                <TR>
+                    <TD align="left"><B>Populate Batch Size</B><BR>
+                        <INPUT size="25" type="text"
+                        name="BuildDBBatchSize"
+                        value="<%=TradeConfig.getBuildDBBatchSize()%>"></TD>
+                    <TD>Number of rows sent per JDBC batch when
+                        populating the database. 0 populates one row at
+                        a time through the selected runtime mode.</TD>
+                </TR>
+                <TR>
+                    <TD align="left"><B>Populate Commit Interval</B><BR>
+                        <INPUT size="25" type="text"
+                        name="BuildDBCommitInterval"
+                        value="<%=TradeConfig.getBuildDBCommitInterval()%>"></TD>
+                    <TD>Number of rows inserted between commits when
+                        batch populating the database.</TD>
+                </TR>
+                <TR>
+                    <TD align="left"><B>Populate Threads</B><BR>
+                        <INPUT size="25" type="text"
+                        name="BuildDBThreads"
+                        value="<%=TradeConfig.getBuildDBThreads()%>"></TD>
+                    <TD>Number of partitions populated in parallel
+                        when batch populating the database.</TD>
+                </TR>
                 <TR>
                     <TD align="left"><INPUT type="checkbox"
                         <%=TradeConfig.getPublishQuotePriceChange() ? "checked" : ""%>
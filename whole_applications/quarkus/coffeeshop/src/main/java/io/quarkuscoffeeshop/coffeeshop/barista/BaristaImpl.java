@@ -1,5 +1,6 @@
 package io.quarkuscoffeeshop.coffeeshop.barista;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.runtime.Startup;
 import io.quarkus.vertx.ConsumeEvent;
 import io.quarkuscoffeeshop.coffeeshop.barista.api.Barista;
@@ -8,16 +9,20 @@ import io.quarkuscoffeeshop.coffeeshop.barista.domain.BaristaRepository;
 import io.quarkuscoffeeshop.coffeeshop.domain.Item;
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderIn;
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderUp;
+import io.quarkuscoffeeshop.coffeeshop.infrastructure.PrepStation;
 import io.quarkuscoffeeshop.utils.JsonUtil;
-import io.smallrye.common.annotation.Blocking;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.mutiny.core.eventbus.Message;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.Instant;
 
 import static io.quarkuscoffeeshop.coffeeshop.infrastructure.EventBusTopics.BARISTA_IN;
@@ -36,18 +41,42 @@ public class BaristaImpl {
     @Inject
     BaristaRepository baristaRepository;
 
-//    @ConsumeEvent(BARISTA_IN) @Blocking @Transactional
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "barista.baristas", defaultValue = "2")
+    int baristas;
+
+    PrepStation baristaStation;
+
+    @PostConstruct
+    void init() {
+        baristaStation = new PrepStation("barista", baristas, vertx);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        baristaStation.close();
+    }
+
+//    @ConsumeEvent(BARISTA_IN)
     public void onOrderIn(final Message message) {
         OrderIn orderIn = JsonUtil.fromJson(message.body().toString(), OrderIn.class);
         BaristaItem baristaItem = new BaristaItem();
         baristaItem.setItem(orderIn.item.toString());
         baristaItem.setTimeIn(Instant.now());
         LOGGER.debug("order in : {}", orderIn);
-        try {
-            Thread.sleep(calculateDelay(orderIn.item));
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        baristaStation.submit(
+                orderIn.item,
+                Duration.ofMillis(calculateDelay(orderIn.item)),
+                () -> orderUp(orderIn, baristaItem));
+    }
+
+    public PrepStation.Snapshot station() {
+        return baristaStation.snapshot();
+    }
+
+    private void orderUp(final OrderIn orderIn, final BaristaItem baristaItem) {
         OrderUp orderUp = new OrderUp(
                 orderIn.orderId,
                 orderIn.itemId,
@@ -56,7 +85,7 @@ public class BaristaImpl {
                 Instant.now(),
                 madeBy);
         baristaItem.setTimeUp(Instant.now());
-        baristaRepository.persist(baristaItem);
+        QuarkusTransaction.run(() -> baristaRepository.persist(baristaItem));
         eventBus.<OrderUp>publish(ORDERS_UP, JsonUtil.toJson(orderUp));
     }
 
@@ -0,0 +1,207 @@
+package io.quarkuscoffeeshop.coffeeshop.counter;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkuscoffeeshop.coffeeshop.domain.Order;
+import io.quarkuscoffeeshop.coffeeshop.domain.OrderStatus;
+import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderUp;
+import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderUpdate;
+import io.quarkuscoffeeshop.coffeeshop.infrastructure.OrderRepository;
+import io.quarkuscoffeeshop.utils.JsonUtil;
+import io.vertx.core.eventbus.EventBus;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static io.quarkuscoffeeshop.coffeeshop.infrastructure.EventBusTopics.WEB_UPDATES;
+
+/**
+ * The orders still being made, kept in memory between the OrderUps that complete their items.
+ * OrderUps are applied on one of a fixed number of lanes chosen by order id, so the OrderUps of
+ * one order are applied one after the other and never race on the same aggregate. Each lane
+ * applies whatever has queued up since its last run, saves the orders it changed in one
+ * transaction, and publishes their web updates once it commits. An order leaves the cache once it
+ * is fulfilled.
+ *
+ * <p>The version column of {@link Order} catches changes made elsewhere; the orders of the batch
+ * are then reloaded and their OrderUps applied again.
+ */
+@ApplicationScoped
+public class OpenOrders {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenOrders.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @Inject
+    EventBus eventBus;
+
+    @ConfigProperty(name = "counter.order-lanes", defaultValue = "4")
+    int laneCount;
+
+    private final Map<String, Order> cache = new ConcurrentHashMap<>();
+
+    private Lane[] lanes;
+
+    @PostConstruct
+    void init() {
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane("order-lane-" + i);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+    }
+
+    /**
+     * Applies the OrderUp on the lane of its order
+     *
+     * @param orderUp
+     * @return completes once the OrderUp is committed and its web updates published
+     */
+    public CompletableFuture<Void> apply(final OrderUp orderUp) {
+        return lanes[Math.floorMod(orderUp.orderId.hashCode(), lanes.length)].submit(orderUp);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private void flush(final List<OrderUp> orderUps) {
+        Map<String, List<OrderUp>> byOrder = orderUps.stream()
+                .collect(Collectors.groupingBy(orderUp -> orderUp.orderId, LinkedHashMap::new, Collectors.toList()));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Saved saved = QuarkusTransaction.call(() -> save(byOrder));
+                saved.orders().forEach(order -> {
+                    if (order.getOrderStatus() == OrderStatus.FULFILLED) {
+                        cache.remove(order.getOrderId());
+                    } else {
+                        cache.put(order.getOrderId(), order);
+                    }
+                });
+                saved.orderUpdates().forEach(orderUpdate -> eventBus.publish(WEB_UPDATES, JsonUtil.toJson(orderUpdate)));
+                return;
+            } catch (RuntimeException e) {
+                // the cached orders already had the OrderUps applied, start again from the database
+                byOrder.keySet().forEach(cache::remove);
+                if (!isVersionConflict(e) || attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.debug("Orders {} were changed elsewhere, applying their OrderUps again", byOrder.keySet());
+            }
+        }
+    }
+
+    private Saved save(final Map<String, List<OrderUp>> byOrder) {
+        EntityManager entityManager = orderRepository.getEntityManager();
+        List<Order> orders = new ArrayList<>();
+        List<OrderUpdate> orderUpdates = new ArrayList<>();
+
+        byOrder.forEach((orderId, pending) -> {
+            Order order = cache.get(orderId);
+            if (order == null) {
+                order = orderRepository.findById(orderId);
+            }
+            if (order == null) {
+                LOGGER.warn("Order {} not found for OrderUp; ignoring.", orderId);
+                return;
+            }
+            for (OrderUp orderUp : pending) {
+                orderUpdates.addAll(order.apply(orderUp).getOrderUpdates());
+            }
+            orders.add(entityManager.merge(order));
+        });
+
+        // version conflicts surface here rather than at commit
+        entityManager.flush();
+        LOGGER.debug("Saved {} orders with {} web updates", orders.size(), orderUpdates.size());
+        return new Saved(orders, orderUpdates);
+    }
+
+    private static boolean isVersionConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Saved(List<Order> orders, List<OrderUpdate> orderUpdates) {
+    }
+
+    private record Pending(OrderUp orderUp, CompletableFuture<Void> done) {
+    }
+
+    private final class Lane {
+
+        private final ExecutorService executor;
+        private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(String name) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private CompletableFuture<Void> submit(OrderUp orderUp) {
+            Pending next = new Pending(orderUp, new CompletableFuture<>());
+            pending.add(next);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+            return next.done();
+        }
+
+        private void drain() {
+            // cleared before polling, so an OrderUp added from here on schedules another drain
+            scheduled.set(false);
+            List<Pending> batch = new ArrayList<>();
+            for (Pending next; (next = pending.poll()) != null; ) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                flush(batch.stream().map(Pending::orderUp).collect(Collectors.toList()));
+                batch.forEach(next -> next.done().complete(null));
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not apply {} OrderUps", batch.size(), e);
+                batch.forEach(next -> next.done().completeExceptionally(e));
+            }
+        }
+    }
+}
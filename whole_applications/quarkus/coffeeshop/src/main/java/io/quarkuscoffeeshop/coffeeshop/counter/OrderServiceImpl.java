@@ -8,7 +8,6 @@ import io.quarkuscoffeeshop.coffeeshop.domain.commands.PlaceOrderCommand;
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderUp;
 import io.quarkuscoffeeshop.coffeeshop.infrastructure.OrderRepository;
 import io.quarkuscoffeeshop.utils.JsonUtil;
-import io.smallrye.common.annotation.Blocking;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.mutiny.core.eventbus.Message;
@@ -35,6 +34,9 @@ public class OrderServiceImpl implements OrderService {
     @Inject
     OrderRepository orderRepository;
 
+    @Inject
+    OpenOrders openOrders;
+
     @Transactional
     public void onOrderIn(final PlaceOrderCommand placeOrderCommand) {
         LOGGER.debug("PlaceOrderCommand received: {}", placeOrderCommand);
@@ -64,22 +66,15 @@ public class OrderServiceImpl implements OrderService {
         orderRepository.persistAndFlush(order);
     }
 
+    // Applied on the order's lane in OpenOrders, which also publishes the web updates and logs failures
     @Override
     @ConsumeEvent(ORDERS_UP)
-    @Blocking
-    @Transactional
     public void onOrderUp(final Message message) {
 
         LOGGER.debug("order up message: {}", message.body());
         OrderUp orderUp = fromJsonToOrderUp(message.body().toString());
 
-        Order order = orderRepository.findById(orderUp.orderId);
-        OrderEventResult orderEventResult = order.apply(orderUp);
-        orderRepository.persistAndFlush(order);
-        orderEventResult.getOrderUpdates().forEach(orderUpdate -> {
-            eventBus.publish(WEB_UPDATES, JsonUtil.toJson(orderUpdate));
-        });
-
+        openOrders.apply(orderUp);
     }
 
     private OrderEventResult applyOrderUp2(final OrderUp orderUp) {
@@ -42,6 +42,12 @@ public class Order extends PanacheEntityBase {
     @Enumerated(EnumType.STRING)
     private Location location;
 
+    // Guards against two writers applying OrderUps to the same order. The default gives the rows
+    // from before the column existed a version when the schema is updated.
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @OneToMany(fetch = FetchType.EAGER, mappedBy = "order", cascade = CascadeType.ALL)
     private List<LineItem> baristaLineItems;
 
@@ -292,6 +298,10 @@ public class Order extends PanacheEntityBase {
         return orderId;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setOrderId(String orderId) {
         this.orderId = orderId;
     }
@@ -0,0 +1,233 @@
+package io.quarkuscoffeeshop.coffeeshop.infrastructure;
+
+import io.quarkuscoffeeshop.coffeeshop.domain.Item;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A station of a fixed number of baristas or cooks, modelled as timed work slots. A ticket takes a
+ * free slot, or waits in line for one, and holds it until its prep time has elapsed on a Vert.x
+ * timer. No thread is blocked while an item is being made, so a station can hold thousands of
+ * tickets in flight; only delivering the item runs on a worker thread.
+ *
+ * <p>Keeps the number of tickets waiting and in progress, and the wait and prep latency per item.
+ */
+public class PrepStation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrepStation.class);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String name;
+    private final int slots;
+    private final Vertx vertx;
+
+    // Guarded by this
+    private final Queue<Ticket> waiting = new ArrayDeque<>();
+    private int busy = 0;
+
+    private final Map<Item, Latency> waitLatency = new ConcurrentHashMap<>();
+    private final Map<Item, Latency> prepLatency = new ConcurrentHashMap<>();
+
+    public PrepStation(final String name, final int slots, final Vertx vertx) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("A station needs at least one slot, was " + slots);
+        }
+        this.name = name;
+        this.slots = slots;
+        this.vertx = vertx;
+    }
+
+    /**
+     * Makes an item once a slot is free and its prep time has elapsed, then runs {@code onReady} on
+     * a worker thread.
+     *
+     * @return completes once {@code onReady} has run, or with its failure
+     */
+    public CompletableFuture<Void> submit(final Item item, final Duration prepTime, final Runnable onReady) {
+        Ticket ticket = new Ticket(item, prepTime, onReady);
+
+        synchronized (this) {
+            if (busy == slots) {
+                waiting.add(ticket);
+                LOGGER.debug("{} station busy, {} waiting", name, waiting.size());
+                return ticket.done;
+            }
+            busy++;
+        }
+
+        start(ticket);
+        return ticket.done;
+    }
+
+    private void start(final Ticket ticket) {
+        long startedAt = System.nanoTime();
+        latency(waitLatency, ticket.item).record(startedAt - ticket.submittedAt);
+
+        // Vert.x timers fire after at least a millisecond
+        vertx.setTimer(Math.max(1, ticket.prepTime.toMillis()), id -> vertx.executeBlocking(promise -> {
+            finish(ticket, startedAt);
+            promise.complete();
+        }, false));
+    }
+
+    private void finish(final Ticket ticket, final long startedAt) {
+        RuntimeException failure = null;
+        try {
+            ticket.onReady.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("{} station failed to deliver {}", name, ticket.item, e);
+            failure = e;
+        }
+
+        // Free the slot first, so whoever waits on the ticket sees the station as it is after it.
+        latency(prepLatency, ticket.item).record(System.nanoTime() - startedAt);
+        release();
+
+        if (failure == null) {
+            ticket.done.complete(null);
+        } else {
+            ticket.done.completeExceptionally(failure);
+        }
+    }
+
+    // Hands the slot to the next ticket in line, or frees it.
+    private void release() {
+        Ticket next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                busy--;
+                // Wakes up drain()
+                notifyAll();
+                return;
+            }
+        }
+        start(next);
+    }
+
+    private static Latency latency(final Map<Item, Latency> latencies, final Item item) {
+        return latencies.computeIfAbsent(item, i -> new Latency());
+    }
+
+    public synchronized int getQueueLength() {
+        return waiting.size();
+    }
+
+    public synchronized int getInProgress() {
+        return busy;
+    }
+
+    public Snapshot snapshot() {
+        Map<Item, ItemLatency> items = new EnumMap<>(Item.class);
+        prepLatency.forEach((item, prep) -> items.put(item, new ItemLatency(
+                prep.count.sum(),
+                latency(waitLatency, item).meanMillis(),
+                latency(waitLatency, item).maxMillis(),
+                prep.meanMillis(),
+                prep.maxMillis())));
+
+        synchronized (this) {
+            return new Snapshot(name, slots, busy, waiting.size(), items);
+        }
+    }
+
+    /**
+     * Waits until every ticket taken so far has been delivered, or the timeout has passed.
+     *
+     * @return true if the station is idle
+     */
+    public synchronized boolean drain(final Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (busy > 0) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return true;
+    }
+
+    /**
+     * Makes the tickets still in progress or waiting before the application stops, they only live
+     * in memory and would be lost otherwise.
+     */
+    public void close() {
+        try {
+            if (!drain(DRAIN_TIMEOUT)) {
+                LOGGER.warn("{} station closing with {} in progress and {} waiting",
+                        name, getInProgress(), getQueueLength());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PrepStation{" +
+                "name='" + name + '\'' +
+                ", slots=" + slots +
+                ", inProgress=" + getInProgress() +
+                ", queueLength=" + getQueueLength() +
+                '}';
+    }
+
+    public record Snapshot(String name, int slots, int inProgress, int queueLength,
+                           Map<Item, ItemLatency> items) {
+    }
+
+    public record ItemLatency(long made, double meanWaitMillis, double maxWaitMillis,
+                              double meanPrepMillis, double maxPrepMillis) {
+    }
+
+    private static final class Ticket {
+
+        final Item item;
+        final Duration prepTime;
+        final Runnable onReady;
+        final long submittedAt = System.nanoTime();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Ticket(final Item item, final Duration prepTime, final Runnable onReady) {
+            this.item = item;
+            this.prepTime = prepTime;
+            this.onReady = onReady;
+        }
+    }
+
+    private static final class Latency {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(final long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        double meanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (n * 1e6);
+        }
+
+        double maxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+    }
+}
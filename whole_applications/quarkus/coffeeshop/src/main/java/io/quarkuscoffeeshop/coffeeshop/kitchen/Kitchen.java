@@ -2,9 +2,12 @@ package io.quarkuscoffeeshop.coffeeshop.kitchen;
 
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderIn;
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderUp;
+import io.quarkuscoffeeshop.coffeeshop.infrastructure.PrepStation;
 import io.vertx.mutiny.core.eventbus.Message;
 
 public interface Kitchen {
 
     public void onOrderIn(Message message);
+
+    public PrepStation.Snapshot station();
 }
@@ -1,21 +1,26 @@
 package io.quarkuscoffeeshop.coffeeshop.kitchen;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.vertx.ConsumeEvent;
 import io.quarkuscoffeeshop.coffeeshop.domain.Item;
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderIn;
 import io.quarkuscoffeeshop.coffeeshop.domain.valueobjects.OrderUp;
+import io.quarkuscoffeeshop.coffeeshop.infrastructure.PrepStation;
 import io.quarkuscoffeeshop.coffeeshop.kitchen.domain.KitchenOrder;
 import io.quarkuscoffeeshop.coffeeshop.kitchen.domain.KitchenOrderRepository;
 import io.quarkuscoffeeshop.utils.JsonUtil;
-import io.smallrye.common.annotation.Blocking;
+import io.vertx.core.Vertx;
 import io.vertx.mutiny.core.eventbus.EventBus;
 import io.vertx.mutiny.core.eventbus.Message;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.Instant;
 
 import static io.quarkuscoffeeshop.coffeeshop.infrastructure.EventBusTopics.*;
@@ -33,18 +38,41 @@ public class KitchenImpl implements Kitchen {
     @Inject
     KitchenOrderRepository kitchenOrderRepository;
 
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "kitchen.cooks", defaultValue = "4")
+    int cooks;
+
+    PrepStation kitchenStation;
+
+    @PostConstruct
+    void init() {
+        kitchenStation = new PrepStation("kitchen", cooks, vertx);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        kitchenStation.close();
+    }
+
     @ConsumeEvent(KITCHEN_IN)
-    @Blocking
-    @Transactional
     public void onOrderIn(final Message message) {
         OrderIn orderIn = JsonUtil.fromJson(message.body().toString(), OrderIn.class);
         KitchenOrder kitchenOrder = new KitchenOrder(orderIn.orderId, orderIn.item, Instant.now());
         LOGGER.debug("order in : {}", orderIn);
-        try {
-            Thread.sleep(calculateDelay(orderIn.item));
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        kitchenStation.submit(
+                orderIn.item,
+                Duration.ofMillis(calculateDelay(orderIn.item)),
+                () -> orderUp(orderIn, kitchenOrder));
+    }
+
+    @Override
+    public PrepStation.Snapshot station() {
+        return kitchenStation.snapshot();
+    }
+
+    private void orderUp(final OrderIn orderIn, final KitchenOrder kitchenOrder) {
         OrderUp orderUp = new OrderUp(
                 orderIn.orderId,
                 orderIn.itemId,
@@ -53,9 +81,8 @@ public class KitchenImpl implements Kitchen {
                 Instant.now(),
                 madeBy);
         kitchenOrder.setTimeUp(Instant.now());
-        kitchenOrderRepository.persist(kitchenOrder);
+        QuarkusTransaction.run(() -> kitchenOrderRepository.persist(kitchenOrder));
         eventBus.<OrderUp>publish(ORDERS_UP, JsonUtil.toJson(orderUp));
-
     }
 
     private int calculateDelay(final Item item) {
@@ -3,6 +3,8 @@ package io.quarkuscoffeeshop.coffeeshop.web;
 
 import io.quarkuscoffeeshop.coffeeshop.counter.api.OrderService;
 import io.quarkuscoffeeshop.coffeeshop.domain.commands.PlaceOrderCommand;
+import io.quarkuscoffeeshop.coffeeshop.infrastructure.PrepStation;
+import io.quarkuscoffeeshop.coffeeshop.kitchen.Kitchen;
 import io.vertx.mutiny.core.eventbus.EventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -29,6 +32,9 @@ public class CoffeeshopApiResource {
     @Inject
     EventBus eventBus;
 
+    @Inject
+    Kitchen kitchen;
+
     @POST
     @Path("/order")
     @Transactional
@@ -39,6 +45,12 @@ public class CoffeeshopApiResource {
         return Response.accepted().build();
     }
 
+    @GET
+    @Path("/kitchen/station")
+    public PrepStation.Snapshot kitchenStation() {
+        return kitchen.station();
+    }
+
     @POST
     @Path("/message")
     public void sendMessage(final String message) {
@@ -1,8 +1,6 @@
 package io.quarkuscoffeeshop.coffeeshop.web;
 
 import io.smallrye.mutiny.Multi;
-import io.vertx.mutiny.core.eventbus.EventBus;
-import io.vertx.mutiny.core.eventbus.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,9 +8,10 @@ import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
-
-import static io.quarkuscoffeeshop.coffeeshop.infrastructure.EventBusTopics.WEB_UPDATES;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
 
 @Path("/dashboard")
 public class DashboardEndpoint {
@@ -20,16 +19,22 @@ public class DashboardEndpoint {
     private static final Logger LOGGER = LoggerFactory.getLogger(DashboardEndpoint.class);
 
     @Inject
-    EventBus eventBus;
+    DashboardHub dashboardHub;
 
     @GET
     @Path("/stream")
     @Produces(MediaType.SERVER_SENT_EVENTS)
-    public Multi<String> dashboardStream() {
+    public Multi<OutboundSseEvent> dashboardStream(@Context Sse sse) {
+
+        return dashboardHub.connect(sse);
+    }
+
+    @GET
+    @Path("/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public DashboardHub.Stats dashboardStats() {
 
-        return eventBus.<String>consumer(WEB_UPDATES)
-                .toMulti()
-                .map(Message::body);
+        return dashboardHub.stats();
     }
 
 }
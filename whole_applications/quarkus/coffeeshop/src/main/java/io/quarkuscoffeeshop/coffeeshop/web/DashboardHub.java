@@ -0,0 +1,194 @@
+package io.quarkuscoffeeshop.coffeeshop.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.vertx.ConsumeEvent;
+import io.smallrye.mutiny.Multi;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.quarkuscoffeeshop.coffeeshop.infrastructure.EventBusTopics.WEB_UPDATES;
+
+/**
+ * Fans web updates out to the dashboard's SSE clients. The hub is the only consumer of
+ * WEB_UPDATES on the event bus, and each client gets its own bounded queue, so a slow browser only
+ * falls behind itself. While a client is behind, a newer update for a line item replaces the one
+ * still queued for it (conflation); a client whose queue is full of distinct items loses the
+ * oldest one.
+ *
+ * <p>New clients first get the most recent updates, and every client gets a heartbeat comment so
+ * idle connections are not closed by proxies.
+ */
+@ApplicationScoped
+public class DashboardHub {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardHub.class);
+
+    // Only reads the key of an update, the update itself is sent on as it came
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @ConfigProperty(name = "dashboard.client-queue", defaultValue = "256")
+    int clientQueue;
+
+    @ConfigProperty(name = "dashboard.replay", defaultValue = "100")
+    int replaySize;
+
+    @ConfigProperty(name = "dashboard.heartbeat", defaultValue = "15s")
+    Duration heartbeat;
+
+    // Guarded by itself
+    private final Deque<Update> replay = new ArrayDeque<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * A client's stream: the recent updates, then every update as it arrives, with heartbeats
+     *
+     * @param sse
+     * @return Multi<OutboundSseEvent>
+     */
+    public Multi<OutboundSseEvent> connect(final Sse sse) {
+        Multi<OutboundSseEvent> updates = Multi.createFrom().<String>publisher(subscriber -> {
+            Client client = new Client(subscriber);
+            synchronized (replay) {
+                replay.forEach(client::offer);
+                clients.add(client);
+            }
+            LOGGER.debug("Dashboard client joined, {} connected", clients.size());
+            subscriber.onSubscribe(client);
+        }).map(json -> sse.newEventBuilder().data(json).build());
+
+        Multi<OutboundSseEvent> heartbeats = Multi.createFrom().ticks().every(heartbeat)
+                .onOverflow().drop()
+                .map(tick -> sse.newEventBuilder().comment("heartbeat").build());
+
+        // one at a time, so updates wait in the client's queue where they can be conflated
+        return Multi.createBy().merging().withRequests(1).streams(updates, heartbeats);
+    }
+
+    public Stats stats() {
+        return new Stats(clients.size(), published.sum(), conflated.sum(), dropped.sum());
+    }
+
+    @ConsumeEvent(WEB_UPDATES)
+    public void onWebUpdate(final String json) {
+        Update update = new Update(keyOf(json), json);
+        published.increment();
+
+        List<Client> current;
+        synchronized (replay) {
+            replay.addLast(update);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            current = new ArrayList<>(clients);
+            current.forEach(client -> client.offer(update));
+        }
+        // sent outside the lock, so a client being written to does not hold up the others
+        current.forEach(Client::drain);
+    }
+
+    // One dashboard row per line item, so that is what a newer update replaces
+    private static String keyOf(final String json) {
+        try {
+            JsonNode update = OBJECT_MAPPER.readTree(json);
+            return update.path("orderId").asText() + "/" + update.path("itemId").asText();
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Not an OrderUpdate, sending as is: {}", json);
+            return json;
+        }
+    }
+
+    public record Stats(int clients, long published, long conflated, long dropped) {
+    }
+
+    private record Update(String key, String json) {
+    }
+
+    private final class Client implements Subscription {
+
+        private final Subscriber<? super String> subscriber;
+
+        // Guarded by this; insertion ordered, a replaced update keeps its place in line
+        private final Map<String, String> queued = new LinkedHashMap<>();
+        private long requested;
+        private boolean draining;
+        private boolean cancelled;
+
+        private Client(Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " updates"));
+                return;
+            }
+            requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            drain();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            queued.clear();
+            clients.remove(this);
+            LOGGER.debug("Dashboard client left, {} connected", clients.size());
+        }
+
+        private synchronized void offer(Update update) {
+            if (queued.containsKey(update.key())) {
+                conflated.increment();
+            } else if (queued.size() >= clientQueue) {
+                Iterator<String> oldest = queued.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.increment();
+            }
+            queued.put(update.key(), update.json());
+        }
+
+        private synchronized void drain() {
+            // onNext may request more on this thread; the loop below sends it
+            if (draining) {
+                return;
+            }
+            draining = true;
+            try {
+                while (!cancelled && requested > 0 && !queued.isEmpty()) {
+                    Iterator<String> oldest = queued.values().iterator();
+                    String json = oldest.next();
+                    oldest.remove();
+                    requested--;
+                    subscriber.onNext(json);
+                }
+            } finally {
+                draining = false;
+            }
+        }
+    }
+}
@@ -17,7 +17,8 @@ public class JsonUtil {
             .registerModules(new JavaTimeModule(),new Jdk8Module());
 
     public static String toJson(final Object object) {
-        LOGGER.debug("marshalling {} to JSON", object.toString());
+        // The object itself, not its toString(), so nothing is built unless debug is on
+        LOGGER.debug("marshalling {} to JSON", object);
         try {
             return objectMapper.writeValueAsString(object);
         } catch (JsonProcessingException e) {
@@ -0,0 +1,122 @@
+package io.quarkuscoffeeshop.coffeeshop.web;
+
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import org.jboss.resteasy.plugins.providers.sse.SseImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DashboardHubTest {
+
+    DashboardHub dashboardHub;
+
+    @BeforeEach
+    public void setUp() {
+        dashboardHub = new DashboardHub();
+        dashboardHub.clientQueue = 2;
+        dashboardHub.replaySize = 2;
+        // only the one sent on connect
+        dashboardHub.heartbeat = Duration.ofHours(1);
+    }
+
+    @Test
+    public void testReplaysRecentUpdatesToNewClients() {
+        dashboardHub.onWebUpdate(update("1", "A", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "B", "PLACED"));
+        dashboardHub.onWebUpdate(update("2", "A", "PLACED"));
+
+        AssertSubscriber<OutboundSseEvent> client = connect(10);
+
+        assertEquals(List.of(update("1", "B", "PLACED"), update("2", "A", "PLACED")), awaitData(client, 2));
+        assertEquals(1, dashboardHub.stats().clients());
+        assertEquals(3, dashboardHub.stats().published());
+
+        dashboardHub.onWebUpdate(update("2", "A", "FULFILLED"));
+        assertEquals(update("2", "A", "FULFILLED"), awaitData(client, 3).get(2));
+    }
+
+    @Test
+    public void testNewerUpdateReplacesTheQueuedOne() {
+        AssertSubscriber<OutboundSseEvent> client = connect(0);
+
+        // taken from the queue right away, to wait for the client's first request
+        dashboardHub.onWebUpdate(update("0", "A", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "A", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "B", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "A", "IN_PROGRESS"));
+        client.request(10);
+
+        assertEquals(List.of(
+                update("0", "A", "PLACED"),
+                update("1", "A", "IN_PROGRESS"),
+                update("1", "B", "PLACED")), awaitData(client, 3));
+        assertEquals(1, dashboardHub.stats().conflated());
+        assertEquals(0, dashboardHub.stats().dropped());
+    }
+
+    @Test
+    public void testFullQueueDropsTheOldestUpdate() {
+        AssertSubscriber<OutboundSseEvent> client = connect(0);
+
+        // taken from the queue right away, leaving room for two
+        dashboardHub.onWebUpdate(update("0", "A", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "A", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "B", "PLACED"));
+        dashboardHub.onWebUpdate(update("1", "C", "PLACED"));
+        client.request(10);
+
+        List<String> received = awaitData(client, 3);
+        assertEquals(List.of(update("1", "B", "PLACED"), update("1", "C", "PLACED")),
+                received.subList(1, 3));
+        assertEquals(1, dashboardHub.stats().dropped());
+    }
+
+    @Test
+    public void testHeartbeatIsAComment() {
+        AssertSubscriber<OutboundSseEvent> client = connect(10);
+
+        await().until(() -> !client.getItems().isEmpty());
+        assertEquals("heartbeat", client.getItems().get(0).getComment());
+    }
+
+    @Test
+    public void testCancelledClientLeaves() {
+        AssertSubscriber<OutboundSseEvent> client = connect(10);
+        assertEquals(1, dashboardHub.stats().clients());
+
+        client.cancel();
+        dashboardHub.onWebUpdate(update("1", "A", "PLACED"));
+
+        assertEquals(0, dashboardHub.stats().clients());
+        assertEquals(List.of(), data(client));
+    }
+
+    private AssertSubscriber<OutboundSseEvent> connect(long requested) {
+        return dashboardHub.connect(new SseImpl()).subscribe().withSubscriber(AssertSubscriber.create(requested));
+    }
+
+    // the heartbeats come from another thread, which may also be the one handing over the updates
+    private static List<String> awaitData(AssertSubscriber<OutboundSseEvent> client, int count) {
+        await().until(() -> data(client).size() >= count);
+        return data(client);
+    }
+
+    // the updates received, without the heartbeats
+    private static List<String> data(AssertSubscriber<OutboundSseEvent> client) {
+        return client.getItems().stream()
+                .filter(event -> event.getComment() == null)
+                .map(event -> (String) event.getData())
+                .collect(Collectors.toList());
+    }
+
+    private static String update(String orderId, String itemId, String status) {
+        return "{\"orderId\":\"" + orderId + "\",\"itemId\":\"" + itemId + "\",\"status\":\"" + status + "\"}";
+    }
+}
@@ -1,18 +1,29 @@
 package com.coffeeshop.barista.api;
 
-import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.infrastructure.PrepStation;
+import com.coffeeshop.common.utils.JsonCodec;
 import com.coffeeshop.common.valueobjects.OrderIn;
 import com.coffeeshop.common.valueobjects.OrderUp;
 
 import static com.coffeeshop.common.messaging.Topics.*;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
@@ -21,25 +32,70 @@ public class BaristaListener {
 
     private static final Logger log = LoggerFactory.getLogger(BaristaListener.class);
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    static final String LISTENER_ID = "barista-in";
 
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
 
-    public BaristaListener(KafkaTemplate<String, String> kafkaTemplate) {
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final PrepStation baristaStation;
+
+    private final KafkaListenerEndpointRegistry registry;
+
+    private final Duration prepTime;
+
+
+    public BaristaListener(KafkaTemplate<String, byte[]> kafkaTemplate,
+                           PrepStation baristaStation,
+                           KafkaListenerEndpointRegistry registry,
+                           @Value("${barista.prep-time:300ms}") Duration prepTime) {
         this.kafkaTemplate = kafkaTemplate;
+        this.baristaStation = baristaStation;
+        this.registry = registry;
+        this.prepTime = prepTime;
+
+        // Stop polling while the line is full, the tickets are left in Kafka instead
+        baristaStation.onBackpressure(
+                () -> container().ifPresent(MessageListenerContainer::pause),
+                () -> container().ifPresent(MessageListenerContainer::resume));
     }
 
-    @KafkaListener(topics = BARISTA_IN, groupId = "barista-service")
-    public void onBaristaIn(ConsumerRecord<String, String> record, @Payload String json) {
-        log.info("BARISTA_IN received: key={}, value={}", record.key(), json);
-
+    @KafkaListener(id = LISTENER_ID, topics = BARISTA_IN, groupId = "barista-service")
+    public void onBaristaIn(ConsumerRecord<String, byte[]> record, @Payload byte[] payload, Acknowledgment ack) {
         // Parse OrderIn
-        OrderIn in = JsonUtil.fromJson(json, OrderIn.class);
+        OrderIn in = JsonCodec.ORDER_IN.decode(payload);
+        log.info("BARISTA_IN received: key={}, value={}", record.key(), in);
+
+        // Hand the drink to the baristas, the listener thread moves on to the next one. The offset
+        // is committed once the OrderUp is sent, so a drink still being made is read again after a
+        // restart.
+        baristaStation.submit(in.item, prepTime, () -> orderUp(in).whenComplete((result, e) -> {
+            if (e == null) {
+                ack.acknowledge();
+            } else {
+                log.error("Could not publish ORDERS_UP for {}, it is made again after a restart", in, e);
+            }
+        }));
+    }
 
-        // Simulate making the drink (optional delay)
-        try {
-            Thread.sleep(300); // quick demo delay
-        } catch (InterruptedException ignored) {}
+    /**
+     * Finishes the drinks taken before the listener container stops, which happens after this
+     * event, so their offsets are still committed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void drain() throws InterruptedException {
+        container().ifPresent(MessageListenerContainer::pause);
+        if (!baristaStation.drain(DRAIN_TIMEOUT)) {
+            log.warn("Baristas not drained, the drinks left are read again after a restart");
+        }
+        kafkaTemplate.flush();
+    }
+
+    private Optional<MessageListenerContainer> container() {
+        return Optional.ofNullable(registry.getListenerContainer(LISTENER_ID));
+    }
 
+    private CompletableFuture<SendResult<String, byte[]>> orderUp(OrderIn in) {
         // Build OrderUp
         OrderUp up = new OrderUp(
                 in.orderId,
@@ -50,12 +106,13 @@ public class BaristaListener {
                 "BaristaBot"      // madeBy
         );
 
-        String payload = JsonUtil.toJson(up);
+        byte[] payload = JsonCodec.ORDER_UP.encode(up);
 
         // Use orderId as key for partition-affinity (ordering per order)
         String key = in.orderId != null ? in.orderId : null;
 
-        kafkaTemplate.send(ORDERS_UP, key, payload);
-        log.info("Published ORDERS_UP: key={}, payload={}", key, payload);
+        CompletableFuture<SendResult<String, byte[]>> sent = kafkaTemplate.send(ORDERS_UP, key, payload);
+        log.info("Published ORDERS_UP: key={}, payload={}", key, up);
+        return sent;
     }
 }
@@ -0,0 +1,23 @@
+package com.coffeeshop.barista.api;
+
+import com.coffeeshop.common.infrastructure.PrepStation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class StationController {
+
+    private final PrepStation baristaStation;
+
+    public StationController(PrepStation baristaStation) {
+        this.baristaStation = baristaStation;
+    }
+
+    // GET /api/station  (slots in use, queue length and wait/prep latency per item)
+    @GetMapping("/station")
+    public PrepStation.Snapshot station() {
+        return baristaStation.snapshot();
+    }
+}
@@ -0,0 +1,17 @@
+package com.coffeeshop.barista.config;
+
+import com.coffeeshop.common.infrastructure.PrepStation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StationConfig {
+
+    // One slot per barista, each making one item at a time
+    @Bean(destroyMethod = "close")
+    public PrepStation baristaStation(@Value("${barista.baristas:2}") int baristas,
+                                      @Value("${barista.max-waiting:1000}") int maxWaiting) {
+        return new PrepStation("barista", baristas, maxWaiting);
+    }
+}
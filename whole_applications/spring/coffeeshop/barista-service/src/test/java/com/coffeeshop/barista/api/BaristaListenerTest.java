@@ -1,36 +1,70 @@
 package com.coffeeshop.barista.api;
 
-import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.infrastructure.PrepStation;
+import com.coffeeshop.common.utils.JsonCodec;
 import com.coffeeshop.common.valueobjects.OrderUp;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 import static com.coffeeshop.common.messaging.Topics.BARISTA_IN;
 import static com.coffeeshop.common.messaging.Topics.ORDERS_UP;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class BaristaListenerTest {
 
     @Mock
-    KafkaTemplate<String, String> kafkaTemplate;
+    KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    Acknowledgment ack;
+
+    CompletableFuture<SendResult<String, byte[]>> sent = new CompletableFuture<>();
+
+    PrepStation baristaStation;
 
-    @InjectMocks
     BaristaListener listener;
 
     @Captor ArgumentCaptor<String> topicCaptor;
     @Captor ArgumentCaptor<String> keyCaptor;
-    @Captor ArgumentCaptor<String> valueCaptor;
+    @Captor ArgumentCaptor<byte[]> valueCaptor;
+
+    @BeforeEach
+    void setUp() {
+        baristaStation = new PrepStation("barista", 1);
+        listener = new BaristaListener(kafkaTemplate, baristaStation, registry, Duration.ZERO);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenReturn(sent);
+    }
+
+    @AfterEach
+    void tearDown() {
+        baristaStation.close();
+    }
 
     @Test
     @DisplayName("onBaristaIn -> publishes OrderUp JSON to ORDERS_UP with orderId as key (send(topic,key,value))")
@@ -48,25 +82,45 @@ class BaristaListenerTest {
             }
             """.formatted(orderId, itemId);
 
-        ConsumerRecord<String, String> consumerRecord =
-                new ConsumerRecord<>(BARISTA_IN, 0, 0L, orderId, jsonIn);
+        byte[] payload = jsonIn.getBytes(StandardCharsets.UTF_8);
+        ConsumerRecord<String, byte[]> consumerRecord =
+                new ConsumerRecord<>(BARISTA_IN, 0, 0L, orderId, payload);
 
         // Act
-        listener.onBaristaIn(consumerRecord, jsonIn);
+        listener.onBaristaIn(consumerRecord, payload, ack);
 
-        // Assert the 3-arg send(topic, key, value)
-        verify(kafkaTemplate).send(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
+        // Assert the 3-arg send(topic, key, value), made once the station has the item ready
+        verify(kafkaTemplate, timeout(1000)).send(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
 
         assertThat(topicCaptor.getValue()).isEqualTo(ORDERS_UP);
         assertThat(keyCaptor.getValue()).isEqualTo(orderId);
 
         // Validate the payload JSON by deserializing to OrderUp
-        OrderUp up = JsonUtil.fromJson(valueCaptor.getValue(), OrderUp.class);
+        OrderUp up = JsonCodec.ORDER_UP.decode(valueCaptor.getValue());
         assertThat(up.orderId).isEqualTo(orderId);
         assertThat(up.itemId).isEqualTo(itemId);
         assertThat(up.item.name()).isEqualTo("ESPRESSO");
         assertThat(up.name).isEqualTo("Alex");
         assertThat(up.madeBy).isEqualTo("BaristaBot");
         assertThat(up.timeUp).isNotNull(); // generated by listener
+
+        // The offset is committed only once the OrderUp has been sent
+        verify(ack, after(100).never()).acknowledge();
+        sent.complete(null);
+        verify(ack, timeout(1000)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("onBaristaIn -> leaves the offset uncommitted when the OrderUp cannot be sent")
+    void onBaristaIn_failedSendIsNotAcknowledged() {
+        byte[] payload = """
+            {"orderId": "order-789", "item": "LATTE", "name": "Sam", "itemId": "x"}
+            """.getBytes(StandardCharsets.UTF_8);
+
+        listener.onBaristaIn(new ConsumerRecord<>(BARISTA_IN, 0, 1L, "order-789", payload), payload, ack);
+
+        verify(kafkaTemplate, timeout(1000)).send(anyString(), anyString(), any(byte[].class));
+        sent.completeExceptionally(new IllegalStateException("Broker down"));
+        verify(ack, after(100).never()).acknowledge();
     }
 }
@@ -42,6 +42,12 @@ public class Order  {
     @Enumerated(EnumType.STRING)
     private Location location;
 
+    // Guards against two writers applying OrderUps to the same order. The default gives the rows
+    // from before the column existed a version when the schema is updated.
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @OneToMany(fetch = FetchType.EAGER, mappedBy = "order", cascade = CascadeType.ALL)
     private List<LineItem> baristaLineItems;
 
@@ -325,6 +331,10 @@ public static OrderEventResult from(final PlaceOrderCommand placeOrderCommand) {
         this.orderId = orderId;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public OrderSource getOrderSource() {
         return orderSource;
     }
@@ -0,0 +1,278 @@
+package com.coffeeshop.common.infrastructure;
+
+import com.coffeeshop.common.domain.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A station of a fixed number of baristas or cooks, modelled as timed work slots. A ticket takes a
+ * free slot, or waits in line for one, and holds it until its prep time has elapsed on a single
+ * timer thread. No thread is blocked while an item is being made, so a station can hold thousands
+ * of tickets in flight.
+ *
+ * <p>The line is bounded: once it reaches its limit the station asks its feeder to pause, and to
+ * resume once the line is down to half of it. Tickets arriving in between are still taken, the
+ * feeder may already hold them.
+ *
+ * <p>Keeps the number of tickets waiting and in progress, and the wait and prep latency per item.
+ */
+public class PrepStation implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrepStation.class);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String name;
+    private final int slots;
+    private final int maxWaiting;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by this
+    private final Queue<Ticket> waiting = new ArrayDeque<>();
+    private int busy = 0;
+    private boolean paused = false;
+    private Runnable pause = () -> { };
+    private Runnable resume = () -> { };
+
+    private final Map<Item, Latency> waitLatency = new ConcurrentHashMap<>();
+    private final Map<Item, Latency> prepLatency = new ConcurrentHashMap<>();
+
+    public PrepStation(String name, int slots) {
+        this(name, slots, Integer.MAX_VALUE);
+    }
+
+    public PrepStation(String name, int slots, int maxWaiting) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("A station needs at least one slot, was " + slots);
+        }
+        if (maxWaiting < 1) {
+            throw new IllegalArgumentException("A station needs room for one waiting ticket, was " + maxWaiting);
+        }
+        this.name = name;
+        this.slots = slots;
+        this.maxWaiting = maxWaiting;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-station");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets what to run when the line is full, and when it has room again. Both run while the
+     * station is locked, so they must be quick and must not call back into it.
+     */
+    public synchronized void onBackpressure(Runnable pause, Runnable resume) {
+        this.pause = pause;
+        this.resume = resume;
+    }
+
+    /**
+     * Makes an item once a slot is free and its prep time has elapsed, then runs {@code onReady} on
+     * the timer thread, which should hand off anything slow.
+     *
+     * @return completes once {@code onReady} has run, or with its failure
+     */
+    public CompletableFuture<Void> submit(Item item, Duration prepTime, Runnable onReady) {
+        Ticket ticket = new Ticket(item, prepTime, onReady);
+
+        synchronized (this) {
+            if (busy == slots) {
+                waiting.add(ticket);
+                LOGGER.debug("{} station busy, {} waiting", name, waiting.size());
+                if (!paused && waiting.size() >= maxWaiting) {
+                    LOGGER.info("{} station line full, {} waiting", name, waiting.size());
+                    paused = true;
+                    pause.run();
+                }
+                return ticket.done;
+            }
+            busy++;
+        }
+
+        if (!start(ticket)) {
+            release();
+        }
+        return ticket.done;
+    }
+
+    private boolean start(Ticket ticket) {
+        long startedAt = System.nanoTime();
+        latency(waitLatency, ticket.item).record(startedAt - ticket.submittedAt);
+
+        try {
+            timer.schedule(() -> finish(ticket, startedAt), ticket.prepTime.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("{} station closed, dropping {}", name, ticket.item);
+            ticket.done.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private void finish(Ticket ticket, long startedAt) {
+        RuntimeException failure = null;
+        try {
+            ticket.onReady.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("{} station failed to deliver {}", name, ticket.item, e);
+            failure = e;
+        }
+
+        // Free the slot first, so whoever waits on the ticket sees the station as it is after it.
+        latency(prepLatency, ticket.item).record(System.nanoTime() - startedAt);
+        release();
+
+        if (failure == null) {
+            ticket.done.complete(null);
+        } else {
+            ticket.done.completeExceptionally(failure);
+        }
+    }
+
+    // Hands the slot to the next ticket in line, or frees it.
+    private void release() {
+        Ticket next;
+        do {
+            synchronized (this) {
+                next = waiting.poll();
+                if (paused && waiting.size() <= maxWaiting / 2) {
+                    paused = false;
+                    resume.run();
+                }
+                if (next == null) {
+                    busy--;
+                    // Wakes up drain()
+                    notifyAll();
+                    return;
+                }
+            }
+        } while (!start(next));
+    }
+
+    private static Latency latency(Map<Item, Latency> latencies, Item item) {
+        return latencies.computeIfAbsent(item, i -> new Latency());
+    }
+
+    public synchronized int getQueueLength() {
+        return waiting.size();
+    }
+
+    public synchronized int getInProgress() {
+        return busy;
+    }
+
+    public Snapshot snapshot() {
+        Map<Item, ItemLatency> items = new EnumMap<>(Item.class);
+        prepLatency.forEach((item, prep) -> items.put(item, new ItemLatency(
+                prep.count.sum(),
+                latency(waitLatency, item).meanMillis(),
+                latency(waitLatency, item).maxMillis(),
+                prep.meanMillis(),
+                prep.maxMillis())));
+
+        synchronized (this) {
+            return new Snapshot(name, slots, busy, waiting.size(), items);
+        }
+    }
+
+    /**
+     * Waits until every ticket taken so far has been delivered, or the timeout has passed.
+     *
+     * @return true if the station is idle
+     */
+    public synchronized boolean drain(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (busy > 0) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // Tickets waiting for a slot are made too, unless that takes longer than the timeout.
+        try {
+            if (!drain(DRAIN_TIMEOUT)) {
+                LOGGER.warn("{} station closing with {} in progress and {} waiting",
+                        name, getInProgress(), getQueueLength());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timer.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "PrepStation{" +
+                "name='" + name + '\'' +
+                ", slots=" + slots +
+                ", inProgress=" + getInProgress() +
+                ", queueLength=" + getQueueLength() +
+                '}';
+    }
+
+    public record Snapshot(String name, int slots, int inProgress, int queueLength,
+                           Map<Item, ItemLatency> items) {
+    }
+
+    public record ItemLatency(long made, double meanWaitMillis, double maxWaitMillis,
+                              double meanPrepMillis, double maxPrepMillis) {
+    }
+
+    private static final class Ticket {
+
+        final Item item;
+        final Duration prepTime;
+        final Runnable onReady;
+        final long submittedAt = System.nanoTime();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Ticket(Item item, Duration prepTime, Runnable onReady) {
+            this.item = item;
+            this.prepTime = prepTime;
+            this.onReady = onReady;
+        }
+    }
+
+    private static final class Latency {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        double meanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (n * 1e6);
+        }
+
+        double maxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.coffeeshop.common.utils;
+
+import com.coffeeshop.common.commands.PlaceOrderCommand;
+import com.coffeeshop.common.valueobjects.OrderIn;
+import com.coffeeshop.common.valueobjects.OrderUp;
+import com.coffeeshop.common.valueobjects.OrderUpdate;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads and writes one type of message as UTF-8 JSON bytes, for Kafka's byte-array serializers.
+ * Unlike {@link JsonUtil} there is no detour through a String: Jackson writes straight into its
+ * own recycled buffers, and the reader and writer for the type are looked up once, not per message.
+ * The bytes are the same JSON as before, so consumers still reading Strings are unaffected.
+ */
+public final class JsonCodec<T> {
+
+    public static final JsonCodec<OrderIn> ORDER_IN = new JsonCodec<>(OrderIn.class);
+    public static final JsonCodec<OrderUp> ORDER_UP = new JsonCodec<>(OrderUp.class);
+    public static final JsonCodec<OrderUpdate> ORDER_UPDATE = new JsonCodec<>(OrderUpdate.class);
+    public static final JsonCodec<PlaceOrderCommand> PLACE_ORDER_COMMAND = new JsonCodec<>(PlaceOrderCommand.class);
+
+    private final Class<T> type;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    private JsonCodec(final Class<T> type) {
+        this.type = type;
+        this.reader = JsonUtil.objectMapper().readerFor(type);
+        this.writer = JsonUtil.objectMapper().writerFor(type);
+    }
+
+    public byte[] encode(final T value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + type.getSimpleName(), e);
+        }
+    }
+
+    public void encode(final T value, final OutputStream out) {
+        try {
+            writer.writeValue(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + type.getSimpleName(), e);
+        }
+    }
+
+    public T decode(final byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public T decode(final byte[] bytes, final int offset, final int length) {
+        try {
+            return reader.readValue(bytes, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + type.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JsonCodec{" + type.getSimpleName() + '}';
+    }
+}
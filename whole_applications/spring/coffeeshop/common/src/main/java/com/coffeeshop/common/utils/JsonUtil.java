@@ -16,8 +16,14 @@ public class JsonUtil {
     private static final ObjectMapper objectMapper = new ObjectMapper()
             .registerModules(new JavaTimeModule(),new Jdk8Module());
 
+    // Shared with JsonCodec, so both write the same JSON
+    static ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
     public static String toJson(final Object object) {
-        LOGGER.debug("marshalling {} to JSON", object.toString());
+        // The object itself, not its toString(), so nothing is built unless debug is on
+        LOGGER.debug("marshalling {} to JSON", object);
         try {
             return objectMapper.writeValueAsString(object);
         } catch (JsonProcessingException e) {
@@ -2,6 +2,8 @@ package com.coffeeshop.common.valueobjects;
 
 import com.coffeeshop.common.domain.Item;
 import com.coffeeshop.common.domain.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class OrderUpdate {
 
@@ -26,7 +28,14 @@ public class OrderUpdate {
         this.madeBy = null;
     }
 
-    public OrderUpdate(final String orderId, final String itemId, final String name, final Item item, final OrderStatus status, final String madeBy) {
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public OrderUpdate(
+            @JsonProperty("orderId") final String orderId,
+            @JsonProperty("itemId") final String itemId,
+            @JsonProperty("name") final String name,
+            @JsonProperty("item") final Item item,
+            @JsonProperty("status") final OrderStatus status,
+            @JsonProperty("madeBy") final String madeBy) {
         this.orderId = orderId;
         this.itemId = itemId;
         this.name = name;
@@ -0,0 +1,119 @@
+package com.coffeeshop.common.infrastructure;
+
+import com.coffeeshop.common.domain.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrepStationTest {
+
+    PrepStation station;
+
+    @AfterEach
+    void tearDown() {
+        station.close();
+    }
+
+    @Test
+    void submit_queuesTicketsBeyondTheSlots() throws Exception {
+        station = new PrepStation("kitchen", 2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Void>> tickets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tickets.add(station.submit(Item.CROISSANT, Duration.ZERO, () -> await(release)));
+        }
+
+        assertThat(station.getInProgress()).isEqualTo(2);
+        assertThat(station.getQueueLength()).isEqualTo(3);
+
+        release.countDown();
+        CompletableFuture.allOf(tickets.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(station.getInProgress()).isZero();
+        assertThat(station.getQueueLength()).isZero();
+        assertThat(station.snapshot().items().get(Item.CROISSANT).made()).isEqualTo(5);
+    }
+
+    @Test
+    void submit_neverTakesMoreThanTheSlots() throws Exception {
+        station = new PrepStation("barista", 3);
+        AtomicInteger mostAtOnce = new AtomicInteger();
+
+        List<CompletableFuture<Void>> tickets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tickets.add(station.submit(Item.ESPRESSO, Duration.ofMillis(i % 3),
+                    () -> mostAtOnce.accumulateAndGet(station.getInProgress(), Math::max)));
+        }
+        CompletableFuture.allOf(tickets.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertThat(mostAtOnce.get()).isLessThanOrEqualTo(3);
+        assertThat(station.snapshot().items().get(Item.ESPRESSO).made()).isEqualTo(1000);
+    }
+
+    @Test
+    void submit_reportsFailuresAndFreesTheSlot() throws Exception {
+        station = new PrepStation("kitchen", 1);
+
+        CompletableFuture<Void> failed = station.submit(Item.MUFFIN, Duration.ZERO, () -> {
+            throw new IllegalStateException("Oven broke");
+        });
+        CompletableFuture<Void> next = station.submit(Item.MUFFIN, Duration.ZERO, () -> { });
+
+        next.get(5, TimeUnit.SECONDS);
+        assertThat(failed).isCompletedExceptionally();
+    }
+
+    @Test
+    void submit_pausesTheFeederWhileTheLineIsFull() throws Exception {
+        station = new PrepStation("barista", 1, 4);
+        List<String> calls = new ArrayList<>();
+        station.onBackpressure(() -> calls.add("pause"), () -> calls.add("resume"));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Void>> tickets = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tickets.add(station.submit(Item.LATTE, Duration.ZERO, () -> await(release)));
+        }
+
+        // One in progress, the ones after the limit are still taken
+        assertThat(station.getQueueLength()).isEqualTo(5);
+        assertThat(calls).containsExactly("pause");
+
+        release.countDown();
+        CompletableFuture.allOf(tickets.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertThat(calls).containsExactly("pause", "resume");
+    }
+
+    @Test
+    void close_makesTheTicketsStillWaiting() throws Exception {
+        station = new PrepStation("kitchen", 1);
+        AtomicInteger made = new AtomicInteger();
+
+        List<CompletableFuture<Void>> tickets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tickets.add(station.submit(Item.CROISSANT, Duration.ofMillis(20), made::incrementAndGet));
+        }
+        station.close();
+
+        assertThat(made.get()).isEqualTo(5);
+        assertThat(tickets).allMatch(ticket -> ticket.isDone() && !ticket.isCompletedExceptionally());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.coffeeshop.common.utils;
+
+import com.coffeeshop.common.commands.CommandItem;
+import com.coffeeshop.common.commands.PlaceOrderCommand;
+import com.coffeeshop.common.domain.Item;
+import com.coffeeshop.common.domain.Location;
+import com.coffeeshop.common.domain.OrderSource;
+import com.coffeeshop.common.valueobjects.OrderUp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the String path of {@link JsonUtil} (object, String, bytes) with the byte path of
+ * {@link JsonCodec}, for the messages sent to and from the barista and kitchen.
+ *
+ * <p>Run with {@code mvn -pl common test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=JsonCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    OrderUp orderUp;
+    PlaceOrderCommand placeOrderCommand;
+    byte[] orderUpBytes;
+    byte[] placeOrderCommandBytes;
+
+    @Setup
+    public void setUp() {
+        orderUp = new OrderUp("order-123", "11111111-2222-3333-4444-555555555555", Item.CAPPUCCINO,
+                "Alex", Instant.now(), "BaristaBot");
+        placeOrderCommand = new PlaceOrderCommand("order-123", OrderSource.WEB, Location.ATLANTA, null,
+                List.of(new CommandItem(Item.CAPPUCCINO, "Alex", new BigDecimal("4.50")),
+                        new CommandItem(Item.ESPRESSO, "Sam", new BigDecimal("3.50"))),
+                List.of(new CommandItem(Item.CROISSANT, "Alex", new BigDecimal("3.25"))),
+                Instant.now());
+        orderUpBytes = JsonCodec.ORDER_UP.encode(orderUp);
+        placeOrderCommandBytes = JsonCodec.PLACE_ORDER_COMMAND.encode(placeOrderCommand);
+    }
+
+    @Benchmark
+    public byte[] encodeOrderUpViaString() {
+        return JsonUtil.toJson(orderUp).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeOrderUpViaCodec() {
+        return JsonCodec.ORDER_UP.encode(orderUp);
+    }
+
+    @Benchmark
+    public OrderUp decodeOrderUpViaString() {
+        return JsonUtil.fromJson(new String(orderUpBytes, StandardCharsets.UTF_8), OrderUp.class);
+    }
+
+    @Benchmark
+    public OrderUp decodeOrderUpViaCodec() {
+        return JsonCodec.ORDER_UP.decode(orderUpBytes);
+    }
+
+    @Benchmark
+    public byte[] encodePlaceOrderCommandViaString() {
+        return JsonUtil.toJson(placeOrderCommand).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodePlaceOrderCommandViaCodec() {
+        return JsonCodec.PLACE_ORDER_COMMAND.encode(placeOrderCommand);
+    }
+
+    @Benchmark
+    public PlaceOrderCommand decodePlaceOrderCommandViaString() {
+        return JsonUtil.fromJson(new String(placeOrderCommandBytes, StandardCharsets.UTF_8), PlaceOrderCommand.class);
+    }
+
+    @Benchmark
+    public PlaceOrderCommand decodePlaceOrderCommandViaCodec() {
+        return JsonCodec.PLACE_ORDER_COMMAND.decode(placeOrderCommandBytes);
+    }
+}
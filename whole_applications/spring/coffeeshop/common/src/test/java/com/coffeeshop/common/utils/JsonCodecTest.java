@@ -0,0 +1,56 @@
+package com.coffeeshop.common.utils;
+
+import com.coffeeshop.common.commands.CommandItem;
+import com.coffeeshop.common.commands.PlaceOrderCommand;
+import com.coffeeshop.common.domain.Item;
+import com.coffeeshop.common.domain.Location;
+import com.coffeeshop.common.domain.OrderSource;
+import com.coffeeshop.common.domain.OrderStatus;
+import com.coffeeshop.common.valueobjects.OrderIn;
+import com.coffeeshop.common.valueobjects.OrderUp;
+import com.coffeeshop.common.valueobjects.OrderUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonCodecTest {
+
+    @Test
+    void encode_writesTheSameJsonAsJsonUtil() {
+        OrderUp up = new OrderUp("order-1", "item-1", Item.LATTE, "Alex", Instant.parse("2025-01-01T10:00:00Z"), "BaristaBot");
+
+        assertThat(new String(JsonCodec.ORDER_UP.encode(up), StandardCharsets.UTF_8))
+                .isEqualTo(JsonUtil.toJson(up));
+    }
+
+    @Test
+    void decode_readsWhatEncodeWrote() {
+        OrderIn in = new OrderIn("order-1", "item-1", Item.CROISSANT, "Sam");
+        OrderIn decodedIn = JsonCodec.ORDER_IN.decode(JsonCodec.ORDER_IN.encode(in));
+        assertThat(decodedIn.orderId).isEqualTo("order-1");
+        assertThat(decodedIn.itemId).isEqualTo("item-1");
+        assertThat(decodedIn.item).isEqualTo(Item.CROISSANT);
+
+        OrderUp up = new OrderUp("order-1", "item-1", Item.LATTE, "Alex", Instant.now(), "BaristaBot");
+        OrderUp decodedUp = JsonCodec.ORDER_UP.decode(JsonCodec.ORDER_UP.encode(up));
+        assertThat(decodedUp.orderId).isEqualTo("order-1");
+        assertThat(decodedUp.madeBy).isEqualTo("BaristaBot");
+
+        OrderUpdate update = new OrderUpdate("order-1", "item-1", "Alex", Item.LATTE, OrderStatus.FULFILLED, "BaristaBot");
+        OrderUpdate decodedUpdate = JsonCodec.ORDER_UPDATE.decode(JsonCodec.ORDER_UPDATE.encode(update));
+        assertThat(decodedUpdate.status).isEqualTo(OrderStatus.FULFILLED);
+        assertThat(decodedUpdate.madeBy).isEqualTo("BaristaBot");
+
+        PlaceOrderCommand command = new PlaceOrderCommand("order-1", OrderSource.WEB, Location.ATLANTA, null,
+                List.of(new CommandItem(Item.LATTE, "Alex", new BigDecimal("4.50"))), null, Instant.now());
+        PlaceOrderCommand decodedCommand =
+                JsonCodec.PLACE_ORDER_COMMAND.decode(JsonCodec.PLACE_ORDER_COMMAND.encode(command));
+        assertThat(decodedCommand.getId()).isEqualTo("order-1");
+        assertThat(decodedCommand.getBaristaItems()).hasSize(1);
+    }
+}
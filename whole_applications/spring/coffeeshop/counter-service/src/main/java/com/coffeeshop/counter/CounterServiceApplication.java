@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // drives OutboxRelay
 //without the following two annotations tests did not run
-@EntityScan(basePackages = "com.coffeeshop.common.domain") 
+@EntityScan(basePackages = {"com.coffeeshop.common.domain", "com.coffeeshop.counter.store"})
 @EnableJpaRepositories(basePackages = "com.coffeeshop.counter.store")
 
 
@@ -0,0 +1,186 @@
+package com.coffeeshop.counter.api;
+
+import com.coffeeshop.common.domain.Order;
+import com.coffeeshop.common.domain.OrderStatus;
+import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.valueobjects.OrderUp;
+import com.coffeeshop.counter.store.OrderRepository;
+import com.coffeeshop.counter.store.OutboxEvent;
+import com.coffeeshop.counter.store.OutboxRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.coffeeshop.common.messaging.Topics.WEB_UPDATES;
+
+/**
+ * The orders still being made, kept in memory between the OrderUps that complete their items.
+ * OrderUps are applied on one of a fixed number of lanes chosen by order id, so the OrderUps of
+ * one order are applied one after the other and never race on the same aggregate. Each lane
+ * applies whatever has queued up since its last run and saves the orders it changed, with their
+ * WEB_UPDATES, in one transaction. An order leaves the cache once it is fulfilled.
+ *
+ * <p>The version column of {@link Order} catches changes made elsewhere, e.g. by another instance
+ * of this service; the orders of the batch are then reloaded and their OrderUps applied again,
+ * which is safe as applying an OrderUp twice fulfils the same item twice.
+ */
+@Component
+public class OpenOrders {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenOrders.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final OrderRepository orderRepository;
+    private final OutboxRepository outboxRepository;
+    private final TransactionOperations transactionOperations;
+    private final Map<String, Order> cache = new ConcurrentHashMap<>();
+    private final Lane[] lanes;
+
+    public OpenOrders(OrderRepository orderRepository,
+                      OutboxRepository outboxRepository,
+                      TransactionOperations transactionOperations,
+                      @Value("${counter.order-lanes:4}") int laneCount) {
+        this.orderRepository = orderRepository;
+        this.outboxRepository = outboxRepository;
+        this.transactionOperations = transactionOperations;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane("order-lane-" + i);
+        }
+    }
+
+    // Completes once the OrderUp and its WEB_UPDATES are committed
+    public CompletableFuture<Void> apply(final OrderUp orderUp) {
+        return lanes[Math.floorMod(orderUp.orderId.hashCode(), lanes.length)].submit(orderUp);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+    }
+
+    private void flush(final List<OrderUp> orderUps) {
+        Map<String, List<OrderUp>> byOrder = new LinkedHashMap<>();
+        orderUps.forEach(orderUp -> byOrder.computeIfAbsent(orderUp.orderId, id -> new ArrayList<>()).add(orderUp));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<Order> saved = transactionOperations.execute(status -> save(byOrder));
+                saved.forEach(order -> {
+                    if (order.getOrderStatus() == OrderStatus.FULFILLED) {
+                        cache.remove(order.getOrderId());
+                    } else {
+                        cache.put(order.getOrderId(), order);
+                    }
+                });
+                return;
+            } catch (RuntimeException e) {
+                // the cached orders already had the OrderUps applied, start again from the database
+                byOrder.keySet().forEach(cache::remove);
+                if (!(e instanceof OptimisticLockingFailureException) || attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.debug("Orders {} were changed elsewhere, applying their OrderUps again", byOrder.keySet());
+            }
+        }
+    }
+
+    private List<Order> save(final Map<String, List<OrderUp>> byOrder) {
+        List<Order> orders = new ArrayList<>();
+        List<OutboxEvent> events = new ArrayList<>();
+
+        byOrder.forEach((orderId, orderUps) -> {
+            Order order = cache.get(orderId);
+            if (order == null) {
+                order = orderRepository.findById(orderId).orElse(null);
+            }
+            if (order == null) {
+                LOGGER.warn("Order {} not found for OrderUp; ignoring.", orderId);
+                return;
+            }
+            for (OrderUp orderUp : orderUps) {
+                order.apply(orderUp).getOrderUpdates().forEach(update ->
+                        events.add(new OutboxEvent(WEB_UPDATES, orderId, JsonUtil.toJson(update))));
+            }
+            orders.add(order);
+        });
+
+        List<Order> saved = orderRepository.saveAll(orders);
+        outboxRepository.saveAll(events);
+        // version conflicts surface here rather than at commit
+        orderRepository.flush();
+        LOGGER.debug("Saved {} orders and queued {} WEB_UPDATES", saved.size(), events.size());
+        return saved;
+    }
+
+    private record Pending(OrderUp orderUp, CompletableFuture<Void> done) {
+    }
+
+    private final class Lane {
+
+        private final ExecutorService executor;
+        private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(String name) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private CompletableFuture<Void> submit(OrderUp orderUp) {
+            Pending next = new Pending(orderUp, new CompletableFuture<>());
+            pending.add(next);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+            return next.done();
+        }
+
+        private void drain() {
+            // cleared before polling, so an OrderUp added from here on schedules another drain
+            scheduled.set(false);
+            List<Pending> batch = new ArrayList<>();
+            for (Pending next; (next = pending.poll()) != null; ) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                flush(batch.stream().map(Pending::orderUp).toList());
+                batch.forEach(next -> next.done().complete(null));
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not apply {} OrderUps", batch.size(), e);
+                batch.forEach(next -> next.done().completeExceptionally(e));
+            }
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.coffeeshop.counter.api;
 
 import com.coffeeshop.common.commands.PlaceOrderCommand;
+import com.coffeeshop.common.valueobjects.OrderUp;
 import org.springframework.messaging.Message;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface OrderService {
     void onOrderIn(PlaceOrderCommand placeOrderCommand);
     void onOrderUp(Message<String> message);
+    CompletableFuture<Void> onOrderUps(List<OrderUp> orderUps);
 }
@@ -4,16 +4,21 @@ import com.coffeeshop.common.commands.PlaceOrderCommand;
 import com.coffeeshop.common.domain.Order;
 import com.coffeeshop.common.events.OrderEventResult;
 import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.valueobjects.OrderUp;
 import com.coffeeshop.counter.store.OrderRepository;
+import com.coffeeshop.counter.store.OutboxEvent;
+import com.coffeeshop.counter.store.OutboxRepository;
 
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static com.coffeeshop.common.messaging.Topics.*;
 import static com.coffeeshop.common.utils.JsonUtil.fromJsonToOrderUp; // if you exposed this
 // or use JsonUtil directly.
@@ -23,13 +28,17 @@ public class OrderServiceImpl implements OrderService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderServiceImpl.class);
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxRepository outboxRepository;
     private final OrderRepository orderRepository;
+    private final OpenOrders openOrders;
 
-    public OrderServiceImpl(KafkaTemplate<String, String> kafkaTemplate,
-                            OrderRepository orderRepository) {
-        this.kafkaTemplate = kafkaTemplate;
+    // Messages are written to the outbox with the order, OutboxRelay publishes them after commit
+    public OrderServiceImpl(OutboxRepository outboxRepository,
+                            OrderRepository orderRepository,
+                            OpenOrders openOrders) {
+        this.outboxRepository = outboxRepository;
         this.orderRepository = orderRepository;
+        this.openOrders = openOrders;
     }
 
     @Override
@@ -45,54 +54,40 @@ public class OrderServiceImpl implements OrderService {
         orderRepository.save(order); // don’t use the return value
         LOGGER.debug("Persisted order {}", order.getOrderId());
 
+        List<OutboxEvent> events = new ArrayList<>();
+
         // Publish web updates (WEB_UPDATES)
         if (orderEventResult.getOrderUpdates() != null) {
-            orderEventResult.getOrderUpdates().forEach(orderUpdate -> {
-                String payload = JsonUtil.toJson(orderUpdate);
-                kafkaTemplate.send(new ProducerRecord<>(WEB_UPDATES, order.getOrderId(), payload));  
-                LOGGER.debug("sent WEB_UPDATES: {}", payload);
-            });
+            orderEventResult.getOrderUpdates().forEach(orderUpdate ->
+                    events.add(new OutboxEvent(WEB_UPDATES, order.getOrderId(), JsonUtil.toJson(orderUpdate))));
         }
 
         // Publish barista tickets (BARISTA_IN)
-        orderEventResult.getBaristaTickets().ifPresent(list -> list.forEach(ticket -> {
-            String payload = JsonUtil.toJson(ticket);
-            kafkaTemplate.send(new ProducerRecord<>(BARISTA_IN, order.getOrderId(), payload));
-            LOGGER.debug("sent BARISTA_IN: {}", payload);
-        }));
+        orderEventResult.getBaristaTickets().ifPresent(list -> list.forEach(ticket ->
+                events.add(new OutboxEvent(BARISTA_IN, order.getOrderId(), JsonUtil.toJson(ticket)))));
 
         // Publish kitchen tickets (KITCHEN_IN))
-        orderEventResult.getKitchenTickets().ifPresent(list -> list.forEach(ticket -> {
-            String payload = JsonUtil.toJson(ticket);
-            kafkaTemplate.send(new ProducerRecord<>(KITCHEN_IN, order.getOrderId(), payload));
-            LOGGER.debug("sent KITCHEN_IN: {}", payload);
-        }));
+        orderEventResult.getKitchenTickets().ifPresent(list -> list.forEach(ticket ->
+                events.add(new OutboxEvent(KITCHEN_IN, order.getOrderId(), JsonUtil.toJson(ticket)))));
 
+        outboxRepository.saveAll(events);
+        LOGGER.debug("Queued {} messages for order {}", events.size(), order.getOrderId());
     }
 
     @Override
-    @Transactional
     public void onOrderUp(final Message<String> message) {
         String json = message.getPayload();
         LOGGER.debug("ORDERS_UP message received via REST bridge: {}", json);
 
         var orderUp = fromJsonToOrderUp(json); // or JsonUtil.fromJsonToOrderUp(json)
-        Order order = orderRepository.findById(orderUp.orderId).orElse(null);
-
-        if (order == null) {
-            LOGGER.warn("Order {} not found for OrderUp; ignoring.", orderUp.orderId);
-            return;
-        }
-
-        OrderEventResult result = order.apply(orderUp);
-        orderRepository.save(order);
+        onOrderUps(List.of(orderUp)).join();
+    }
 
-        if (result.getOrderUpdates() != null) {
-            result.getOrderUpdates().forEach(update -> {
-                String payload = JsonUtil.toJson(update);
-                kafkaTemplate.send(WEB_UPDATES, payload);
-                LOGGER.debug("sent WEB_UPDATES after apply: {}", payload);
-            });
-        }
+    // Applied on the order's lane in OpenOrders, completes once the OrderUps are committed
+    @Override
+    public CompletableFuture<Void> onOrderUps(final List<OrderUp> orderUps) {
+        return CompletableFuture.allOf(orderUps.stream()
+                .map(openOrders::apply)
+                .toArray(CompletableFuture[]::new));
     }
 }
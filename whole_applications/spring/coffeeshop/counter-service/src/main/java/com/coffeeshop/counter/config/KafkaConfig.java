@@ -26,6 +26,15 @@ public class KafkaConfig {
         Map<String, Object> cfg = props.buildProducerProperties(null);
         cfg.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         cfg.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // Idempotent: retries never duplicate or reorder messages within a partition
+        cfg.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        cfg.put(ProducerConfig.ACKS_CONFIG, "all");
+        cfg.putIfAbsent(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // Batching for the outbox relay, which sends a whole batch before waiting on it;
+        // spring.kafka.producer.properties.* overrides these
+        cfg.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 5);
+        cfg.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        cfg.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
         return new DefaultKafkaProducerFactory<>(cfg);
     }
 
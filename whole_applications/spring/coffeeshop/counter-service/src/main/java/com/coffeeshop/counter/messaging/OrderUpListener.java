@@ -6,10 +6,10 @@ import com.coffeeshop.counter.api.OrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 import static com.coffeeshop.common.messaging.Topics.ORDERS_UP;
 
 @Component
@@ -23,12 +23,15 @@ public class OrderUpListener {
         this.orderService = orderService;
     }
 
-    @KafkaListener(topics = ORDERS_UP, groupId = "counter-service")
-    public void consumeOrderUp(String json) {
-        log.info("Kafka consumed ORDERS_UP: {}", json);
+    // A poll's worth of OrderUps at once, so OpenOrders can save them together; the offsets are
+    // committed only after the OrderUps are
+    @KafkaListener(topics = ORDERS_UP, groupId = "counter-service", batch = "true")
+    public void consumeOrderUps(List<String> jsons) {
+        log.info("Kafka consumed {} ORDERS_UP", jsons.size());
 
-        // Reuse the same service method that expects Message<String>
-        Message<String> msg = MessageBuilder.withPayload(json).build();
-        orderService.onOrderUp(msg);
+        List<OrderUp> orderUps = jsons.stream()
+                .map(JsonUtil::fromJsonToOrderUp)
+                .toList();
+        orderService.onOrderUps(orderUps).join();
     }
 }
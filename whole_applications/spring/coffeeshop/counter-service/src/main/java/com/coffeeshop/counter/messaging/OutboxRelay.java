@@ -0,0 +1,87 @@
+package com.coffeeshop.counter.messaging;
+
+import com.coffeeshop.counter.store.OutboxEvent;
+import com.coffeeshop.counter.store.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the messages in the outbox to Kafka, oldest first. A whole batch is handed to the
+ * producer before waiting on any of it, so the producer can group the messages per partition
+ * (see linger.ms and batch.size in KafkaConfig). Messages are deleted once Kafka has them all; if a
+ * send fails, the batch stays in the outbox and is sent again, so delivery is at least once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       TransactionOperations transactionOperations,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    // Drains the outbox, a batch per transaction
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:100}")
+    public void drain() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionOperations.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.findNextBatch(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[events.size()];
+        for (int i = 0; i < sends.length; i++) {
+            OutboxEvent event = events.get(i);
+            sends[i] = kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+        }
+
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted publishing outbox", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not publish " + events.size() + " outbox messages", e);
+        }
+
+        outboxRepository.deleteAllInBatch(events);
+        log.debug("Relayed {} outbox messages", events.size());
+        return events.size();
+    }
+}
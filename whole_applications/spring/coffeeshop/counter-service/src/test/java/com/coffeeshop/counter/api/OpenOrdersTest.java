@@ -0,0 +1,112 @@
+package com.coffeeshop.counter.api;
+
+import com.coffeeshop.common.commands.CommandItem;
+import com.coffeeshop.common.commands.PlaceOrderCommand;
+import com.coffeeshop.common.domain.Item;
+import com.coffeeshop.common.domain.LineItem;
+import com.coffeeshop.common.domain.Location;
+import com.coffeeshop.common.domain.Order;
+import com.coffeeshop.common.domain.OrderSource;
+import com.coffeeshop.common.domain.OrderStatus;
+import com.coffeeshop.common.valueobjects.OrderUp;
+import com.coffeeshop.counter.store.OrderRepository;
+import com.coffeeshop.counter.store.OutboxRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OpenOrdersTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+
+    private OpenOrders openOrders;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = Order.from(new PlaceOrderCommand(
+                "order-1",
+                OrderSource.WEB,
+                Location.ATLANTA,
+                null,
+                List.of(new CommandItem(Item.LATTE, "Alex", new BigDecimal("4.50"))),
+                List.of(new CommandItem(Item.CROISSANT, "Alex", new BigDecimal("3.25"))),
+                Instant.now())).getOrder();
+
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+        when(orderRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        openOrders = new OpenOrders(orderRepository, outboxRepository, TransactionOperations.withoutTransaction(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        openOrders.close();
+    }
+
+    @Test
+    @DisplayName("OrderUps of an open order are applied to the cached aggregate, which is evicted once fulfilled")
+    void testCachesOpenOrdersUntilFulfilled() {
+        openOrders.apply(orderUp(baristaItem())).join();
+
+        assertThat(openOrders.size()).isEqualTo(1);
+        assertThat(order.getOrderStatus()).isNotEqualTo(OrderStatus.FULFILLED);
+
+        openOrders.apply(orderUp(kitchenItem())).join();
+
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.FULFILLED);
+        assertThat(openOrders.size()).isZero();
+        // loaded once, the second OrderUp found it in the cache
+        verify(orderRepository, times(1)).findById("order-1");
+        verify(outboxRepository, times(2)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("A version conflict reloads the order and applies its OrderUps again")
+    void testRetriesOnVersionConflict() {
+        doThrow(new ObjectOptimisticLockingFailureException(Order.class, "order-1"))
+                .doNothing()
+                .when(orderRepository).flush();
+
+        openOrders.apply(orderUp(baristaItem())).join();
+
+        verify(orderRepository, times(2)).findById("order-1");
+        verify(orderRepository, times(2)).saveAll(any());
+        assertThat(openOrders.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("OrderUps for an unknown order are ignored")
+    void testIgnoresUnknownOrders() {
+        openOrders.apply(new OrderUp("order-2", "item-1", Item.LATTE, "Sam", Instant.now(), "BaristaBot")).join();
+
+        verify(orderRepository).findById("order-2");
+        assertThat(openOrders.size()).isZero();
+    }
+
+    private LineItem baristaItem() {
+        return order.getBaristaLineItems().orElseThrow().get(0);
+    }
+
+    private LineItem kitchenItem() {
+        return order.getKitchenLineItems().orElseThrow().get(0);
+    }
+
+    private OrderUp orderUp(LineItem lineItem) {
+        return new OrderUp("order-1", lineItem.getItemId(), lineItem.getItem(), lineItem.getName(), Instant.now(), "Bot");
+    }
+}
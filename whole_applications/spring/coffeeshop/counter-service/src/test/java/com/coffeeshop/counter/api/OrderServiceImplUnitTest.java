@@ -7,19 +7,17 @@ import com.coffeeshop.common.domain.Location;
 import com.coffeeshop.common.domain.OrderSource;
 import com.coffeeshop.common.domain.Order;
 import com.coffeeshop.counter.store.OrderRepository;
+import com.coffeeshop.counter.store.OutboxEvent;
+import com.coffeeshop.counter.store.OutboxRepository;
 
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
-import org.springframework.kafka.core.KafkaTemplate;
-
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,23 +26,18 @@ import static org.mockito.Mockito.*;
 class OrderServiceImplTest {
 
     @Test
-    @DisplayName("onOrderIn -> sends ProducerRecords to WEB_UPDATES and BARISTA_IN")
+    @DisplayName("onOrderIn -> queues outbox messages for WEB_UPDATES and BARISTA_IN")
     void testOnOrderInPublishesEvents() {
         // Mocks
-        @SuppressWarnings("unchecked")
-        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        OutboxRepository outboxRepository = mock(OutboxRepository.class);
         OrderRepository orderRepository = mock(OrderRepository.class);
 
         // Save returns the same entity
         when(orderRepository.save(any(Order.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        // IMPORTANT: stub the ProducerRecord overload
-        when(kafkaTemplate.send(any(ProducerRecord.class)))
-                .thenReturn(CompletableFuture.completedFuture(null));
-
         // SUT
-        OrderServiceImpl service = new OrderServiceImpl(kafkaTemplate, orderRepository);
+        OrderServiceImpl service = new OrderServiceImpl(outboxRepository, orderRepository, mock(OpenOrders.class));
 
         // Barista item so we exercise both topics
         List<CommandItem> baristaItems = List.of(
@@ -64,31 +57,31 @@ class OrderServiceImplTest {
         // Act
         service.onOrderIn(cmd);
 
-        // Assert: capture ProducerRecords that were sent
+        // Assert: capture the outbox messages saved with the order, in one call
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<ProducerRecord<String, String>> prCaptor =
-                ArgumentCaptor.forClass((Class) ProducerRecord.class);
+        ArgumentCaptor<List<OutboxEvent>> outboxCaptor =
+                ArgumentCaptor.forClass((Class) List.class);
 
-        verify(kafkaTemplate, atLeastOnce()).send(prCaptor.capture());
+        verify(outboxRepository).saveAll(outboxCaptor.capture());
         verify(orderRepository).save(any(Order.class));
 
         // Inspect captures
-        var records = prCaptor.getAllValues();
+        var records = outboxCaptor.getValue();
         assertThat(records).isNotEmpty();
 
         boolean sawWebUpdates = records.stream()
-                .anyMatch(r -> "WEB_UPDATES".equals(r.topic()) &&
-                               "order-123".equals(r.key()) &&
-                               r.value() != null && !r.value().isBlank());
+                .anyMatch(r -> "WEB_UPDATES".equals(r.getTopic()) &&
+                               "order-123".equals(r.getMessageKey()) &&
+                               r.getPayload() != null && !r.getPayload().isBlank());
 
         boolean sawBaristaIn = records.stream()
-                .anyMatch(r -> "BARISTA_IN".equals(r.topic()) &&
-                               "order-123".equals(r.key()) &&
-                               r.value() != null && !r.value().isBlank());
+                .anyMatch(r -> "BARISTA_IN".equals(r.getTopic()) &&
+                               "order-123".equals(r.getMessageKey()) &&
+                               r.getPayload() != null && !r.getPayload().isBlank());
 
         // We didn't send KITCHEN_IN in this scenario
         boolean sawKitchenIn = records.stream()
-                .anyMatch(r -> "KITCHEN_IN".equals(r.topic()));
+                .anyMatch(r -> "KITCHEN_IN".equals(r.getTopic()));
 
         assertThat(sawWebUpdates).as("WEB_UPDATES was produced").isTrue();
         assertThat(sawBaristaIn).as("BARISTA_IN was produced").isTrue();
@@ -0,0 +1,31 @@
+package com.coffeeshop.counter.messaging;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+
+/**
+ * Stands in for a Kafka cluster in tests: a producer that acknowledges every send at once and keeps
+ * the records it was sent, in order, in {@link #history()}.
+ */
+class InMemoryKafka extends MockProducer<String, String> {
+
+    InMemoryKafka() {
+        super(true, new StringSerializer(), new StringSerializer());
+    }
+
+    KafkaTemplate<String, String> template() {
+        return new KafkaTemplate<>(() -> this);
+    }
+
+    // KafkaTemplate closes its producer after every send, the cluster stays up
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void close(Duration timeout) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.coffeeshop.counter.messaging;
+
+import com.coffeeshop.counter.store.OutboxEvent;
+import com.coffeeshop.counter.store.OutboxRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.coffeeshop.common.messaging.Topics.BARISTA_IN;
+import static com.coffeeshop.common.messaging.Topics.WEB_UPDATES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelayTest.class);
+
+    // The outbox table, oldest first
+    List<OutboxEvent> outbox = new ArrayList<>();
+
+    OutboxRepository outboxRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        when(outboxRepository.findNextBatch(any(Pageable.class))).thenAnswer(inv -> {
+            Pageable page = inv.getArgument(0);
+            return new ArrayList<>(outbox.subList(0, Math.min(page.getPageSize(), outbox.size())));
+        });
+        doAnswer(inv -> outbox.removeAll(inv.getArgument(0)))
+                .when(outboxRepository).deleteAllInBatch(any(Iterable.class));
+    }
+
+    private OutboxRelay relay(KafkaTemplate<String, String> kafkaTemplate, int batchSize) {
+        return new OutboxRelay(outboxRepository, kafkaTemplate, TransactionOperations.withoutTransaction(),
+                batchSize, 1000);
+    }
+
+    @Test
+    @DisplayName("drain -> publishes every message in order per order id, and empties the outbox")
+    void drain_publishesInOrderPerKey() {
+        int orders = 1_000;
+        int messagesPerOrder = 10;
+        for (int m = 0; m < messagesPerOrder; m++) {
+            for (int o = 0; o < orders; o++) {
+                outbox.add(new OutboxEvent(m % 2 == 0 ? WEB_UPDATES : BARISTA_IN, "order-" + o, "message-" + m));
+            }
+        }
+
+        InMemoryKafka kafka = new InMemoryKafka();
+        long start = System.nanoTime();
+        relay(kafka.template(), 500).drain();
+        long elapsed = System.nanoTime() - start;
+
+        log.info("Relayed {} messages in {} ms ({} messages/s)", orders * messagesPerOrder,
+                elapsed / 1_000_000, (long) (orders * messagesPerOrder / (elapsed / 1e9)));
+
+        assertThat(outbox).isEmpty();
+        assertThat(kafka.history()).hasSize(orders * messagesPerOrder);
+
+        Map<String, List<String>> byKey = new LinkedHashMap<>();
+        for (ProducerRecord<String, String> record : kafka.history()) {
+            byKey.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(record.value());
+        }
+        assertThat(byKey).hasSize(orders);
+        byKey.values().forEach(values -> assertThat(values)
+                .containsExactly("message-0", "message-1", "message-2", "message-3", "message-4",
+                        "message-5", "message-6", "message-7", "message-8", "message-9"));
+    }
+
+    @Test
+    @DisplayName("drain -> keeps the batch in the outbox when Kafka does not take it")
+    @SuppressWarnings("unchecked")
+    void drain_keepsFailedBatch() {
+        outbox.add(new OutboxEvent(WEB_UPDATES, "order-1", "message-0"));
+        outbox.add(new OutboxEvent(WEB_UPDATES, "order-1", "message-1"));
+
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay(kafkaTemplate, 500).drain();
+
+        assertThat(outbox).hasSize(2);
+        verify(outboxRepository, never()).deleteAllInBatch(any(Iterable.class));
+    }
+}
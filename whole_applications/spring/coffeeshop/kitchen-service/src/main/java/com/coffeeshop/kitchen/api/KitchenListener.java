@@ -1,41 +1,97 @@
 package com.coffeeshop.kitchen.api;
 
-import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.infrastructure.PrepStation;
+import com.coffeeshop.common.utils.JsonCodec;
 import com.coffeeshop.common.valueobjects.OrderIn;
 import com.coffeeshop.common.valueobjects.OrderUp;
 import static com.coffeeshop.common.messaging.Topics.*;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class KitchenListener {
 
     private static final Logger log = LoggerFactory.getLogger(KitchenListener.class);
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    static final String LISTENER_ID = "kitchen-in";
 
-    public KitchenListener(KafkaTemplate<String, String> kafkaTemplate) {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final PrepStation kitchenStation;
+
+    private final KafkaListenerEndpointRegistry registry;
+
+    private final Duration prepTime;
+
+    public KitchenListener(KafkaTemplate<String, byte[]> kafkaTemplate,
+                           PrepStation kitchenStation,
+                           KafkaListenerEndpointRegistry registry,
+                           @Value("${kitchen.prep-time:300ms}") Duration prepTime) {
         this.kafkaTemplate = kafkaTemplate;
-    }
+        this.kitchenStation = kitchenStation;
+        this.registry = registry;
+        this.prepTime = prepTime;
 
-    @KafkaListener(topics = KITCHEN_IN, groupId = "kitchen-service")
-    public void onKitchenIn(ConsumerRecord<String, String> record, @Payload String json) {
-        log.info("KITCHEN_IN received: key={}, value={}", record.key(), json);
+        // Stop polling while the line is full, the tickets are left in Kafka instead
+        kitchenStation.onBackpressure(
+                () -> container().ifPresent(MessageListenerContainer::pause),
+                () -> container().ifPresent(MessageListenerContainer::resume));
+    }
 
+    @KafkaListener(id = LISTENER_ID, topics = KITCHEN_IN, groupId = "kitchen-service")
+    public void onKitchenIn(ConsumerRecord<String, byte[]> record, @Payload byte[] payload, Acknowledgment ack) {
         // Parse ticket
-        OrderIn in = JsonUtil.fromJson(json, OrderIn.class);
+        OrderIn in = JsonCodec.ORDER_IN.decode(payload);
+        log.info("KITCHEN_IN received: key={}, value={}", record.key(), in);
+
+        // Hand the ticket to the kitchen, the listener thread moves on to the next one. The offset
+        // is committed once the OrderUp is sent, so a ticket still being made is read again after a
+        // restart.
+        kitchenStation.submit(in.item, prepTime, () -> orderUp(in).whenComplete((result, e) -> {
+            if (e == null) {
+                ack.acknowledge();
+            } else {
+                log.error("Could not publish ORDERS_UP for {}, it is made again after a restart", in, e);
+            }
+        }));
+    }
 
-        // Simulate kitchen prep
-        try {
-            Thread.sleep(300); // quick demo delay
-        } catch (InterruptedException ignored) {}
+    /**
+     * Finishes the tickets taken before the listener container stops, which happens after this
+     * event, so their offsets are still committed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void drain() throws InterruptedException {
+        container().ifPresent(MessageListenerContainer::pause);
+        if (!kitchenStation.drain(DRAIN_TIMEOUT)) {
+            log.warn("Kitchen not drained, the tickets left are read again after a restart");
+        }
+        kafkaTemplate.flush();
+    }
+
+    private Optional<MessageListenerContainer> container() {
+        return Optional.ofNullable(registry.getListenerContainer(LISTENER_ID));
+    }
 
+    private CompletableFuture<SendResult<String, byte[]>> orderUp(OrderIn in) {
         // Build OrderUp
         OrderUp up = new OrderUp(
                 in.orderId,
@@ -46,10 +102,11 @@ public class KitchenListener {
                 "KitchenBot"
         );
 
-        String payload = JsonUtil.toJson(up);
+        byte[] payload = JsonCodec.ORDER_UP.encode(up);
         String key = in.orderId != null ? in.orderId : null;
 
-        kafkaTemplate.send(ORDERS_UP, key, payload);
-        log.info("Published ORDERS_UP: key={}, payload={}", key, payload);
+        CompletableFuture<SendResult<String, byte[]>> sent = kafkaTemplate.send(ORDERS_UP, key, payload);
+        log.info("Published ORDERS_UP: key={}, payload={}", key, up);
+        return sent;
     }
 }
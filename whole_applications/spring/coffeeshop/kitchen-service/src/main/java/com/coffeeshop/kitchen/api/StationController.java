@@ -0,0 +1,23 @@
+package com.coffeeshop.kitchen.api;
+
+import com.coffeeshop.common.infrastructure.PrepStation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class StationController {
+
+    private final PrepStation kitchenStation;
+
+    public StationController(PrepStation kitchenStation) {
+        this.kitchenStation = kitchenStation;
+    }
+
+    // GET /api/station  (slots in use, queue length and wait/prep latency per item)
+    @GetMapping("/station")
+    public PrepStation.Snapshot station() {
+        return kitchenStation.snapshot();
+    }
+}
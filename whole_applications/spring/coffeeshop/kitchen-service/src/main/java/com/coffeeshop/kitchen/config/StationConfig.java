@@ -0,0 +1,17 @@
+package com.coffeeshop.kitchen.config;
+
+import com.coffeeshop.common.infrastructure.PrepStation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StationConfig {
+
+    // One slot per cook, each making one item at a time
+    @Bean(destroyMethod = "close")
+    public PrepStation kitchenStation(@Value("${kitchen.cooks:4}") int cooks,
+                                      @Value("${kitchen.max-waiting:1000}") int maxWaiting) {
+        return new PrepStation("kitchen", cooks, maxWaiting);
+    }
+}
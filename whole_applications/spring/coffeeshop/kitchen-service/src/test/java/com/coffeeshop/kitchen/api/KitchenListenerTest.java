@@ -1,35 +1,70 @@
 package com.coffeeshop.kitchen.api;
 
-import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.infrastructure.PrepStation;
+import com.coffeeshop.common.utils.JsonCodec;
 import com.coffeeshop.common.valueobjects.OrderUp;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 import static com.coffeeshop.common.messaging.Topics.KITCHEN_IN;
 import static com.coffeeshop.common.messaging.Topics.ORDERS_UP;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class KitchenListenerTest {
 
     @Mock
-    KafkaTemplate<String, String> kafkaTemplate;
+    KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    Acknowledgment ack;
+
+    CompletableFuture<SendResult<String, byte[]>> sent = new CompletableFuture<>();
+
+    PrepStation kitchenStation;
 
-    @InjectMocks
     KitchenListener listener;
 
     @Captor ArgumentCaptor<String> topicCaptor;
     @Captor ArgumentCaptor<String> keyCaptor;
-    @Captor ArgumentCaptor<String> valueCaptor;
+    @Captor ArgumentCaptor<byte[]> valueCaptor;
+
+    @BeforeEach
+    void setUp() {
+        kitchenStation = new PrepStation("kitchen", 1);
+        listener = new KitchenListener(kafkaTemplate, kitchenStation, registry, Duration.ZERO);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenReturn(sent);
+    }
+
+    @AfterEach
+    void tearDown() {
+        kitchenStation.close();
+    }
 
     @Test
     @DisplayName("onKitchenIn -> publishes OrderUp JSON to ORDERS_UP with orderId as key (send(topic,key,value))")
@@ -47,20 +82,21 @@ class KitchenListenerTest {
             }
             """.formatted(orderId, itemId);
 
-        ConsumerRecord<String, String> consumerRecord =
-                new ConsumerRecord<>(KITCHEN_IN, 0, 0L, orderId, jsonIn);
+        byte[] payload = jsonIn.getBytes(StandardCharsets.UTF_8);
+        ConsumerRecord<String, byte[]> consumerRecord =
+                new ConsumerRecord<>(KITCHEN_IN, 0, 0L, orderId, payload);
 
         // Act
-        listener.onKitchenIn(consumerRecord, jsonIn);
+        listener.onKitchenIn(consumerRecord, payload, ack);
 
-        // Assert the 3-arg send(topic, key, value)
-        verify(kafkaTemplate).send(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
+        // Assert the 3-arg send(topic, key, value), made once the station has the item ready
+        verify(kafkaTemplate, timeout(1000)).send(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
 
         assertThat(topicCaptor.getValue()).isEqualTo(ORDERS_UP);
         assertThat(keyCaptor.getValue()).isEqualTo(orderId);
 
         // Validate payload by deserializing to OrderUp
-        OrderUp up = JsonUtil.fromJson(valueCaptor.getValue(), OrderUp.class);
+        OrderUp up = JsonCodec.ORDER_UP.decode(valueCaptor.getValue());
         assertThat(up.orderId).isEqualTo(orderId);
         assertThat(up.itemId).isEqualTo(itemId);
         assertThat(up.item.name()).isEqualTo("CROISSANT");
@@ -68,5 +104,24 @@ class KitchenListenerTest {
         // Expect whatever your KitchenListener sets (e.g., "KitchenBot")
         assertThat(up.madeBy).isNotBlank();
         assertThat(up.timeUp).isNotNull();
+
+        // The offset is committed only once the OrderUp has been sent
+        verify(ack, after(100).never()).acknowledge();
+        sent.complete(null);
+        verify(ack, timeout(1000)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("onKitchenIn -> leaves the offset uncommitted when the OrderUp cannot be sent")
+    void onKitchenIn_failedSendIsNotAcknowledged() {
+        byte[] payload = """
+            {"orderId": "order-789", "item": "MUFFIN", "name": "Sam", "itemId": "x"}
+            """.getBytes(StandardCharsets.UTF_8);
+
+        listener.onKitchenIn(new ConsumerRecord<>(KITCHEN_IN, 0, 1L, "order-789", payload), payload, ack);
+
+        verify(kafkaTemplate, timeout(1000)).send(anyString(), anyString(), any(byte[].class));
+        sent.completeExceptionally(new IllegalStateException("Broker down"));
+        verify(ack, after(100).never()).acknowledge();
     }
 }
@@ -10,7 +10,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
 
 import java.time.Instant;
 
@@ -19,10 +18,10 @@ import java.time.Instant;
 public class DashboardController {
 
     private static final Logger log = LoggerFactory.getLogger(DashboardController.class);
-    private final Sinks.Many<String> sink;
+    private final DashboardHub hub;
 
-    public DashboardController(Sinks.Many<String> webUpdatesSink) {
-        this.sink = webUpdatesSink;
+    public DashboardController(DashboardHub hub) {
+        this.hub = hub;
     }
 
     @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -32,10 +31,8 @@ public class DashboardController {
             ServerSentEvent.builder("dashboard stream connected at " + Instant.now()).event("init").build()
         );
 
-        Flux<ServerSentEvent<String>> updates = sink.asFlux()
-            .map(msg -> ServerSentEvent.builder(msg).event("update").build());
-
-        return init.concatWith(updates);
+        // Recent updates, then live ones, conflated if this client falls behind
+        return init.concatWith(hub.connect());
     }
 }
 
@@ -0,0 +1,173 @@
+package com.coffeeshop.web.api;
+
+import com.coffeeshop.common.utils.JsonCodec;
+import com.coffeeshop.common.valueobjects.OrderUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Sinks;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans WEB_UPDATES out to the dashboard's SSE clients. The hub is the only subscriber of the
+ * webUpdatesSink, and each client gets its own bounded queue, so a slow browser only falls behind
+ * itself. While a client is behind, a newer update for a line item replaces the one still queued
+ * for it (conflation); a client whose queue is full of distinct items loses the oldest one.
+ *
+ * <p>New clients first get the most recent updates, and every client gets a heartbeat comment so
+ * idle connections are not closed by proxies. Connected clients and conflated and dropped updates
+ * are published as dashboard.* metrics.
+ */
+@Component
+public class DashboardHub {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardHub.class);
+
+    private final int clientQueue;
+    private final int replaySize;
+    private final Duration heartbeat;
+
+    // Guarded by itself
+    private final Deque<Update> replay = new ArrayDeque<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    private final Counter published;
+    private final Counter conflated;
+    private final Counter dropped;
+
+    private final Disposable upstream;
+
+    public DashboardHub(Sinks.Many<String> webUpdatesSink,
+                        MeterRegistry meterRegistry,
+                        @Value("${dashboard.client-queue:256}") int clientQueue,
+                        @Value("${dashboard.replay:100}") int replaySize,
+                        @Value("${dashboard.heartbeat:15s}") Duration heartbeat) {
+        this.clientQueue = clientQueue;
+        this.replaySize = replaySize;
+        this.heartbeat = heartbeat;
+
+        meterRegistry.gauge("dashboard.clients", clients, Set::size);
+        this.published = meterRegistry.counter("dashboard.updates.published");
+        this.conflated = meterRegistry.counter("dashboard.updates.conflated");
+        this.dropped = meterRegistry.counter("dashboard.updates.dropped");
+
+        this.upstream = webUpdatesSink.asFlux().subscribe(this::publish);
+    }
+
+    @PreDestroy
+    public void close() {
+        upstream.dispose();
+    }
+
+    /**
+     * A client's stream: the recent updates, then every update as it arrives, with heartbeats.
+     */
+    public Flux<ServerSentEvent<String>> connect() {
+        Flux<ServerSentEvent<String>> updates = Flux.create(sink -> {
+            Client client = new Client(sink);
+            synchronized (replay) {
+                replay.forEach(client::offer);
+                clients.add(client);
+            }
+            sink.onRequest(n -> client.drain());
+            sink.onDispose(() -> {
+                clients.remove(client);
+                log.debug("Dashboard client left, {} connected", clients.size());
+            });
+            log.debug("Dashboard client joined, {} connected", clients.size());
+            client.drain();
+        });
+
+        Flux<ServerSentEvent<String>> heartbeats = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<String>builder().comment("heartbeat").build());
+
+        // prefetch of one, so updates wait in the client's queue where they can be conflated
+        return Flux.merge(1, updates, heartbeats);
+    }
+
+    void publish(String json) {
+        Update update = new Update(keyOf(json), json);
+        published.increment();
+
+        List<Client> current;
+        synchronized (replay) {
+            replay.addLast(update);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            current = new ArrayList<>(clients);
+            current.forEach(client -> client.offer(update));
+        }
+        // sent outside the lock, so a client being written to does not hold up the others
+        current.forEach(Client::drain);
+    }
+
+    // One dashboard row per line item, so that is what a newer update replaces
+    private static String keyOf(String json) {
+        try {
+            OrderUpdate update = JsonCodec.ORDER_UPDATE.decode(json.getBytes(StandardCharsets.UTF_8));
+            return update.orderId + "/" + update.itemId;
+        } catch (UncheckedIOException e) {
+            log.warn("Not an OrderUpdate, sending as is: {}", json);
+            return json;
+        }
+    }
+
+    private record Update(String key, String json) {
+    }
+
+    private final class Client {
+
+        private final FluxSink<ServerSentEvent<String>> sink;
+
+        // Guarded by this; insertion ordered, a replaced update keeps its place in line
+        private final Map<String, String> queued = new LinkedHashMap<>();
+
+        private Client(FluxSink<ServerSentEvent<String>> sink) {
+            this.sink = sink;
+        }
+
+        private synchronized void offer(Update update) {
+            if (queued.containsKey(update.key())) {
+                conflated.increment();
+            } else if (queued.size() >= clientQueue) {
+                Iterator<String> oldest = queued.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.increment();
+            }
+            queued.put(update.key(), update.json());
+        }
+
+        // sink.next may request more and drain again on this thread, so no iterator is kept across it
+        private synchronized void drain() {
+            while (!queued.isEmpty() && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                Iterator<String> oldest = queued.values().iterator();
+                String json = oldest.next();
+                oldest.remove();
+                sink.next(ServerSentEvent.builder(json).event("update").build());
+            }
+        }
+    }
+}
@@ -9,7 +9,7 @@ public class SseBroadcasterConfig {
 
     /**
      * Multicast sink for WEB_UPDATES. Buffer to handle short bursts.
-     * Consumers (SSE clients) subscribe via asFlux().
+     * DashboardHub is its one subscriber and fans the updates out to the SSE clients.
      */
     @Bean
     public Sinks.Many<String> webUpdatesSink() {
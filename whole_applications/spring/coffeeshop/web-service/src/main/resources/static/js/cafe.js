@@ -232,8 +232,9 @@
         source.onmessage = function(e) {
             console.log(e);
             var state = JSON.parse(e.data);
+            // the stream replays recent updates on (re)connect, so a row may already be there
             if(state.status=="IN_PROGRESS")
-                $("tbody").append(line(state));
+                upsert(state);
             if(state.status=="FULFILLED"){40
                 console.log(state);
 //              $("#"+state.itemId).replaceWith(line(state));
@@ -275,10 +276,18 @@
     function display(state){
         let count = (Math.floor(Math.random() * 15) * 1000) + 5000;
         console.log(count);
-        $("#"+state.itemId).replaceWith(line(state));
+        // the IN_PROGRESS update may have been conflated away, leaving no row to replace
+        upsert(state);
         setTimeout(function(){ $("#"+state.itemId).remove(); }, count);
     }
 
+    function upsert(state){
+        if ($("#"+state.itemId).length)
+            $("#"+state.itemId).replaceWith(line(state));
+        else
+            $("tbody").append(line(state));
+    }
+
     function cleanup(itemid){
         console.log("time to cleanup" + itemid);
 //      $("#"+itemid).remove();
@@ -1,11 +1,14 @@
 // web-service/src/test/java/com/coffeeshop/web/api/DashboardControllerSseTest.java
 package com.coffeeshop.web.api;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -14,6 +17,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 @WebFluxTest(controllers = DashboardController.class)
+@Import(DashboardHub.class)
 class DashboardControllerSseTest {
 
     /** 
@@ -29,6 +33,12 @@ class DashboardControllerSseTest {
         public Sinks.Many<String> webUpdatesSink() {
             return Sinks.many().multicast().onBackpressureBuffer(16, false);
         }
+
+        // DashboardHub publishes its metrics here
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
 
   @Autowired
@@ -0,0 +1,105 @@
+package com.coffeeshop.web.api;
+
+import com.coffeeshop.common.domain.Item;
+import com.coffeeshop.common.domain.OrderStatus;
+import com.coffeeshop.common.utils.JsonUtil;
+import com.coffeeshop.common.valueobjects.OrderUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardHubTest {
+
+    private final Sinks.Many<String> webUpdatesSink = Sinks.many().multicast().onBackpressureBuffer(16, false);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DashboardHub hub;
+
+    @AfterEach
+    void tearDown() {
+        hub.close();
+    }
+
+    @Test
+    void live_updates_reach_every_client() {
+        hub = hub(16, 16, Duration.ofHours(1));
+        String update = update("item-1", OrderStatus.IN_PROGRESS);
+
+        StepVerifier.create(hub.connect())
+                .then(() -> assertThat(gauge("dashboard.clients")).isEqualTo(1))
+                .then(() -> webUpdatesSink.tryEmitNext(update))
+                .assertNext(event -> assertThat(event.data()).isEqualTo(update))
+                .thenCancel()
+                .verify();
+
+        assertThat(gauge("dashboard.clients")).isZero();
+        assertThat(counter("dashboard.updates.published")).isEqualTo(1);
+    }
+
+    @Test
+    void late_joiner_gets_recent_updates_with_the_latest_per_item() {
+        hub = hub(16, 16, Duration.ofHours(1));
+        webUpdatesSink.tryEmitNext(update("item-1", OrderStatus.IN_PROGRESS));
+        webUpdatesSink.tryEmitNext(update("item-2", OrderStatus.IN_PROGRESS));
+        webUpdatesSink.tryEmitNext(update("item-1", OrderStatus.FULFILLED));
+
+        StepVerifier.create(hub.connect())
+                .assertNext(event -> assertThat(event.data()).isEqualTo(update("item-1", OrderStatus.FULFILLED)))
+                .assertNext(event -> assertThat(event.data()).isEqualTo(update("item-2", OrderStatus.IN_PROGRESS)))
+                .thenCancel()
+                .verify();
+
+        assertThat(counter("dashboard.updates.conflated")).isEqualTo(1);
+    }
+
+    @Test
+    void replay_and_client_queue_are_bounded() {
+        hub = hub(2, 3, Duration.ofHours(1));
+        for (int i = 1; i <= 4; i++) {
+            webUpdatesSink.tryEmitNext(update("item-" + i, OrderStatus.IN_PROGRESS));
+        }
+
+        // item-1 fell out of the replay, item-2 did not fit in the client's queue
+        StepVerifier.create(hub.connect())
+                .assertNext(event -> assertThat(event.data()).isEqualTo(update("item-3", OrderStatus.IN_PROGRESS)))
+                .assertNext(event -> assertThat(event.data()).isEqualTo(update("item-4", OrderStatus.IN_PROGRESS)))
+                .thenCancel()
+                .verify();
+
+        assertThat(counter("dashboard.updates.dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void idle_clients_get_heartbeats() {
+        hub = hub(16, 16, Duration.ofSeconds(15));
+
+        StepVerifier.withVirtualTime(() -> hub.connect())
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(15))
+                .assertNext(event -> assertThat(event.comment()).isEqualTo("heartbeat"))
+                .thenCancel()
+                .verify();
+    }
+
+    private DashboardHub hub(int clientQueue, int replaySize, Duration heartbeat) {
+        return new DashboardHub(webUpdatesSink, meterRegistry, clientQueue, replaySize, heartbeat);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static String update(String itemId, OrderStatus status) {
+        return JsonUtil.toJson(new OrderUpdate("order-1", itemId, "Alex", Item.LATTE, status, "BaristaBot"));
+    }
+}